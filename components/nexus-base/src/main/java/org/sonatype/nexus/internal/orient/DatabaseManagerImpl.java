@@ -19,15 +19,19 @@ import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
 
+import org.sonatype.goodies.common.Time;
 import org.sonatype.nexus.common.app.ApplicationDirectories;
 import org.sonatype.nexus.common.io.DirectoryHelper;
 import org.sonatype.nexus.jmx.reflect.ManagedAttribute;
 import org.sonatype.nexus.jmx.reflect.ManagedObject;
+import org.sonatype.nexus.jmx.reflect.ManagedOperation;
 import org.sonatype.nexus.orient.DatabaseExternalizer;
 import org.sonatype.nexus.orient.DatabaseExternalizerImpl;
 import org.sonatype.nexus.orient.DatabaseRestorer;
 import org.sonatype.nexus.orient.DatabaseManager;
 import org.sonatype.nexus.orient.DatabaseManagerSupport;
+import org.sonatype.nexus.orient.DatabasePoolImpl;
+import org.sonatype.nexus.orient.QueryProfiler;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.orientechnologies.common.io.OFileUtils;
@@ -54,11 +58,22 @@ public class DatabaseManagerImpl
 
   @Inject
   public DatabaseManagerImpl(final ApplicationDirectories applicationDirectories,
-                             final DatabaseRestorer databaseRestorer) {
+                             final DatabaseRestorer databaseRestorer,
+                             @Named("${nexus.orient.queryProfiler.enabled:-true}") final boolean queryProfilerEnabled,
+                             @Named("${nexus.orient.slowQueryThreshold:-1s}") final Time slowQueryThreshold,
+                             @Named("${nexus.orient.queryProfiler.indexSampleRate:-100}") final int indexSampleRate)
+  {
     checkNotNull(applicationDirectories);
     this.databasesDirectory = applicationDirectories.getWorkDirectory(WORK_PATH);
     log.debug("Databases directory: {}", databasesDirectory);
     this.databaseRestorer = checkNotNull(databaseRestorer);
+
+    QueryProfiler queryProfiler = getQueryProfiler();
+    queryProfiler.setEnabled(queryProfilerEnabled);
+    queryProfiler.setSlowQueryThresholdMillis(checkNotNull(slowQueryThreshold).toMillis());
+    queryProfiler.setIndexSampleRate(indexSampleRate);
+    log.debug("Query profiler enabled: {}, slow query threshold: {}, index sample rate: {}",
+        queryProfilerEnabled, slowQueryThreshold, indexSampleRate);
   }
 
   @VisibleForTesting
@@ -74,6 +89,47 @@ public class DatabaseManagerImpl
     return databasesDirectory;
   }
 
+  @ManagedAttribute
+  public boolean isQueryProfilerEnabled() {
+    return getQueryProfiler().isEnabled();
+  }
+
+  @ManagedAttribute
+  public void setQueryProfilerEnabled(final boolean enabled) {
+    getQueryProfiler().setEnabled(enabled);
+  }
+
+  @ManagedAttribute
+  public long getSlowQueryThresholdMillis() {
+    return getQueryProfiler().getSlowQueryThresholdMillis();
+  }
+
+  @ManagedAttribute
+  public void setSlowQueryThresholdMillis(final long slowQueryThresholdMillis) {
+    getQueryProfiler().setSlowQueryThresholdMillis(slowQueryThresholdMillis);
+  }
+
+  /**
+   * Returns the statement templates with the highest total execution time, per database.
+   */
+  @ManagedOperation
+  public String[] queryReport(final int limit) {
+    return getQueryProfiler().report(limit).toArray(new String[0]);
+  }
+
+  @ManagedOperation
+  public void resetQueryStatistics() {
+    getQueryProfiler().reset();
+  }
+
+  /**
+   * Returns the usage of the shared connection pools: active, idle and waiting connections, timeouts and wait times.
+   */
+  @ManagedAttribute
+  public String[] getPoolStatistics() {
+    return getPools().stream().map(DatabasePoolImpl::toString).toArray(String[]::new);
+  }
+
   /**
    * Returns the directory for the given named database.  Directory may or may not exist.
    */
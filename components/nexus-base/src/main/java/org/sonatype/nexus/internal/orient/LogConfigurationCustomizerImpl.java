@@ -39,8 +39,8 @@ public class LogConfigurationCustomizerImpl
     config.setLoggerLevel("org.sonatype.nexus.internal.orient", DEFAULT);
     config.setLoggerLevel("com.orientechnologies", DEFAULT);
 
-    // leave explain logging off by default regardless of root level because it incurs a penalty
-    // and disables the connection pool; so it's better to explicitly enable it when you need it
+    // leave explain logging off by default regardless of root level because it records and logs the full
+    // metrics of every statement; so it's better to explicitly enable it when you need it
     config.setLoggerLevel("org.sonatype.nexus.orient.explain", OFF);
 
     // OLocalPaginatedStorage produces too much output if the ROOT logger is switched to DEBUG
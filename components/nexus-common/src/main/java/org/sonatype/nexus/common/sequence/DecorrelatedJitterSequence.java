@@ -0,0 +1,93 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2008-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.common.sequence;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Produces a "decorrelated jitter" backoff sequence: each value is picked uniformly between the base and three times
+ * the previous value, capped at a maximum. Unlike an exponential sequence with bounded deviation, callers which start
+ * backing off at the same time quickly spread out, which avoids retrying in lock-step.
+ *
+ * @since 3.3
+ */
+public class DecorrelatedJitterSequence
+    implements NumberSequence
+{
+  private final long base;
+
+  private final long cap;
+
+  private long current;
+
+  public static class Builder
+  {
+    private long base = 1;
+
+    private long cap = Long.MAX_VALUE / 3;
+
+    private Builder() {
+    }
+
+    public Builder base(final long base) {
+      checkArgument(base > 0);
+      this.base = base;
+      return this;
+    }
+
+    public Builder cap(final long cap) {
+      checkArgument(cap > 0);
+      this.cap = cap;
+      return this;
+    }
+
+    public DecorrelatedJitterSequence build() {
+      checkArgument(cap >= base, "Cap must not be less than base");
+      return new DecorrelatedJitterSequence(base, cap);
+    }
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  private DecorrelatedJitterSequence(final long base, final long cap) {
+    this.base = base;
+    this.cap = cap;
+    reset();
+  }
+
+  @Override
+  public long next() {
+    long upper = Math.min(cap, current * 3);
+    current = upper > base ? ThreadLocalRandom.current().nextLong(base, upper + 1) : base;
+    return current;
+  }
+
+  @Override
+  public long prev() {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public long peek() {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public void reset() {
+    current = base;
+  }
+}
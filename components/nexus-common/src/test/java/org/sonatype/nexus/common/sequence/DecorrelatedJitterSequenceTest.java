@@ -0,0 +1,61 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2008-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.common.sequence;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.hamcrest.Matchers;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests {@link DecorrelatedJitterSequence}
+ */
+public class DecorrelatedJitterSequenceTest
+{
+  @Test
+  public void valuesStayWithinBaseAndCap() {
+    for (int i = 0; i < 1000; i++) {
+      DecorrelatedJitterSequence seq = DecorrelatedJitterSequence.builder().base(10).cap(500).build();
+      long previous = 10;
+      for (int j = 0; j < 20; j++) {
+        long n = seq.next();
+        Assert.assertThat(n, Matchers.greaterThanOrEqualTo(10L));
+        Assert.assertThat(n, Matchers.lessThanOrEqualTo(Math.min(500L, previous * 3)));
+        previous = n;
+      }
+    }
+  }
+
+  @Test
+  public void sequencesAreDecorrelated() {
+    Set<Long> values = new HashSet<>();
+    for (int i = 0; i < 100; i++) {
+      DecorrelatedJitterSequence seq = DecorrelatedJitterSequence.builder().base(10).cap(10_000).build();
+      seq.next();
+      seq.next();
+      values.add(seq.next());
+    }
+    Assert.assertThat(values.size(), Matchers.greaterThan(10));
+  }
+
+  @Test
+  public void resetStartsOverAtBase() {
+    DecorrelatedJitterSequence seq = DecorrelatedJitterSequence.builder().base(5).cap(5).build();
+    Assert.assertThat(seq.next(), Matchers.is(5L));
+    Assert.assertThat(seq.next(), Matchers.is(5L));
+    seq.reset();
+    Assert.assertThat(seq.next(), Matchers.is(5L));
+  }
+}
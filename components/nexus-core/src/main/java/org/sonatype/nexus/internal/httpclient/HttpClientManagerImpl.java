@@ -222,7 +222,8 @@ public class HttpClientManagerImpl
     final HttpClientPlan plan = httpClientPlan();
 
     // attach connection manager early, so customizer has chance to replace it if needed
-    plan.getClient().setConnectionManager(sharedConnectionManager);
+    RouteLimitingConnectionManager connectionManager = new RouteLimitingConnectionManager(sharedConnectionManager);
+    plan.getClient().setConnectionManager(connectionManager);
 
     // apply defaults
     defaultsCustomizer.customize(plan);
@@ -247,6 +248,9 @@ public class HttpClientManagerImpl
     builder.setDefaultRequestConfig(plan.getRequest().build());
     builder.setDefaultCredentialsProvider(plan.getCredentials());
 
+    // limit connections to the routes of this client, until the client is closed
+    connectionManager.setMaxPerRoute(plan.getMaximumConnectionsPerRoute());
+
     builder.addInterceptorFirst(
         (HttpRequest request, HttpContext context) ->
         {
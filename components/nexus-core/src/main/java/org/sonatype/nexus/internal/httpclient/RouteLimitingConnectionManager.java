@@ -0,0 +1,126 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2008-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.internal.httpclient;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nullable;
+
+import org.apache.http.HttpClientConnection;
+import org.apache.http.conn.ConnectionRequest;
+import org.apache.http.conn.HttpClientConnectionManager;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.protocol.HttpContext;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Connection manager of a single client, backed by the {@link SharedHttpClientConnectionManager}.
+ *
+ * When the client limits its connections per route, the limit is registered with the shared connection manager for
+ * each route the client requests a connection to. The limits are released when the client is closed, which shuts
+ * down its (non-shared) connection manager.
+ *
+ * @since 3.3
+ */
+class RouteLimitingConnectionManager
+    implements HttpClientConnectionManager
+{
+  private final SharedHttpClientConnectionManager sharedConnectionManager;
+
+  private final Set<HttpRoute> limitedRoutes = ConcurrentHashMap.newKeySet();
+
+  private volatile Integer maxPerRoute;
+
+  private volatile boolean shutdown;
+
+  RouteLimitingConnectionManager(final SharedHttpClientConnectionManager sharedConnectionManager) {
+    this.sharedConnectionManager = checkNotNull(sharedConnectionManager);
+  }
+
+  /**
+   * Sets the maximum connections per route of the client, or {@code null} to use the shared default.
+   */
+  void setMaxPerRoute(@Nullable final Integer maxPerRoute) {
+    this.maxPerRoute = maxPerRoute;
+  }
+
+  @Override
+  public ConnectionRequest requestConnection(final HttpRoute route, final Object state) {
+    Integer max = maxPerRoute;
+    if (max != null && !shutdown && limitedRoutes.add(route)) {
+      sharedConnectionManager.limitRoute(this, route, max);
+      if (shutdown) {
+        // closed while registering the limit
+        sharedConnectionManager.releaseRoutes(this);
+      }
+    }
+    return sharedConnectionManager.requestConnection(route, state);
+  }
+
+  @Override
+  public void releaseConnection(final HttpClientConnection conn,
+                                final Object newState,
+                                final long validDuration,
+                                final TimeUnit timeUnit)
+  {
+    sharedConnectionManager.releaseConnection(conn, newState, validDuration, timeUnit);
+  }
+
+  @Override
+  public void connect(final HttpClientConnection conn,
+                      final HttpRoute route,
+                      final int connectTimeout,
+                      final HttpContext context) throws IOException
+  {
+    sharedConnectionManager.connect(conn, route, connectTimeout, context);
+  }
+
+  @Override
+  public void upgrade(final HttpClientConnection conn,
+                      final HttpRoute route,
+                      final HttpContext context) throws IOException
+  {
+    sharedConnectionManager.upgrade(conn, route, context);
+  }
+
+  @Override
+  public void routeComplete(final HttpClientConnection conn,
+                            final HttpRoute route,
+                            final HttpContext context) throws IOException
+  {
+    sharedConnectionManager.routeComplete(conn, route, context);
+  }
+
+  @Override
+  public void closeIdleConnections(final long idletime, final TimeUnit tunit) {
+    sharedConnectionManager.closeIdleConnections(idletime, tunit);
+  }
+
+  @Override
+  public void closeExpiredConnections() {
+    sharedConnectionManager.closeExpiredConnections();
+  }
+
+  /**
+   * Releases the route limits of the client, the shared connections stay open.
+   */
+  @Override
+  public void shutdown() {
+    shutdown = true;
+    sharedConnectionManager.releaseRoutes(this);
+  }
+}
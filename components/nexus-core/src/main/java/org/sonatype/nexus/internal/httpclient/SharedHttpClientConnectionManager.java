@@ -12,8 +12,21 @@
  */
 package org.sonatype.nexus.internal.httpclient;
 
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
 
 import javax.inject.Inject;
 import javax.inject.Named;
@@ -22,13 +35,21 @@ import javax.inject.Singleton;
 import org.sonatype.goodies.common.Time;
 import org.sonatype.goodies.lifecycle.Lifecycle;
 import org.sonatype.nexus.httpclient.SSLContextSelector;
+import org.sonatype.nexus.jmx.reflect.ManagedAttribute;
+import org.sonatype.nexus.jmx.reflect.ManagedObject;
+import org.sonatype.nexus.jmx.reflect.ManagedOperation;
 
+import org.apache.http.HttpClientConnection;
 import org.apache.http.config.Registry;
 import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.conn.ConnectionRequest;
+import org.apache.http.conn.routing.HttpRoute;
 import org.apache.http.conn.socket.ConnectionSocketFactory;
 import org.apache.http.conn.socket.PlainConnectionSocketFactory;
 import org.apache.http.impl.conn.DefaultHttpClientConnectionOperator;
 import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -36,15 +57,18 @@ import static com.google.common.base.Preconditions.checkNotNull;
 import static org.sonatype.nexus.httpclient.HttpSchemes.HTTP;
 import static org.sonatype.nexus.httpclient.HttpSchemes.HTTPS;
 
-// TODO: Restore JMX support for httpclient bits
-
 /**
  * Shared {@link PoolingHttpClientConnectionManager}.
  *
+ * Clients may limit the connections to the routes they use (see {@link #limitRoute(Object, HttpRoute, int)}), so a busy
+ * remote can not take all pooled connections from the others. Pool usage and the time spent waiting for a pooled
+ * connection are reported per route.
+ *
  * @since 3.0
  */
 @Named("shared")
 @Singleton
+@ManagedObject
 public class SharedHttpClientConnectionManager
     extends PoolingHttpClientConnectionManager
     implements Lifecycle
@@ -55,8 +79,35 @@ public class SharedHttpClientConnectionManager
 
   private final Time connectionPoolEvictingDelayTime;
 
+  /**
+   * Route limits of each owner, keyed by route.
+   */
+  private final Map<HttpRoute, Map<Object, Integer>> routeLimits = new HashMap<>();
+
+  private final ConcurrentMap<HttpRoute, RouteMetrics> routeMetrics = new ConcurrentHashMap<>();
+
   private ConnectionEvictionThread evictionThread;
 
+  /**
+   * Connection request metrics of a route.
+   */
+  private static class RouteMetrics
+  {
+    private final LongAdder requests = new LongAdder();
+
+    private final LongAdder timeouts = new LongAdder();
+
+    private final LongAdder waitTimeNanos = new LongAdder();
+
+    private final LongAccumulator maxWaitTimeNanos = new LongAccumulator(Math::max, 0);
+
+    private void waited(final long nanos) {
+      requests.increment();
+      waitTimeNanos.add(nanos);
+      maxWaitTimeNanos.accumulate(nanos);
+    }
+  }
+
   @Inject
   public SharedHttpClientConnectionManager(
       final List<SSLContextSelector> sslContextSelectors,
@@ -93,6 +144,154 @@ public class SharedHttpClientConnectionManager
     return builder.build();
   }
 
+  /**
+   * Limits the pooled connections to the given route on behalf of the given owner, overriding the default maximum per
+   * route. When several owners limit the same route the largest of their limits applies; the limit is capped by the
+   * maximum pool size.
+   *
+   * @since 3.3
+   */
+  public void limitRoute(final Object owner, final HttpRoute route, final int maxPerRoute) {
+    checkNotNull(owner);
+    checkNotNull(route);
+    synchronized (routeLimits) {
+      Integer previous = routeLimits.computeIfAbsent(route, key -> new HashMap<>()).put(owner, maxPerRoute);
+      if (previous == null || previous != maxPerRoute) {
+        applyRouteLimit(route, routeLimits.get(route));
+      }
+    }
+  }
+
+  /**
+   * Releases all route limits of the given owner; routes no longer limited by any owner revert to the default maximum
+   * per route.
+   *
+   * @since 3.3
+   */
+  public void releaseRoutes(final Object owner) {
+    checkNotNull(owner);
+    synchronized (routeLimits) {
+      Iterator<Entry<HttpRoute, Map<Object, Integer>>> itr = routeLimits.entrySet().iterator();
+      while (itr.hasNext()) {
+        Entry<HttpRoute, Map<Object, Integer>> entry = itr.next();
+        if (entry.getValue().remove(owner) != null) {
+          applyRouteLimit(entry.getKey(), entry.getValue());
+          if (entry.getValue().isEmpty()) {
+            itr.remove();
+          }
+        }
+      }
+    }
+  }
+
+  private void applyRouteLimit(final HttpRoute route, final Map<Object, Integer> limits) {
+    int max = limits.isEmpty()
+        ? getDefaultMaxPerRoute()
+        : Math.max(1, Math.min(Collections.max(limits.values()), getMaxTotal()));
+    if (getMaxPerRoute(route) != max) {
+      setMaxPerRoute(route, max);
+      log.debug("Connection pool size: {} for route: {}", max, route);
+    }
+  }
+
+  @Override
+  public ConnectionRequest requestConnection(final HttpRoute route, final Object state) {
+    ConnectionRequest request = super.requestConnection(route, state);
+    RouteMetrics metrics = routeMetrics.computeIfAbsent(route, key -> new RouteMetrics());
+    return new ConnectionRequest()
+    {
+      @Override
+      public HttpClientConnection get(final long timeout, final TimeUnit tunit)
+          throws InterruptedException, ExecutionException, ConnectionPoolTimeoutException
+      {
+        long start = System.nanoTime();
+        try {
+          return request.get(timeout, tunit);
+        }
+        catch (ConnectionPoolTimeoutException e) {
+          metrics.timeouts.increment();
+          throw e;
+        }
+        finally {
+          metrics.waited(System.nanoTime() - start);
+        }
+      }
+
+      @Override
+      public boolean cancel() {
+        return request.cancel();
+      }
+    };
+  }
+
+  //
+  // Metrics
+  //
+
+  @ManagedAttribute
+  public int getLeased() {
+    return getTotalStats().getLeased();
+  }
+
+  @ManagedAttribute
+  public int getPending() {
+    return getTotalStats().getPending();
+  }
+
+  @ManagedAttribute
+  public Map<String, Long> getLeasedByRoute() {
+    return poolStats(PoolStats::getLeased);
+  }
+
+  @ManagedAttribute
+  public Map<String, Long> getPendingByRoute() {
+    return poolStats(PoolStats::getPending);
+  }
+
+  @ManagedAttribute
+  public Map<String, Long> getMaxByRoute() {
+    return poolStats(PoolStats::getMax);
+  }
+
+  @ManagedAttribute
+  public Map<String, Long> getRequestsByRoute() {
+    return requestStats(metrics -> metrics.requests.sum());
+  }
+
+  @ManagedAttribute
+  public Map<String, Long> getTimeoutsByRoute() {
+    return requestStats(metrics -> metrics.timeouts.sum());
+  }
+
+  @ManagedAttribute
+  public Map<String, Long> getWaitTimeMillisByRoute() {
+    return requestStats(metrics -> TimeUnit.NANOSECONDS.toMillis(metrics.waitTimeNanos.sum()));
+  }
+
+  @ManagedAttribute
+  public Map<String, Long> getMaxWaitTimeMillisByRoute() {
+    return requestStats(metrics -> TimeUnit.NANOSECONDS.toMillis(metrics.maxWaitTimeNanos.get()));
+  }
+
+  @ManagedOperation
+  public void resetStats() {
+    routeMetrics.clear();
+  }
+
+  private Map<String, Long> poolStats(final Function<PoolStats, Integer> stat) {
+    Map<String, Long> result = new TreeMap<>();
+    for (HttpRoute route : getRoutes()) {
+      result.put(route.toString(), (long) stat.apply(getStats(route)));
+    }
+    return result;
+  }
+
+  private Map<String, Long> requestStats(final ToLongFunction<RouteMetrics> stat) {
+    Map<String, Long> result = new TreeMap<>();
+    routeMetrics.forEach((route, metrics) -> result.put(route.toString(), stat.applyAsLong(metrics)));
+    return result;
+  }
+
   /**
    * Do nothing in order to avoid unwanted shutdown of shared connection manager.
    *
@@ -12,9 +12,14 @@
  */
 package org.sonatype.nexus.internal.security.apikey;
 
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 import javax.annotation.Nullable;
 import javax.inject.Inject;
@@ -22,20 +27,29 @@ import javax.inject.Named;
 import javax.inject.Provider;
 import javax.inject.Singleton;
 
+import org.sonatype.goodies.common.Time;
 import org.sonatype.nexus.common.app.ManagedLifecycle;
 import org.sonatype.nexus.common.event.EventAware;
 import org.sonatype.nexus.common.stateguard.Guarded;
 import org.sonatype.nexus.common.stateguard.StateGuardLifecycleSupport;
+import org.sonatype.nexus.jmx.reflect.ManagedAttribute;
+import org.sonatype.nexus.jmx.reflect.ManagedObject;
 import org.sonatype.nexus.orient.DatabaseInstance;
 import org.sonatype.nexus.orient.DatabaseInstanceNames;
 import org.sonatype.nexus.security.UserPrincipalsExpired;
 import org.sonatype.nexus.security.UserPrincipalsHelper;
 import org.sonatype.nexus.security.authc.apikey.ApiKeyFactory;
 import org.sonatype.nexus.security.authc.apikey.ApiKeyStore;
+import org.sonatype.nexus.security.user.UserDeletedEvent;
 import org.sonatype.nexus.security.user.UserNotFoundException;
+import org.sonatype.nexus.security.user.UserUpdatedEvent;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.eventbus.AllowConcurrentEvents;
 import com.google.common.eventbus.Subscribe;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
 import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
 import org.apache.shiro.subject.PrincipalCollection;
 import org.apache.shiro.subject.SimplePrincipalCollection;
@@ -49,11 +63,16 @@ import static org.sonatype.nexus.orient.transaction.OrientTransactional.inTxRetr
 /**
  * OrientDB impl of {@link ApiKeyStore}.
  *
+ * Principals found by {@link #getPrincipals(String, char[])}, which is called for every API key authenticated
+ * request, are cached for a short time keyed by a hash of the domain and API key. Entries are invalidated when keys
+ * are deleted or purged and when their user is updated or deleted.
+ *
  * @since 3.0
  */
 @Named
 @ManagedLifecycle(phase = SCHEMAS)
 @Singleton
+@ManagedObject
 public class ApiKeyStoreImpl
     extends StateGuardLifecycleSupport
     implements ApiKeyStore, EventAware
@@ -68,18 +87,35 @@ public class ApiKeyStoreImpl
 
   private final DefaultApiKeyFactory defaultApiKeyFactory;
 
+  private final Cache<String, PrincipalCollection> principalsCache;
+
+  /**
+   * Incremented on every invalidation of {@link #principalsCache}, to detect invalidations racing with a load.
+   */
+  private final AtomicLong principalsGeneration = new AtomicLong();
+
+  private final LongAdder cacheHits = new LongAdder();
+
+  private final LongAdder cacheMisses = new LongAdder();
+
   @Inject
   public ApiKeyStoreImpl(@Named(DatabaseInstanceNames.SECURITY) final Provider<DatabaseInstance> databaseInstance,
                          final ApiKeyEntityAdapter entityAdapter,
                          final UserPrincipalsHelper principalsHelper,
                          final Map<String, ApiKeyFactory> apiKeyFactories,
-                         final DefaultApiKeyFactory defaultApiKeyFactory)
+                         final DefaultApiKeyFactory defaultApiKeyFactory,
+                         @Named("${nexus.security.apiKeyCache.ttl:-5m}") final Time cacheTtl,
+                         @Named("${nexus.security.apiKeyCache.maxSize:-10000}") final int cacheMaxSize)
   {
     this.databaseInstance = checkNotNull(databaseInstance);
     this.entityAdapter = checkNotNull(entityAdapter);
     this.principalsHelper = checkNotNull(principalsHelper);
     this.apiKeyFactories = checkNotNull(apiKeyFactories);
     this.defaultApiKeyFactory = checkNotNull(defaultApiKeyFactory);
+    this.principalsCache = CacheBuilder.newBuilder()
+        .expireAfterWrite(cacheTtl.toMillis(), TimeUnit.MILLISECONDS)
+        .maximumSize(cacheMaxSize)
+        .build();
   }
 
   @Override
@@ -89,6 +125,11 @@ public class ApiKeyStoreImpl
     }
   }
 
+  @Override
+  protected void doStop() throws Exception {
+    invalidateAll();
+  }
+
   @Override
   @Guarded(by = STARTED)
   public char[] createApiKey(final String domain, final PrincipalCollection principals) {
@@ -130,10 +171,27 @@ public class ApiKeyStoreImpl
   @Override
   @Guarded(by = STARTED)
   public PrincipalCollection getPrincipals(final String domain, final char[] apiKey) {
-    return inTx(databaseInstance).call(db -> {
-      final ApiKey entity = entityAdapter.findByApiKey(db, domain, checkNotNull(apiKey));
+    final String cacheKey = cacheKey(domain, checkNotNull(apiKey));
+    PrincipalCollection principals = principalsCache.getIfPresent(cacheKey);
+    if (principals != null) {
+      cacheHits.increment();
+      return principals;
+    }
+    cacheMisses.increment();
+
+    long generation = principalsGeneration.get();
+    principals = inTx(databaseInstance).call(db -> {
+      final ApiKey entity = entityAdapter.findByApiKey(db, domain, apiKey);
       return entity == null ? null : entity.getPrincipals();
     });
+    if (principals != null) {
+      principalsCache.put(cacheKey, principals);
+      if (principalsGeneration.get() != generation) {
+        // the key may have been deleted since it was read, and the invalidation may have preceded the put
+        principalsCache.invalidate(cacheKey);
+      }
+    }
+    return principals;
   }
 
   @Override
@@ -146,6 +204,7 @@ public class ApiKeyStoreImpl
         }
       }
     });
+    invalidate(principals.getPrimaryPrincipal().toString());
   }
 
   @Override
@@ -156,12 +215,14 @@ public class ApiKeyStoreImpl
         entityAdapter.deleteEntity(db, entity);
       }
     });
+    invalidate(principals.getPrimaryPrincipal().toString());
   }
 
   @Override
   @Guarded(by = STARTED)
   public void deleteApiKeys() {
     inTxRetry(databaseInstance).run(entityAdapter::deleteAll);
+    invalidateAll();
   }
 
   @Override
@@ -182,6 +243,7 @@ public class ApiKeyStoreImpl
         entityAdapter.deleteEntity(db, entity);
       }
     });
+    invalidateAll();
   }
 
   @Subscribe
@@ -196,6 +258,60 @@ public class ApiKeyStoreImpl
     }
   }
 
+  @Subscribe
+  @AllowConcurrentEvents
+  public void on(final UserUpdatedEvent event) {
+    invalidate(event.getUser().getUserId());
+  }
+
+  @Subscribe
+  @AllowConcurrentEvents
+  public void on(final UserDeletedEvent event) {
+    invalidate(event.getUser().getUserId());
+  }
+
+  /**
+   * Evicts all cached principals of the given user.
+   */
+  private void invalidate(final String userId) {
+    principalsGeneration.incrementAndGet();
+    principalsCache.asMap().values().removeIf(principals -> userId.equals(principals.getPrimaryPrincipal().toString()));
+  }
+
+  /**
+   * Evicts all cached principals.
+   */
+  private void invalidateAll() {
+    principalsGeneration.incrementAndGet();
+    principalsCache.invalidateAll();
+  }
+
+  /**
+   * Hash of the domain and API key, so API keys are not kept in the cache as they are.
+   */
+  private static String cacheKey(final String domain, final char[] apiKey) {
+    Hasher hasher = Hashing.sha256().newHasher();
+    hasher.putString(checkNotNull(domain), StandardCharsets.UTF_8);
+    hasher.putByte((byte) 0);
+    hasher.putString(CharBuffer.wrap(apiKey), StandardCharsets.UTF_8);
+    return hasher.hash().toString();
+  }
+
+  @ManagedAttribute
+  public long getPrincipalsCacheHitCount() {
+    return cacheHits.sum();
+  }
+
+  @ManagedAttribute
+  public long getPrincipalsCacheMissCount() {
+    return cacheMisses.sum();
+  }
+
+  @ManagedAttribute
+  public long getPrincipalsCacheSize() {
+    return principalsCache.size();
+  }
+
   private Iterable<ApiKey> findByPrimaryPrincipal(final ODatabaseDocumentTx db,
                                                   final PrincipalCollection principals)
   {
@@ -0,0 +1,146 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2008-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.internal.httpclient;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.sonatype.goodies.common.Time;
+import org.sonatype.goodies.testsupport.TestSupport;
+
+import org.apache.http.HttpClientConnection;
+import org.apache.http.HttpHost;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.conn.routing.HttpRoute;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasEntry;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for {@link SharedHttpClientConnectionManager}.
+ */
+public class SharedHttpClientConnectionManagerTest
+    extends TestSupport
+{
+  private final HttpRoute route = new HttpRoute(new HttpHost("example.com", 80));
+
+  private final HttpRoute otherRoute = new HttpRoute(new HttpHost("example.org", 80));
+
+  private final Object owner = new Object();
+
+  private final Object otherOwner = new Object();
+
+  private SharedHttpClientConnectionManager underTest;
+
+  @Before
+  public void setUp() throws Exception {
+    underTest = new SharedHttpClientConnectionManager(Collections.emptyList(), 20, 50,
+        Time.seconds(30), Time.seconds(5), Time.seconds(2));
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    underTest.close();
+  }
+
+  @Test
+  public void routeLimitOverridesDefault() {
+    underTest.limitRoute(owner, route, 2);
+
+    assertThat(underTest.getMaxPerRoute(route), is(2));
+    assertThat(underTest.getMaxPerRoute(otherRoute), is(20));
+  }
+
+  @Test
+  public void routeLimitIsCappedByMaxSize() {
+    underTest.limitRoute(owner, route, 100);
+
+    assertThat(underTest.getMaxPerRoute(route), is(50));
+  }
+
+  @Test
+  public void largestRouteLimitOfOwnersApplies() {
+    underTest.limitRoute(owner, route, 2);
+    underTest.limitRoute(otherOwner, route, 5);
+    assertThat(underTest.getMaxPerRoute(route), is(5));
+
+    underTest.limitRoute(otherOwner, route, 1);
+    assertThat(underTest.getMaxPerRoute(route), is(2));
+
+    underTest.releaseRoutes(owner);
+    assertThat(underTest.getMaxPerRoute(route), is(1));
+  }
+
+  @Test
+  public void releasedRouteLimitRevertsToDefault() {
+    underTest.limitRoute(owner, route, 2);
+    underTest.limitRoute(owner, otherRoute, 3);
+
+    underTest.releaseRoutes(owner);
+
+    assertThat(underTest.getMaxPerRoute(route), is(20));
+    assertThat(underTest.getMaxPerRoute(otherRoute), is(20));
+  }
+
+  @Test
+  public void clientRouteLimitsAreReleasedOnShutdown() throws Exception {
+    RouteLimitingConnectionManager client = new RouteLimitingConnectionManager(underTest);
+    client.setMaxPerRoute(3);
+
+    HttpClientConnection connection = client.requestConnection(route, null).get(1, TimeUnit.SECONDS);
+    client.releaseConnection(connection, null, 0, TimeUnit.MILLISECONDS);
+    assertThat(underTest.getMaxPerRoute(route), is(3));
+
+    client.shutdown();
+    assertThat(underTest.getMaxPerRoute(route), is(20));
+
+    // a client without a limit leaves the default in place
+    RouteLimitingConnectionManager unlimited = new RouteLimitingConnectionManager(underTest);
+    connection = unlimited.requestConnection(otherRoute, null).get(1, TimeUnit.SECONDS);
+    unlimited.releaseConnection(connection, null, 0, TimeUnit.MILLISECONDS);
+    assertThat(underTest.getMaxPerRoute(otherRoute), is(20));
+  }
+
+  @Test
+  public void connectionRequestsAreMeasuredPerRoute() throws Exception {
+    underTest.limitRoute(owner, route, 1);
+
+    HttpClientConnection connection = underTest.requestConnection(route, null).get(1, TimeUnit.SECONDS);
+
+    assertThat(underTest.getLeasedByRoute(), hasEntry(route.toString(), 1L));
+    assertThat(underTest.getMaxByRoute(), hasEntry(route.toString(), 1L));
+
+    // pool for route is saturated
+    try {
+      underTest.requestConnection(route, null).get(10, TimeUnit.MILLISECONDS);
+      fail("Expected ConnectionPoolTimeoutException");
+    }
+    catch (ConnectionPoolTimeoutException e) {
+      // expected
+    }
+
+    assertThat(underTest.getRequestsByRoute(), hasEntry(route.toString(), 2L));
+    assertThat(underTest.getTimeoutsByRoute(), hasEntry(route.toString(), 1L));
+
+    underTest.releaseConnection(connection, null, 0, TimeUnit.MILLISECONDS);
+    assertThat(underTest.getLeasedByRoute(), hasEntry(route.toString(), 0L));
+
+    underTest.resetStats();
+    assertThat(underTest.getRequestsByRoute().isEmpty(), is(true));
+  }
+}
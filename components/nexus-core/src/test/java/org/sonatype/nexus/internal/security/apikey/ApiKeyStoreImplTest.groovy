@@ -12,13 +12,17 @@
  */
 package org.sonatype.nexus.internal.security.apikey
 
+import org.sonatype.goodies.common.Time
 import org.sonatype.goodies.testsupport.TestSupport
 import org.sonatype.nexus.crypto.internal.CryptoHelperImpl
 import org.sonatype.nexus.crypto.internal.RandomBytesGeneratorImpl
 import org.sonatype.nexus.orient.testsupport.DatabaseInstanceRule
 import org.sonatype.nexus.security.UserPrincipalsHelper
+import org.sonatype.nexus.security.user.User
+import org.sonatype.nexus.security.user.UserUpdatedEvent
 
 import com.google.common.collect.Maps
+import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx
 import org.apache.shiro.subject.PrincipalCollection
 import org.apache.shiro.subject.SimplePrincipalCollection
 import org.hamcrest.MatcherAssert
@@ -29,6 +33,7 @@ import org.junit.Test
 
 import static MatcherAssert.assertThat
 import static org.hamcrest.Matchers.equalTo
+import static org.hamcrest.Matchers.is
 import static org.hamcrest.Matchers.nullValue
 import static org.mockito.Mockito.mock
 
@@ -50,7 +55,9 @@ class ApiKeyStoreImplTest
         new ApiKeyEntityAdapter(),
         mock(UserPrincipalsHelper.class),
         Maps.newHashMap(),
-        new DefaultApiKeyFactory(new RandomBytesGeneratorImpl(new CryptoHelperImpl()))
+        new DefaultApiKeyFactory(new RandomBytesGeneratorImpl(new CryptoHelperImpl())),
+        Time.minutes(5),
+        100
     )
     underTest.start()
   }
@@ -123,6 +130,71 @@ class ApiKeyStoreImplTest
     assertThat(principals.primaryPrincipal, equalTo("alpha"))
   }
 
+  @Test
+  void 'Principals found by api key are cached'() {
+    char[] key = underTest.createApiKey('foo', makePrincipals("alpha"))
+
+    assertThat(underTest.getPrincipals('foo', key).primaryPrincipal, equalTo("alpha"))
+    assertThat(underTest.getPrincipals('foo', key).primaryPrincipal, equalTo("alpha"))
+    assertThat(underTest.principalsCacheMissCount, is(1L))
+    assertThat(underTest.principalsCacheHitCount, is(1L))
+    assertThat(underTest.getPrincipals('bar', key), nullValue())
+  }
+
+  @Test
+  void 'Cached principals are invalidated on delete'() {
+    PrincipalCollection p = makePrincipals("alpha")
+    char[] key = underTest.createApiKey('foo', p)
+    underTest.getPrincipals('foo', key)
+
+    underTest.deleteApiKey('foo', p)
+    assertThat(underTest.principalsCacheSize, is(0L))
+    assertThat(underTest.getPrincipals('foo', key), nullValue())
+  }
+
+  @Test
+  void 'Cached principals are invalidated on user change'() {
+    char[] key = underTest.createApiKey('foo', makePrincipals("alpha"))
+    underTest.getPrincipals('foo', key)
+    underTest.createApiKey('foo', makePrincipals("beta"))
+    underTest.getPrincipals('foo', underTest.getApiKey('foo', makePrincipals("beta")))
+
+    underTest.on(new UserUpdatedEvent(new User(userId: 'alpha')))
+    assertThat(underTest.principalsCacheSize, is(1L))
+  }
+
+  @Test
+  void 'Principals read before an invalidation are not cached'() {
+    ApiKeyStoreImpl racing
+    ApiKeyEntityAdapter entityAdapter = new ApiKeyEntityAdapter() {
+      @Override
+      ApiKey findByApiKey(final ODatabaseDocumentTx db, final String domain, final char[] apiKey) {
+        ApiKey entity = super.findByApiKey(db, domain, apiKey)
+        // user changes while its principals are being looked up
+        racing.on(new UserUpdatedEvent(new User(userId: 'alpha')))
+        return entity
+      }
+    }
+    racing = new ApiKeyStoreImpl(
+        database.instanceProvider,
+        entityAdapter,
+        mock(UserPrincipalsHelper.class),
+        Maps.newHashMap(),
+        new DefaultApiKeyFactory(new RandomBytesGeneratorImpl(new CryptoHelperImpl())),
+        Time.minutes(5),
+        100
+    )
+    racing.start()
+    try {
+      char[] key = racing.createApiKey('foo', makePrincipals("alpha"))
+      assertThat(racing.getPrincipals('foo', key).primaryPrincipal, equalTo("alpha"))
+      assertThat(racing.principalsCacheSize, is(0L))
+    }
+    finally {
+      racing.stop()
+    }
+  }
+
   @Test
   void 'Can delete all API Keys'() {
     PrincipalCollection principalA = makePrincipals("name-a")
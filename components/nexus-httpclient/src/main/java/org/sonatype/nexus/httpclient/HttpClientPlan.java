@@ -58,6 +58,9 @@ public class HttpClientPlan
   @Nullable
   private String userAgentSuffix;
 
+  @Nullable
+  private Integer maximumConnectionsPerRoute;
+
   public HttpClientPlan() {
     this.client = HttpClientBuilder.create();
     this.connection = ConnectionConfig.copy(ConnectionConfig.DEFAULT);
@@ -151,6 +154,23 @@ public class HttpClientPlan
     }
   }
 
+  /**
+   * Maximum number of pooled connections to each route used by the client, or {@code null} for the pool default.
+   *
+   * @since 3.3
+   */
+  @Nullable
+  public Integer getMaximumConnectionsPerRoute() {
+    return maximumConnectionsPerRoute;
+  }
+
+  /**
+   * @since 3.3
+   */
+  public void setMaximumConnectionsPerRoute(@Nullable final Integer maximumConnectionsPerRoute) {
+    this.maximumConnectionsPerRoute = maximumConnectionsPerRoute;
+  }
+
   //
   // Customizer
   //
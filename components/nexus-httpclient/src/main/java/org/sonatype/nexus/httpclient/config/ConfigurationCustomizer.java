@@ -153,6 +153,10 @@ public class ConfigurationCustomizer
     if (Boolean.TRUE.equals(connection.getEnableCookies())) {
       plan.getRequest().setCookieSpec(CookieSpecs.DEFAULT);
     }
+
+    if (connection.getMaximumConnectionsPerRoute() != null) {
+      plan.setMaximumConnectionsPerRoute(connection.getMaximumConnectionsPerRoute());
+    }
   }
 
   /**
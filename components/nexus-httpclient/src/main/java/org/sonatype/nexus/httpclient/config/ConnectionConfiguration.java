@@ -42,6 +42,9 @@ public class ConnectionConfiguration
   @Nullable
   private Boolean enableCookies;
 
+  @Nullable
+  private Integer maximumConnectionsPerRoute;
+
   @Nullable
   public Time getTimeout() {
     return timeout;
@@ -108,6 +111,23 @@ public class ConnectionConfiguration
     this.enableCookies = enableCookies;
   }
 
+  /**
+   * Maximum number of pooled connections to each remote host, overriding the shared pool default.
+   *
+   * @since 3.3
+   */
+  @Nullable
+  public Integer getMaximumConnectionsPerRoute() {
+    return maximumConnectionsPerRoute;
+  }
+
+  /**
+   * @since 3.3
+   */
+  public void setMaximumConnectionsPerRoute(@Nullable final Integer maximumConnectionsPerRoute) {
+    this.maximumConnectionsPerRoute = maximumConnectionsPerRoute;
+  }
+
   public ConnectionConfiguration copy() {
     try {
       return (ConnectionConfiguration) clone();
@@ -126,6 +146,7 @@ public class ConnectionConfiguration
         ", useTrustStore=" + useTrustStore +
         ", enableCircularRedirects=" + enableCircularRedirects +
         ", enableCookies=" + enableCookies +
+        ", maximumConnectionsPerRoute=" + maximumConnectionsPerRoute +
         '}';
   }
 }
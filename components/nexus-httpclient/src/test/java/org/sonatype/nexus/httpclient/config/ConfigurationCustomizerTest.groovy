@@ -74,6 +74,14 @@ class ConfigurationCustomizerTest
     assertThat(plan.request.cookieSpec, nullValue())
   }
 
+  @Test
+  void 'plan is updated with maximum connections per route from configuration'() {
+    when(httpClientConfiguration.getConnection()).thenReturn(new ConnectionConfiguration(maximumConnectionsPerRoute: 5))
+    HttpClientPlan plan = new HttpClientPlan()
+    configurationCustomizer.customize(plan)
+    assertThat(plan.maximumConnectionsPerRoute, equalTo(5))
+  }
+
   @Test
   void 'sanity test'() {
     NexusHttpRoutePlanner planner = create(null)
@@ -13,17 +13,18 @@
 package org.sonatype.nexus.orient;
 
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 
 import org.sonatype.goodies.lifecycle.LifecycleSupport;
 import org.sonatype.goodies.lifecycle.Lifecycles;
+import org.sonatype.nexus.common.property.SystemPropertiesHelper;
 
 import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Maps;
 import com.orientechnologies.orient.core.db.OPartitionedDatabasePool;
 import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
@@ -41,22 +42,36 @@ public abstract class DatabaseManagerSupport
 
   public static final String SYSTEM_PASSWORD = "admin";
 
-  private static final String EXPLAIN_PREFIX = "org.sonatype.nexus.orient.explain.";
+  private static final String POOL_PREFIX = "nexus.orient.pool.";
 
   private final Map<String,DatabasePoolImpl> pools = Maps.newHashMap();
 
   private final Map<String,DatabaseInstanceImpl> instances = Maps.newHashMap();
 
+  private final QueryProfiler queryProfiler = new QueryProfiler();
+
+  /**
+   * Returns the profiler of the statements executed against the databases of this manager.
+   *
+   * @since 3.3
+   */
+  public QueryProfiler getQueryProfiler() {
+    return queryProfiler;
+  }
+
   @Override
   protected void doStart() throws Exception {
     checkState(pools.isEmpty());
     checkState(instances.isEmpty());
+    ProfilingCommandExecutor.install();
   }
 
   @Override
   protected void doStop() throws Exception {
     stopAllPools();
     stopAllInstances();
+    ProfilingCommandExecutor.unregister(queryProfiler);
+    ProfilingCommandExecutor.uninstall();
   }
 
   /**
@@ -136,6 +151,7 @@ public abstract class DatabaseManagerSupport
     ensureStarted();
 
     String uri = connectionUri(name);
+    ProfilingCommandExecutor.register(name, queryProfiler);
     ODatabaseDocumentTx db = new ODatabaseDocumentTx(uri);
 
     if (db.exists()) {
@@ -208,20 +224,47 @@ public abstract class DatabaseManagerSupport
     return createPool(name);
   }
 
-  private DatabasePoolImpl createPool(final String name) {
-    // TODO: refine more control over how pool settings are configured per-database or globally
+  /**
+   * Returns the shared pools created so far.
+   *
+   * @since 3.3
+   */
+  public List<DatabasePoolImpl> getPools() {
+    synchronized (pools) {
+      return ImmutableList.copyOf(pools.values());
+    }
+  }
 
+  private DatabasePoolImpl createPool(final String name) {
     String uri = connectionUri(name);
-    OPartitionedDatabasePool underlying = new OPartitionedDatabasePool(uri, SYSTEM_USER, SYSTEM_PASSWORD, //
-        25, // max connections per partition
-        25); // max connections in the pool
+    ProfilingCommandExecutor.register(name, queryProfiler);
+
+    int maxConnections = (int) poolSetting(name, "maxConnections", 25);
+    int maxConnectionsPerPartition = (int) poolSetting(name, "maxConnectionsPerPartition", maxConnections);
+    long acquireTimeoutMillis = poolSetting(name, "acquireTimeout", 30_000);
+    long leakThresholdMillis = poolSetting(name, "leakThreshold", 0);
+    log.debug("Pool {} max connections: {}, per partition: {}, acquire timeout: {} ms, leak threshold: {} ms",
+        name, maxConnections, maxConnectionsPerPartition, acquireTimeoutMillis, leakThresholdMillis);
+
+    OPartitionedDatabasePool underlying = new OPartitionedDatabasePool(uri, SYSTEM_USER, SYSTEM_PASSWORD,
+        maxConnectionsPerPartition, maxConnections);
 
     // TODO: Do not allow shared pool() to be closed by users, only by ourselves
-    DatabasePoolImpl pool = new DatabasePoolImpl(underlying, name);
+    DatabasePoolImpl pool = new DatabasePoolImpl(underlying, name, maxConnections, acquireTimeoutMillis,
+        leakThresholdMillis);
     Lifecycles.start(pool);
     return pool;
   }
 
+  /**
+   * Returns the pool setting of given database, {@code nexus.orient.<database>.pool.<key>}, falling back to the
+   * setting for all databases, {@code nexus.orient.pool.<key>}, and then to the given default.
+   */
+  private static long poolSetting(final String database, final String key, final long defaultValue) {
+    long value = SystemPropertiesHelper.getLong(POOL_PREFIX + key, defaultValue);
+    return SystemPropertiesHelper.getLong("nexus.orient." + database + ".pool." + key, value);
+  }
+
   @Override
   public DatabaseInstance instance(final String name) {
     checkNotNull(name);
@@ -239,23 +282,7 @@ public abstract class DatabaseManagerSupport
   }
 
   private DatabaseInstanceImpl createInstance(final String name) {
-    DatabaseInstanceImpl instance;
-    final Logger explainLogger = LoggerFactory.getLogger(EXPLAIN_PREFIX + name);
-    if (explainLogger.isDebugEnabled()) {
-      instance = new DatabaseInstanceImpl(this, name)
-      {
-        @Override
-        public ODatabaseDocumentTx acquire() {
-          String uri = connectionUri(name);
-          ODatabaseDocumentTx db = new ExplainODatabaseDocumentTx(uri, explainLogger);
-          db.open(SYSTEM_USER, SYSTEM_PASSWORD);
-          return db;
-        }
-      };
-    }
-    else {
-      instance = new DatabaseInstanceImpl(this, name);
-    }
+    DatabaseInstanceImpl instance = new DatabaseInstanceImpl(this, name);
     Lifecycles.start(instance);
     return instance;
   }
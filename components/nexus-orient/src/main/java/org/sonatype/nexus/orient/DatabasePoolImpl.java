@@ -12,17 +12,41 @@
  */
 package org.sonatype.nexus.orient;
 
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.Nullable;
+
 import org.sonatype.goodies.lifecycle.LifecycleSupport;
 import org.sonatype.goodies.lifecycle.Lifecycles;
 
+import com.orientechnologies.common.concur.OTimeoutException;
+import com.orientechnologies.orient.core.command.OCommandExecutor;
+import com.orientechnologies.orient.core.command.OCommandRequestText;
+import com.orientechnologies.orient.core.db.ODatabase;
+import com.orientechnologies.orient.core.db.ODatabaseListener;
 import com.orientechnologies.orient.core.db.OPartitionedDatabasePool;
 import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 
 /**
  * Default {@link DatabasePool} implementation.
  *
+ * Connections are handed out by the underlying {@link OPartitionedDatabasePool}, but acquisition is gated by a fair
+ * semaphore sized to the pool, so callers waiting for a connection fail with an {@link OTimeoutException} after the
+ * acquire timeout instead of blocking indefinitely. Nested acquisitions by a thread already holding a connection share
+ * that connection (as the underlying pool does) and do not count against the pool. The permit of a connection is held
+ * by its lease and returned when the connection is closed, whichever thread closes it. Wait times, timeouts and the number
+ * of active, idle and waiting connections are tracked; when a leak threshold is set, connections held longer than the
+ * threshold are logged together with the stack of the caller which acquired them.
+ *
  * @since 3.0
  */
 public class DatabasePoolImpl
@@ -33,9 +57,57 @@ public class DatabasePoolImpl
 
   private final OPartitionedDatabasePool delegate;
 
-  public DatabasePoolImpl(final OPartitionedDatabasePool pool, final String name) {
+  private final int maxConnections;
+
+  private final long acquireTimeoutMillis;
+
+  private final long leakThresholdMillis;
+
+  private final Semaphore permits;
+
+  /**
+   * Lease of the connection acquired by the current thread, used to detect nested acquisitions.
+   */
+  private final ThreadLocal<Lease> currentLease = new ThreadLocal<>();
+
+  /**
+   * Leases of the connections handed out, keyed by connection (which do not override {@code equals}).
+   */
+  private final ConcurrentMap<ODatabase<?>, Lease> leases = new ConcurrentHashMap<>();
+
+  private final ODatabaseListener releaseListener = new ReleaseListener();
+
+  private final LongAdder acquireCount = new LongAdder();
+
+  private final LongAdder timeoutCount = new LongAdder();
+
+  private final LongAdder totalWaitNanos = new LongAdder();
+
+  private final AtomicLong maxWaitNanos = new AtomicLong();
+
+  private final AtomicLong nextLeakCheck = new AtomicLong();
+
+  /**
+   * @param pool                 underlying pool, its maximum size should match {@code maxConnections}
+   * @param maxConnections       maximum number of connections handed out at the same time
+   * @param acquireTimeoutMillis how long to wait for a connection before failing
+   * @param leakThresholdMillis  hold time after which a connection is reported as leaked, zero or less to disable
+   *
+   * @since 3.3
+   */
+  public DatabasePoolImpl(final OPartitionedDatabasePool pool,
+                          final String name,
+                          final int maxConnections,
+                          final long acquireTimeoutMillis,
+                          final long leakThresholdMillis)
+  {
+    checkArgument(maxConnections > 0, "Max connections must be positive");
     this.delegate = checkNotNull(pool);
     this.name = checkNotNull(name);
+    this.maxConnections = maxConnections;
+    this.acquireTimeoutMillis = acquireTimeoutMillis;
+    this.leakThresholdMillis = leakThresholdMillis;
+    this.permits = new Semaphore(maxConnections, true);
   }
 
   @Override
@@ -58,7 +130,93 @@ public class DatabasePoolImpl
   public ODatabaseDocumentTx acquire() {
     ensureStarted();
 
-    return delegate.acquire();
+    Lease current = currentLease.get();
+    if (current != null) {
+      if (!current.isReleased()) {
+        // the underlying pool hands out the connection this thread already holds
+        return delegate.acquire();
+      }
+      // connection was closed by another thread
+      currentLease.remove();
+    }
+
+    maybeReportLeaks();
+
+    long start = System.nanoTime();
+    boolean acquired;
+    try {
+      acquired = permits.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS);
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new OTimeoutException("Interrupted while waiting for a connection of pool " + name);
+    }
+    long waited = System.nanoTime() - start;
+    totalWaitNanos.add(waited);
+    maxWaitNanos.accumulateAndGet(waited, Math::max);
+
+    if (!acquired) {
+      timeoutCount.increment();
+      log.warn("Timed out after {} ms waiting for a connection of pool {}: {}", acquireTimeoutMillis, name, this);
+      throw new OTimeoutException("Timed out waiting for a connection of pool " + name);
+    }
+
+    try {
+      ODatabaseDocumentTx db = delegate.acquire();
+      Lease lease = new Lease(leakThresholdMillis > 0 ? new Throwable("Connection acquired here") : null);
+      currentLease.set(lease);
+      leases.put(db, lease);
+      registerReleaseListener(db);
+      acquireCount.increment();
+      return db;
+    }
+    catch (RuntimeException | Error e) {
+      permits.release();
+      throw e;
+    }
+  }
+
+  private void registerReleaseListener(final ODatabaseDocumentTx db) {
+    // pooled connections are reused, only register once per connection
+    for (ODatabaseListener listener : db.getListeners()) {
+      if (listener == releaseListener) {
+        return;
+      }
+    }
+    db.registerListener(releaseListener);
+  }
+
+  /**
+   * Invoked when a connection is returned to the underlying pool, i.e. the outermost acquisition is closed, on the
+   * thread closing it.
+   */
+  private void released(final ODatabase<?> db) {
+    Lease lease = leases.remove(db);
+    if (lease != null && lease.release()) {
+      permits.release();
+    }
+    if (currentLease.get() == lease) {
+      currentLease.remove();
+    }
+  }
+
+  private void maybeReportLeaks() {
+    if (leakThresholdMillis <= 0) {
+      return;
+    }
+    long now = System.currentTimeMillis();
+    long next = nextLeakCheck.get();
+    if (now < next || !nextLeakCheck.compareAndSet(next, now + leakThresholdMillis / 2)) {
+      return;
+    }
+    for (Lease lease : leases.values()) {
+      long held = now - lease.acquired;
+      if (held > leakThresholdMillis && !lease.reported) {
+        lease.reported = true;
+        log.warn("Connection of pool {} held by thread {} for {} ms, possible leak", name, lease.thread, held,
+            lease.caller);
+      }
+    }
   }
 
   @Override
@@ -66,10 +224,152 @@ public class DatabasePoolImpl
     Lifecycles.stop(this);
   }
 
+  public int getMaxConnections() {
+    return maxConnections;
+  }
+
+  public int getActiveConnections() {
+    return maxConnections - permits.availablePermits();
+  }
+
+  public int getIdleConnections() {
+    return delegate.getAvailableConnections();
+  }
+
+  public int getWaitingThreads() {
+    return permits.getQueueLength();
+  }
+
+  public long getAcquireCount() {
+    return acquireCount.sum();
+  }
+
+  public long getTimeoutCount() {
+    return timeoutCount.sum();
+  }
+
+  public double getMeanWaitMillis() {
+    long count = acquireCount.sum() + timeoutCount.sum();
+    return count == 0 ? 0 : totalWaitNanos.sum() / 1_000_000d / count;
+  }
+
+  public long getMaxWaitMillis() {
+    return TimeUnit.NANOSECONDS.toMillis(maxWaitNanos.get());
+  }
+
   @Override
   public String toString() {
     return getClass().getSimpleName() + "{" +
         "name='" + name + '\'' +
+        ", max=" + maxConnections +
+        ", active=" + getActiveConnections() +
+        ", idle=" + getIdleConnections() +
+        ", waiting=" + getWaitingThreads() +
+        ", acquired=" + getAcquireCount() +
+        ", timeouts=" + getTimeoutCount() +
+        ", meanWait=" + String.format("%.3f", getMeanWaitMillis()) + "ms" +
+        ", maxWait=" + getMaxWaitMillis() + "ms" +
         '}';
   }
+
+  /**
+   * Connection handed out by the pool and not yet returned, holding one permit of the pool.
+   */
+  private static class Lease
+  {
+    private final AtomicBoolean released = new AtomicBoolean();
+
+    private final String thread = Thread.currentThread().getName();
+
+    private final long acquired = System.currentTimeMillis();
+
+    @Nullable
+    private final Throwable caller;
+
+    private volatile boolean reported;
+
+    Lease(@Nullable final Throwable caller) {
+      this.caller = caller;
+    }
+
+    /**
+     * Marks the lease as released, returns {@code true} if its permit is to be returned.
+     */
+    boolean release() {
+      return released.compareAndSet(false, true);
+    }
+
+    boolean isReleased() {
+      return released.get();
+    }
+  }
+
+  /**
+   * Returns permits when connections are closed.
+   */
+  private class ReleaseListener
+      implements ODatabaseListener
+  {
+    @Override
+    public void onClose(final ODatabase database) {
+      released(database);
+    }
+
+    @Override
+    public void onCreate(final ODatabase database) {
+      // no-op
+    }
+
+    @Override
+    public void onDelete(final ODatabase database) {
+      // no-op
+    }
+
+    @Override
+    public void onOpen(final ODatabase database) {
+      // no-op
+    }
+
+    @Override
+    public void onBeforeTxBegin(final ODatabase database) {
+      // no-op
+    }
+
+    @Override
+    public void onBeforeTxRollback(final ODatabase database) {
+      // no-op
+    }
+
+    @Override
+    public void onAfterTxRollback(final ODatabase database) {
+      // no-op
+    }
+
+    @Override
+    public void onBeforeTxCommit(final ODatabase database) {
+      // no-op
+    }
+
+    @Override
+    public void onAfterTxCommit(final ODatabase database) {
+      // no-op
+    }
+
+    @Override
+    public void onBeforeCommand(final OCommandRequestText command, final OCommandExecutor executor) {
+      // no-op
+    }
+
+    @Override
+    public void onAfterCommand(final OCommandRequestText command, final OCommandExecutor executor,
+                               final Object result)
+    {
+      // no-op
+    }
+
+    @Override
+    public boolean onCorruptionRepairDatabase(final ODatabase database, final String reason, final String work) {
+      return false;
+    }
+  }
 }
@@ -0,0 +1,128 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2008-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.orient;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.orientechnologies.orient.core.command.OCommandManager;
+import com.orientechnologies.orient.core.command.OCommandRequest;
+import com.orientechnologies.orient.core.command.OCommandRequestText;
+import com.orientechnologies.orient.core.db.ODatabaseDocumentInternal;
+import com.orientechnologies.orient.core.db.ODatabaseRecordThreadLocal;
+import com.orientechnologies.orient.core.sql.OCommandExecutorSQLDelegate;
+import com.orientechnologies.orient.core.sql.OCommandSQL;
+import com.orientechnologies.orient.core.sql.query.OSQLAsynchQuery;
+import com.orientechnologies.orient.core.sql.query.OSQLSynchQuery;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * SQL command executor which hands statements to the {@link QueryProfiler} registered for the database they are
+ * executed against. OrientDB looks up command executors per request type, so installing this executor covers all
+ * connections, pooled or not, without having to wrap them. The executor is installed while at least one
+ * {@link DatabaseManagerSupport} is started, after which the OrientDB defaults are restored.
+ *
+ * Must be public with a public no-arg constructor, as OrientDB instantiates executors reflectively.
+ *
+ * @since 3.3
+ */
+public class ProfilingCommandExecutor
+    extends OCommandExecutorSQLDelegate
+{
+  private static final ConcurrentMap<String, QueryProfiler> profilers = new ConcurrentHashMap<>();
+
+  /**
+   * Marks threads already executing a profiled statement, so nested statements (like the query executed as part of
+   * an update) are not accounted twice.
+   */
+  private static final ThreadLocal<Boolean> profiling = new ThreadLocal<>();
+
+  /**
+   * Number of started database managers which installed this executor.
+   */
+  private static int installations;
+
+  private String text;
+
+  /**
+   * Installs this executor for synchronous and asynchronous SQL queries and commands, if not already installed.
+   * Each installation must be paired with an {@link #uninstall()}.
+   */
+  static synchronized void install() {
+    if (installations++ == 0) {
+      registerExecutor(ProfilingCommandExecutor.class);
+    }
+  }
+
+  /**
+   * Restores the default OrientDB executor once all installations are uninstalled.
+   */
+  static synchronized void uninstall() {
+    if (installations > 0 && --installations == 0) {
+      registerExecutor(OCommandExecutorSQLDelegate.class);
+    }
+  }
+
+  private static void registerExecutor(final Class<? extends OCommandExecutorSQLDelegate> executor) {
+    OCommandManager.instance()
+        .registerExecutor(OCommandSQL.class, executor)
+        .registerExecutor(OSQLSynchQuery.class, executor)
+        .registerExecutor(OSQLAsynchQuery.class, executor);
+  }
+
+  @VisibleForTesting
+  static synchronized boolean isInstalled() {
+    return installations > 0;
+  }
+
+  /**
+   * Profiles statements of given database with given profiler.
+   */
+  static void register(final String database, final QueryProfiler profiler) {
+    profilers.put(checkNotNull(database), checkNotNull(profiler));
+  }
+
+  /**
+   * Stops profiling the databases registered with given profiler.
+   */
+  static void unregister(final QueryProfiler profiler) {
+    profilers.values().removeIf(profiler::equals);
+  }
+
+  @Override
+  public OCommandExecutorSQLDelegate parse(final OCommandRequest request) {
+    if (request instanceof OCommandRequestText) {
+      text = ((OCommandRequestText) request).getText();
+    }
+    return super.parse(request);
+  }
+
+  @Override
+  public Object execute(final Map<Object, Object> args) {
+    ODatabaseDocumentInternal db = ODatabaseRecordThreadLocal.INSTANCE.getIfDefined();
+    QueryProfiler profiler = db != null && text != null ? profilers.get(db.getName()) : null;
+    if (profiler == null || !profiler.isEnabled() || profiling.get() != null) {
+      return super.execute(args);
+    }
+    profiling.set(Boolean.TRUE);
+    try {
+      return profiler.profile(db.getName(), text, getContext(), () -> super.execute(args));
+    }
+    finally {
+      profiling.remove();
+    }
+  }
+}
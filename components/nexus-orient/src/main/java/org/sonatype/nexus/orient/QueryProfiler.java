@@ -0,0 +1,286 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2008-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.orient;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import javax.annotation.Nullable;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.orientechnologies.orient.core.command.OCommandContext;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Always-on profiler of the SQL statements executed against the databases of a {@link DatabaseManager}.
+ *
+ * Statements are grouped by template, i.e. the statement text with literals replaced by {@code ?}, and the
+ * {@link QueryStatistics} per template are kept per database. Index usage is only recorded for a sample of the
+ * executions, as it requires OrientDB to record its (more expensive) per query metrics. Executions exceeding the
+ * slow query threshold are logged to {@link #SLOW_QUERY_LOGGER}, failed executions are accounted as errors. When the
+ * {@link #EXPLAIN_PREFIX} logger of a database is at DEBUG the full OrientDB metrics report of every statement is
+ * logged as well.
+ *
+ * @since 3.3
+ */
+public class QueryProfiler
+{
+  public static final String SLOW_QUERY_LOGGER = "org.sonatype.nexus.orient.slowquery";
+
+  public static final String EXPLAIN_PREFIX = "org.sonatype.nexus.orient.explain.";
+
+  /**
+   * Maximum number of templates tracked per database, further templates are accounted as {@link #OTHER_TEMPLATE}.
+   */
+  private static final int MAX_TEMPLATES = 1000;
+
+  @VisibleForTesting
+  static final String OTHER_TEMPLATE = "<other>";
+
+  private static final String INVOLVED_INDEXES = "involvedIndexes";
+
+  private final Logger slowQueryLog = LoggerFactory.getLogger(SLOW_QUERY_LOGGER);
+
+  private final ConcurrentMap<String, ConcurrentMap<String, QueryStatistics>> databases = new ConcurrentHashMap<>();
+
+  private final ConcurrentMap<String, Logger> explainLoggers = new ConcurrentHashMap<>();
+
+  private volatile boolean enabled = true;
+
+  private volatile long slowQueryThresholdMillis = 1000;
+
+  private volatile int indexSampleRate = 100;
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public void setEnabled(final boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  public long getSlowQueryThresholdMillis() {
+    return slowQueryThresholdMillis;
+  }
+
+  /**
+   * Sets the threshold above which statements are logged as slow, zero or negative disables the slow query log.
+   */
+  public void setSlowQueryThresholdMillis(final long slowQueryThresholdMillis) {
+    this.slowQueryThresholdMillis = slowQueryThresholdMillis;
+  }
+
+  public int getIndexSampleRate() {
+    return indexSampleRate;
+  }
+
+  /**
+   * Sets how often index usage is recorded: the first and then every n-th execution of each template.
+   */
+  public void setIndexSampleRate(final int indexSampleRate) {
+    checkArgument(indexSampleRate > 0, "Index sample rate must be positive");
+    this.indexSampleRate = indexSampleRate;
+  }
+
+  /**
+   * Executes and profiles given statement of given database.
+   */
+  public Object profile(final String database,
+                        final String sql,
+                        final OCommandContext context,
+                        final Supplier<Object> execution)
+  {
+    QueryStatistics statistics = statistics(database, template(sql));
+    Logger explainLog = explainLoggers.computeIfAbsent(database,
+        name -> LoggerFactory.getLogger(EXPLAIN_PREFIX + name));
+    boolean explain = explainLog.isDebugEnabled();
+    boolean sampled = statistics.started() % indexSampleRate == 0 || explain;
+    if (sampled) {
+      context.setRecordingMetrics(true);
+    }
+
+    long start = System.nanoTime();
+    Object result = null;
+    boolean failed = true;
+    try {
+      result = execution.get();
+      failed = false;
+      return result;
+    }
+    finally {
+      long elapsed = System.nanoTime() - start;
+      try {
+        completed(database, sql, context, statistics, explainLog, explain, sampled, elapsed, result, failed);
+      }
+      finally {
+        if (sampled) {
+          context.setRecordingMetrics(false);
+        }
+      }
+    }
+  }
+
+  private void completed(final String database,
+                         final String sql,
+                         final OCommandContext context,
+                         final QueryStatistics statistics,
+                         final Logger explainLog,
+                         final boolean explain,
+                         final boolean sampled,
+                         final long elapsed,
+                         @Nullable final Object result,
+                         final boolean failed)
+  {
+    Collection<String> indexes = sampled ? involvedIndexes(context) : null;
+    long rows = failed ? -1 : rows(result);
+    statistics.completed(elapsed, rows, indexes, failed);
+
+    long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(elapsed);
+    long threshold = slowQueryThresholdMillis;
+    if (threshold > 0 && elapsedMillis >= threshold) {
+      slowQueryLog.warn("Slow query on {} {} after {} ms, rows: {}, indexes: {}, statement: {}",
+          database, failed ? "failed" : "completed", elapsedMillis, rows, indexes != null ? indexes : "not sampled",
+          statistics.getTemplate());
+    }
+    if (explain) {
+      ODocument report = new ODocument(context.getVariables());
+      report.field("elapsed", elapsed / 1000000f);
+      report.field("failed", failed);
+      explainLog.debug("\n{}\n{}\n", sql, report.toJSON("prettyPrint"));
+    }
+  }
+
+  private QueryStatistics statistics(final String database, final String template) {
+    ConcurrentMap<String, QueryStatistics> templates = databases.computeIfAbsent(database,
+        name -> new ConcurrentHashMap<>());
+    QueryStatistics statistics = templates.get(template);
+    if (statistics == null) {
+      String key = templates.size() < MAX_TEMPLATES ? template : OTHER_TEMPLATE;
+      statistics = templates.computeIfAbsent(key, QueryStatistics::new);
+    }
+    return statistics;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Collection<String> involvedIndexes(final OCommandContext context) {
+    Object indexes = context.getVariable(INVOLVED_INDEXES);
+    return indexes instanceof Collection ? (Collection<String>) indexes : Collections.emptyList();
+  }
+
+  private static long rows(final Object result) {
+    if (result instanceof Collection) {
+      return ((Collection<?>) result).size();
+    }
+    if (result instanceof Number) {
+      return ((Number) result).longValue();
+    }
+    return -1;
+  }
+
+  /**
+   * Returns the statistics per template of given database, empty if no statements were profiled.
+   */
+  public Map<String, QueryStatistics> getStatistics(final String database) {
+    checkNotNull(database);
+    Map<String, QueryStatistics> templates = databases.get(database);
+    return templates != null ? Collections.unmodifiableMap(new TreeMap<>(templates)) : Collections.emptyMap();
+  }
+
+  /**
+   * Returns a human readable report of the given number of templates with the highest total time, per database.
+   */
+  public List<String> report(final int limit) {
+    List<String> report = new ArrayList<>();
+    for (String database : new TreeMap<>(databases).keySet()) {
+      getStatistics(database).values().stream()
+          .sorted(Comparator.comparingLong(QueryStatistics::getTotalMillis).reversed())
+          .limit(limit)
+          .forEach(statistics -> report.add(database + ": " + statistics.getTemplate() + " -> " + statistics));
+    }
+    return report;
+  }
+
+  /**
+   * Discards all statistics.
+   */
+  public void reset() {
+    databases.clear();
+  }
+
+  /**
+   * Returns the template of given statement: whitespace is collapsed, and string, numeric and record id literals
+   * are replaced by {@code ?}.
+   */
+  @VisibleForTesting
+  static String template(final String sql) {
+    StringBuilder buff = new StringBuilder(sql.length());
+    int length = sql.length();
+    int i = 0;
+    while (i < length) {
+      char c = sql.charAt(i);
+      if (c == '\'' || c == '"') {
+        // string literal, honouring backslash escapes
+        i++;
+        while (i < length && sql.charAt(i) != c) {
+          i += sql.charAt(i) == '\\' ? 2 : 1;
+        }
+        i++;
+        buff.append('?');
+      }
+      else if (Character.isWhitespace(c)) {
+        while (i < length && Character.isWhitespace(sql.charAt(i))) {
+          i++;
+        }
+        if (buff.length() > 0 && i < length) {
+          buff.append(' ');
+        }
+      }
+      else if ((Character.isDigit(c) || c == '#' && i + 1 < length && Character.isDigit(sql.charAt(i + 1)))
+          && !continuesIdentifier(buff)) {
+        // numeric literal or record id such as #12:34
+        i++;
+        while (i < length && (Character.isDigit(sql.charAt(i)) || sql.charAt(i) == '.' || sql.charAt(i) == ':')) {
+          i++;
+        }
+        buff.append('?');
+      }
+      else {
+        buff.append(c);
+        i++;
+      }
+    }
+    return buff.toString();
+  }
+
+  private static boolean continuesIdentifier(final StringBuilder buff) {
+    if (buff.length() == 0) {
+      return false;
+    }
+    char previous = buff.charAt(buff.length() - 1);
+    return Character.isLetterOrDigit(previous) || previous == '_' || previous == '$';
+  }
+}
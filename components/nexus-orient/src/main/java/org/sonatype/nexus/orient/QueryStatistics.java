@@ -0,0 +1,179 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2008-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.orient;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.Nullable;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Thread safe execution statistics of one SQL statement template: number of executions, total and maximum latency,
+ * a latency histogram, number of failed executions, number of rows returned or affected and the indexes involved in
+ * the sampled executions.
+ *
+ * @since 3.3
+ */
+public class QueryStatistics
+{
+  /**
+   * Upper bounds (exclusive, in milliseconds) of the latency histogram buckets; the last bucket is unbounded.
+   */
+  private static final long[] LATENCY_BOUNDS_MILLIS = {1, 5, 10, 50, 100, 500, 1000, 5000};
+
+  private static final int MAX_INDEXES = 32;
+
+  private final String template;
+
+  private final AtomicLong count = new AtomicLong();
+
+  private final LongAdder totalNanos = new LongAdder();
+
+  private final AtomicLong maxNanos = new AtomicLong();
+
+  private final LongAdder rows = new LongAdder();
+
+  private final LongAdder errors = new LongAdder();
+
+  private final AtomicLongArray histogram = new AtomicLongArray(LATENCY_BOUNDS_MILLIS.length + 1);
+
+  private final Set<String> indexes = ConcurrentHashMap.newKeySet();
+
+  QueryStatistics(final String template) {
+    this.template = checkNotNull(template);
+  }
+
+  /**
+   * Registers the start of an execution and returns its sequence number, starting with zero.
+   */
+  long started() {
+    return count.getAndIncrement();
+  }
+
+  /**
+   * Records a completed, possibly failed, execution; {@code rows} is negative when not known.
+   */
+  void completed(final long elapsedNanos,
+                 final long rows,
+                 @Nullable final Collection<String> involvedIndexes,
+                 final boolean failed)
+  {
+    if (failed) {
+      errors.increment();
+    }
+    totalNanos.add(elapsedNanos);
+    maxNanos.accumulateAndGet(elapsedNanos, Math::max);
+    if (rows > 0) {
+      this.rows.add(rows);
+    }
+    histogram.incrementAndGet(bucket(TimeUnit.NANOSECONDS.toMillis(elapsedNanos)));
+    if (involvedIndexes != null && indexes.size() < MAX_INDEXES) {
+      indexes.addAll(involvedIndexes);
+    }
+  }
+
+  private static int bucket(final long elapsedMillis) {
+    int i = 0;
+    while (i < LATENCY_BOUNDS_MILLIS.length && elapsedMillis >= LATENCY_BOUNDS_MILLIS[i]) {
+      i++;
+    }
+    return i;
+  }
+
+  public String getTemplate() {
+    return template;
+  }
+
+  public long getCount() {
+    return count.get();
+  }
+
+  public long getTotalMillis() {
+    return TimeUnit.NANOSECONDS.toMillis(totalNanos.sum());
+  }
+
+  public long getMaxMillis() {
+    return TimeUnit.NANOSECONDS.toMillis(maxNanos.get());
+  }
+
+  public double getMeanMillis() {
+    long executions = count.get();
+    return executions == 0 ? 0 : totalNanos.sum() / 1_000_000d / executions;
+  }
+
+  public long getRows() {
+    return rows.sum();
+  }
+
+  public long getErrors() {
+    return errors.sum();
+  }
+
+  /**
+   * Returns the number of executions per latency bucket, see {@link #getHistogramBounds()}.
+   */
+  public long[] getHistogram() {
+    long[] result = new long[histogram.length()];
+    for (int i = 0; i < result.length; i++) {
+      result[i] = histogram.get(i);
+    }
+    return result;
+  }
+
+  /**
+   * Returns the exclusive upper bounds in milliseconds of the histogram buckets, the last bucket is unbounded.
+   */
+  public static long[] getHistogramBounds() {
+    return LATENCY_BOUNDS_MILLIS.clone();
+  }
+
+  /**
+   * Returns the names of the indexes seen in sampled executions, empty when none were used (or sampled).
+   */
+  public Set<String> getIndexes() {
+    return Collections.unmodifiableSet(new TreeSet<>(indexes));
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder buff = new StringBuilder();
+    buff.append("count=").append(getCount())
+        .append(", total=").append(getTotalMillis()).append("ms")
+        .append(", mean=").append(String.format("%.3f", getMeanMillis())).append("ms")
+        .append(", max=").append(getMaxMillis()).append("ms")
+        .append(", rows=").append(getRows())
+        .append(", errors=").append(getErrors())
+        .append(", histogram={");
+    long[] counts = getHistogram();
+    for (int i = 0; i < counts.length; i++) {
+      if (i > 0) {
+        buff.append(", ");
+      }
+      String bucket = i < LATENCY_BOUNDS_MILLIS.length
+          ? "<" + LATENCY_BOUNDS_MILLIS[i]
+          : ">=" + LATENCY_BOUNDS_MILLIS[i - 1];
+      buff.append(bucket).append("ms=").append(counts[i]);
+    }
+    buff.append("}, indexes=").append(getIndexes());
+    return buff.toString();
+  }
+}
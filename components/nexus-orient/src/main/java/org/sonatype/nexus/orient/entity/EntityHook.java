@@ -64,6 +64,8 @@ public final class EntityHook
 
   private static final ThreadLocal<String> isRemote = new ThreadLocal<>();
 
+  private static final ThreadLocal<Boolean> isSilent = new ThreadLocal<>();
+
   private final Map<OClass, EntityAdapter<?>> recordingAdapters = new ConcurrentHashMap<>();
 
   private final Set<String> recordingDatabases = newSetFromMap(new ConcurrentHashMap<>());
@@ -105,6 +107,21 @@ public final class EntityHook
     }
   }
 
+  /**
+   * Calls the given {@link Runnable} without recording entity events for the changes it makes.
+   *
+   * @since 3.3
+   */
+  public static void silently(final Runnable runnable) {
+    isSilent.set(Boolean.TRUE);
+    try {
+      runnable.run(); // NOSONAR
+    }
+    finally {
+      isSilent.remove();
+    }
+  }
+
   /**
    * Enables entity events for the given {@link EntityAdapter}.
    */
@@ -146,7 +163,8 @@ public final class EntityHook
   @Override
   public RESULT onTrigger(final TYPE type, final ORecord record) {
     final EventKind eventKind = getEventKind(type);
-    if (eventKind != null && record instanceof ODocument && recordEvent((ODocument) record, eventKind)) {
+    if (eventKind != null && record instanceof ODocument && isSilent.get() == null
+        && recordEvent((ODocument) record, eventKind)) {
       log.trace("Recorded {} {}", type, record);
     }
     else {
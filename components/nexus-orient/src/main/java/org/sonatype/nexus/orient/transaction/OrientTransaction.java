@@ -13,8 +13,8 @@
 package org.sonatype.nexus.orient.transaction;
 
 import org.sonatype.nexus.common.property.SystemPropertiesHelper;
+import org.sonatype.nexus.common.sequence.DecorrelatedJitterSequence;
 import org.sonatype.nexus.common.sequence.NumberSequence;
-import org.sonatype.nexus.common.sequence.RandomExponentialSequence;
 import org.sonatype.nexus.transaction.Transaction;
 import org.sonatype.nexus.transaction.UnitOfWork;
 
@@ -38,6 +38,9 @@ public class OrientTransaction
   private static final int INITIAL_DELAY_MS = SystemPropertiesHelper
       .getInteger(OrientTransaction.class.getName() + ".retrydelay.initial", 10);
 
+  private static final int MAX_DELAY_MS = SystemPropertiesHelper
+      .getInteger(OrientTransaction.class.getName() + ".retrydelay.max", 1000);
+
   private static final int MAX_RETRIES = 8;
 
   private final ODatabaseDocumentTx db;
@@ -126,10 +129,9 @@ public class OrientTransaction
   }
 
   private static NumberSequence delaySequence() {
-    return RandomExponentialSequence.builder()
-        .start(INITIAL_DELAY_MS) // start at 10ms
-        .factor(2) // delay an average of 100% longer, each time
-        .maxDeviation(.5) // ±50%
+    return DecorrelatedJitterSequence.builder()
+        .base(Math.max(1, INITIAL_DELAY_MS)) // ".retrydelay.initial", at least 1ms
+        .cap(Math.max(INITIAL_DELAY_MS, MAX_DELAY_MS)) // ".retrydelay.max", at least the base
         .build();
   }
 }
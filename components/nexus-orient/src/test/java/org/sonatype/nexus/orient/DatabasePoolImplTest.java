@@ -0,0 +1,138 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2008-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.orient;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.sonatype.goodies.lifecycle.Lifecycles;
+import org.sonatype.goodies.testsupport.TestSupport;
+import org.sonatype.nexus.orient.testsupport.DatabaseInstanceRule;
+
+import com.orientechnologies.common.concur.OTimeoutException;
+import com.orientechnologies.orient.core.db.ODatabaseListener;
+import com.orientechnologies.orient.core.db.OPartitionedDatabasePool;
+import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for {@link DatabasePoolImpl}.
+ */
+public class DatabasePoolImplTest
+    extends TestSupport
+{
+  private static final String DB_NAME = "test";
+
+  @Rule
+  public DatabaseInstanceRule database = DatabaseInstanceRule.inMemory(DB_NAME);
+
+  private DatabasePoolImpl pool;
+
+  private ExecutorService executor;
+
+  @Before
+  public void setUp() {
+    OPartitionedDatabasePool underlying = new OPartitionedDatabasePool("memory:" + DB_NAME,
+        DatabaseManagerSupport.SYSTEM_USER, DatabaseManagerSupport.SYSTEM_PASSWORD, 1, 1);
+    pool = new DatabasePoolImpl(underlying, DB_NAME, 1, 200, 0);
+    Lifecycles.start(pool);
+    executor = Executors.newSingleThreadExecutor();
+  }
+
+  @After
+  public void tearDown() {
+    executor.shutdownNow();
+    pool.close();
+  }
+
+  @Test
+  public void closingConnectionReturnsItToThePool() {
+    try (ODatabaseDocumentTx db = pool.acquire()) {
+      assertThat(pool.getActiveConnections(), is(1));
+    }
+    assertThat(pool.getActiveConnections(), is(0));
+
+    try (ODatabaseDocumentTx db = pool.acquire()) {
+      assertThat(pool.getActiveConnections(), is(1));
+    }
+    assertThat(pool.getActiveConnections(), is(0));
+    assertThat(pool.getAcquireCount(), is(2L));
+  }
+
+  @Test
+  public void nestedAcquisitionSharesConnection() {
+    try (ODatabaseDocumentTx outer = pool.acquire()) {
+      try (ODatabaseDocumentTx inner = pool.acquire()) {
+        assertThat(inner, sameInstance(outer));
+        assertThat(pool.getActiveConnections(), is(1));
+      }
+      // connection is still held by the outer acquisition
+      assertThat(pool.getActiveConnections(), is(1));
+    }
+    assertThat(pool.getActiveConnections(), is(0));
+  }
+
+  @Test
+  public void closeNotifiedOnOtherThreadReturnsPermit() throws Exception {
+    ODatabaseDocumentTx db = pool.acquire();
+    assertThat(pool.getActiveConnections(), is(1));
+
+    // the underlying pool only returns connections closed by their owning thread, so notify the close directly
+    executor.submit(() -> {
+      for (ODatabaseListener listener : db.getListeners()) {
+        if (listener.getClass().getEnclosingClass() == DatabasePoolImpl.class) {
+          listener.onClose(db);
+        }
+      }
+    }).get();
+    assertThat(pool.getActiveConnections(), is(0));
+
+    // closing again on the acquiring thread does not return the permit twice
+    db.close();
+    assertThat(pool.getActiveConnections(), is(0));
+
+    try (ODatabaseDocumentTx other = pool.acquire()) {
+      assertThat(pool.getActiveConnections(), is(1));
+    }
+    assertThat(pool.getActiveConnections(), is(0));
+  }
+
+  @Test
+  public void exhaustedPoolFailsFast() throws Exception {
+    try (ODatabaseDocumentTx db = pool.acquire()) {
+      Future<?> future = executor.submit(() -> pool.acquire().close());
+      try {
+        future.get();
+        fail();
+      }
+      catch (Exception e) {
+        assertThat(e.getCause(), instanceOf(OTimeoutException.class));
+      }
+      assertThat(pool.getTimeoutCount(), is(1L));
+    }
+
+    // connection is available again for other threads
+    executor.submit(() -> pool.acquire().close()).get();
+    assertThat(pool.getActiveConnections(), is(0));
+  }
+}
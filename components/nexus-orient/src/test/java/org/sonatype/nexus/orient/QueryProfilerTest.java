@@ -0,0 +1,170 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2008-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.orient;
+
+import java.util.List;
+import java.util.Map;
+
+import org.sonatype.goodies.testsupport.TestSupport;
+import org.sonatype.nexus.orient.testsupport.DatabaseInstanceRule;
+
+import com.google.common.collect.ImmutableMap;
+import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
+import com.orientechnologies.orient.core.metadata.schema.OClass;
+import com.orientechnologies.orient.core.metadata.schema.OClass.INDEX_TYPE;
+import com.orientechnologies.orient.core.metadata.schema.OType;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.core.storage.ORecordDuplicatedException;
+import com.orientechnologies.orient.core.sql.OCommandSQL;
+import com.orientechnologies.orient.core.sql.query.OSQLSynchQuery;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasKey;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for {@link QueryProfiler}.
+ */
+public class QueryProfilerTest
+    extends TestSupport
+{
+  private static final String DB_NAME = "test";
+
+  private static final String SELECT_BY_NAME = "SELECT FROM item WHERE name = :name";
+
+  @Rule
+  public DatabaseInstanceRule database = DatabaseInstanceRule.inMemory(DB_NAME);
+
+  private QueryProfiler profiler;
+
+  @Before
+  public void setUp() {
+    profiler = ((DatabaseManagerSupport) database.getManager()).getQueryProfiler();
+    try (ODatabaseDocumentTx db = database.getInstance().acquire()) {
+      OClass type = db.getMetadata().getSchema().createClass("item");
+      type.createProperty("name", OType.STRING);
+      type.createIndex("item_name_idx", INDEX_TYPE.NOTUNIQUE, "name");
+      for (int i = 0; i < 10; i++) {
+        db.save(new ODocument("item").field("name", "item" + (i % 5)));
+      }
+    }
+    profiler.reset();
+  }
+
+  @Test
+  public void statementsArePooledByTemplate() {
+    try (ODatabaseDocumentTx db = database.getInstance().acquire()) {
+      for (int i = 0; i < 3; i++) {
+        List<ODocument> items = db.query(new OSQLSynchQuery<ODocument>(SELECT_BY_NAME),
+            ImmutableMap.of("name", "item" + i));
+        assertThat(items, hasSize(2));
+      }
+      db.command(new OCommandSQL("UPDATE item SET flag = true WHERE name = 'item1'")).execute();
+      db.command(new OCommandSQL("UPDATE item SET flag = true WHERE name = 'item2'")).execute();
+    }
+
+    Map<String, QueryStatistics> statistics = profiler.getStatistics(DB_NAME);
+    assertThat(statistics, hasKey(SELECT_BY_NAME));
+    assertThat(statistics, hasKey("UPDATE item SET flag = true WHERE name = ?"));
+
+    QueryStatistics select = statistics.get(SELECT_BY_NAME);
+    assertThat(select.getCount(), is(3L));
+    assertThat(select.getRows(), is(6L));
+    assertThat(select.getIndexes(), contains("item_name_idx"));
+    assertThat(sum(select.getHistogram()), is(3L));
+
+    QueryStatistics update = statistics.get("UPDATE item SET flag = true WHERE name = ?");
+    assertThat(update.getCount(), is(2L));
+    assertThat(update.getRows(), is(4L));
+
+    // the query run as part of the update is not accounted separately
+    assertThat(statistics, not(hasKey("select from item WHERE name = ?")));
+
+    List<String> report = profiler.report(1);
+    assertThat(report, hasSize(1));
+    assertThat(report.get(0), containsString(DB_NAME + ": "));
+  }
+
+  @Test
+  public void disabledProfilerRecordsNothing() {
+    profiler.setEnabled(false);
+    try (ODatabaseDocumentTx db = database.getInstance().acquire()) {
+      db.query(new OSQLSynchQuery<ODocument>(SELECT_BY_NAME), ImmutableMap.of("name", "item0"));
+    }
+    finally {
+      profiler.setEnabled(true);
+    }
+    assertThat(profiler.getStatistics(DB_NAME).isEmpty(), is(true));
+  }
+
+  @Test
+  public void failedStatementsAreRecordedAsErrors() {
+    String insert = "INSERT INTO unique_item SET name = 'item0'";
+    try (ODatabaseDocumentTx db = database.getInstance().acquire()) {
+      db.getMetadata().getSchema().createClass("unique_item").createProperty("name", OType.STRING)
+          .createIndex(INDEX_TYPE.UNIQUE);
+      db.command(new OCommandSQL(insert)).execute();
+      try {
+        db.command(new OCommandSQL(insert)).execute();
+        fail();
+      }
+      catch (ORecordDuplicatedException e) {
+        // expected
+      }
+    }
+
+    QueryStatistics statistics = profiler.getStatistics(DB_NAME).get("INSERT INTO unique_item SET name = ?");
+    assertThat(statistics.getCount(), is(2L));
+    assertThat(statistics.getErrors(), is(1L));
+    assertThat(sum(statistics.getHistogram()), is(2L));
+  }
+
+  @Test
+  public void executorIsUninstalledWhenManagerStops() throws Exception {
+    assertThat(ProfilingCommandExecutor.isInstalled(), is(true));
+
+    DatabaseManagerSupport manager = (DatabaseManagerSupport) database.getManager();
+    manager.stop();
+    assertThat(ProfilingCommandExecutor.isInstalled(), is(false));
+
+    manager.start();
+    assertThat(ProfilingCommandExecutor.isInstalled(), is(true));
+  }
+
+  @Test
+  public void templatesReplaceLiterals() {
+    assertThat(QueryProfiler.template("SELECT  FROM asset\n WHERE name = 'a''b' AND size > 10 LIMIT 5"),
+        equalTo("SELECT FROM asset WHERE name = ?? AND size > ? LIMIT ?"));
+    assertThat(QueryProfiler.template("SELECT FROM asset WHERE @rid > #12:34 AND name = \"x\\\"y\""),
+        equalTo("SELECT FROM asset WHERE @rid > ? AND name = ?"));
+    assertThat(QueryProfiler.template("SELECT FROM asset WHERE bucket = :p0 AND attributes.maven2.md5 = :p1"),
+        equalTo("SELECT FROM asset WHERE bucket = :p0 AND attributes.maven2.md5 = :p1"));
+  }
+
+  private static long sum(final long[] values) {
+    long sum = 0;
+    for (long value : values) {
+      sum += value;
+    }
+    return sum;
+  }
+}
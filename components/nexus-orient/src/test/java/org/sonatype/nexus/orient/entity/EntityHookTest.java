@@ -358,4 +358,40 @@ public class EntityHookTest
       assertThat(event.<TestEntity> getEntity().text, is("C"));
     }
   }
+
+  @Test
+  public void silentChangesAreNotSent() {
+    TestEntity entity = new TestEntity();
+
+    try (ODatabaseDocumentTx db = sendingDatabase.getInstance().acquire()) {
+      entityHook.onOpen(db);
+      entityAdapter.register(db);
+
+      db.begin();
+      entity.text = "A";
+      entityAdapter.addEntity(db, entity);
+      db.commit();
+
+      subscriber.events.clear();
+
+      EntityHook.silently(() -> {
+        db.begin();
+        entity.text = "B";
+        entityAdapter.editEntity(db, entity);
+        db.commit();
+      });
+
+      assertThat(subscriber.events, hasSize(0));
+
+      db.begin();
+      entity.text = "C";
+      entityAdapter.editEntity(db, entity);
+      db.commit();
+
+      assertThat(subscriber.events, hasSize(1));
+      assertThat(subscriber.events.get(0).getClass().getSimpleName(), is("EntityUpdatedEvent"));
+
+      entityHook.onClose(db);
+    }
+  }
 }
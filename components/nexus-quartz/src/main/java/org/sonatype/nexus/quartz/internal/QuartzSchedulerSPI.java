@@ -116,6 +116,8 @@ public class QuartzSchedulerSPI
 
   private final int threadPoolSize;
 
+  private final ResourceClassLimiter resourceClassLimiter;
+
   private final ScheduleFactory scheduleFactory;
 
   private final QuartzTriggerConverter triggerConverter;
@@ -131,7 +133,8 @@ public class QuartzSchedulerSPI
                             final NodeAccess nodeAccess,
                             final Provider<JobStore> jobStoreProvider,
                             final JobFactory jobFactory,
-                            @Named("${nexus.quartz.poolSize:-20}") final int threadPoolSize)
+                            @Named("${nexus.quartz.poolSize:-20}") final int threadPoolSize,
+                            final ResourceClassLimiter resourceClassLimiter)
       throws Exception
   {
     this.eventManager = checkNotNull(eventManager);
@@ -143,6 +146,8 @@ public class QuartzSchedulerSPI
     this.threadPoolSize = threadPoolSize;
     log.info("Thread-pool size: {}", threadPoolSize);
 
+    this.resourceClassLimiter = checkNotNull(resourceClassLimiter);
+
     this.scheduleFactory = new QuartzScheduleFactory();
     this.triggerConverter = new QuartzTriggerConverter(this.scheduleFactory);
 
@@ -595,6 +600,33 @@ public class QuartzSchedulerSPI
     }
   }
 
+  /**
+   * @return number of due tasks not acquired because of their resource class limit, per resource class
+   * @since 3.3
+   */
+  @Guarded(by = STARTED)
+  public Map<String, Integer> getDeferredTaskCounts() {
+    return resourceClassLimiter.getDeferredCounts();
+  }
+
+  /**
+   * @return average time in milliseconds tasks fired after their scheduled time, per task type-id
+   * @since 3.3
+   */
+  @Guarded(by = STARTED)
+  public Map<String, Long> getAverageFireDelayMillis() {
+    return resourceClassLimiter.getAverageFireDelayMillis();
+  }
+
+  /**
+   * @return longest time in milliseconds a task fired after its scheduled time, per task type-id
+   * @since 3.3
+   */
+  @Guarded(by = STARTED)
+  public Map<String, Long> getMaximumFireDelayMillis() {
+    return resourceClassLimiter.getMaximumFireDelayMillis();
+  }
+
   //
   // Internal
   //
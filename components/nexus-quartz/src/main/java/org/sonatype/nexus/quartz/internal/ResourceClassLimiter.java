@@ -0,0 +1,203 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2008-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.quartz.internal;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.Nullable;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.sonatype.goodies.common.ComponentSupport;
+import org.sonatype.nexus.common.text.Strings2;
+import org.sonatype.nexus.quartz.internal.task.QuartzTaskJob;
+import org.sonatype.nexus.scheduling.TaskDescriptor;
+import org.sonatype.nexus.scheduling.TaskFactory;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableMap;
+import org.quartz.JobDetail;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Limits how many jobs of the same {@link TaskDescriptor#getResourceClass() resource class} run concurrently.
+ *
+ * The job store consults this when acquiring triggers: triggers of a resource class at its limit are not acquired and
+ * stay waiting in the store, so they are subject to the usual misfire handling and are picked up once a job of their
+ * class completes. Acquired jobs are tracked by the fire instance-id of their trigger until they complete or their
+ * trigger is released.
+ *
+ * @since 3.3
+ */
+@Named
+@Singleton
+public class ResourceClassLimiter
+    extends ComponentSupport
+{
+  private static final String UNKNOWN_TYPE_ID = "unknown";
+
+  private final TaskFactory taskFactory;
+
+  private final Map<String, Integer> limits;
+
+  /**
+   * Resource class of each acquired job of a limited resource class, keyed by fire instance-id.
+   */
+  private final ConcurrentMap<String, String> acquired = new ConcurrentHashMap<>();
+
+  private final ConcurrentMap<String, Integer> deferred = new ConcurrentHashMap<>();
+
+  private final ConcurrentMap<String, FireDelay> fireDelays = new ConcurrentHashMap<>();
+
+  @Inject
+  public ResourceClassLimiter(final TaskFactory taskFactory,
+                              @Named("${nexus.quartz.resourceClassLimits:-heavy=2}") final String limits)
+  {
+    this.taskFactory = checkNotNull(taskFactory);
+    this.limits = parseLimits(limits);
+    log.info("Resource class limits: {}", this.limits);
+  }
+
+  /**
+   * Parses resource class concurrency limits in the form {@code class=limit[,class=limit]}.
+   */
+  @VisibleForTesting
+  static Map<String, Integer> parseLimits(final String limits) {
+    ImmutableMap.Builder<String, Integer> result = ImmutableMap.builder();
+    if (!Strings2.isBlank(limits)) {
+      Splitter.on(',').omitEmptyStrings().trimResults().withKeyValueSeparator('=').split(limits)
+          .forEach((resourceClass, limit) -> {
+            int value = Integer.parseInt(limit.trim());
+            checkArgument(value > 0, "Invalid concurrency limit for resource class %s: %s", resourceClass, value);
+            result.put(resourceClass.trim(), value);
+          });
+    }
+    return result.build();
+  }
+
+  /**
+   * Returns the task type-id of the given job, or {@code "unknown"} when it is not a task.
+   */
+  public String typeIdOf(final JobDetail jobDetail) {
+    String typeId = QuartzTaskJob.configurationOf(jobDetail).getTypeId();
+    return typeId != null ? typeId : UNKNOWN_TYPE_ID;
+  }
+
+  /**
+   * Returns the resource class declared by the descriptor of the task type of the given job.
+   */
+  public String resourceClassOf(final JobDetail jobDetail) {
+    TaskDescriptor descriptor = taskFactory.findDescriptor(typeIdOf(jobDetail));
+    return descriptor != null ? descriptor.getResourceClass() : TaskDescriptor.DEFAULT_RESOURCE_CLASS;
+  }
+
+  /**
+   * Returns {@code true} if another job of the given resource class may be acquired, on top of the jobs already
+   * acquired and those being acquired by the caller.
+   */
+  public boolean hasCapacity(final String resourceClass, final int acquiring) {
+    Integer limit = limits.get(resourceClass);
+    if (limit == null) {
+      return true;
+    }
+    long running = acquired.values().stream().filter(resourceClass::equals).count();
+    return running + acquiring < limit;
+  }
+
+  /**
+   * Records a job of the given resource class as acquired.
+   */
+  public void acquired(final String fireInstanceId, final String resourceClass) {
+    if (limits.containsKey(resourceClass)) {
+      acquired.put(fireInstanceId, resourceClass);
+    }
+  }
+
+  /**
+   * Releases the job acquired with the given fire instance-id, if any.
+   *
+   * @return {@code true} if a job of a limited resource class was released
+   */
+  public boolean released(@Nullable final String fireInstanceId) {
+    return fireInstanceId != null && acquired.remove(fireInstanceId) != null;
+  }
+
+  /**
+   * Records the number of due triggers which were not acquired by the last acquisition, per resource class.
+   */
+  public void deferred(final Map<String, Integer> counts) {
+    deferred.keySet().retainAll(counts.keySet());
+    deferred.putAll(counts);
+  }
+
+  /**
+   * Records how late a job of the given task type fired compared to its scheduled fire time.
+   */
+  public void fired(final String typeId, final long delayMillis) {
+    fireDelays.computeIfAbsent(typeId, k -> new FireDelay()).record(Math.max(delayMillis, 0L));
+  }
+
+  /**
+   * @return number of due tasks not acquired because of their resource class limit, per resource class
+   */
+  public Map<String, Integer> getDeferredCounts() {
+    return new TreeMap<>(deferred);
+  }
+
+  /**
+   * @return average time in milliseconds tasks fired after their scheduled time, per task type-id
+   */
+  public Map<String, Long> getAverageFireDelayMillis() {
+    Map<String, Long> result = new TreeMap<>();
+    fireDelays.forEach((typeId, delay) -> result.put(typeId, delay.average()));
+    return result;
+  }
+
+  /**
+   * @return longest time in milliseconds a task fired after its scheduled time, per task type-id
+   */
+  public Map<String, Long> getMaximumFireDelayMillis() {
+    Map<String, Long> result = new TreeMap<>();
+    fireDelays.forEach((typeId, delay) -> result.put(typeId, delay.max.get()));
+    return result;
+  }
+
+  private static class FireDelay
+  {
+    private final LongAdder count = new LongAdder();
+
+    private final LongAdder total = new LongAdder();
+
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0L);
+
+    private void record(final long millis) {
+      count.increment();
+      total.add(millis);
+      max.accumulate(millis);
+    }
+
+    private long average() {
+      long n = count.sum();
+      return n == 0 ? 0 : total.sum() / n;
+    }
+  }
+}
@@ -17,6 +17,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
@@ -35,14 +36,17 @@ import javax.inject.Singleton;
 import org.sonatype.goodies.common.Time;
 import org.sonatype.goodies.lifecycle.LifecycleSupport;
 import org.sonatype.nexus.common.app.ManagedLifecycle;
+import org.sonatype.nexus.common.event.EventAware;
 import org.sonatype.nexus.common.node.NodeAccess;
 import org.sonatype.nexus.common.text.Strings2;
 import org.sonatype.nexus.orient.DatabaseInstance;
 import org.sonatype.nexus.orient.DatabaseInstanceNames;
+import org.sonatype.nexus.quartz.internal.ResourceClassLimiter;
 
 import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Iterables;
+import com.google.common.eventbus.Subscribe;
 import com.orientechnologies.common.concur.ONeedRetryException;
 import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
 import com.orientechnologies.orient.core.exception.ORecordNotFoundException;
@@ -89,7 +93,7 @@ import static org.sonatype.nexus.scheduling.TaskDescriptorSupport.LIMIT_NODE_KEY
 @Singleton
 public class JobStoreImpl
     extends LifecycleSupport
-    implements JobStore
+    implements JobStore, EventAware
 {
   private static final String NODE_ID = "node.identity";
 
@@ -103,6 +107,10 @@ public class JobStoreImpl
 
   private final NodeAccess nodeAccess;
 
+  private final TriggerQueue triggerQueue;
+
+  private final ResourceClassLimiter resourceClassLimiter;
+
   private SchedulerSignaler signaler;
 
   private String instanceName;
@@ -114,13 +122,17 @@ public class JobStoreImpl
                       final JobDetailEntityAdapter jobDetailEntityAdapter,
                       final TriggerEntityAdapter triggerEntityAdapter,
                       final CalendarEntityAdapter calendarEntityAdapter,
-                      final NodeAccess nodeAccess)
+                      final NodeAccess nodeAccess,
+                      @Named("${nexus.quartz.jobStore.reconcileInterval:-5m}") final Time reconcileInterval,
+                      final ResourceClassLimiter resourceClassLimiter)
   {
     this.databaseInstance = checkNotNull(databaseInstance);
     this.jobDetailEntityAdapter = checkNotNull(jobDetailEntityAdapter);
     this.triggerEntityAdapter = checkNotNull(triggerEntityAdapter);
     this.calendarEntityAdapter = checkNotNull(calendarEntityAdapter);
     this.nodeAccess = checkNotNull(nodeAccess);
+    this.triggerQueue = new TriggerQueue(reconcileInterval.toMillis());
+    this.resourceClassLimiter = checkNotNull(resourceClassLimiter);
   }
 
   @Override
@@ -170,16 +182,32 @@ public class JobStoreImpl
 
   private final Object monitor = new Object();
 
+  /**
+   * Changes to in-memory state, such as the {@link TriggerQueue}, made by the current operation, only applied once it
+   * has committed.
+   */
+  private final List<Runnable> pendingUpdates = new ArrayList<>();
+
   /**
    * Execute operation within transaction and propagate/translate exceptions.
    */
   private <T> T execute(final Operation<T> operation) throws JobPersistenceException {
     try {
       synchronized (monitor) {
-        return inTx(databaseInstance)
-            .retryOn(ONeedRetryException.class, ORecordNotFoundException.class)
-            .throwing(JobPersistenceException.class)
-            .call(operation::execute);
+        try {
+          T result = inTx(databaseInstance)
+              .retryOn(ONeedRetryException.class, ORecordNotFoundException.class)
+              .throwing(JobPersistenceException.class)
+              .call(db -> {
+                pendingUpdates.clear();
+                return operation.execute(db);
+              });
+          pendingUpdates.forEach(Runnable::run);
+          return result;
+        }
+        finally {
+          pendingUpdates.clear();
+        }
       }
     }
     catch (Exception e) {
@@ -204,6 +232,40 @@ public class JobStoreImpl
     }
   }
 
+  /**
+   * Adds trigger entity, queueing it for acquisition if it is waiting.
+   */
+  private void addTrigger(final ODatabaseDocumentTx db, final TriggerEntity entity) {
+    triggerEntityAdapter.addEntity(db, entity);
+    updateTriggerQueue(entity);
+  }
+
+  /**
+   * Edits trigger entity, requeueing it according to its new state and next fire time.
+   */
+  private void editTrigger(final ODatabaseDocumentTx db, final TriggerEntity entity) {
+    triggerEntityAdapter.editEntity(db, entity);
+    updateTriggerQueue(entity);
+  }
+
+  /**
+   * Deletes trigger entity, removing it from the queue.
+   */
+  private void deleteTrigger(final ODatabaseDocumentTx db, final TriggerEntity entity) {
+    TriggerKey key = entity.getValue().getKey();
+    triggerEntityAdapter.deleteEntity(db, entity);
+    pendingUpdates.add(() -> triggerQueue.remove(key));
+  }
+
+  private void updateTriggerQueue(final TriggerEntity entity) {
+    // capture the trigger as written, it may still be changed before the transaction commits
+    OperableTrigger trigger = entity.getValue();
+    TriggerKey key = trigger.getKey();
+    Date nextFireTime = entity.getState() == WAITING ? trigger.getNextFireTime() : null;
+    int priority = trigger.getPriority();
+    pendingUpdates.add(() -> triggerQueue.update(key, nextFireTime, priority));
+  }
+
   //
   // Lifecycle
   //
@@ -252,11 +314,11 @@ public class JobStoreImpl
 
             // remove COMPLETE ones, others needs awake
             if (COMPLETE == triggerEntity.getState()) {
-              triggerEntityAdapter.deleteEntity(db, triggerEntity);
+              deleteTrigger(db, triggerEntity);
             }
             else {
               applyMisfire(db, triggerEntity);
-              triggerEntityAdapter.editEntity(db, triggerEntity);
+              editTrigger(db, triggerEntity);
             }
           }
 
@@ -290,6 +352,34 @@ public class JobStoreImpl
     // empty
   }
 
+  //
+  // Events
+  //
+
+  /**
+   * Mirrors triggers created on other nodes; local changes are applied to the queue as they are committed.
+   */
+  @Subscribe
+  public void on(final TriggerCreatedEvent event) {
+    if (!event.isLocal()) {
+      triggerQueue.update(event.getTrigger());
+    }
+  }
+
+  @Subscribe
+  public void on(final TriggerUpdatedEvent event) {
+    if (!event.isLocal()) {
+      triggerQueue.update(event.getTrigger());
+    }
+  }
+
+  @Subscribe
+  public void on(final TriggerDeletedEvent event) {
+    if (!event.isLocal()) {
+      triggerQueue.remove(event.getTrigger().getValue().getKey());
+    }
+  }
+
   //
   // Other
   //
@@ -305,6 +395,7 @@ public class JobStoreImpl
     execute(db -> {
       jobDetailEntityAdapter.deleteAll(db);
       triggerEntityAdapter.deleteAll(db);
+      pendingUpdates.add(triggerQueue::invalidate);
       calendarEntityAdapter.deleteAll(db);
       return null;
     });
@@ -547,13 +638,13 @@ public class JobStoreImpl
     if (entity == null) {
       // no existing entity, add new one
       entity = new TriggerEntity(trigger, WAITING);
-      triggerEntityAdapter.addEntity(db, entity);
+      addTrigger(db, entity);
     }
     else {
       // otherwise entity exists, maybe replace if allowed
       if (replaceExisting) {
         entity.setValue(trigger);
-        triggerEntityAdapter.editEntity(db, entity);
+        editTrigger(db, entity);
       }
       else {
         throw new ObjectAlreadyExistsException(trigger);
@@ -582,6 +673,7 @@ public class JobStoreImpl
 
     boolean deleted = triggerEntityAdapter.deleteByKey(db, triggerKey);
     log.debug("Trigger deleted: {} for key: {}", deleted, triggerKey);
+    pendingUpdates.add(() -> triggerQueue.remove(triggerKey));
 
     // delete related job if there are no triggers for it
     if (deleted) {
@@ -639,13 +731,13 @@ public class JobStoreImpl
           throw new JobPersistenceException("New trigger is not related to the same job as the old trigger");
         }
         entity.setValue(trigger);
-        triggerEntityAdapter.editEntity(db, entity);
+        editTrigger(db, entity);
         return true;
       }
       else {
         // otherwise add new entity
         entity = new TriggerEntity(trigger, WAITING);
-        triggerEntityAdapter.addEntity(db, entity);
+        addTrigger(db, entity);
         return false;
       }
     });
@@ -783,7 +875,7 @@ public class JobStoreImpl
         break;
     }
 
-    triggerEntityAdapter.editEntity(db, entity);
+    editTrigger(db, entity);
   }
 
   @Override
@@ -842,7 +934,7 @@ public class JobStoreImpl
 
     applyMisfire(db, entity);
 
-    triggerEntityAdapter.editEntity(db, entity);
+    editTrigger(db, entity);
   }
 
   @Override
@@ -890,6 +982,13 @@ public class JobStoreImpl
     );
   }
 
+  /**
+   * Takes candidates from the {@link TriggerQueue} instead of browsing every waiting trigger, re-reading each one to
+   * make sure it is still waiting before applying the usual misfire and selection logic.
+   *
+   * Triggers of jobs whose {@link ResourceClassLimiter resource class} is at its concurrency limit are skipped, like
+   * duplicate triggers of jobs disallowing concurrent execution, so they stay waiting in the store.
+   */
   @Override
   public List<OperableTrigger> acquireNextTriggers(final long noLaterThan,
                                                    final int maxCount,
@@ -899,19 +998,35 @@ public class JobStoreImpl
     log.debug("Acquire next triggers: noLaterThan={}, maxCount={}, timeWindow={}", noLaterThan, maxCount, timeWindow);
 
     return execute(db -> {
-      // find all local triggers in WAITING state
-      Iterator<TriggerEntity> matches = local(triggerEntityAdapter.browseByState(db, WAITING)).iterator();
+      long now = System.currentTimeMillis();
+      if (triggerQueue.isStale(now)) {
+        triggerQueue.reload(triggerEntityAdapter.browseByState(db, WAITING), now);
+        log.debug("Reloaded trigger queue: {} waiting triggers", triggerQueue.size());
+      }
+
+      // find queued triggers due within the requested window, including any which have misfired
+      List<TriggerKey> dueKeys = triggerQueue.dueBy(noLaterThan + timeWindow);
 
       // short-circuit if no matches
-      if (!matches.hasNext()) {
+      if (dueKeys.isEmpty()) {
         return Collections.emptyList();
       }
 
       long noEarlierThan = getMisfireTime();
       List<TriggerEntity> resultEntities = new ArrayList<>();
 
-      while (matches.hasNext()) {
-        TriggerEntity entity = matches.next();
+      for (TriggerKey dueKey : dueKeys) {
+        // the queue is only a hint, check the trigger is still WAITING and local
+        TriggerEntity entity = triggerEntityAdapter.readByKey(db, dueKey);
+        if (entity == null || entity.getState() != WAITING) {
+          triggerQueue.remove(dueKey);
+          continue;
+        }
+        triggerQueue.update(entity);
+        if (!isLocal(entity)) {
+          continue;
+        }
+
         OperableTrigger trigger = entity.getValue();
 
         // skip triggers which have no next fire time
@@ -949,23 +1064,39 @@ public class JobStoreImpl
 
       // cope with jobs which have disallowed concurrent execution
       // gather set of job-keys acquired which have concurrent execution disabled and eliminate dupe triggers
+      // likewise skip triggers of jobs whose resource class is at its concurrency limit
       Set<JobKey> jobsAcquired = new HashSet<>();
+      Map<TriggerKey, String> resourceClasses = new HashMap<>();
+      Map<String, Integer> acquiring = new HashMap<>();
+      Map<String, Integer> deferred = new HashMap<>();
       Iterator<TriggerEntity> triggerEntityIterator = resultEntities.iterator();
       while (triggerEntityIterator.hasNext()) {
         TriggerEntity triggerEntity = triggerEntityIterator.next();
         OperableTrigger trigger = triggerEntity.getValue();
         JobKey jobKey = trigger.getJobKey();
         JobDetailEntity jobDetailEntity = jobDetailEntityAdapter.readByKey(db, jobKey);
-        if (jobDetailEntity != null && jobDetailEntity.getValue().isConcurrentExectionDisallowed()) {
+        if (jobDetailEntity == null) {
+          continue;
+        }
+        if (jobDetailEntity.getValue().isConcurrentExectionDisallowed()) {
           if (jobsAcquired.contains(jobKey)) {
             // trigger for job disallowing concurrent execution already acquired
             triggerEntityIterator.remove();
+            continue;
           }
-          else {
-            jobsAcquired.add(jobKey);
-          }
         }
+        String resourceClass = resourceClassLimiter.resourceClassOf(jobDetailEntity.getValue());
+        if (!resourceClassLimiter.hasCapacity(resourceClass, acquiring.getOrDefault(resourceClass, 0))) {
+          // resource class of job at its concurrency limit
+          triggerEntityIterator.remove();
+          deferred.merge(resourceClass, 1, Integer::sum);
+          continue;
+        }
+        jobsAcquired.add(jobKey);
+        resourceClasses.put(trigger.getKey(), resourceClass);
+        acquiring.merge(resourceClass, 1, Integer::sum);
       }
+      pendingUpdates.add(() -> resourceClassLimiter.deferred(deferred));
 
       // limit result set if needed
       if (!resultEntities.isEmpty() && maxCount < resultEntities.size()) {
@@ -985,7 +1116,13 @@ public class JobStoreImpl
         }
         result.add(trigger);
         entity.setState(ACQUIRED);
-        triggerEntityAdapter.editEntity(db, entity);
+        editTrigger(db, entity);
+
+        String fireInstanceId = trigger.getFireInstanceId();
+        String resourceClass = resourceClasses.get(trigger.getKey());
+        if (resourceClass != null) {
+          pendingUpdates.add(() -> resourceClassLimiter.acquired(fireInstanceId, resourceClass));
+        }
       }
 
       log.trace("Acquired triggers: {}", result);
@@ -1015,13 +1152,15 @@ public class JobStoreImpl
   public void releaseAcquiredTrigger(final OperableTrigger trigger) {
     log.debug("Release acquired trigger: {}", trigger);
 
+    resourceClassLimiter.released(trigger.getFireInstanceId());
+
     executeAndPropagate(db -> {
       TriggerEntity entity = triggerEntityAdapter.readByKey(db, trigger.getKey());
 
       // update state to WAITING if the current state is ACQUIRED
       if (entity != null && entity.getState() == ACQUIRED) {
         entity.setState(WAITING);
-        triggerEntityAdapter.editEntity(db, entity);
+        editTrigger(db, entity);
       }
 
       return null;
@@ -1040,10 +1179,15 @@ public class JobStoreImpl
 
         try {
           TriggerFiredBundle bundle = triggerFired(db, trigger);
+          if (bundle == null) {
+            // job will not run
+            pendingUpdates.add(() -> resourceClassLimiter.released(trigger.getFireInstanceId()));
+          }
           result = new TriggerFiredResult(bundle);
         }
         catch (Exception e) {
           log.warn("Trigger fired failure", e);
+          pendingUpdates.add(() -> resourceClassLimiter.released(trigger.getFireInstanceId()));
           result = new TriggerFiredResult(e);
         }
 
@@ -1091,6 +1235,7 @@ public class JobStoreImpl
     }
 
     Date prevFireTime = trigger.getPreviousFireTime();
+    Date scheduledFireTime = trigger.getNextFireTime();
 
     // inform both scheduler and persistent instances were triggered
     firedTrigger.triggered(calendar);
@@ -1098,10 +1243,12 @@ public class JobStoreImpl
 
     // update trigger to WAITING state
     entity.setState(WAITING);
-    triggerEntityAdapter.editEntity(db, entity);
+    editTrigger(db, entity);
 
     // re-resolve trigger value after edit for sanity
     trigger = entity.getValue();
+    // keep the fire instance-id the job was acquired with, it is released once the job completes
+    trigger.setFireInstanceId(firedTrigger.getFireInstanceId());
 
     // resolve the job-detail for this trigger
     JobDetailEntity jobDetailEntity = jobDetailEntityAdapter.readByKey(db, trigger.getJobKey());
@@ -1113,6 +1260,12 @@ public class JobStoreImpl
       blockOtherTriggers(db, triggerKey, jobDetail.getKey());
     }
 
+    if (scheduledFireTime != null) {
+      String typeId = resourceClassLimiter.typeIdOf(jobDetail);
+      long delay = System.currentTimeMillis() - scheduledFireTime.getTime();
+      pendingUpdates.add(() -> resourceClassLimiter.fired(typeId, delay));
+    }
+
     return new TriggerFiredBundle(
         jobDetail,
         trigger,
@@ -1159,7 +1312,7 @@ public class JobStoreImpl
       else {
         entity.setState(BLOCKED);
       }
-      triggerEntityAdapter.editEntity(db, entity);
+      editTrigger(db, entity);
     }
   }
 
@@ -1170,6 +1323,11 @@ public class JobStoreImpl
   {
     log.debug("Triggered job complete: trigger={}, jobDetail={}, instruction={}", trigger, jobDetail, instruction);
 
+    if (resourceClassLimiter.released(trigger.getFireInstanceId())) {
+      // let triggers deferred by their resource class limit be acquired
+      signaler.signalSchedulingChange(0L);
+    }
+
     executeAndPropagate(db -> {
       TriggerEntity triggerEntity = triggerEntityAdapter.readByKey(db, trigger.getKey());
       JobDetailEntity jobDetailEntity = jobDetailEntityAdapter.readByKey(db, jobDetail.getKey());
@@ -1194,24 +1352,24 @@ public class JobStoreImpl
             if (trigger.getNextFireTime() == null) {
               // double check for possible reschedule within job execution, which would cancel the need to delete
               if (triggerEntity.getValue().getNextFireTime() == null) {
-                triggerEntityAdapter.deleteEntity(db, triggerEntity);
+                deleteTrigger(db, triggerEntity);
               }
             }
             else {
-              triggerEntityAdapter.deleteEntity(db, triggerEntity);
+              deleteTrigger(db, triggerEntity);
               signaler.signalSchedulingChange(0L);
             }
             break;
 
           case SET_TRIGGER_COMPLETE:
             triggerEntity.setState(COMPLETE);
-            triggerEntityAdapter.editEntity(db, triggerEntity);
+            editTrigger(db, triggerEntity);
             signaler.signalSchedulingChange(0L);
             break;
 
           case SET_TRIGGER_ERROR:
             triggerEntity.setState(ERROR);
-            triggerEntityAdapter.editEntity(db, triggerEntity);
+            editTrigger(db, triggerEntity);
             signaler.signalSchedulingChange(0L);
             break;
 
@@ -1256,7 +1414,7 @@ public class JobStoreImpl
       else {
         entity.setState(WAITING);
       }
-      triggerEntityAdapter.editEntity(db, entity);
+      editTrigger(db, entity);
     }
   }
 
@@ -1272,7 +1430,7 @@ public class JobStoreImpl
 
     for (TriggerEntity entity : matches) {
       entity.setState(state);
-      triggerEntityAdapter.editEntity(db, entity);
+      editTrigger(db, entity);
     }
   }
 
@@ -1314,7 +1472,7 @@ public class JobStoreImpl
 
     if (trigger.getNextFireTime() == null) {
       triggerEntity.setState(COMPLETE);
-      triggerEntityAdapter.editEntity(db, triggerEntity);
+      editTrigger(db, triggerEntity);
       signaler.notifySchedulerListenersFinalized(trigger);
     }
     else if (nextFireTime.equals(trigger.getNextFireTime())) {
@@ -1357,7 +1515,7 @@ public class JobStoreImpl
         // update all triggers using this calender
         for (TriggerEntity triggerEntity : triggerEntityAdapter.browseByCalendarName(db, name)) {
           triggerEntity.getValue().updateWithNewCalendar(calendar, misfireThreshold);
-          triggerEntityAdapter.editEntity(db, triggerEntity);
+          editTrigger(db, triggerEntity);
         }
       }
 
@@ -1411,21 +1569,30 @@ public class JobStoreImpl
       String localId = nodeAccess.getId();
       Set<String> memberIds = nodeAccess.getMemberIds();
 
-      return Iterables.filter(triggers, (entity) -> {
-        JobDataMap triggerDetail = entity.getValue().getJobDataMap();
-        if (triggerDetail.containsKey(LIMIT_NODE_KEY)) {
-          // filter limited triggers to those limited to run on this node, or orphaned
-          String limitedNodeId = triggerDetail.getString(LIMIT_NODE_KEY);
-          return localId.equals(limitedNodeId) || !memberIds.contains(limitedNodeId);
-        }
-        // filter all other triggers to those "owned" by this node, or orphaned
-        String owner = triggerDetail.getString(NODE_ID);
-        return localId.equals(owner) || !memberIds.contains(owner);
-      });
+      return Iterables.filter(triggers, (entity) -> isLocal(entity, localId, memberIds));
     }
     return triggers;
   }
 
+  /**
+   * Helper to check if a trigger is locally-owned (or orphaned).
+   */
+  private boolean isLocal(final TriggerEntity entity) {
+    return !isClustered() || isLocal(entity, nodeAccess.getId(), nodeAccess.getMemberIds());
+  }
+
+  private static boolean isLocal(final TriggerEntity entity, final String localId, final Set<String> memberIds) {
+    JobDataMap triggerDetail = entity.getValue().getJobDataMap();
+    if (triggerDetail.containsKey(LIMIT_NODE_KEY)) {
+      // filter limited triggers to those limited to run on this node, or orphaned
+      String limitedNodeId = triggerDetail.getString(LIMIT_NODE_KEY);
+      return localId.equals(limitedNodeId) || !memberIds.contains(limitedNodeId);
+    }
+    // filter all other triggers to those "owned" by this node, or orphaned
+    String owner = triggerDetail.getString(NODE_ID);
+    return localId.equals(owner) || !memberIds.contains(owner);
+  }
+
   /**
    * Helper to warn when a limited trigger won't fire because its node is missing.
    */
@@ -0,0 +1,149 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2008-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.quartz.internal.orient;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+import org.quartz.TriggerKey;
+import org.quartz.spi.OperableTrigger;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static org.sonatype.nexus.quartz.internal.orient.TriggerEntity.State.WAITING;
+
+/**
+ * In-memory queue of {@link TriggerEntity.State#WAITING} triggers, ordered by next fire time and then by priority, so
+ * triggers due for acquisition can be found without browsing every trigger in the store.
+ *
+ * The queue is only a hint: candidates must be re-read from the store and checked before being acquired. It is
+ * rebuilt from the store when {@link #isStale(long) stale} to recover from any update that was missed.
+ *
+ * @since 3.3
+ */
+class TriggerQueue
+{
+  /**
+   * Next fire time ASC, priority DESC, key ASC.
+   */
+  private static final Comparator<Entry> ORDER = Comparator.<Entry>comparingLong(entry -> entry.nextFireTime)
+      .thenComparing(Comparator.<Entry>comparingInt(entry -> entry.priority).reversed())
+      .thenComparing(entry -> entry.key);
+
+  private static final class Entry
+  {
+    private final TriggerKey key;
+
+    private final long nextFireTime;
+
+    private final int priority;
+
+    private Entry(final TriggerKey key, final long nextFireTime, final int priority) {
+      this.key = key;
+      this.nextFireTime = nextFireTime;
+      this.priority = priority;
+    }
+  }
+
+  private final NavigableSet<Entry> queue = new TreeSet<>(ORDER);
+
+  private final Map<TriggerKey, Entry> entries = new HashMap<>();
+
+  private final long reconcileIntervalMillis;
+
+  private long reconciledAt;
+
+  private boolean invalidated = true;
+
+  TriggerQueue(final long reconcileIntervalMillis) {
+    this.reconcileIntervalMillis = reconcileIntervalMillis;
+  }
+
+  /**
+   * Mirrors the current state of the given trigger: it is queued when {@link TriggerEntity.State#WAITING} with a next
+   * fire time, otherwise it is removed.
+   */
+  synchronized void update(final TriggerEntity entity) {
+    OperableTrigger trigger = entity.getValue();
+    update(trigger.getKey(), entity.getState() == WAITING ? trigger.getNextFireTime() : null, trigger.getPriority());
+  }
+
+  /**
+   * Queues the given trigger at its next fire time, or removes it when there is no next fire time.
+   */
+  synchronized void update(final TriggerKey key, final Date nextFireTime, final int priority) {
+    remove(key);
+    if (nextFireTime != null) {
+      Entry entry = new Entry(key, nextFireTime.getTime(), priority);
+      entries.put(key, entry);
+      queue.add(entry);
+    }
+  }
+
+  synchronized void remove(final TriggerKey key) {
+    Entry entry = entries.remove(checkNotNull(key));
+    if (entry != null) {
+      queue.remove(entry);
+    }
+  }
+
+  /**
+   * Replaces the queue with the given {@link TriggerEntity.State#WAITING} triggers.
+   */
+  synchronized void reload(final Iterable<TriggerEntity> waiting, final long now) {
+    queue.clear();
+    entries.clear();
+    for (TriggerEntity entity : waiting) {
+      update(entity);
+    }
+    reconciledAt = now;
+    invalidated = false;
+  }
+
+  /**
+   * Forces the queue to be rebuilt before the next acquisition.
+   */
+  synchronized void invalidate() {
+    invalidated = true;
+  }
+
+  /**
+   * Returns {@code true} when the queue has not been rebuilt from the store within the reconciliation interval.
+   */
+  synchronized boolean isStale(final long now) {
+    return invalidated || now - reconciledAt >= reconcileIntervalMillis;
+  }
+
+  /**
+   * Returns the keys of queued triggers which fire no later than the given time, in firing order.
+   */
+  synchronized List<TriggerKey> dueBy(final long time) {
+    List<TriggerKey> due = new ArrayList<>();
+    for (Entry entry : queue) {
+      if (entry.nextFireTime > time) {
+        break;
+      }
+      due.add(entry.key);
+    }
+    return due;
+  }
+
+  synchronized int size() {
+    return queue.size();
+  }
+}
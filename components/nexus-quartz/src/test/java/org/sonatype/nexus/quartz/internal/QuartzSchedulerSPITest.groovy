@@ -89,7 +89,7 @@ class QuartzSchedulerSPITest
     eventManager = new SimpleEventManager()
 
     underTest = new QuartzSchedulerSPI(
-        eventManager, nodeAccess, provider, mock(JobFactoryImpl), 1
+        eventManager, nodeAccess, provider, mock(JobFactoryImpl), 1, mock(ResourceClassLimiter)
     )
     underTest.start()
     underTest.states.current = STARTED
@@ -0,0 +1,58 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2008-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.quartz.internal;
+
+import org.sonatype.goodies.testsupport.TestSupport;
+import org.sonatype.nexus.scheduling.TaskFactory;
+
+import com.google.common.collect.ImmutableMap;
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.mock;
+import static org.sonatype.nexus.scheduling.TaskDescriptor.DEFAULT_RESOURCE_CLASS;
+import static org.sonatype.nexus.scheduling.TaskDescriptor.HEAVY_RESOURCE_CLASS;
+
+/**
+ * Tests for {@link ResourceClassLimiter}.
+ */
+public class ResourceClassLimiterTest
+    extends TestSupport
+{
+  @Test
+  public void limitsAreParsed() {
+    assertThat(ResourceClassLimiter.parseLimits("heavy=2, io = 3"), is(ImmutableMap.of("heavy", 2, "io", 3)));
+    assertThat(ResourceClassLimiter.parseLimits("").isEmpty(), is(true));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void limitsMustBePositive() {
+    ResourceClassLimiter.parseLimits("heavy=0");
+  }
+
+  @Test
+  public void acquiredJobsCountAgainstTheirLimitUntilReleased() {
+    ResourceClassLimiter underTest = new ResourceClassLimiter(mock(TaskFactory.class), "heavy=2");
+
+    underTest.acquired("a", HEAVY_RESOURCE_CLASS);
+    underTest.acquired("b", DEFAULT_RESOURCE_CLASS);
+    assertThat(underTest.hasCapacity(HEAVY_RESOURCE_CLASS, 0), is(true));
+    assertThat(underTest.hasCapacity(HEAVY_RESOURCE_CLASS, 1), is(false));
+    assertThat(underTest.hasCapacity(DEFAULT_RESOURCE_CLASS, 100), is(true));
+
+    assertThat(underTest.released("b"), is(false));
+    assertThat(underTest.released("a"), is(true));
+    assertThat(underTest.hasCapacity(HEAVY_RESOURCE_CLASS, 1), is(true));
+  }
+}
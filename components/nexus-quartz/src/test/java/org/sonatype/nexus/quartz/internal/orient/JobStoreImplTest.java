@@ -32,9 +32,13 @@ import java.util.Date;
 import java.util.List;
 import java.util.Set;
 
+import org.sonatype.goodies.common.Time;
 import org.sonatype.goodies.testsupport.TestSupport;
 import org.sonatype.nexus.common.node.NodeAccess;
 import org.sonatype.nexus.orient.testsupport.DatabaseInstanceRule;
+import org.sonatype.nexus.quartz.internal.ResourceClassLimiter;
+import org.sonatype.nexus.scheduling.TaskDescriptor;
+import org.sonatype.nexus.scheduling.TaskFactory;
 
 import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
 import org.junit.After;
@@ -53,6 +57,7 @@ import org.quartz.ObjectAlreadyExistsException;
 import org.quartz.SchedulerException;
 import org.quartz.SimpleScheduleBuilder;
 import org.quartz.Trigger;
+import org.quartz.Trigger.CompletedExecutionInstruction;
 import org.quartz.Trigger.TriggerState;
 import org.quartz.TriggerBuilder;
 import org.quartz.TriggerKey;
@@ -69,6 +74,8 @@ import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.sonatype.nexus.scheduling.TaskDescriptor.HEAVY_RESOURCE_CLASS;
 
 /**
  * Tests for {@link JobStoreImpl}. Based on original Quartz 2.2.2 AbstractJobStoreTest.
@@ -83,6 +90,10 @@ public class JobStoreImplTest
 
   private JobStoreImpl jobStore;
 
+  private TriggerEntityAdapter triggerEntityAdapter;
+
+  private TaskFactory taskFactory = mock(TaskFactory.class);
+
   @Before
   public void setUp() throws Exception {
     ClassLoadHelper loadHelper = new CascadingClassLoadHelper();
@@ -101,7 +112,7 @@ public class JobStoreImplTest
 
   private JobStoreImpl createJobStore() {
     final JobDetailEntityAdapter jobDetailEntityAdapter = new JobDetailEntityAdapter();
-    final TriggerEntityAdapter triggerEntityAdapter = new TriggerEntityAdapter();
+    triggerEntityAdapter = new TriggerEntityAdapter();
     final CalendarEntityAdapter calendarEntityAdapter = new CalendarEntityAdapter();
     try (ODatabaseDocumentTx db = database.getInstance().connect()) {
       jobDetailEntityAdapter.register(db);
@@ -119,7 +130,9 @@ public class JobStoreImplTest
         jobDetailEntityAdapter,
         triggerEntityAdapter,
         calendarEntityAdapter,
-        mock(NodeAccess.class)
+        mock(NodeAccess.class),
+        Time.minutes(5),
+        new ResourceClassLimiter(taskFactory, HEAVY_RESOURCE_CLASS + "=1")
     );
   }
 
@@ -175,6 +188,90 @@ public class JobStoreImplTest
             .get(0));
   }
 
+  @Test
+  public void testAcquireNextTriggerFollowsChangesToQueuedTriggers() throws Exception {
+    JobDetail jobDetail = JobBuilder.newJob(MyJob.class).withIdentity("job1", "jobGroup1").storeDurably(true).build();
+    this.jobStore.storeJob(jobDetail, false);
+
+    long baseFireTime = DateBuilder.evenMinuteDateAfterNow().getTime();
+    long noLaterThan = baseFireTime + 100000;
+
+    // loads the queue
+    assertTrue(this.jobStore.acquireNextTriggers(noLaterThan, 1, 0L).isEmpty());
+
+    // stored after the queue was loaded
+    OperableTrigger stored = newTrigger(jobDetail, "stored", baseFireTime + 10000);
+    this.jobStore.storeTrigger(stored, false);
+    assertEquals(stored.getKey(), this.jobStore.acquireNextTriggers(noLaterThan, 1, 0L).get(0).getKey());
+
+    // removed through the store
+    OperableTrigger removed = newTrigger(jobDetail, "removed", baseFireTime + 10000);
+    this.jobStore.storeTrigger(removed, false);
+    this.jobStore.removeTrigger(removed.getKey());
+    assertTrue(this.jobStore.acquireNextTriggers(noLaterThan, 1, 0L).isEmpty());
+
+    // deleted behind the back of the store, leaving a stale queue entry
+    OperableTrigger deleted = newTrigger(jobDetail, "deleted", baseFireTime + 10000);
+    this.jobStore.storeTrigger(deleted, false);
+    try (ODatabaseDocumentTx db = database.getInstance().connect()) {
+      triggerEntityAdapter.deleteByKey(db, deleted.getKey());
+    }
+    assertTrue(this.jobStore.acquireNextTriggers(noLaterThan, 1, 0L).isEmpty());
+
+    // rescheduled beyond the window
+    OperableTrigger rescheduled = newTrigger(jobDetail, "rescheduled", baseFireTime + 10000);
+    this.jobStore.storeTrigger(rescheduled, false);
+    this.jobStore.replaceTrigger(rescheduled.getKey(), newTrigger(jobDetail, "rescheduled", noLaterThan + 10000));
+    assertTrue(this.jobStore.acquireNextTriggers(noLaterThan, 1, 0L).isEmpty());
+  }
+
+  @Test
+  public void testAcquireNextTriggersHonoursResourceClassLimits() throws Exception {
+    // jobs which are not tasks are of unknown type, make them heavy
+    TaskDescriptor heavy = mock(TaskDescriptor.class);
+    when(heavy.getResourceClass()).thenReturn(HEAVY_RESOURCE_CLASS);
+    when(taskFactory.findDescriptor("unknown")).thenReturn(heavy);
+
+    JobDetail job1 = JobBuilder.newJob(MyJob.class).withIdentity("job1", "jobGroup1").storeDurably(true).build();
+    JobDetail job2 = JobBuilder.newJob(MyJob.class).withIdentity("job2", "jobGroup1").storeDurably(true).build();
+    this.jobStore.storeJob(job1, false);
+    this.jobStore.storeJob(job2, false);
+
+    long baseFireTime = DateBuilder.evenMinuteDateAfterNow().getTime();
+    long noLaterThan = baseFireTime + 100000;
+    OperableTrigger trigger1 = newTrigger(job1, "trigger1", baseFireTime + 10000);
+    OperableTrigger trigger2 = newTrigger(job2, "trigger2", baseFireTime + 20000);
+    this.jobStore.storeTrigger(trigger1, false);
+    this.jobStore.storeTrigger(trigger2, false);
+
+    // only one heavy job at a time, the other trigger stays waiting
+    List<OperableTrigger> acquired = this.jobStore.acquireNextTriggers(noLaterThan, 5, 0L);
+    assertEquals(1, acquired.size());
+    assertEquals(trigger1.getKey(), acquired.get(0).getKey());
+    assertTrue(this.jobStore.acquireNextTriggers(noLaterThan, 5, 0L).isEmpty());
+    assertEquals(TriggerState.NORMAL, this.jobStore.getTriggerState(trigger2.getKey()));
+
+    // releasing the acquired trigger frees its slot
+    this.jobStore.releaseAcquiredTrigger(acquired.get(0));
+    acquired = this.jobStore.acquireNextTriggers(noLaterThan, 5, 0L);
+    assertEquals(1, acquired.size());
+    assertEquals(trigger1.getKey(), acquired.get(0).getKey());
+
+    // as does completing its job
+    this.jobStore.triggersFired(acquired);
+    this.jobStore.triggeredJobComplete(acquired.get(0), job1, CompletedExecutionInstruction.NOOP);
+    acquired = this.jobStore.acquireNextTriggers(noLaterThan, 5, 0L);
+    assertEquals(1, acquired.size());
+    assertEquals(trigger2.getKey(), acquired.get(0).getKey());
+  }
+
+  private static OperableTrigger newTrigger(final JobDetail jobDetail, final String name, final long fireTime) {
+    OperableTrigger trigger = new SimpleTriggerImpl(name, "triggerGroup1", jobDetail.getKey().getName(),
+        jobDetail.getKey().getGroup(), new Date(fireTime), null, 0, 0);
+    trigger.computeFirstFireTime(null);
+    return trigger;
+  }
+
   @Test
   public void testAcquireNextTriggerBatch() throws Exception {
     JobDetail jobDetail = JobBuilder.newJob(MyJob.class).withIdentity("job1", "jobGroup1").storeDurably(true).build();
@@ -23,6 +23,13 @@ import static com.google.common.base.Preconditions.checkNotNull;
  */
 public class BrowseResult<T>
 {
+  /**
+   * Total of results which were not counted, such as those of pages following the first page of a keyset browse.
+   *
+   * @since 3.3
+   */
+  public static final long UNKNOWN_TOTAL = -1;
+
   private long total;
 
   private List<T> results;
@@ -37,7 +44,8 @@ public class BrowseResult<T>
   }
 
   /**
-   * Returns the total count of entries available, not just those returned by this particular query.
+   * Returns the total count of entries available, not just those returned by this particular query, or
+   * {@link #UNKNOWN_TOTAL} when not counted.
    */
   public long getTotal() {
     return total;
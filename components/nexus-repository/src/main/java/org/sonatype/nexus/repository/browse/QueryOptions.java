@@ -44,11 +44,34 @@ public class QueryOptions
 
   private final Integer limit;
 
+  private final String lastId;
+
+  private final boolean estimateCount;
+
   public QueryOptions(@Nullable String filter,
                       @Nullable String sortProperty,
                       @Nullable String sortDirection,
                       @Nullable Integer start,
                       @Nullable Integer limit)
+  {
+    this(filter, sortProperty, sortDirection, start, limit, null, false);
+  }
+
+  /**
+   * @param lastId        the id of the last entry of the previous page, when known: entries following it are then
+   *                      selected by keyset, in sort order and then id order, rather than by skipping {@code start}
+   *                      entries, and the total is not counted again (see {@link BrowseResult#UNKNOWN_TOTAL}); ids
+   *                      which do not denote an entry of the browsed repository are ignored
+   * @param estimateCount whether an estimated total, which ignores content permissions, is sufficient
+   * @since 3.3
+   */
+  public QueryOptions(@Nullable String filter,
+                      @Nullable String sortProperty,
+                      @Nullable String sortDirection,
+                      @Nullable Integer start,
+                      @Nullable Integer limit,
+                      @Nullable String lastId,
+                      boolean estimateCount)
   {
     checkArgument(sortProperty == null || SORT_PROPERTIES.contains(sortProperty.toLowerCase(Locale.ENGLISH)));
     checkArgument(sortDirection == null || SORT_DIRECTIONS.contains(sortDirection.toLowerCase(Locale.ENGLISH)));
@@ -57,6 +80,8 @@ public class QueryOptions
     this.sortDirection = sortDirection;
     this.start = start;
     this.limit = limit;
+    this.lastId = lastId;
+    this.estimateCount = estimateCount;
   }
 
   @Nullable
@@ -83,4 +108,19 @@ public class QueryOptions
   public Integer getLimit() {
     return limit;
   }
+
+  /**
+   * @since 3.3
+   */
+  @Nullable
+  public String getLastId() {
+    return lastId;
+  }
+
+  /**
+   * @since 3.3
+   */
+  public boolean isEstimateCount() {
+    return estimateCount;
+  }
 }
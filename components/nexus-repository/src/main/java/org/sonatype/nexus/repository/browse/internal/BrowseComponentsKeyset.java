@@ -0,0 +1,97 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2008-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.repository.browse.internal;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import javax.annotation.Nullable;
+
+import org.sonatype.nexus.repository.storage.AssetEntityAdapter;
+import org.sonatype.nexus.repository.storage.Bucket;
+
+import com.google.common.collect.Iterators;
+import com.google.common.collect.PeekingIterator;
+import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
+import com.orientechnologies.orient.core.id.ORID;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.core.sql.query.OSQLSynchQuery;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Selects a page of a keyset browse of components.
+ *
+ * The assets of the browsed buckets are walked in component id order through the bucket-component-name index, starting
+ * after the last component of the previous page. Candidate assets are checked against the filter and content
+ * permissions in batches of whole components, until the page is full or the buckets are exhausted, so a page only
+ * touches the assets of the components it returns and of those skipped in between.
+ *
+ * @since 3.3
+ */
+class BrowseComponentsKeyset
+{
+  private static final int MAX_BATCH_COMPONENTS = 1000;
+
+  private final AssetEntityAdapter assetEntityAdapter;
+
+  private final List<Bucket> buckets;
+
+  private final BrowseComponentsSqlBuilder builder;
+
+  BrowseComponentsKeyset(final AssetEntityAdapter assetEntityAdapter,
+                         final List<Bucket> buckets,
+                         final BrowseComponentsSqlBuilder builder)
+  {
+    this.assetEntityAdapter = checkNotNull(assetEntityAdapter);
+    this.buckets = checkNotNull(buckets);
+    this.builder = checkNotNull(builder);
+  }
+
+  /**
+   * Returns up to {@code limit} rows of components following {@code lastComponent}, in component id order.
+   */
+  List<ODocument> browse(final ODatabaseDocumentTx db,
+                         @Nullable final ORID lastComponent,
+                         @Nullable final Integer limit)
+  {
+    int size = limit != null ? limit : Integer.MAX_VALUE;
+    Map<String, Object> params = builder.buildSqlParams();
+
+    List<Iterator<Entry<ORID, ORID>>> bucketAssets = buckets.stream()
+        .map(bucket -> assetEntityAdapter.browseComponentAssetIds(db, bucket, lastComponent))
+        .collect(toList());
+    PeekingIterator<Entry<ORID, ORID>> candidates =
+        Iterators.peekingIterator(Iterators.mergeSorted(bucketAssets, Entry.<ORID, ORID>comparingByKey()));
+
+    List<ODocument> page = new ArrayList<>();
+    while (page.size() < size && candidates.hasNext()) {
+      int batchComponents = Math.min(size - page.size(), MAX_BATCH_COMPONENTS);
+      List<ORID> assetIds = new ArrayList<>();
+      for (int i = 0; i < batchComponents && candidates.hasNext(); i++) {
+        // take all assets of the component, so it is never split across batches
+        ORID component = candidates.peek().getKey();
+        while (candidates.hasNext() && component.equals(candidates.peek().getKey())) {
+          assetIds.add(candidates.next().getValue());
+        }
+      }
+      List<ODocument> batch = db.query(new OSQLSynchQuery<ODocument>(builder.buildKeysetBrowseSql(assetIds)), params);
+      page.addAll(batch);
+    }
+    return page;
+  }
+}
@@ -13,23 +13,43 @@
 package org.sonatype.nexus.repository.browse.internal;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.stream.Collectors;
 
+import javax.annotation.Nullable;
+
 import org.sonatype.nexus.orient.entity.AttachedEntityHelper;
 import org.sonatype.nexus.repository.browse.QueryOptions;
 import org.sonatype.nexus.repository.storage.AssetEntityAdapter;
 import org.sonatype.nexus.repository.storage.Bucket;
+import org.sonatype.nexus.repository.storage.Component;
 import org.sonatype.nexus.repository.storage.ComponentEntityAdapter;
 import org.sonatype.nexus.repository.storage.MetadataNodeEntityAdapter;
 
+import com.orientechnologies.orient.core.id.ORID;
+
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 
 /**
  * Class that encapsulates building the SQL queries for browsing components in the {@link BrowseServiceImpl}.
  *
+ * Pages are selected by offset ({@code SKIP}), or by keyset once the last component of the previous page is known:
+ * <ul>
+ * <li>Unsorted results are in component id order. {@link BrowseComponentsKeyset} walks the assets in that order through
+ * an index and only the filter and permission check of each batch of candidate assets is left to SQL (see
+ * {@link #buildKeysetBrowseSql(Collection)}).</li>
+ * <li>Sorted results of a repository are in (sort property, component id) order. The browse query seeks past the last
+ * component, ahead of the permission check, so the assets of preceding pages are neither authorized nor skipped.
+ * Sorted results of a group, which are grouped by coordinates across members, are always selected by offset.</li>
+ * </ul>
+ * The total can be estimated from the components of the browsed buckets, which skips the per asset permission check and
+ * de-duplication of the exact count.
+ *
  * @since 3.1
  */
 public class BrowseComponentsSqlBuilder
@@ -42,23 +62,70 @@ public class BrowseComponentsSqlBuilder
 
   private final QueryOptions queryOptions;
 
+  private final ORID lastComponent;
+
+  private final Object lastSortValue;
+
   public BrowseComponentsSqlBuilder(
       final String repositoryName,
       final boolean group,
       final List<Bucket> buckets,
       final QueryOptions queryOptions)
+  {
+    this(repositoryName, group, buckets, queryOptions, null);
+  }
+
+  /**
+   * @param lastComponent the last component of the previous page, to seek past it when sorted
+   * @since 3.3
+   */
+  public BrowseComponentsSqlBuilder(
+      final String repositoryName,
+      final boolean group,
+      final List<Bucket> buckets,
+      final QueryOptions queryOptions,
+      @Nullable final Component lastComponent)
   {
     this.repositoryName = checkNotNull(repositoryName);
     this.group = group;
     this.buckets = checkNotNull(buckets);
     this.queryOptions = checkNotNull(queryOptions);
+    Object sortValue = lastComponent != null && isSorted() && !group ? sortValue(lastComponent) : null;
+    this.lastComponent = sortValue != null ? AttachedEntityHelper.id(lastComponent) : null;
+    this.lastSortValue = sortValue;
+  }
+
+  @Nullable
+  private Object sortValue(final Component component) {
+    switch (queryOptions.getSortProperty().toLowerCase(Locale.ENGLISH)) {
+      case MetadataNodeEntityAdapter.P_NAME:
+        return component.name();
+      case ComponentEntityAdapter.P_GROUP:
+        return component.group();
+      case ComponentEntityAdapter.P_VERSION:
+        return component.version();
+      default:
+        return null;
+    }
+  }
+
+  /**
+   * Whether results are sorted by a property of the components, rather than in component id order.
+   *
+   * @since 3.3
+   */
+  public boolean isSorted() {
+    return queryOptions.getSortProperty() != null && queryOptions.getSortDirection() != null;
   }
 
   /**
    * Returns the SQL for performing the count query.
    */
   public String buildCountSql() {
-    String whereClause = buildWhereClause();
+    if (queryOptions.isEstimateCount()) {
+      return String.format("SELECT COUNT(*) FROM component WHERE %s", buildEstimateWhereClause());
+    }
+    String whereClause = buildWhereClause(false);
     return String.format("SELECT COUNT(DISTINCT(%s)) FROM asset WHERE %s", AssetEntityAdapter.P_COMPONENT, whereClause);
   }
 
@@ -67,11 +134,29 @@ public class BrowseComponentsSqlBuilder
    */
   public String buildBrowseSql() {
     String querySuffix = buildQuerySuffix();
-    String whereClause = buildWhereClause();
+    String whereClause = buildWhereClause(true);
     return String.format("SELECT DISTINCT(%s) AS %s FROM asset WHERE %s %s", AssetEntityAdapter.P_COMPONENT,
         AssetEntityAdapter.P_COMPONENT, whereClause, querySuffix);
   }
 
+  /**
+   * Returns the SQL selecting the components of the given candidate assets which match the filter and may be browsed,
+   * in component id order. Used for keyset paging, where the candidates were already selected through an index.
+   *
+   * @since 3.3
+   */
+  public String buildKeysetBrowseSql(final Collection<ORID> assetIds) {
+    checkArgument(!assetIds.isEmpty());
+    List<String> whereClauses = new ArrayList<>();
+    addFilterClause(whereClauses);
+    whereClauses.add("contentAuth(@this, :browsedRepository) == true");
+    return String.format("SELECT DISTINCT(%s) AS %s FROM [%s] WHERE %s ORDER BY %s ASC",
+        AssetEntityAdapter.P_COMPONENT, AssetEntityAdapter.P_COMPONENT,
+        assetIds.stream().map(ORID::toString).collect(Collectors.joining(",")),
+        whereClauses.stream().map(clause -> "(" + clause + ")").collect(Collectors.joining(" AND ")),
+        AssetEntityAdapter.P_COMPONENT);
+  }
+
   /**
    * Returns the SQL parameters for performing the browse query.
    */
@@ -86,31 +171,73 @@ public class BrowseComponentsSqlBuilder
       params.put("groupFilter", filterValue);
       params.put("versionFilter", filterValue);
     }
+    if (lastComponent != null) {
+      params.put("lastSortValue", lastSortValue);
+      params.put("lastComponent", lastComponent);
+    }
 
     return params;
   }
 
-  private String buildWhereClause() {
+  private String buildWhereClause(final boolean seek) {
     if (buckets.isEmpty()) {
       return "false";
     }
-    return buildWhereClauseWithBuckets();
+    return buildWhereClauseWithBuckets(seek);
   }
 
-  private String buildWhereClauseWithBuckets() {
+  /**
+   * The permission check comes last, so it is only evaluated for assets matching all other conditions.
+   */
+  private String buildWhereClauseWithBuckets(final boolean seek) {
     List<String> whereClauses = new ArrayList<>();
-    whereClauses.add("contentAuth(@this, :browsedRepository) == true");
     whereClauses.add(buckets.stream()
         .map((bucket) -> MetadataNodeEntityAdapter.P_BUCKET + " = " + AttachedEntityHelper.id(bucket))
         .collect(Collectors.joining(" OR ")));
     whereClauses.add(AssetEntityAdapter.P_COMPONENT + " IS NOT NULL");
+    if (seek && lastComponent != null) {
+      String sortColumn = AssetEntityAdapter.P_COMPONENT + "." + queryOptions.getSortProperty();
+      String operator = isDescending() ? "<" : ">";
+      whereClauses.add(String.format("%s %s :lastSortValue OR (%s = :lastSortValue AND %s %s :lastComponent)",
+          sortColumn, operator, sortColumn, AssetEntityAdapter.P_COMPONENT, operator));
+    }
+    addFilterClause(whereClauses);
+    whereClauses.add("contentAuth(@this, :browsedRepository) == true");
+    return whereClauses.stream().map(clause -> "(" + clause + ")").collect(Collectors.joining(" AND "));
+  }
+
+  private boolean isDescending() {
+    return "desc".equalsIgnoreCase(queryOptions.getSortDirection());
+  }
+
+  /**
+   * Estimates the count by the components of the browsed buckets, regardless of the content permissions of their
+   * assets.
+   */
+  private String buildEstimateWhereClause() {
+    if (buckets.isEmpty()) {
+      return "false";
+    }
+    List<String> whereClauses = new ArrayList<>();
+    whereClauses.add(buckets.stream()
+        .map((bucket) -> MetadataNodeEntityAdapter.P_BUCKET + " = " + AttachedEntityHelper.id(bucket))
+        .collect(Collectors.joining(" OR ")));
+    if (queryOptions.getFilter() != null) {
+      whereClauses.add(
+          MetadataNodeEntityAdapter.P_NAME + " LIKE :nameFilter OR " +
+              ComponentEntityAdapter.P_GROUP + " LIKE :groupFilter OR " +
+              ComponentEntityAdapter.P_VERSION + " LIKE :versionFilter");
+    }
+    return whereClauses.stream().map(clause -> "(" + clause + ")").collect(Collectors.joining(" AND "));
+  }
+
+  private void addFilterClause(final List<String> whereClauses) {
     if (queryOptions.getFilter() != null) {
       whereClauses.add(
           AssetEntityAdapter.P_COMPONENT + "." + MetadataNodeEntityAdapter.P_NAME + " LIKE :nameFilter OR " +
               AssetEntityAdapter.P_COMPONENT + "." + ComponentEntityAdapter.P_GROUP + " LIKE :groupFilter OR " +
               AssetEntityAdapter.P_COMPONENT + "." + ComponentEntityAdapter.P_VERSION + " LIKE :versionFilter");
     }
-    return whereClauses.stream().map(clause -> "(" + clause + ")").collect(Collectors.joining(" AND "));
   }
 
   private String buildQuerySuffix() {
@@ -119,20 +246,29 @@ public class BrowseComponentsSqlBuilder
     Integer start = queryOptions.getStart();
     Integer limit = queryOptions.getLimit();
     StringBuilder sb = new StringBuilder();
-    if (sortProperty != null && sortDirection != null) {
-      if (group) {
-        sb.append(String.format(" GROUP BY %s.%s, %s.%s, %s.%s",
-            AssetEntityAdapter.P_COMPONENT,
-            ComponentEntityAdapter.P_GROUP,
-            AssetEntityAdapter.P_COMPONENT,
-            MetadataNodeEntityAdapter.P_NAME,
-            AssetEntityAdapter.P_COMPONENT,
-            ComponentEntityAdapter.P_VERSION));
-      }
+    if (!isSorted()) {
+      // same order as keyset pages
+      sb.append(String.format(" ORDER BY %s ASC", AssetEntityAdapter.P_COMPONENT));
+    }
+    else if (!group) {
+      // component id breaks ties, so pages can seek past the last component
+      sb.append(String.format(" ORDER BY %s.%s %s, %s %s",
+          AssetEntityAdapter.P_COMPONENT,
+          sortProperty,
+          sortDirection,
+          AssetEntityAdapter.P_COMPONENT,
+          sortDirection));
+    }
+    else {
+      sb.append(String.format(" GROUP BY %s.%s, %s.%s, %s.%s",
+          AssetEntityAdapter.P_COMPONENT,
+          ComponentEntityAdapter.P_GROUP,
+          AssetEntityAdapter.P_COMPONENT,
+          MetadataNodeEntityAdapter.P_NAME,
+          AssetEntityAdapter.P_COMPONENT,
+          ComponentEntityAdapter.P_VERSION));
       sb.append(" ORDER BY ");
-      if (group) {
-        sb.append(String.format(" %s %s,", MetadataNodeEntityAdapter.P_BUCKET, sortDirection));
-      }
+      sb.append(String.format(" %s %s,", MetadataNodeEntityAdapter.P_BUCKET, sortDirection));
       sb.append(String.format("%s.%s %s", AssetEntityAdapter.P_COMPONENT, sortProperty, sortDirection));
       if (ComponentEntityAdapter.P_GROUP.equals(sortProperty)) {
         sb.append(String.format(", %s.%s ASC, %s.%s ASC",
@@ -149,7 +285,7 @@ public class BrowseComponentsSqlBuilder
             ComponentEntityAdapter.P_GROUP));
       }
     }
-    if (start != null) {
+    if (start != null && lastComponent == null) {
       sb.append(" SKIP ");
       sb.append(start);
     }
@@ -18,9 +18,11 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
 
+import javax.annotation.Nullable;
 import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
@@ -54,6 +56,7 @@ import com.google.common.collect.Lists;
 import com.orientechnologies.orient.core.record.impl.ODocument;
 
 import static com.google.common.base.Preconditions.checkNotNull;
+import static org.sonatype.nexus.common.entity.EntityHelper.id;
 
 /**
  * Implementation of {@link BrowseService}.
@@ -66,10 +69,17 @@ public class BrowseServiceImpl
     extends ComponentSupport
     implements BrowseService
 {
+  /**
+   * Matches encoded record ids.
+   */
+  private static final Pattern ENCODED_ID = Pattern.compile("[0-9a-fA-F]+");
+
   private final Type groupType;
 
   private final ComponentEntityAdapter componentEntityAdapter;
 
+  private final AssetEntityAdapter assetEntityAdapter;
+
   private final VariableResolverAdapterManager variableResolverAdapterManager;
 
   private final ContentPermissionChecker contentPermissionChecker;
@@ -77,10 +87,12 @@ public class BrowseServiceImpl
   @Inject
   public BrowseServiceImpl(@Named(GroupType.NAME) final Type groupType,
                            final ComponentEntityAdapter componentEntityAdapter,
+                           final AssetEntityAdapter assetEntityAdapter,
                            final VariableResolverAdapterManager variableResolverAdapterManager,
                            final ContentPermissionChecker contentPermissionChecker) {
     this.groupType = checkNotNull(groupType);
     this.componentEntityAdapter = checkNotNull(componentEntityAdapter);
+    this.assetEntityAdapter = checkNotNull(assetEntityAdapter);
     this.variableResolverAdapterManager = checkNotNull(variableResolverAdapterManager);
     this.contentPermissionChecker = checkNotNull(contentPermissionChecker);
   }
@@ -94,14 +106,52 @@ public class BrowseServiceImpl
     try (StorageTx storageTx = repository.facet(StorageFacet.class).txSupplier().get()) {
       storageTx.begin();
       List<Bucket> buckets = getBuckets(storageTx, repositories);
+      Component lastComponent = findLastComponent(storageTx, buckets, queryOptions.getLastId());
       BrowseComponentsSqlBuilder builder = new BrowseComponentsSqlBuilder(repository.getName(),
-          groupType.equals(repository.getType()), buckets, queryOptions);
-      return new BrowseResult<>(
-          getCount(storageTx.browse(builder.buildCountSql(), builder.buildSqlParams())),
+          groupType.equals(repository.getType()), buckets, queryOptions, lastComponent);
+
+      // pages following a page which is known already are not counted again
+      long total = lastComponent != null ? BrowseResult.UNKNOWN_TOTAL
+          : getCount(storageTx.browse(builder.buildCountSql(), builder.buildSqlParams()));
+
+      Integer start = queryOptions.getStart();
+      if (!builder.isSorted() && (lastComponent != null || start == null || start == 0)) {
+        BrowseComponentsKeyset keyset = new BrowseComponentsKeyset(assetEntityAdapter, buckets, builder);
+        return new BrowseResult<>(total, getComponents(keyset.browse(storageTx.getDb(),
+            lastComponent != null ? componentEntityAdapter.recordIdentity(lastComponent) : null,
+            queryOptions.getLimit())));
+      }
+      return new BrowseResult<>(total,
           getComponents(storageTx.browse(builder.buildBrowseSql(), builder.buildSqlParams())));
     }
   }
 
+  /**
+   * Returns the component with the given id, the last one of the previous page, if it is a component of the browsed
+   * buckets. Ids are given by clients, so anything else is ignored, and the page is selected by offset instead.
+   */
+  @Nullable
+  private Component findLastComponent(final StorageTx storageTx,
+                                      final List<Bucket> buckets,
+                                      @Nullable final String lastId)
+  {
+    if (lastId == null || !ENCODED_ID.matcher(lastId).matches()) {
+      return null;
+    }
+    Component component;
+    try {
+      component = storageTx.findComponent(new DetachedEntityId(lastId));
+    }
+    catch (RuntimeException e) {
+      log.debug("Ignoring invalid last component id: {}", lastId, e);
+      return null;
+    }
+    if (component == null || buckets.stream().noneMatch(bucket -> id(bucket).equals(component.bucketId()))) {
+      return null;
+    }
+    return component;
+  }
+
   @Override
   public BrowseResult<Asset> browseComponentAssets(final Repository repository, final String componentId)
   {
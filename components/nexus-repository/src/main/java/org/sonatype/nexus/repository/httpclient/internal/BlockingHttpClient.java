@@ -24,6 +24,7 @@ import org.sonatype.nexus.repository.httpclient.FilteredHttpClientSupport;
 import org.sonatype.nexus.repository.httpclient.RemoteConnectionStatus;
 
 import org.apache.http.HttpHost;
+import org.apache.http.HttpResponse;
 import org.apache.http.client.HttpClient;
 import org.apache.http.client.methods.HttpHead;
 import org.apache.http.conn.ConnectionPoolTimeoutException;
@@ -35,6 +36,9 @@ import static com.google.common.base.Preconditions.checkNotNull;
 /**
  * Wraps an {@link HttpClient} with manual and automatic blocking functionality.
  *
+ * Besides blocking when the remote can not be reached, auto-blocking also kicks in when the {@link RemoteHealth} of
+ * the remote shows too many recent requests failing with server errors.
+ *
  * @since 3.0
  */
 public class BlockingHttpClient
@@ -53,13 +57,28 @@ public class BlockingHttpClient
 
   private final NumberSequence autoBlockSequence;
 
+  private final RemoteHealth health;
+
   private RemoteConnectionStatus status;
 
   public BlockingHttpClient(final HttpClient delegate,
                             final HttpClientFacetImpl.Config config)
+  {
+    this(delegate, config,
+        new RemoteHealth(RemoteHealth.DEFAULT_WINDOW, RemoteHealth.DEFAULT_MIN_SAMPLES,
+            RemoteHealth.DEFAULT_MAX_ERROR_RATE));
+  }
+
+  /**
+   * @since 3.3
+   */
+  BlockingHttpClient(final HttpClient delegate,
+                     final HttpClientFacetImpl.Config config,
+                     final RemoteHealth health)
   {
     super(delegate);
     checkNotNull(config);
+    this.health = checkNotNull(health);
     blocked = config.blocked != null ? config.blocked : false;
     autoBlock = config.autoBlock != null ? config.autoBlock : false;
     status = new RemoteConnectionStatus(blocked ? "Remote Manually Blocked" : "Ready to Connect");
@@ -85,6 +104,13 @@ public class BlockingHttpClient
     }
     try {
       T result = filterable.call();
+      boolean failed = isServerError(result);
+      health.record(failed);
+      if (autoBlock && failed && health.isFailing()) {
+        autoBlock(target);
+        status = new RemoteConnectionStatus("Remote Auto Blocked and Failing", "Remote " + health);
+        return result;
+      }
       if (autoBlock) {
         synchronized (this) {
           if (blockedUntil != null) {
@@ -92,6 +118,8 @@ public class BlockingHttpClient
             checkThread.interrupt();
             checkThread = null;
             autoBlockSequence.reset();
+            // start over once the remote is back, so its past failures do not block it again
+            health.reset();
           }
         }
       }
@@ -100,21 +128,9 @@ public class BlockingHttpClient
     }
     catch (IOException e) {
       if (isRemoteUnavailable(e)) {
+        health.record(true);
         if (autoBlock) {
-          synchronized (this) {
-            // avoid some other thread already increased the sequence
-            if (blockedUntil == null || blockedUntil.isBeforeNow()) {
-              blockedUntil = DateTime.now().plus(autoBlockSequence.next());
-              if (checkThread != null) {
-                checkThread.interrupt();
-              }
-              String uri = target.toURI();
-              // TODO maybe find different means to schedule status checking
-              checkThread = new Thread(new CheckStatus(uri, blockedUntil), "Check Status " + uri);
-              checkThread.setDaemon(true);
-              checkThread.start();
-            }
-          }
+          autoBlock(target);
           status = new RemoteConnectionStatus("Remote Auto Blocked and Unavailable", getReason(e));
         }
         else {
@@ -126,17 +142,44 @@ public class BlockingHttpClient
     finally {
       blockedUntilCopy = blockedUntil;
       log.debug(
-          "Remote status: {} {}",
+          "Remote status: {} {}, {}",
           status,
-          blockedUntilCopy != null ? "(blocked until " + blockedUntilCopy + ")" : ""
+          blockedUntilCopy != null ? "(blocked until " + blockedUntilCopy + ")" : "",
+          health
       );
     }
   }
 
+  /**
+   * Blocks requests to the remote for the next period of the auto-block sequence, and schedules a status check at the
+   * end of it.
+   */
+  private synchronized void autoBlock(final HttpHost target) {
+    // avoid some other thread already increased the sequence
+    if (blockedUntil == null || blockedUntil.isBeforeNow()) {
+      blockedUntil = DateTime.now().plus(autoBlockSequence.next());
+      if (checkThread != null) {
+        checkThread.interrupt();
+      }
+      String uri = target.toURI();
+      // TODO maybe find different means to schedule status checking
+      checkThread = new Thread(new CheckStatus(uri, blockedUntil), "Check Status " + uri);
+      checkThread.setDaemon(true);
+      checkThread.start();
+    }
+  }
+
   public RemoteConnectionStatus getStatus() {
     return status;
   }
 
+  /**
+   * Returns {@code true} if the given result is a response with a server error status.
+   */
+  private boolean isServerError(final Object result) {
+    return result instanceof HttpResponse && ((HttpResponse) result).getStatusLine().getStatusCode() >= 500;
+  }
+
   private boolean isRemoteUnavailable(final Exception e) {
     if (e instanceof ConnectionPoolTimeoutException) {
       return false;
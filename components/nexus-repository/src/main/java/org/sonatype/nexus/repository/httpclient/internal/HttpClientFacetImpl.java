@@ -38,6 +38,9 @@ import org.apache.http.client.HttpClient;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 import static org.sonatype.nexus.repository.FacetSupport.State.STARTED;
+import static org.sonatype.nexus.repository.httpclient.internal.RemoteHealth.DEFAULT_MAX_ERROR_RATE;
+import static org.sonatype.nexus.repository.httpclient.internal.RemoteHealth.DEFAULT_MIN_SAMPLES;
+import static org.sonatype.nexus.repository.httpclient.internal.RemoteHealth.DEFAULT_WINDOW;
 
 /**
  * Default {@link HttpClientFacet} implementation.
@@ -76,9 +79,25 @@ public class HttpClientFacetImpl
 
   private BlockingHttpClient httpClient;
 
+  private final int healthWindow;
+
+  private final int healthMinSamples;
+
+  private final int healthMaxErrorRate;
+
   @Inject
-  public HttpClientFacetImpl(final HttpClientManager httpClientManager) {
+  public HttpClientFacetImpl(final HttpClientManager httpClientManager,
+                             @Named("${nexus.httpclient.health.window:-" + DEFAULT_WINDOW + "}")
+                             final int healthWindow,
+                             @Named("${nexus.httpclient.health.minSamples:-" + DEFAULT_MIN_SAMPLES + "}")
+                             final int healthMinSamples,
+                             @Named("${nexus.httpclient.health.maxErrorRate:-" + DEFAULT_MAX_ERROR_RATE + "}")
+                             final int healthMaxErrorRate)
+  {
     this.httpClientManager = checkNotNull(httpClientManager);
+    this.healthWindow = healthWindow;
+    this.healthMinSamples = healthMinSamples;
+    this.healthMaxErrorRate = healthMaxErrorRate;
   }
 
   @Override
@@ -130,7 +149,8 @@ public class HttpClientFacetImpl
     HttpClient delegate = httpClientManager.create(new ConfigurationCustomizer(delegateConfig));
 
     // wrap delegate with auto-block aware client
-    httpClient = new BlockingHttpClient(delegate, config);
+    httpClient = new BlockingHttpClient(delegate, config,
+        new RemoteHealth(healthWindow, healthMinSamples, healthMaxErrorRate));
     log.debug("Created HTTP client: {}", httpClient);
   }
 
@@ -0,0 +1,98 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2008-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.repository.httpclient.internal;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Rolling record of the outcome of the most recent requests to a remote.
+ *
+ * The remote is considered failing when, over at least {@code minSamples} recorded requests, the share of failed
+ * requests reaches {@code maxErrorRate} percent.
+ *
+ * @since 3.3
+ */
+class RemoteHealth
+{
+  static final int DEFAULT_WINDOW = 50;
+
+  static final int DEFAULT_MIN_SAMPLES = 10;
+
+  static final int DEFAULT_MAX_ERROR_RATE = 50;
+
+  private final int minSamples;
+
+  private final int maxErrorRate;
+
+  private final boolean[] failures;
+
+  private int next;
+
+  private int count;
+
+  private int failureCount;
+
+  RemoteHealth(final int window, final int minSamples, final int maxErrorRate) {
+    checkArgument(window > 0, "Window must be positive");
+    checkArgument(minSamples > 0 && minSamples <= window, "Min samples must be within window");
+    this.minSamples = minSamples;
+    this.maxErrorRate = maxErrorRate;
+    this.failures = new boolean[window];
+  }
+
+  /**
+   * Records the outcome of a request.
+   */
+  synchronized void record(final boolean failed) {
+    if (count == failures.length) {
+      // evict the oldest entry, about to be overwritten
+      if (failures[next]) {
+        failureCount--;
+      }
+    }
+    else {
+      count++;
+    }
+    failures[next] = failed;
+    if (failed) {
+      failureCount++;
+    }
+    next = (next + 1) % failures.length;
+  }
+
+  synchronized void reset() {
+    next = 0;
+    count = 0;
+    failureCount = 0;
+  }
+
+  synchronized int getSamples() {
+    return count;
+  }
+
+  /**
+   * Percentage of failed requests among those recorded.
+   */
+  synchronized int getErrorRate() {
+    return count == 0 ? 0 : failureCount * 100 / count;
+  }
+
+  synchronized boolean isFailing() {
+    return count >= minSamples && getErrorRate() >= maxErrorRate;
+  }
+
+  @Override
+  public synchronized String toString() {
+    return "error rate " + getErrorRate() + "% over last " + count + " requests";
+  }
+}
@@ -53,4 +53,9 @@ public class CompactBlobStoreTaskDescriptor
         nodeAccess.isClustered() ? newMultinodeFormField() : null
     );
   }
+
+  @Override
+  public String getResourceClass() {
+    return HEAVY_RESOURCE_CLASS;
+  }
 }
@@ -12,10 +12,26 @@
  */
 package org.sonatype.nexus.repository.manager.internal;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Optional;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import javax.annotation.Nullable;
@@ -34,6 +50,7 @@ import org.sonatype.nexus.common.event.EventManager;
 import org.sonatype.nexus.common.node.NodeAccess;
 import org.sonatype.nexus.common.stateguard.Guarded;
 import org.sonatype.nexus.common.stateguard.StateGuardLifecycleSupport;
+import org.sonatype.nexus.jmx.reflect.ManagedAttribute;
 import org.sonatype.nexus.jmx.reflect.ManagedObject;
 import org.sonatype.nexus.orient.freeze.DatabaseFreezeService;
 import org.sonatype.nexus.repository.Recipe;
@@ -54,7 +71,10 @@ import org.sonatype.nexus.repository.manager.RepositoryManager;
 import org.sonatype.nexus.repository.manager.RepositoryRestoredEvent;
 import org.sonatype.nexus.repository.manager.RepositoryUpdatedEvent;
 import org.sonatype.nexus.repository.view.ViewFacet;
+import org.sonatype.nexus.thread.NexusExecutorService;
+import org.sonatype.nexus.thread.NexusThreadFactory;
 
+import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Maps;
 import com.google.common.eventbus.Subscribe;
@@ -83,6 +103,8 @@ public class RepositoryManagerImpl
     extends StateGuardLifecycleSupport
     implements RepositoryManager, EventAware
 {
+  private static final int MAX_DEFAULT_STARTUP_THREADS = 4;
+
   private final DatabaseFreezeService databaseFreezeService;
 
   private final EventManager eventManager;
@@ -107,6 +129,10 @@ public class RepositoryManagerImpl
 
   private final BlobStoreManager blobStoreManager;
 
+  private final int startupThreads;
+
+  private final Map<String, Long> startupTimes = new ConcurrentHashMap<>();
+
   @Inject
   public RepositoryManagerImpl(final EventManager eventManager,
                                final ConfigurationStore store,
@@ -118,7 +144,8 @@ public class RepositoryManagerImpl
                                final DatabaseFreezeService databaseFreezeService,
                                @Named("${nexus.skipDefaultRepositories:-false}") final boolean skipDefaultRepositories,
                                final NodeAccess nodeAccess,
-                               final BlobStoreManager blobStoreManager)
+                               final BlobStoreManager blobStoreManager,
+                               @Named("${nexus.repository.startupThreads:-0}") final int startupThreads)
   {
     this.eventManager = checkNotNull(eventManager);
     this.store = checkNotNull(store);
@@ -131,6 +158,9 @@ public class RepositoryManagerImpl
     this.skipDefaultRepositories = skipDefaultRepositories;
     this.nodeAccess = checkNotNull(nodeAccess);
     this.blobStoreManager = checkNotNull(blobStoreManager);
+    // by default start in parallel, bounded so startup does not contend with itself on small hosts
+    this.startupThreads = startupThreads > 0 ? startupThreads
+        : Math.min(MAX_DEFAULT_STARTUP_THREADS, Runtime.getRuntime().availableProcessors());
   }
 
   /**
@@ -252,14 +282,155 @@ public class RepositoryManagerImpl
     }
   }
 
+  /**
+   * Starts repositories in dependency order: repositories which are not groups first, then each group once all of its
+   * members have been started.
+   *
+   * Repositories at the same level are started concurrently on up to {@code nexus.repository.startupThreads} threads,
+   * by default as many as there are processors but no more than 4; 1 starts them one after another. Facet start paths
+   * and synchronous {@link RepositoryRestoredEvent} subscribers then run on pool threads, which carry the subject and
+   * logging context of the starting thread but no other thread-local state.
+   */
   private void startRepositories() throws Exception {
     log.debug("Starting {} repositories", repositories.size());
+    long started = System.nanoTime();
+    startupTimes.clear();
+
+    Collection<List<Repository>> levels = startupLevels();
+    ExecutorService executorService = startupThreads > 1 ? makeStartupExecutorService() : null;
+    try {
+      for (List<Repository> level : levels) {
+        startRepositories(level, executorService);
+      }
+    }
+    finally {
+      if (executorService != null) {
+        executorService.shutdownNow();
+      }
+    }
+
+    log.info("Started {} repositories in {} ms, slowest: {}", repositories.size(),
+        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started), slowestStartupTimes(5));
+  }
+
+  private void startRepositories(final List<Repository> level, @Nullable final ExecutorService executorService)
+      throws Exception
+  {
+    if (executorService == null || level.size() <= 1) {
+      for (Repository repository : level) {
+        startRepository(repository);
+      }
+      return;
+    }
+
+    List<Future<?>> futures = new ArrayList<>(level.size());
+    for (Repository repository : level) {
+      futures.add(executorService.submit(() -> {
+        startRepository(repository);
+        return null;
+      }));
+    }
+
+    Throwable failure = null;
+    for (Future<?> future : futures) {
+      try {
+        future.get();
+      }
+      catch (ExecutionException e) {
+        Throwable cause = e.getCause() != null ? e.getCause() : e;
+        if (failure == null) {
+          failure = cause;
+        }
+        else {
+          failure.addSuppressed(cause);
+        }
+      }
+    }
+    if (failure != null) {
+      Throwables.propagateIfPossible(failure, Exception.class);
+      throw new RuntimeException(failure);
+    }
+  }
+
+  private void startRepository(final Repository repository) throws Exception {
+    log.debug("Starting repository: {}", repository);
+    long started = System.nanoTime();
+    repository.start();
+    long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+    startupTimes.put(repository.getName(), elapsed);
+    log.debug("Started repository: {} in {} ms", repository, elapsed);
+
+    eventManager.post(new RepositoryRestoredEvent(repository));
+  }
+
+  /**
+   * Groups repositories by their depth in the group hierarchy; members of unknown or cyclic groups are ignored.
+   */
+  private Collection<List<Repository>> startupLevels() {
+    Map<String, Integer> depths = new HashMap<>();
+    SortedMap<Integer, List<Repository>> levels = new TreeMap<>();
     for (Repository repository : repositories.values()) {
-      log.debug("Starting repository: {}", repository);
-      repository.start();
+      int depth = depth(repository, depths, new HashSet<>());
+      levels.computeIfAbsent(depth, k -> new ArrayList<>()).add(repository);
+    }
+    return levels.values();
+  }
+
+  private int depth(final Repository repository, final Map<String, Integer> depths, final Set<String> visiting) {
+    String name = repository.getName();
+    Integer depth = depths.get(name);
+    if (depth != null) {
+      return depth;
+    }
+    if (!visiting.add(name)) {
+      log.warn("Repository {} is a member of itself", name);
+      return 0;
+    }
 
-      eventManager.post(new RepositoryRestoredEvent(repository));
+    int result = 0;
+    if (repository.optionalFacet(GroupFacet.class).isPresent()) {
+      for (String memberName : memberNames(repository)) {
+        Repository member = repositories.get(memberName);
+        if (member != null) {
+          result = Math.max(result, depth(member, depths, visiting) + 1);
+        }
+      }
     }
+    visiting.remove(name);
+    depths.put(name, result);
+    return result;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Collection<String> memberNames(final Repository group) {
+    NestedAttributesMap groupAttributes = group.getConfiguration().attributes("group");
+    Collection<String> memberNames = groupAttributes.get("memberNames", Collection.class);
+    return memberNames != null ? memberNames : Collections.emptyList();
+  }
+
+  private ExecutorService makeStartupExecutorService() {
+    ThreadPoolExecutor executorService = new ThreadPoolExecutor(startupThreads, startupThreads, 1, TimeUnit.NANOSECONDS,
+        new LinkedBlockingQueue<>(), new NexusThreadFactory("repository-startup", "repository-startup"));
+    executorService.allowCoreThreadTimeOut(true);
+    return NexusExecutorService.forCurrentSubject(executorService);
+  }
+
+  private List<String> slowestStartupTimes(final int limit) {
+    return startupTimes.entrySet().stream()
+        .sorted(Entry.<String, Long>comparingByValue().reversed())
+        .limit(limit)
+        .map(entry -> entry.getKey() + "=" + entry.getValue() + "ms")
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * Time in milliseconds each repository took to start when the repository manager was last started.
+   *
+   * @since 3.3
+   */
+  @ManagedAttribute
+  public Map<String, Long> getStartupTimes() {
+    return new TreeMap<>(startupTimes);
   }
 
   @Override
@@ -14,9 +14,12 @@ package org.sonatype.nexus.repository.proxy;
 
 import java.io.IOException;
 import java.net.URI;
+import java.util.Collections;
+import java.util.List;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import javax.inject.Inject;
 import javax.validation.constraints.NotNull;
 
 import org.sonatype.goodies.common.Time;
@@ -28,9 +31,11 @@ import org.sonatype.nexus.repository.cache.CacheInfo;
 import org.sonatype.nexus.repository.cache.NegativeCacheFacet;
 import org.sonatype.nexus.repository.config.Configuration;
 import org.sonatype.nexus.repository.config.ConfigurationFacet;
+import org.sonatype.nexus.repository.http.HttpMethods;
 import org.sonatype.nexus.repository.httpclient.HttpClientFacet;
 import org.sonatype.nexus.repository.view.Content;
 import org.sonatype.nexus.repository.view.Context;
+import org.sonatype.nexus.repository.view.Request;
 import org.sonatype.nexus.repository.view.payloads.HttpEntityPayload;
 import org.sonatype.nexus.validation.constraint.Url;
 
@@ -84,11 +89,20 @@ public abstract class ProxyFacetSupport
     @NotNull
     public Integer metadataMaxAge = Time.hours(24).toMinutesI();
 
+    /**
+     * Fetch related content in the background after content is fetched for the first time.
+     *
+     * @since 3.3
+     */
+    @Nullable
+    public Boolean prefetch;
+
     @Override
     public String toString() {
       return getClass().getSimpleName() + "{" +
           "remoteUrl=" + remoteUrl +
           ", contentMaxAge=" + contentMaxAge +
+          ", prefetch=" + prefetch +
           '}';
     }
   }
@@ -101,6 +115,16 @@ public abstract class ProxyFacetSupport
 
   protected CacheControllerHolder cacheControllerHolder;
 
+  private ProxyPrefetcher prefetcher;
+
+  /**
+   * @since 3.3
+   */
+  @Inject
+  public void installProxyDependencies(final ProxyPrefetcher prefetcher) {
+    this.prefetcher = checkNotNull(prefetcher);
+  }
+
   @Override
   protected void doValidate(final Configuration configuration) throws Exception {
     facet(ConfigurationFacet.class).validateSection(configuration, CONFIG_KEY, Config.class);
@@ -163,11 +187,15 @@ public abstract class ProxyFacetSupport
     Content content = getCachedContent(context);
 
     if (isStale(context, content)) {
+      boolean cached = content != null;
       Content remote = null;
       try {
         remote = fetch(context, content);
         if (remote != null) {
           content = store(context, remote);
+          if (!cached) {
+            prefetch(context);
+          }
         }
       }
       catch (ProxyServiceException e) {
@@ -202,6 +230,39 @@ public abstract class ProxyFacetSupport
     cacheControllerHolder.invalidateCaches();
   }
 
+  /**
+   * Schedules the background fetch of content related to the given context, when enabled.
+   */
+  private void prefetch(final Context context) {
+    if (prefetcher == null || !Boolean.TRUE.equals(config.prefetch) || ProxyPrefetcher.isPrefetch(context)) {
+      return;
+    }
+    for (Context related : getPrefetchContexts(context)) {
+      prefetcher.prefetch(this, related);
+    }
+  }
+
+  /**
+   * Returns contexts for content that clients are likely to request right after the content of the given context,
+   * which was just fetched for the first time. Nothing by default; formats override this to define their prefetch
+   * policy.
+   *
+   * @since 3.3
+   */
+  protected List<Context> getPrefetchContexts(final Context context) {
+    return Collections.emptyList();
+  }
+
+  /**
+   * Creates a context to GET the given path of this repository outside of a client request, to prefetch content or warm
+   * up the cache. Formats relying on context attributes normally set by their view override this to set them.
+   *
+   * @since 3.3
+   */
+  protected Context createPrefetchContext(final String path) {
+    return new Context(getRepository(), new Request.Builder().action(HttpMethods.GET).path(path).build());
+  }
+
   /**
    * If we have the content cached locally already, return that along with applicable cache controller - otherwise
    * {@code null}.
@@ -0,0 +1,195 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2008-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.repository.proxy;
+
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.sonatype.goodies.lifecycle.LifecycleSupport;
+import org.sonatype.nexus.common.app.ManagedLifecycle;
+import org.sonatype.nexus.jmx.reflect.ManagedAttribute;
+import org.sonatype.nexus.jmx.reflect.ManagedObject;
+import org.sonatype.nexus.repository.storage.StorageFacet;
+import org.sonatype.nexus.repository.view.Content;
+import org.sonatype.nexus.repository.view.Context;
+import org.sonatype.nexus.thread.NexusThreadFactory;
+import org.sonatype.nexus.transaction.UnitOfWork;
+
+import com.google.common.annotations.VisibleForTesting;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static org.sonatype.nexus.common.app.ManagedLifecycle.Phase.TASKS;
+
+/**
+ * Fetches content into proxy repositories in the background, ahead of client requests.
+ *
+ * Work is done by a small bounded pool; when its queue is full further prefetches are dropped, as they are only an
+ * optimization and clients will still fetch the content themselves if needed. The pool only runs while Nexus is in
+ * the TASKS phase, so prefetches never outlive the repositories they fetch into.
+ *
+ * @since 3.3
+ */
+@Named
+@ManagedLifecycle(phase = TASKS)
+@Singleton
+@ManagedObject
+public class ProxyPrefetcher
+    extends LifecycleSupport
+{
+  /**
+   * Context attribute marking prefetch requests, which do not trigger further prefetching.
+   */
+  public static final String PREFETCH = ProxyPrefetcher.class.getName() + ".prefetch";
+
+  private final int threads;
+
+  private final int queueSize;
+
+  private volatile ThreadPoolExecutor executor;
+
+  private final LongAdder submitted = new LongAdder();
+
+  private final LongAdder dropped = new LongAdder();
+
+  private final LongAdder fetched = new LongAdder();
+
+  private final LongAdder failed = new LongAdder();
+
+  @Inject
+  public ProxyPrefetcher(@Named("${nexus.proxy.prefetch.threads:-4}") final int threads,
+                         @Named("${nexus.proxy.prefetch.queueSize:-1000}") final int queueSize)
+  {
+    this.threads = threads;
+    this.queueSize = queueSize;
+    log.debug("Threads: {}, queue-size: {}", threads, queueSize);
+  }
+
+  @Override
+  protected void doStart() throws Exception {
+    ThreadPoolExecutor threadPool = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+        new LinkedBlockingQueue<>(queueSize), new NexusThreadFactory("proxy-prefetch", "proxy-prefetch"));
+    threadPool.allowCoreThreadTimeOut(true);
+    executor = threadPool;
+  }
+
+  /**
+   * Drops the queued prefetches and waits for the running ones to finish.
+   */
+  @Override
+  protected void doStop() throws Exception {
+    ThreadPoolExecutor threadPool = executor;
+    executor = null;
+    if (threadPool != null) {
+      threadPool.shutdownNow();
+      try {
+        threadPool.awaitTermination(5L, TimeUnit.SECONDS);
+      }
+      catch (InterruptedException e) {
+        log.debug("Interrupted while waiting for termination", e);
+      }
+    }
+  }
+
+  /**
+   * Schedules fetching the content of the given context through the given proxy facet, unless the queue is full or
+   * the prefetcher is stopped.
+   */
+  public void prefetch(final ProxyFacet proxyFacet, final Context context) {
+    checkNotNull(proxyFacet);
+    checkNotNull(context);
+    context.getAttributes().set(PREFETCH, Boolean.TRUE);
+    ThreadPoolExecutor threadPool = executor;
+    if (threadPool == null) {
+      dropped.increment();
+      log.debug("Prefetcher stopped, dropped: {}", context.getRequest().getPath());
+      return;
+    }
+    try {
+      threadPool.execute(() -> fetch(proxyFacet, context));
+      submitted.increment();
+    }
+    catch (RejectedExecutionException e) {
+      dropped.increment();
+      log.debug("Prefetch queue full, dropped: {}", context.getRequest().getPath());
+    }
+  }
+
+  @VisibleForTesting
+  void fetch(final ProxyFacet proxyFacet, final Context context) {
+    String path = context.getRequest().getPath();
+    UnitOfWork.begin(context.getRepository().facet(StorageFacet.class).txSupplier());
+    try (Content content = proxyFacet.get(context)) {
+      if (content != null) {
+        fetched.increment();
+      }
+      log.debug("Prefetched {}: {}", path, content != null ? "found" : "not found");
+    }
+    catch (Exception e) {
+      failed.increment();
+      log.debug("Failed to prefetch {} into {}", path, context.getRepository().getName(), e);
+    }
+    finally {
+      UnitOfWork.end();
+    }
+  }
+
+  /**
+   * Returns {@code true} if the given context is a prefetch request.
+   */
+  public static boolean isPrefetch(final Context context) {
+    return Boolean.TRUE.equals(context.getAttributes().get(PREFETCH));
+  }
+
+  //
+  // Metrics
+  //
+
+  @ManagedAttribute
+  public long getSubmittedCount() {
+    return submitted.sum();
+  }
+
+  @ManagedAttribute
+  public long getDroppedCount() {
+    return dropped.sum();
+  }
+
+  @ManagedAttribute
+  public long getFetchedCount() {
+    return fetched.sum();
+  }
+
+  @ManagedAttribute
+  public long getFailedCount() {
+    return failed.sum();
+  }
+
+  @ManagedAttribute
+  public int getQueueSize() {
+    ThreadPoolExecutor threadPool = executor;
+    return threadPool != null ? threadPool.getQueue().size() : 0;
+  }
+
+  @ManagedAttribute
+  public int getActiveCount() {
+    ThreadPoolExecutor threadPool = executor;
+    return threadPool != null ? threadPool.getActiveCount() : 0;
+  }
+}
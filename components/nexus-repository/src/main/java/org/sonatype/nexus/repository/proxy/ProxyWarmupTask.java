@@ -0,0 +1,309 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2008-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.repository.proxy;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+
+import javax.annotation.Nullable;
+import javax.inject.Inject;
+import javax.inject.Named;
+
+import org.sonatype.nexus.common.app.ApplicationDirectories;
+import org.sonatype.nexus.repository.Repository;
+import org.sonatype.nexus.repository.RepositoryTaskSupport;
+import org.sonatype.nexus.repository.storage.StorageFacet;
+import org.sonatype.nexus.repository.view.Content;
+import org.sonatype.nexus.repository.view.Context;
+import org.sonatype.nexus.scheduling.Cancelable;
+import org.sonatype.nexus.thread.NexusThreadFactory;
+import org.sonatype.nexus.transaction.UnitOfWork;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Stopwatch;
+import com.google.common.util.concurrent.RateLimiter;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.sonatype.nexus.repository.http.HttpMethods.GET;
+import static org.sonatype.nexus.repository.http.HttpMethods.HEAD;
+
+/**
+ * Task to warm up the cache of proxy repositories, replaying the successful GET requests of a request log, or the
+ * paths of a path list, through their {@link ProxyFacet}.
+ *
+ * The source must be in the log directory, relative names are resolved against it. Request log lines are those
+ * written by the default {@code logback-access.xml} configuration; other lines are taken as paths relative to the
+ * repository, and skipped unless they are valid paths. Requests are made concurrently, at a limited rate to spare the
+ * remote.
+ *
+ * @since 3.3
+ */
+@Named
+public class ProxyWarmupTask
+    extends RepositoryTaskSupport
+    implements Cancelable
+{
+  public static final String SOURCE_FIELD_ID = "source";
+
+  public static final String REQUESTS_PER_SECOND_FIELD_ID = "requestsPerSecond";
+
+  public static final String CONCURRENCY_FIELD_ID = "concurrency";
+
+  public static final int DEFAULT_REQUESTS_PER_SECOND = 10;
+
+  public static final int DEFAULT_CONCURRENCY = 4;
+
+  /**
+   * Matches the quoted request line and status code of request log lines.
+   */
+  private static final Pattern REQUEST_LOG_LINE = Pattern.compile("\"([A-Z]+) (\\S+) HTTP/[0-9.]+\" ([0-9]{3}) ");
+
+  /**
+   * Matches path list entries: no whitespace, quotes, query or fragment.
+   */
+  private static final Pattern PATH_LIST_ENTRY = Pattern.compile("[^\\s\"?#]+");
+
+  /**
+   * Matches {@code .} and {@code ..} path segments.
+   */
+  private static final Pattern DOT_SEGMENT = Pattern.compile("(^|/)\\.\\.?(/|$)");
+
+  private static final long PROGRESS_INTERVAL_SECONDS = 30;
+
+  private final ApplicationDirectories applicationDirectories;
+
+  private final String contextPath;
+
+  @Inject
+  public ProxyWarmupTask(final ApplicationDirectories applicationDirectories,
+                         @Named("${nexus-context-path:-/}") final String contextPath)
+  {
+    this.applicationDirectories = checkNotNull(applicationDirectories);
+    this.contextPath = checkNotNull(contextPath);
+  }
+
+  @Override
+  protected void execute(final Repository repository) {
+    ProxyFacetSupport proxyFacet = (ProxyFacetSupport) repository.facet(ProxyFacet.class);
+    File source = resolveSource(getConfiguration().getString(SOURCE_FIELD_ID));
+    String repositoryPrefix = repositoryPrefix(contextPath, repository.getName());
+    int concurrency = Math.max(1, getConfiguration().getInteger(CONCURRENCY_FIELD_ID, DEFAULT_CONCURRENCY));
+    RateLimiter rateLimiter = RateLimiter.create(
+        Math.max(1, getConfiguration().getInteger(REQUESTS_PER_SECOND_FIELD_ID, DEFAULT_REQUESTS_PER_SECOND)));
+
+    log.info("Warming up {} from {}, concurrency: {}, rate: {}/s", repository.getName(), source, concurrency,
+        rateLimiter.getRate());
+
+    Progress progress = new Progress();
+    Semaphore permits = new Semaphore(concurrency);
+    ExecutorService executor = Executors.newFixedThreadPool(concurrency,
+        new NexusThreadFactory("proxy-warmup", "proxy-warmup-" + repository.getName()));
+    Stopwatch stopwatch = Stopwatch.createStarted();
+    long lastProgress = 0;
+    try (BufferedReader reader = new BufferedReader(new InputStreamReader(open(source), UTF_8))) {
+      Set<String> seen = new HashSet<>();
+      String line;
+      while (!isCanceled() && (line = reader.readLine()) != null) {
+        String path = parsePath(line, repositoryPrefix);
+        if (path == null || !seen.add(path)) {
+          continue;
+        }
+        rateLimiter.acquire();
+        permits.acquire();
+        progress.submitted.increment();
+        executor.execute(() -> {
+          try {
+            fetch(repository, proxyFacet, path, progress);
+          }
+          finally {
+            permits.release();
+          }
+        });
+
+        long elapsed = stopwatch.elapsed(TimeUnit.SECONDS);
+        if (elapsed - lastProgress >= PROGRESS_INTERVAL_SECONDS) {
+          lastProgress = elapsed;
+          log.info("Warming up {}: {}", repository.getName(), progress);
+        }
+      }
+      // wait for in-flight requests to finish
+      permits.acquire(concurrency);
+    }
+    catch (IOException e) {
+      throw new RuntimeException("Failed to read " + source, e);
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    finally {
+      executor.shutdownNow();
+    }
+
+    log.info("Warmed up {}{} in {}: {}", repository.getName(), isCanceled() ? " (canceled)" : "", stopwatch, progress);
+  }
+
+  /**
+   * Resolves the source against the log directory, refusing files outside of it.
+   */
+  private File resolveSource(final String source) {
+    File logDirectory = applicationDirectories.getWorkDirectory("log");
+    File file = new File(source);
+    try {
+      File canonical = (file.isAbsolute() ? file : new File(logDirectory, source)).getCanonicalFile();
+      checkArgument(canonical.toPath().startsWith(logDirectory.getCanonicalFile().toPath()),
+          "Source must be in the log directory %s: %s", logDirectory, source);
+      return canonical;
+    }
+    catch (IOException e) {
+      throw new RuntimeException("Failed to resolve " + source, e);
+    }
+  }
+
+  /**
+   * Returns the URL path prefix of the given repository, below the given context path.
+   */
+  @VisibleForTesting
+  static String repositoryPrefix(final String contextPath, final String repositoryName) {
+    String prefix = contextPath.endsWith("/") ? contextPath : contextPath + "/";
+    return (prefix.startsWith("/") ? prefix : "/" + prefix) + "repository/" + repositoryName + "/";
+  }
+
+  private static InputStream open(final File source) throws IOException {
+    InputStream input = new FileInputStream(source);
+    if (source.getName().endsWith(".gz")) {
+      try {
+        return new GZIPInputStream(input);
+      }
+      catch (IOException e) {
+        input.close();
+        throw e;
+      }
+    }
+    return input;
+  }
+
+  private void fetch(final Repository repository,
+                     final ProxyFacetSupport proxyFacet,
+                     final String path,
+                     final Progress progress)
+  {
+    UnitOfWork.begin(repository.facet(StorageFacet.class).txSupplier());
+    try {
+      Context context = proxyFacet.createPrefetchContext(path);
+      // requests are replayed as made by clients, no need to prefetch related content as well
+      context.getAttributes().set(ProxyPrefetcher.PREFETCH, Boolean.TRUE);
+      try (Content content = proxyFacet.get(context)) {
+        (content != null ? progress.fetched : progress.missing).increment();
+      }
+    }
+    catch (Exception e) {
+      progress.failed.increment();
+      log.debug("Failed to warm up {} in {}", path, repository.getName(), e);
+    }
+    finally {
+      UnitOfWork.end();
+    }
+  }
+
+  /**
+   * Returns the path relative to the repository with the given {@link #repositoryPrefix URL path prefix} to warm up for
+   * a line of the source, or {@code null} if none.
+   */
+  @Nullable
+  @VisibleForTesting
+  static String parsePath(final String line, final String repositoryPrefix) {
+    String trimmed = line.trim();
+    if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+      return null;
+    }
+
+    Matcher matcher = REQUEST_LOG_LINE.matcher(trimmed);
+    if (!matcher.find()) {
+      // path list entry, relative to the repository unless given with the repository URL path
+      if (!PATH_LIST_ENTRY.matcher(trimmed).matches()) {
+        return null;
+      }
+      String path = trimmed.startsWith("/") ? trimmed : "/" + trimmed;
+      return repositoryPath(path.startsWith(repositoryPrefix) ? path.substring(repositoryPrefix.length() - 1) : path);
+    }
+
+    String method = matcher.group(1);
+    int status = Integer.parseInt(matcher.group(3));
+    if (!(GET.equals(method) || HEAD.equals(method)) || (status != 200 && status != 304)) {
+      return null;
+    }
+    String url = matcher.group(2);
+    if (!url.startsWith(repositoryPrefix)) {
+      return null;
+    }
+    int query = url.indexOf('?');
+    String path = url.substring(repositoryPrefix.length() - 1, query < 0 ? url.length() : query);
+    try {
+      return repositoryPath(new URI(path).getPath());
+    }
+    catch (Exception e) {
+      return null;
+    }
+  }
+
+  /**
+   * Returns the given path if it denotes content of a repository, or {@code null}.
+   */
+  @Nullable
+  private static String repositoryPath(final String path) {
+    return path.length() > 1 && !DOT_SEGMENT.matcher(path).find() ? path : null;
+  }
+
+  @Override
+  protected boolean appliesTo(final Repository repository) {
+    return repository.optionalFacet(ProxyFacet.class).filter(ProxyFacetSupport.class::isInstance).isPresent();
+  }
+
+  @Override
+  public String getMessage() {
+    return "Warm up cache of " + getRepositoryField() + " from " + getConfiguration().getString(SOURCE_FIELD_ID);
+  }
+
+  private static class Progress
+  {
+    private final LongAdder submitted = new LongAdder();
+
+    private final LongAdder fetched = new LongAdder();
+
+    private final LongAdder missing = new LongAdder();
+
+    private final LongAdder failed = new LongAdder();
+
+    @Override
+    public String toString() {
+      return "submitted " + submitted + ", fetched " + fetched + ", missing " + missing + ", failed " + failed;
+    }
+  }
+}
@@ -0,0 +1,76 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2008-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.repository.proxy;
+
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.sonatype.nexus.formfields.FormField;
+import org.sonatype.nexus.formfields.NumberTextFormField;
+import org.sonatype.nexus.formfields.RepositoryCombobox;
+import org.sonatype.nexus.formfields.StringTextFormField;
+import org.sonatype.nexus.scheduling.TaskDescriptorSupport;
+
+import static org.sonatype.nexus.repository.proxy.ProxyWarmupTask.CONCURRENCY_FIELD_ID;
+import static org.sonatype.nexus.repository.proxy.ProxyWarmupTask.DEFAULT_CONCURRENCY;
+import static org.sonatype.nexus.repository.proxy.ProxyWarmupTask.DEFAULT_REQUESTS_PER_SECOND;
+import static org.sonatype.nexus.repository.proxy.ProxyWarmupTask.REPOSITORY_NAME_FIELD_ID;
+import static org.sonatype.nexus.repository.proxy.ProxyWarmupTask.REQUESTS_PER_SECOND_FIELD_ID;
+import static org.sonatype.nexus.repository.proxy.ProxyWarmupTask.SOURCE_FIELD_ID;
+
+/**
+ * Task descriptor for {@link ProxyWarmupTask}.
+ *
+ * @since 3.3
+ */
+@Named
+@Singleton
+public class ProxyWarmupTaskDescriptor
+    extends TaskDescriptorSupport
+{
+  public static final String TYPE_ID = "repository.proxy-warmup";
+
+  public ProxyWarmupTaskDescriptor() {
+    super(TYPE_ID,
+        ProxyWarmupTask.class,
+        "Warm up proxy repository cache",
+        VISIBLE,
+        EXPOSED,
+        new RepositoryCombobox(
+            REPOSITORY_NAME_FIELD_ID,
+            "Repository",
+            "Select the proxy repository to warm up",
+            FormField.MANDATORY
+        ).includingAnyOfFacets(ProxyFacet.class).includeAnEntryForAllRepositories(),
+        new StringTextFormField(
+            SOURCE_FIELD_ID,
+            "Source file",
+            "Name of a request log (optionally gzipped) in the log directory, or of a file there listing one"
+                + " repository path per line",
+            FormField.MANDATORY
+        ),
+        new NumberTextFormField(
+            REQUESTS_PER_SECOND_FIELD_ID,
+            "Requests per second",
+            "Maximum number of requests per second made to the remote",
+            FormField.OPTIONAL
+        ).withInitialValue(DEFAULT_REQUESTS_PER_SECOND).withMinimumValue(1),
+        new NumberTextFormField(
+            CONCURRENCY_FIELD_ID,
+            "Concurrency",
+            "Maximum number of concurrent requests made to the remote",
+            FormField.OPTIONAL
+        ).withInitialValue(DEFAULT_CONCURRENCY).withMinimumValue(1)
+    );
+  }
+}
@@ -19,20 +19,19 @@ import javax.inject.Inject;
 import javax.inject.Named;
 
 import org.sonatype.nexus.common.stateguard.Guarded;
-import org.sonatype.nexus.orient.entity.AttachedEntityHelper;
 import org.sonatype.nexus.repository.FacetSupport;
 import org.sonatype.nexus.repository.storage.Asset;
-import org.sonatype.nexus.repository.storage.Bucket;
 import org.sonatype.nexus.repository.storage.Component;
 import org.sonatype.nexus.repository.storage.ComponentEntityAdapter;
 import org.sonatype.nexus.repository.storage.StorageFacet;
 import org.sonatype.nexus.repository.storage.StorageTx;
 import org.sonatype.nexus.repository.transaction.TransactionalDeleteBlob;
+import org.sonatype.nexus.scheduling.CancelableHelper;
+import org.sonatype.nexus.transaction.BatchCommitter;
 import org.sonatype.nexus.transaction.UnitOfWork;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
-import com.google.common.collect.Iterables;
 import org.joda.time.DateTime;
 
 import static com.google.common.base.Preconditions.checkArgument;
@@ -40,7 +39,6 @@ import static com.google.common.base.Preconditions.checkNotNull;
 import static org.sonatype.nexus.repository.FacetSupport.State.STARTED;
 import static org.sonatype.nexus.repository.storage.AssetEntityAdapter.P_COMPONENT;
 import static org.sonatype.nexus.repository.storage.AssetEntityAdapter.P_LAST_DOWNLOADED;
-import static org.sonatype.nexus.repository.storage.MetadataNodeEntityAdapter.P_BUCKET;
 
 /**
  * {@link PurgeUnusedFacet} implementation.
@@ -54,10 +52,15 @@ public class PurgeUnusedFacetImpl
 {
   private final ComponentEntityAdapter componentEntityAdapter;
 
+  private final int batchSize;
+
   @Inject
-  public PurgeUnusedFacetImpl(final ComponentEntityAdapter componentEntityAdapter)
+  public PurgeUnusedFacetImpl(final ComponentEntityAdapter componentEntityAdapter,
+                              @Named("${nexus.purgeUnused.batchSize:-500}") final int batchSize)
   {
     this.componentEntityAdapter = checkNotNull(componentEntityAdapter);
+    checkArgument(batchSize > 0, "Batch size must be greater than zero");
+    this.batchSize = batchSize;
   }
 
   @Override
@@ -79,50 +82,56 @@ public class PurgeUnusedFacetImpl
   }
 
   /**
-   * Delete all unused components.
+   * Delete all unused components, committing every {@code batchSize} deletions. A retry after a conflict starts over
+   * with the components which are still unused.
    */
   @TransactionalDeleteBlob
   protected void deleteUnusedComponents(final Date olderThan) {
     StorageTx tx = UnitOfWork.currentTx();
+    BatchCommitter batch = newBatch("components");
 
     for (Component component : findUnusedComponents(tx, olderThan)) {
       log.debug("Deleting unused component {}", component);
-      tx.deleteComponent(component); // TODO: commit in batches
+      tx.deleteComponent(component);
+      batch.increment();
     }
+    batch.commit();
   }
 
   /**
-   * Delete all unused assets.
+   * Delete all unused assets, committing every {@code batchSize} deletions.
    */
   @TransactionalDeleteBlob
   protected void deleteUnusedAssets(final Date olderThan) {
     StorageTx tx = UnitOfWork.currentTx();
+    BatchCommitter batch = newBatch("assets");
 
     for (Asset asset : findUnusedAssets(tx, olderThan)) {
       log.debug("Deleting unused asset {}", asset);
-      tx.deleteAsset(asset); // TODO: commit in batches
+      tx.deleteAsset(asset);
+      batch.increment();
     }
+    batch.commit();
+  }
+
+  /**
+   * Blobs of deleted assets are removed by the {@link StorageTx} once each batch is committed; between batches the
+   * purge can be canceled.
+   */
+  private BatchCommitter newBatch(final String type) {
+    return BatchCommitter.forCurrentTx(batchSize)
+        .onProgress(count ->
+            log.debug("Purged {} unused {} from repository {}", count, type, getRepository().getName()))
+        .onCancellationCheck(CancelableHelper::checkCancellation);
   }
 
   /**
    * Find all components that were last accessed before specified date. Date when a component was last accessed is the
-   * last time an asset of that component was last accessed.
+   * last time an asset of that component was last accessed, which is kept on the component itself so this is a range
+   * scan of the bucket-last_downloaded index.
    */
   private Iterable<Component> findUnusedComponents(final StorageTx tx, final Date olderThan) {
-    final Bucket bucket = tx.findBucket(getRepository());
-
-    String sql = String.format(
-        "SELECT FROM (SELECT %s, MAX(%s) AS lastDownloaded FROM asset WHERE %s=:bucket AND %s IS NOT NULL GROUP BY %s) WHERE lastDownloaded < :olderThan",
-        P_COMPONENT, P_LAST_DOWNLOADED, P_BUCKET, P_COMPONENT, P_COMPONENT
-    );
-
-    Map<String, Object> sqlParams = ImmutableMap.of(
-        "bucket", AttachedEntityHelper.id(bucket),
-        "olderThan", olderThan
-    );
-
-    return Iterables.transform(tx.browse(sql, sqlParams),
-        (doc) -> componentEntityAdapter.readEntity(doc.field(P_COMPONENT)));
+    return componentEntityAdapter.browseLastDownloadedBefore(tx.getDb(), tx.findBucket(getRepository()), olderThan);
   }
 
   /**
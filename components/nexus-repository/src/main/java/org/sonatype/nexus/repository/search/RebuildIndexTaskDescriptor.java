@@ -51,4 +51,9 @@ public class RebuildIndexTaskDescriptor
         nodeAccess.isClustered() ? newMultinodeFormField().withInitialValue(true) : null
     );
   }
+
+  @Override
+  public String getResourceClass() {
+    return HEAVY_RESOURCE_CLASS;
+  }
 }
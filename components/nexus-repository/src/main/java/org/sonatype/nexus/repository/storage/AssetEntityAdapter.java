@@ -12,9 +12,14 @@
  */
 package org.sonatype.nexus.repository.storage;
 
+import java.util.AbstractMap.SimpleImmutableEntry;
 import java.util.Date;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
 
+import javax.annotation.Nullable;
 import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
@@ -29,10 +34,16 @@ import org.sonatype.nexus.orient.OIndexNameBuilder;
 import org.sonatype.nexus.orient.entity.AttachedEntityId;
 import org.sonatype.nexus.orient.entity.AttachedEntityMetadata;
 
+import com.google.common.collect.AbstractIterator;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Iterables;
+import com.google.common.collect.Iterators;
 import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
+import com.orientechnologies.orient.core.db.record.OIdentifiable;
 import com.orientechnologies.orient.core.id.ORID;
+import com.orientechnologies.orient.core.index.OCompositeKey;
+import com.orientechnologies.orient.core.index.OIndex;
+import com.orientechnologies.orient.core.index.OIndexCursor;
 import com.orientechnologies.orient.core.metadata.schema.OClass;
 import com.orientechnologies.orient.core.metadata.schema.OClass.INDEX_TYPE;
 import com.orientechnologies.orient.core.metadata.schema.OType;
@@ -42,6 +53,7 @@ import org.joda.time.DateTime;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.base.Predicates.notNull;
 import static org.sonatype.nexus.repository.storage.BucketEntityAdapter.P_REPOSITORY_NAME;
 
 /**
@@ -117,8 +129,21 @@ public class AssetEntityAdapter
       .property(P_NAME)
       .build();
 
+  private static final String I_BUCKET_LAST_DOWNLOADED = new OIndexNameBuilder()
+      .type(DB_CLASS)
+      .property(P_BUCKET)
+      .property(P_LAST_DOWNLOADED)
+      .build();
+
+  private static final String I_BLOB_REF = new OIndexNameBuilder()
+      .type(DB_CLASS)
+      .property(P_BLOB_REF)
+      .build();
+
   private final ComponentEntityAdapter componentEntityAdapter;
 
+  private final Map<String, String> findByComponentPropertyQueries = new ConcurrentHashMap<>();
+
   @Inject
   public AssetEntityAdapter(final BucketEntityAdapter bucketEntityAdapter,
                             final ComponentEntityAdapter componentEntityAdapter)
@@ -148,6 +173,19 @@ public class AssetEntityAdapter
         new String[]{P_BUCKET, P_COMPONENT, P_NAME}
     );
     type.createIndex(I_BUCKET_NAME, INDEX_TYPE.NOTUNIQUE, P_BUCKET, P_NAME);
+    type.createIndex(I_BUCKET_LAST_DOWNLOADED, INDEX_TYPE.NOTUNIQUE.name(), null, metadata,
+        new String[]{P_BUCKET, P_LAST_DOWNLOADED}
+    );
+    type.createIndex(I_BLOB_REF, INDEX_TYPE.NOTUNIQUE.name(), null,
+        db.newInstance().field("ignoreNullValues", true).field("mergeKeys", false),
+        new String[]{P_BLOB_REF}
+    );
+  }
+
+  @Nullable
+  @Override
+  protected String bucketPropertyIndex(final String propName) {
+    return P_NAME.equals(propName) ? I_BUCKET_NAME : null;
   }
 
   @Override
@@ -216,15 +254,23 @@ public class AssetEntityAdapter
     checkNotNull(propValue);
     checkNotNull(component);
 
+    ORID bucketId = bucketEntityAdapter.recordIdentity(component.bucketId());
+    ORID componentId = componentEntityAdapter.recordIdentity(component);
+    if (P_NAME.equals(propName) && propValue instanceof String) {
+      ODocument document = findFirstByIndex(db, I_BUCKET_COMPONENT_NAME,
+          new OCompositeKey(bucketId, componentId, propValue));
+      return document != null ? readEntity(document) : null;
+    }
+
     Map<String, Object> parameters = ImmutableMap.of(
-        "bucket", bucketEntityAdapter.recordIdentity(component.bucketId()),
-        "component", componentEntityAdapter.recordIdentity(component),
+        "bucket", bucketId,
+        "component", componentId,
         "propValue", propValue
     );
-    String query = String.format(
+    String query = findByComponentPropertyQueries.computeIfAbsent(propName, name -> String.format(
         "select from %s where %s = :bucket and %s = :component and %s = :propValue",
-        DB_CLASS, P_BUCKET, P_COMPONENT, propName
-    );
+        DB_CLASS, P_BUCKET, P_COMPONENT, name
+    ));
     Iterable<ODocument> docs = db.command(new OCommandSQL(query)).execute(parameters);
     ODocument first = Iterables.getFirst(docs, null);
     return first != null ? readEntity(first) : null;
@@ -246,6 +292,58 @@ public class AssetEntityAdapter
     return transform(docs);
   }
 
+  /**
+   * Iterates the ids of the assets of given bucket which belong to a component, as component id to asset id entries in
+   * component id order, by walking the bucket-component-name index. When {@code afterComponent} is given only assets of
+   * components with a greater id are returned, so pages of components can be resumed without scanning earlier ones.
+   *
+   * @since 3.3
+   */
+  public Iterator<Entry<ORID, ORID>> browseComponentAssetIds(final ODatabaseDocumentTx db,
+                                                             final Bucket bucket,
+                                                             @Nullable final ORID afterComponent)
+  {
+    checkNotNull(bucket);
+    ORID bucketId = bucketEntityAdapter.recordIdentity(bucket);
+    OCompositeKey bucketKey = new OCompositeKey(bucketId);
+    OIndex<?> index = db.getMetadata().getIndexManager().getIndex(I_BUCKET_COMPONENT_NAME);
+    OIndexCursor cursor = afterComponent != null
+        ? index.iterateEntriesBetween(new OCompositeKey(bucketId, afterComponent), false, bucketKey, true, true)
+        : index.iterateEntriesBetween(bucketKey, true, bucketKey, true, true);
+    return new AbstractIterator<Entry<ORID, ORID>>()
+    {
+      @Override
+      protected Entry<ORID, ORID> computeNext() {
+        Entry<Object, OIdentifiable> entry;
+        while ((entry = cursor.nextEntry()) != null) {
+          OIdentifiable component = (OIdentifiable) ((OCompositeKey) entry.getKey()).getKeys().get(1);
+          if (component != null) {
+            return new SimpleImmutableEntry<>(component.getIdentity(), entry.getValue().getIdentity());
+          }
+        }
+        return endOfData();
+      }
+    };
+  }
+
+  /**
+   * Browses the assets referring to the given blob, resolved directly against the blob_ref index.
+   *
+   * @since 3.3
+   */
+  public Iterable<Asset> browseByBlobRef(final ODatabaseDocumentTx db, final BlobRef blobRef) {
+    checkNotNull(blobRef);
+    String key = blobRef.toString();
+    OIndex<?> index = db.getMetadata().getIndexManager().getIndex(I_BLOB_REF);
+    return transform(() -> Iterators.filter(
+        Iterators.transform(
+            index.iterateEntriesBetween(key, true, key, true, true),
+            (OIdentifiable identifiable) -> identifiable != null ? (ODocument) identifiable.getRecord() : null
+        ),
+        notNull()
+    ));
+  }
+
   @Override
   public boolean sendEvents() {
     return true;
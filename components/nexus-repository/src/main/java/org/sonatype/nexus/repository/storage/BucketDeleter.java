@@ -16,6 +16,7 @@ import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CancellationException;
 
 import javax.inject.Inject;
 import javax.inject.Named;
@@ -28,6 +29,7 @@ import org.sonatype.nexus.blobstore.api.BlobStore;
 import org.sonatype.nexus.blobstore.api.BlobStoreManager;
 import org.sonatype.nexus.common.stateguard.InvalidStateException;
 import org.sonatype.nexus.orient.DatabaseInstance;
+import org.sonatype.nexus.transaction.BatchCommitter;
 
 import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
 
@@ -44,7 +46,7 @@ import static org.sonatype.nexus.orient.transaction.OrientTransactional.inTxRetr
 public class BucketDeleter
     extends ComponentSupport
 {
-  private static final long DELETE_BATCH_SIZE = 100L;
+  private static final int DELETE_BATCH_SIZE = 100;
 
   private final Provider<DatabaseInstance> databaseInstanceProvider;
 
@@ -78,45 +80,40 @@ public class BucketDeleter
    */
   public void deleteBucket(final Bucket bucket) throws InterruptedException {
     checkNotNull(bucket);
-    inTxRetry(databaseInstanceProvider).throwing(InterruptedException.class).run(db -> {
-
-      long count = 0;
-
-      List<BlobRef> deletedBlobs = new ArrayList<>();
-      Set<String> deletedBlobStores = new HashSet<>();
-
-      // first delete all components and constituent assets
-      for (Component component : componentEntityAdapter.browseByBucket(db, bucket)) {
-        deleteComponent(db, deletedBlobs, component);
-        count++;
-        if (count == DELETE_BATCH_SIZE) {
-          commitBatch(db, deletedBlobs, deletedBlobStores);
-          count = 0;
-          if (Thread.interrupted()) {
-            throw new InterruptedException();
-          }
+    try {
+      inTxRetry(databaseInstanceProvider).run(db -> {
+
+        List<BlobRef> deletedBlobs = new ArrayList<>();
+        Set<String> deletedBlobStores = new HashSet<>();
+
+        // blobs are only deleted once the assets referring to them are gone
+        BatchCommitter batch = BatchCommitter.forCurrentTx(DELETE_BATCH_SIZE)
+            .onCommit(() -> deleteBlobs(deletedBlobs, deletedBlobStores));
+
+        // first delete all components and constituent assets
+        for (Component component : componentEntityAdapter.browseByBucket(db, bucket)) {
+          deleteComponent(db, deletedBlobs, component);
+          batch.increment();
         }
-      }
-      commitBatch(db, deletedBlobs, deletedBlobStores);
-
-      // then delete all standalone assets
-      for (Asset asset : assetEntityAdapter.browseByBucket(db, bucket)) {
-        deleteAsset(db, deletedBlobs, asset);
-        count++;
-        if (count == DELETE_BATCH_SIZE) {
-          commitBatch(db, deletedBlobs, deletedBlobStores);
-          count = 0;
-          if (Thread.interrupted()) {
-            throw new InterruptedException();
-          }
+        batch.commit();
+
+        // then delete all standalone assets
+        for (Asset asset : assetEntityAdapter.browseByBucket(db, bucket)) {
+          deleteAsset(db, deletedBlobs, asset);
+          batch.increment();
         }
-      }
-      commitBatch(db, deletedBlobs, deletedBlobStores);
+        batch.commit();
 
-      // finally, delete the bucket document
-      bucketEntityAdapter.deleteEntity(db, bucket);
-      db.commit();
-    });
+        // finally, delete the bucket document
+        bucketEntityAdapter.deleteEntity(db, bucket);
+        batch.increment();
+        batch.commit();
+      });
+    }
+    catch (CancellationException e) {
+      Thread.interrupted(); // reported to the caller as an InterruptedException instead
+      throw new InterruptedException(e.getMessage());
+    }
   }
 
   private void deleteAsset(final ODatabaseDocumentTx db, final List<BlobRef> deletedBlobs, final Asset asset) {
@@ -145,20 +142,10 @@ public class BucketDeleter
     componentEntityAdapter.deleteEntity(db, component);
   }
 
-  private void commitBatch(final ODatabaseDocumentTx db,
-                           final List<BlobRef> deletedBlobs,
-                           final Set<String> deletedBlobStores)
-  {
-    checkNotNull(db);
-    checkNotNull(deletedBlobs);
-    checkNotNull(deletedBlobStores);
-
-    db.commit();
-
+  private void deleteBlobs(final List<BlobRef> deletedBlobs, final Set<String> deletedBlobStores) {
     for (BlobRef blobRef : deletedBlobs) {
       deleteBlob(deletedBlobStores, blobRef);
     }
-
     deletedBlobs.clear();
   }
 
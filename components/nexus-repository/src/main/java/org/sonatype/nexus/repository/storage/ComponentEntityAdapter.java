@@ -12,22 +12,44 @@
  */
 package org.sonatype.nexus.repository.storage;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nullable;
 import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
 
 import org.sonatype.nexus.common.entity.EntityEvent;
+import org.sonatype.nexus.common.entity.EntityId;
 import org.sonatype.nexus.common.entity.EntityMetadata;
 import org.sonatype.nexus.orient.OClassNameBuilder;
 import org.sonatype.nexus.orient.OIndexNameBuilder;
 import org.sonatype.nexus.orient.entity.AttachedEntityMetadata;
+import org.sonatype.nexus.orient.entity.EntityHook;
 
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.ImmutableMap;
 import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
+import com.orientechnologies.orient.core.db.record.OIdentifiable;
+import com.orientechnologies.orient.core.index.OCompositeKey;
+import com.orientechnologies.orient.core.index.OIndex;
+import com.orientechnologies.orient.core.index.OIndexCursor;
 import com.orientechnologies.orient.core.metadata.schema.OClass;
 import com.orientechnologies.orient.core.metadata.schema.OClass.INDEX_TYPE;
 import com.orientechnologies.orient.core.metadata.schema.OType;
 import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.core.sql.OCommandSQL;
+import org.joda.time.DateTime;
 
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
 import static org.sonatype.nexus.repository.storage.BucketEntityAdapter.P_REPOSITORY_NAME;
 
 /**
@@ -54,6 +76,17 @@ public class ComponentEntityAdapter
    */
   public static final String P_VERSION = "version";
 
+  /**
+   * Key of the denormalized time a {@link Component} was last downloaded, i.e. the latest last downloaded time of its
+   * assets. Maintained once {@link StorageTx#saveAsset(Asset) saved} assets are committed, it may lag behind the assets
+   * by up to {@link #LAST_DOWNLOADED_GRANULARITY_MILLIS} so components are not rewritten on every download.
+   *
+   * @since 3.3
+   */
+  public static final String P_LAST_DOWNLOADED = "last_downloaded";
+
+  private static final long LAST_DOWNLOADED_GRANULARITY_MILLIS = TimeUnit.HOURS.toMillis(1);
+
   private static final String I_BUCKET_GROUP_NAME_VERSION = new OIndexNameBuilder()
       .type(DB_CLASS)
       .property(P_BUCKET)
@@ -69,6 +102,12 @@ public class ComponentEntityAdapter
       .property(P_VERSION)
       .build();
 
+  private static final String I_BUCKET_LAST_DOWNLOADED = new OIndexNameBuilder()
+      .type(DB_CLASS)
+      .property(P_BUCKET)
+      .property(P_LAST_DOWNLOADED)
+      .build();
+
   @Inject
   public ComponentEntityAdapter(final BucketEntityAdapter bucketEntityAdapter) {
     super(DB_CLASS, bucketEntityAdapter);
@@ -82,6 +121,7 @@ public class ComponentEntityAdapter
         .setMandatory(true)
         .setNotNull(true);
     type.createProperty(P_VERSION, OType.STRING);
+    type.createProperty(P_LAST_DOWNLOADED, OType.DATETIME);
 
     ODocument metadata = db.newInstance()
         .field("ignoreNullValues", false)
@@ -90,6 +130,8 @@ public class ComponentEntityAdapter
         new String[]{P_BUCKET, P_GROUP, P_NAME, P_VERSION});
     type.createIndex(I_BUCKET_NAME_VERSION, INDEX_TYPE.NOTUNIQUE.name(), null, metadata,
         new String[]{P_BUCKET, P_NAME, P_VERSION});
+    type.createIndex(I_BUCKET_LAST_DOWNLOADED, INDEX_TYPE.NOTUNIQUE.name(), null, metadata,
+        new String[]{P_BUCKET, P_LAST_DOWNLOADED});
   }
 
   @Override
@@ -119,6 +161,145 @@ public class ComponentEntityAdapter
     document.field(P_VERSION, entity.version());
   }
 
+  @Nullable
+  @Override
+  protected String bucketPropertyIndex(final String propName) {
+    switch (propName) {
+      case P_GROUP:
+        return I_BUCKET_GROUP_NAME_VERSION;
+      case P_NAME:
+        return I_BUCKET_NAME_VERSION;
+      default:
+        return null;
+    }
+  }
+
+  /**
+   * Browses the components of given bucket ordered by group, name and version. Walks the bucket-group-name-version
+   * index, so unlike an {@code ORDER BY} query it needs neither a full class scan nor an in-memory sort, and the
+   * components are loaded lazily as the returned iterable is consumed.
+   *
+   * The index is read in pages of {@code pageSize} entries, each page from a new cursor starting after the last key of
+   * the previous page, so no cursor is held open while the caller changes (e.g. deletes and commits) the components
+   * already returned.
+   *
+   * @since 3.3
+   */
+  public Iterable<Component> browseByBucketOrderedByCoordinates(final ODatabaseDocumentTx db,
+                                                                final Bucket bucket,
+                                                                final int pageSize)
+  {
+    checkNotNull(bucket);
+    checkArgument(pageSize > 0, "Page size must be positive");
+    OCompositeKey bucketKey = new OCompositeKey(bucketEntityAdapter.recordIdentity(bucket));
+    OIndex<?> index = db.getMetadata().getIndexManager().getIndex(I_BUCKET_GROUP_NAME_VERSION);
+    return transform(() -> new AbstractIterator<ODocument>()
+    {
+      private Iterator<OIdentifiable> page = Collections.emptyIterator();
+
+      private Object lastKey;
+
+      private boolean exhausted;
+
+      @Override
+      protected ODocument computeNext() {
+        while (true) {
+          while (page.hasNext()) {
+            ODocument document = page.next().getRecord();
+            if (document != null) {
+              return document;
+            }
+          }
+          if (exhausted) {
+            return endOfData();
+          }
+          page = nextPage().iterator();
+        }
+      }
+
+      private List<OIdentifiable> nextPage() {
+        OIndexCursor cursor = lastKey == null
+            ? index.iterateEntriesBetween(bucketKey, true, bucketKey, true, true)
+            : index.iterateEntriesBetween(lastKey, false, bucketKey, true, true);
+        List<OIdentifiable> result = new ArrayList<>(pageSize);
+        while (result.size() < pageSize) {
+          Entry<Object, OIdentifiable> entry = cursor.nextEntry();
+          if (entry == null) {
+            exhausted = true;
+            break;
+          }
+          lastKey = entry.getKey();
+          result.add(entry.getValue());
+        }
+        return result;
+      }
+    });
+  }
+
+  /**
+   * Returns the versions of the components with given group and name in given bucket, read from the
+   * bucket-group-name-version index keys without loading any component.
+   *
+   * @since 3.3
+   */
+  public List<String> browseVersions(final ODatabaseDocumentTx db,
+                                     final Bucket bucket,
+                                     final String group,
+                                     final String name)
+  {
+    checkNotNull(bucket);
+    checkNotNull(name);
+    OCompositeKey key = new OCompositeKey(bucketEntityAdapter.recordIdentity(bucket), group, name);
+    OIndex<?> index = db.getMetadata().getIndexManager().getIndex(I_BUCKET_GROUP_NAME_VERSION);
+    List<String> versions = new ArrayList<>();
+    OIndexCursor cursor = index.iterateEntriesBetween(key, true, key, true, true);
+    Entry<Object, OIdentifiable> entry;
+    while ((entry = cursor.nextEntry()) != null) {
+      versions.add((String) ((OCompositeKey) entry.getKey()).getKeys().get(3));
+    }
+    return versions;
+  }
+
+  /**
+   * Browses the components of given bucket which were last downloaded before the given date, as a range scan of the
+   * bucket-last_downloaded index. Components which have never been downloaded are not included.
+   *
+   * @since 3.3
+   */
+  public Iterable<Component> browseLastDownloadedBefore(final ODatabaseDocumentTx db,
+                                                        final Bucket bucket,
+                                                        final Date olderThan)
+  {
+    checkNotNull(bucket);
+    checkNotNull(olderThan);
+    Map<String, Object> parameters = ImmutableMap.of(
+        "bucket", bucketEntityAdapter.recordIdentity(bucket),
+        "olderThan", olderThan
+    );
+    String query = String.format(
+        "select from %s where %s = :bucket and %s < :olderThan",
+        DB_CLASS, P_BUCKET, P_LAST_DOWNLOADED
+    );
+    return transform(OrientAsyncHelper.asyncIterable(db, query, parameters));
+  }
+
+  /**
+   * Raises the denormalized last downloaded time of given component to the given time, unless it is already within
+   * {@link #LAST_DOWNLOADED_GRANULARITY_MILLIS} of it. Only the last downloaded field is touched, so the last updated
+   * time of the component is left alone, and no entity event is raised as the component content did not change.
+   */
+  void updateLastDownloaded(final ODatabaseDocumentTx db, final EntityId componentId, final DateTime lastDownloaded) {
+    Map<String, Object> parameters = ImmutableMap.of(
+        "lastDownloaded", lastDownloaded.toDate(),
+        "threshold", new Date(lastDownloaded.getMillis() - LAST_DOWNLOADED_GRANULARITY_MILLIS)
+    );
+    String command = String.format(
+        "update %s set %s = :lastDownloaded where %s is null or %s < :threshold",
+        recordIdentity(componentId), P_LAST_DOWNLOADED, P_LAST_DOWNLOADED, P_LAST_DOWNLOADED
+    );
+    EntityHook.silently(() -> db.command(new OCommandSQL(command)).execute(parameters));
+  }
+
   @Override
   public boolean sendEvents() {
     return true;
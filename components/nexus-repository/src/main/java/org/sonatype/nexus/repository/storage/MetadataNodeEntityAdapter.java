@@ -15,6 +15,7 @@ package org.sonatype.nexus.repository.storage;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.annotation.Nullable;
 
@@ -29,7 +30,11 @@ import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
+import com.orientechnologies.orient.core.db.record.OIdentifiable;
 import com.orientechnologies.orient.core.id.ORID;
+import com.orientechnologies.orient.core.index.OCompositeKey;
+import com.orientechnologies.orient.core.index.OIndex;
+import com.orientechnologies.orient.core.index.OIndexCursor;
 import com.orientechnologies.orient.core.metadata.schema.OClass;
 import com.orientechnologies.orient.core.metadata.schema.OType;
 import com.orientechnologies.orient.core.record.impl.ODocument;
@@ -78,6 +83,12 @@ public abstract class MetadataNodeEntityAdapter<T extends MetadataNode<?>>
 
   protected final BucketEntityAdapter bucketEntityAdapter;
 
+  /**
+   * Query text of {@link #findByProperty(ODatabaseDocumentTx, String, Object, Bucket)} keyed by property name, so the
+   * statement for a property is built only once and always presented to OrientDB with the same text.
+   */
+  private final Map<String, String> findByPropertyQueries = new ConcurrentHashMap<>();
+
   public MetadataNodeEntityAdapter(final String typeName, final BucketEntityAdapter bucketEntityAdapter) {
     super(typeName);
     this.bucketEntityAdapter = bucketEntityAdapter;
@@ -136,19 +147,57 @@ public abstract class MetadataNodeEntityAdapter<T extends MetadataNode<?>>
     checkNotNull(propValue);
     checkNotNull(bucket);
 
+    ORID bucketId = bucketEntityAdapter.recordIdentity(bucket);
+    String indexName = bucketPropertyIndex(propName);
+    if (indexName != null && propValue instanceof String) {
+      ODocument first = findFirstByIndex(db, indexName, new OCompositeKey(bucketId, propValue));
+      return first != null ? readEntity(first) : null;
+    }
+
     Map<String, Object> parameters = ImmutableMap.of(
-        "bucket", bucketEntityAdapter.recordIdentity(bucket),
+        "bucket", bucketId,
         "propValue", propValue
     );
-    String query = String.format(
+    String query = findByPropertyQueries.computeIfAbsent(propName, name -> String.format(
         "select from %s where %s = :bucket and %s = :propValue",
-        getTypeName(), P_BUCKET, propName
-    );
+        getTypeName(), P_BUCKET, name
+    ));
     Iterable<ODocument> docs = db.command(new OCommandSQL(query)).execute(parameters);
     ODocument first = Iterables.getFirst(docs, null);
     return first != null ? readEntity(first) : null;
   }
 
+  /**
+   * Returns the name of an index whose leading keys are the bucket and given property, to be used for lookups by that
+   * property within a bucket, or {@code null} if there is none.
+   *
+   * @since 3.3
+   */
+  @Nullable
+  protected String bucketPropertyIndex(final String propName) {
+    return null;
+  }
+
+  /**
+   * Returns the first document of given index matching given (possibly partial) composite key, or {@code null}.
+   * Resolves directly against the index, bypassing SQL parsing and query planning.
+   *
+   * @since 3.3
+   */
+  @Nullable
+  protected ODocument findFirstByIndex(final ODatabaseDocumentTx db, final String indexName, final OCompositeKey key) {
+    OIndex<?> index = db.getMetadata().getIndexManager().getIndex(indexName);
+    OIndexCursor cursor = index.iterateEntriesBetween(key, true, key, true, true);
+    while (cursor.hasNext()) {
+      OIdentifiable identifiable = cursor.next();
+      ODocument document = identifiable != null ? identifiable.getRecord() : null;
+      if (document != null) {
+        return document;
+      }
+    }
+    return null;
+  }
+
   Iterable<T> browseByQuery(final ODatabaseDocumentTx db,
                             @Nullable final String whereClause,
                             @Nullable final Map<String, Object> parameters,
@@ -88,6 +88,8 @@ public class StorageFacetImpl
 
   private final StorageFacetManager storageFacetManager;
 
+  private final StorageTxConflicts storageTxConflicts;
+
   @VisibleForTesting
   static final String CONFIG_KEY = "storage";
 
@@ -129,7 +131,8 @@ public class StorageFacetImpl
                           final ClientInfoProvider clientInfoProvider,
                           final ContentValidatorSelector contentValidatorSelector,
                           final MimeRulesSourceSelector mimeRulesSourceSelector,
-                          final StorageFacetManager storageFacetManager)
+                          final StorageFacetManager storageFacetManager,
+                          final StorageTxConflicts storageTxConflicts)
   {
     this.nodeAccess = checkNotNull(nodeAccess);
     this.blobStoreManager = checkNotNull(blobStoreManager);
@@ -142,6 +145,7 @@ public class StorageFacetImpl
     this.contentValidatorSelector = checkNotNull(contentValidatorSelector);
     this.mimeRulesSourceSelector = checkNotNull(mimeRulesSourceSelector);
     this.storageFacetManager = checkNotNull(storageFacetManager);
+    this.storageTxConflicts = checkNotNull(storageTxConflicts);
 
     this.txSupplier = () -> openStorageTx(databaseInstanceProvider.get().acquire());
   }
@@ -257,7 +261,8 @@ public class StorageFacetImpl
             assetEntityAdapter,
             config.strictContentTypeValidation,
             contentValidatorSelector.validator(getRepository()),
-            mimeRulesSourceSelector.ruleSource(getRepository())
+            mimeRulesSourceSelector.ruleSource(getRepository()),
+            storageTxConflicts
         )
     );
   }
@@ -16,6 +16,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Path;
 import java.util.Map;
+import java.util.function.Consumer;
 
 import javax.annotation.Nullable;
 
@@ -269,7 +270,8 @@ public interface StorageTx
   void saveComponent(Component component);
 
   /**
-   * Updates an existing asset.
+   * Updates an existing asset. Once committed, the last downloaded time of its component is raised to that of the asset
+   * if needed.
    */
   void saveAsset(Asset asset);
 
@@ -278,6 +280,13 @@ public interface StorageTx
    */
   void deleteComponent(Component component);
 
+  /**
+   * Deletes an existing component and all constituent assets, passing each deleted asset to the given consumer.
+   *
+   * @since 3.3
+   */
+  void deleteComponent(Component component, Consumer<Asset> deletedAssets);
+
   /**
    * Deletes an existing asset and requests the blob to be deleted.
    */
@@ -0,0 +1,104 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2008-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.repository.storage;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.sonatype.goodies.common.ComponentSupport;
+import org.sonatype.nexus.jmx.reflect.ManagedAttribute;
+import org.sonatype.nexus.jmx.reflect.ManagedObject;
+import org.sonatype.nexus.jmx.reflect.ManagedOperation;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Counts the conflicts which caused storage transactions to be retried, per repository and per entity type (the
+ * OrientDB class of the conflicting record), as well as the transactions which gave up after the maximum number of
+ * retries.
+ *
+ * @since 3.3
+ */
+@Named
+@Singleton
+@ManagedObject
+public class StorageTxConflicts
+    extends ComponentSupport
+{
+  public static final String UNKNOWN_ENTITY_TYPE = "unknown";
+
+  private final ConcurrentMap<String, LongAdder> byRepository = new ConcurrentHashMap<>();
+
+  private final ConcurrentMap<String, LongAdder> byEntityType = new ConcurrentHashMap<>();
+
+  private final LongAdder retries = new LongAdder();
+
+  private final LongAdder retriesExhausted = new LongAdder();
+
+  /**
+   * Records a conflict on given repository and entity type which is going to be retried.
+   */
+  public void retried(final String repositoryName, final String entityType) {
+    byRepository.computeIfAbsent(checkNotNull(repositoryName), k -> new LongAdder()).increment();
+    byEntityType.computeIfAbsent(checkNotNull(entityType), k -> new LongAdder()).increment();
+    retries.increment();
+  }
+
+  /**
+   * Records a transaction of given repository which reached the maximum number of retries.
+   */
+  public void exhausted(final String repositoryName, final String entityType) {
+    retriesExhausted.increment();
+    log.debug("Retries exhausted on repository {} for {}", repositoryName, entityType);
+  }
+
+  @ManagedAttribute
+  public Map<String, Long> getConflictsByRepository() {
+    return snapshot(byRepository);
+  }
+
+  @ManagedAttribute
+  public Map<String, Long> getConflictsByEntityType() {
+    return snapshot(byEntityType);
+  }
+
+  @ManagedAttribute
+  public long getRetries() {
+    return retries.sum();
+  }
+
+  @ManagedAttribute
+  public long getRetriesExhausted() {
+    return retriesExhausted.sum();
+  }
+
+  @ManagedOperation
+  public void reset() {
+    byRepository.clear();
+    byEntityType.clear();
+    retries.reset();
+    retriesExhausted.reset();
+  }
+
+  private static Map<String, Long> snapshot(final Map<String, LongAdder> counters) {
+    Map<String, Long> result = new TreeMap<>();
+    counters.forEach((key, count) -> result.put(key, count.sum()));
+    return result;
+  }
+}
@@ -18,6 +18,7 @@ import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
+import java.util.function.Consumer;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -30,8 +31,8 @@ import org.sonatype.nexus.common.entity.EntityHelper;
 import org.sonatype.nexus.common.entity.EntityId;
 import org.sonatype.nexus.common.hash.HashAlgorithm;
 import org.sonatype.nexus.common.property.SystemPropertiesHelper;
+import org.sonatype.nexus.common.sequence.DecorrelatedJitterSequence;
 import org.sonatype.nexus.common.sequence.NumberSequence;
-import org.sonatype.nexus.common.sequence.RandomExponentialSequence;
 import org.sonatype.nexus.common.stateguard.Guarded;
 import org.sonatype.nexus.common.stateguard.StateGuard;
 import org.sonatype.nexus.common.stateguard.StateGuardAware;
@@ -49,7 +50,11 @@ import com.google.common.collect.ImmutableMap.Builder;
 import com.google.common.collect.Iterables;
 import com.google.common.hash.HashCode;
 import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
+import com.orientechnologies.orient.core.exception.OConcurrentModificationException;
+import com.orientechnologies.orient.core.id.ORID;
+import com.orientechnologies.orient.core.metadata.schema.OClass;
 import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.core.storage.ORecordDuplicatedException;
 import com.orientechnologies.orient.core.tx.OTransaction.TXTYPE;
 import org.joda.time.DateTime;
 import org.slf4j.Logger;
@@ -79,6 +84,9 @@ public class StorageTxImpl
   private static final int INITIAL_DELAY_MS = SystemPropertiesHelper
       .getInteger(StorageTxImpl.class.getName() + ".retrydelay.initial", 10);
 
+  private static final int MAX_DELAY_MS = SystemPropertiesHelper
+      .getInteger(StorageTxImpl.class.getName() + ".retrydelay.max", 1000);
+
   private static final int MAX_RETRIES = 8;
 
   private final String createdBy;
@@ -107,10 +115,18 @@ public class StorageTxImpl
 
   private final MimeRulesSource mimeRulesSource;
 
+  @Nullable
+  private final StorageTxConflicts conflicts;
+
   private int retries = 0;
 
   private NumberSequence retryDelay;
 
+  /**
+   * Last downloaded times of the components of the assets saved in this transaction, applied once it committed.
+   */
+  private final Map<EntityId, DateTime> componentsLastDownloaded = new HashMap<>();
+
   public StorageTxImpl(final String createdBy,
                        final BlobTx blobTx,
                        final ODatabaseDocumentTx db,
@@ -123,6 +139,27 @@ public class StorageTxImpl
                        final boolean strictContentValidation,
                        final ContentValidator contentValidator,
                        final MimeRulesSource mimeRulesSource)
+  {
+    this(createdBy, blobTx, db, bucket, writePolicy, writePolicySelector, bucketEntityAdapter, componentEntityAdapter,
+        assetEntityAdapter, strictContentValidation, contentValidator, mimeRulesSource, null);
+  }
+
+  /**
+   * @since 3.3
+   */
+  public StorageTxImpl(final String createdBy,
+                       final BlobTx blobTx,
+                       final ODatabaseDocumentTx db,
+                       final Bucket bucket,
+                       final WritePolicy writePolicy,
+                       final WritePolicySelector writePolicySelector,
+                       final BucketEntityAdapter bucketEntityAdapter,
+                       final ComponentEntityAdapter componentEntityAdapter,
+                       final AssetEntityAdapter assetEntityAdapter,
+                       final boolean strictContentValidation,
+                       final ContentValidator contentValidator,
+                       final MimeRulesSource mimeRulesSource,
+                       @Nullable final StorageTxConflicts conflicts)
   {
     this.createdBy = checkNotNull(createdBy);
     this.blobTx = checkNotNull(blobTx);
@@ -136,6 +173,7 @@ public class StorageTxImpl
     this.strictContentValidation = strictContentValidation;
     this.contentValidator = checkNotNull(contentValidator);
     this.mimeRulesSource = checkNotNull(mimeRulesSource);
+    this.conflicts = conflicts;
 
     // This is only here for now to yell in case of nested TX
     // To be discussed in future, or at the point when we will have need for nested TX
@@ -161,6 +199,7 @@ public class StorageTxImpl
   @Override
   @Transitions(from = OPEN, to = ACTIVE)
   public void begin() {
+    componentsLastDownloaded.clear();
     db.begin(TXTYPE.OPTIMISTIC);
   }
 
@@ -170,26 +209,55 @@ public class StorageTxImpl
     db.commit();
     blobTx.commit();
     retries = 0;
+    updateComponentsLastDownloaded();
   }
 
   @Override
   @Transitions(from = ACTIVE, to = OPEN)
   public void rollback() {
+    componentsLastDownloaded.clear();
     db.rollback();
     blobTx.rollback();
   }
 
+  /**
+   * Raises the denormalized last downloaded time of the components whose assets were saved, outside of the committed
+   * transaction so concurrent downloads of sibling assets do not conflict on their component. This is best effort and
+   * runs after the commit, so failures are logged rather than propagated: a component left behind only makes it look
+   * older to maintenance tasks until its next download.
+   */
+  private void updateComponentsLastDownloaded() {
+    try {
+      componentsLastDownloaded.forEach((componentId, lastDownloaded) -> {
+        try {
+          componentEntityAdapter.updateLastDownloaded(db, componentId, lastDownloaded);
+        }
+        catch (Exception e) {
+          log.warn("Failed to update last downloaded time of component {}", componentId, e);
+        }
+      });
+    }
+    finally {
+      componentsLastDownloaded.clear();
+    }
+  }
+
   @Override
   public boolean isActive() {
     return ACTIVE.equals(stateGuard.getCurrent());
   }
 
   /**
-   * Custom retry strategy that throws {@link RetryDeniedException} when retry limit is breached.
+   * Custom retry strategy that throws {@link RetryDeniedException} when retry limit is breached. Retries are delayed
+   * using decorrelated jitter, so concurrent transactions conflicting on the same records do not retry in lock-step.
    */
   @Override
   public boolean allowRetry(final Exception cause) throws RetryDeniedException {
+    String entityType = conflictingEntityType(cause);
     if (retries < MAX_RETRIES) {
+      if (conflicts != null) {
+        conflicts.retried(bucket.getRepositoryName(), entityType);
+      }
       try {
         if (retryDelay == null) {
           retryDelay = delaySequence();
@@ -203,16 +271,44 @@ public class StorageTxImpl
       }
 
       retries++;
-      log.debug("Retrying operation: {}/{}", retries, MAX_RETRIES);
+      log.debug("Retrying operation: {}/{} on {} conflict", retries, MAX_RETRIES, entityType);
       return true;
     }
 
+    if (conflicts != null) {
+      conflicts.exhausted(bucket.getRepositoryName(), entityType);
+    }
     String message = String.format("Reached max retries: %d/%d", retries, MAX_RETRIES);
     log.warn(message);
 
     throw new RetryDeniedException(message, cause);
   }
 
+  /**
+   * Returns the OrientDB class of the record which caused given conflict, if it can be determined.
+   */
+  private String conflictingEntityType(final Exception cause) {
+    ORID rid = null;
+    if (cause instanceof OConcurrentModificationException) {
+      rid = ((OConcurrentModificationException) cause).getRid();
+    }
+    else if (cause instanceof ORecordDuplicatedException) {
+      rid = ((ORecordDuplicatedException) cause).getRid();
+    }
+    if (rid != null && db.isActiveOnCurrentThread()) {
+      try {
+        OClass type = db.getMetadata().getSchema().getClassByClusterId(rid.getClusterId());
+        if (type != null) {
+          return type.getName();
+        }
+      }
+      catch (RuntimeException e) {
+        log.trace("Unable to determine class of {}", rid, e);
+      }
+    }
+    return StorageTxConflicts.UNKNOWN_ENTITY_TYPE;
+  }
+
   @Override
   @Transitions(from = {OPEN, ACTIVE}, to = CLOSED)
   public void close() {
@@ -461,19 +557,36 @@ public class StorageTxImpl
     else {
       assetEntityAdapter.addEntity(db, asset);
     }
+    DateTime lastDownloaded = asset.lastDownloaded();
+    EntityId componentId = asset.componentId();
+    if (lastDownloaded != null && componentId != null) {
+      componentsLastDownloaded.merge(componentId, lastDownloaded, (a, b) -> a.isAfter(b) ? a : b);
+    }
   }
 
   @Override
   @Guarded(by = ACTIVE)
   public void deleteComponent(Component component) {
-    deleteComponent(component, true);
+    deleteComponent(component, true, asset -> {
+      // no-op
+    });
+  }
+
+  @Override
+  @Guarded(by = ACTIVE)
+  public void deleteComponent(final Component component, final Consumer<Asset> deletedAssets) {
+    deleteComponent(component, true, checkNotNull(deletedAssets));
   }
 
-  private void deleteComponent(final Component component, final boolean checkWritePolicy) {
+  private void deleteComponent(final Component component,
+                               final boolean checkWritePolicy,
+                               final Consumer<Asset> deletedAssets)
+  {
     checkNotNull(component);
 
     for (Asset asset : browseAssets(component)) {
       deleteAsset(asset, checkWritePolicy ? writePolicySelector.select(asset, writePolicy) : null);
+      deletedAssets.accept(asset);
     }
     componentEntityAdapter.deleteEntity(db, component);
   }
@@ -848,10 +961,9 @@ public class StorageTxImpl
   }
 
   private NumberSequence delaySequence() {
-    return RandomExponentialSequence.builder()
-        .start(INITIAL_DELAY_MS) // start at 10ms
-        .factor(2) // delay an average of 100% longer, each time
-        .maxDeviation(.5) // ±50%
+    return DecorrelatedJitterSequence.builder()
+        .base(Math.max(1, INITIAL_DELAY_MS)) // ".retrydelay.initial", at least 1ms
+        .cap(Math.max(INITIAL_DELAY_MS, MAX_DELAY_MS)) // ".retrydelay.max", at least the base
         .build();
   }
 }
@@ -0,0 +1,183 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2008-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.repository.storage.internal;
+
+import java.util.Date;
+import java.util.List;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+
+import org.sonatype.nexus.common.upgrade.Upgrades;
+import org.sonatype.nexus.orient.DatabaseInstance;
+import org.sonatype.nexus.orient.DatabaseInstanceNames;
+import org.sonatype.nexus.orient.DatabaseUpgradeSupport;
+import org.sonatype.nexus.orient.OClassNameBuilder;
+import org.sonatype.nexus.orient.OIndexNameBuilder;
+
+import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
+import com.orientechnologies.orient.core.db.record.OIdentifiable;
+import com.orientechnologies.orient.core.id.ORID;
+import com.orientechnologies.orient.core.id.ORecordId;
+import com.orientechnologies.orient.core.metadata.schema.OClass;
+import com.orientechnologies.orient.core.metadata.schema.OClass.INDEX_TYPE;
+import com.orientechnologies.orient.core.metadata.schema.OType;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.core.sql.query.OSQLSynchQuery;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Upgrade step to index the last downloaded time and blob reference of assets, and to add a denormalized last
+ * downloaded time (the latest of its assets) to components, populated from the existing assets.
+ *
+ * @since 3.3
+ */
+@Named
+@Singleton
+@Upgrades(model = DatabaseInstanceNames.COMPONENT, from = "1.3", to = "1.4")
+public class ComponentDatabaseUpgrade_1_4 // NOSONAR
+    extends DatabaseUpgradeSupport
+{
+  static final String ASSET_CLASS = new OClassNameBuilder()
+      .type("asset")
+      .build();
+
+  static final String COMPONENT_CLASS = new OClassNameBuilder()
+      .type("component")
+      .build();
+
+  static final int BATCH_SIZE = 1000;
+
+  static final String P_BUCKET = "bucket";
+
+  static final String P_COMPONENT = "component";
+
+  static final String P_BLOB_REF = "blob_ref";
+
+  static final String P_LAST_DOWNLOADED = "last_downloaded";
+
+  static final String I_ASSET_BUCKET_LAST_DOWNLOADED = new OIndexNameBuilder()
+      .type(ASSET_CLASS)
+      .property(P_BUCKET)
+      .property(P_LAST_DOWNLOADED)
+      .build();
+
+  static final String I_ASSET_BLOB_REF = new OIndexNameBuilder()
+      .type(ASSET_CLASS)
+      .property(P_BLOB_REF)
+      .build();
+
+  static final String I_COMPONENT_BUCKET_LAST_DOWNLOADED = new OIndexNameBuilder()
+      .type(COMPONENT_CLASS)
+      .property(P_BUCKET)
+      .property(P_LAST_DOWNLOADED)
+      .build();
+
+  static final String SELECT_COMPONENTS_PAGE = String.format(
+      "select from %s where @rid > ? limit %d", COMPONENT_CLASS, BATCH_SIZE);
+
+  /**
+   * Latest last downloaded time of the assets of a component, resolved through the bucket-component-name index.
+   */
+  static final String SELECT_COMPONENT_LAST_DOWNLOADED = String.format(
+      "select max(%s) as %s from %s where %s = ? and %s = ?",
+      P_LAST_DOWNLOADED, P_LAST_DOWNLOADED, ASSET_CLASS, P_BUCKET, P_COMPONENT);
+
+  private final Provider<DatabaseInstance> componentDatabaseInstance;
+
+  @Inject
+  public ComponentDatabaseUpgrade_1_4(
+      @Named(DatabaseInstanceNames.COMPONENT) final Provider<DatabaseInstance> componentDatabaseInstance)
+  {
+    this.componentDatabaseInstance = checkNotNull(componentDatabaseInstance);
+  }
+
+  @Override
+  public void apply() throws Exception {
+    if (hasSchemaClass(componentDatabaseInstance, ASSET_CLASS)) {
+      createAssetIndexes();
+    }
+    if (hasSchemaClass(componentDatabaseInstance, COMPONENT_CLASS)) {
+      createComponentLastDownloaded();
+      if (hasSchemaClass(componentDatabaseInstance, ASSET_CLASS)) {
+        populateComponentLastDownloaded();
+      }
+    }
+  }
+
+  private void createAssetIndexes() {
+    try (ODatabaseDocumentTx db = componentDatabaseInstance.get().connect()) {
+      OClass assetClass = db.getMetadata().getSchema().getClass(ASSET_CLASS);
+      maybeCreateIndex(db, assetClass, I_ASSET_BUCKET_LAST_DOWNLOADED, false, P_BUCKET, P_LAST_DOWNLOADED);
+      maybeCreateIndex(db, assetClass, I_ASSET_BLOB_REF, true, P_BLOB_REF);
+    }
+  }
+
+  private void createComponentLastDownloaded() {
+    try (ODatabaseDocumentTx db = componentDatabaseInstance.get().connect()) {
+      OClass componentClass = db.getMetadata().getSchema().getClass(COMPONENT_CLASS);
+      if (!componentClass.existsProperty(P_LAST_DOWNLOADED)) {
+        componentClass.createProperty(P_LAST_DOWNLOADED, OType.DATETIME);
+      }
+      maybeCreateIndex(db, componentClass, I_COMPONENT_BUCKET_LAST_DOWNLOADED, false, P_BUCKET, P_LAST_DOWNLOADED);
+    }
+  }
+
+  /**
+   * Sets the last downloaded time of each component to the latest of its assets; afterwards the value is maintained
+   * as assets are downloaded. Components are paged by record id and updated one page per transaction, so memory use
+   * does not grow with the number of components.
+   */
+  private void populateComponentLastDownloaded() {
+    try (ODatabaseDocumentTx db = componentDatabaseInstance.get().connect()) {
+      OSQLSynchQuery<ODocument> pageQuery = new OSQLSynchQuery<>(SELECT_COMPONENTS_PAGE);
+      OSQLSynchQuery<ODocument> lastDownloadedQuery = new OSQLSynchQuery<>(SELECT_COMPONENT_LAST_DOWNLOADED);
+      long count = 0;
+      List<ODocument> components = db.query(pageQuery, new ORecordId());
+      while (!components.isEmpty()) {
+        db.begin();
+        for (ODocument component : components) {
+          OIdentifiable bucket = component.field(P_BUCKET);
+          List<ODocument> results = db.query(lastDownloadedQuery, bucket, component.getIdentity());
+          Date lastDownloaded = results.isEmpty() ? null : results.get(0).field(P_LAST_DOWNLOADED, OType.DATETIME);
+          if (lastDownloaded != null) {
+            component.field(P_LAST_DOWNLOADED, lastDownloaded);
+            component.save();
+            count++;
+          }
+        }
+        db.commit();
+        ORID last = components.get(components.size() - 1).getIdentity();
+        components = db.query(pageQuery, last);
+      }
+      log.info("Populated last downloaded time of {} components", count);
+    }
+  }
+
+  private static void maybeCreateIndex(final ODatabaseDocumentTx db,
+                                       final OClass type,
+                                       final String name,
+                                       final boolean ignoreNullValues,
+                                       final String... properties)
+  {
+    if (type.getClassIndex(name) == null) {
+      ODocument metadata = db.newInstance()
+          .field("ignoreNullValues", ignoreNullValues)
+          .field("mergeKeys", false);
+      type.createIndex(name, INDEX_TYPE.NOTUNIQUE.name(), null, metadata, properties);
+    }
+  }
+}
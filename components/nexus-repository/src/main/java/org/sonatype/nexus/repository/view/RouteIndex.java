@@ -0,0 +1,245 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2008-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.repository.view;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.Nullable;
+
+import org.sonatype.nexus.repository.view.matchers.ActionMatcher;
+import org.sonatype.nexus.repository.view.matchers.LiteralMatcher;
+import org.sonatype.nexus.repository.view.matchers.PrefixMatcher;
+import org.sonatype.nexus.repository.view.matchers.SuffixMatcher;
+import org.sonatype.nexus.repository.view.matchers.logic.AndMatcher;
+import org.sonatype.nexus.repository.view.matchers.token.LiteralToken;
+import org.sonatype.nexus.repository.view.matchers.token.PatternParser;
+import org.sonatype.nexus.repository.view.matchers.token.Token;
+import org.sonatype.nexus.repository.view.matchers.token.TokenMatcher;
+
+/**
+ * Index of the routes of a {@link Router}, compiled once when the router is created, which narrows down the routes
+ * that can possibly match a request path so the others need not be tried.
+ *
+ * For each route a literal the path must equal, start with or end with is derived from its matcher: literal, prefix
+ * and suffix matchers, the leading or trailing literal of token patterns, and the first such matcher of an AND (only
+ * preceded by action matchers, which have no side-effects). These literals are stored in character tries walked
+ * forwards (exact and prefix) or backwards (suffix) along the path. Routes with opaque matchers are always candidates.
+ *
+ * The derived literal is a necessary condition of the matcher, so candidates still have to be tried with their matcher,
+ * in route order; the first route to match is the same as when trying all routes.
+ *
+ * @since 3.3
+ */
+final class RouteIndex
+{
+  private static final class Node
+  {
+    private final Map<Character, Node> children = new HashMap<>();
+
+    /**
+     * Routes whose path must equal the literal ending at this node.
+     */
+    private final BitSet exact = new BitSet();
+
+    /**
+     * Routes whose path must start (or end) with the literal ending at this node.
+     */
+    private final BitSet partial = new BitSet();
+
+    private Node child(final char ch) {
+      return children.computeIfAbsent(ch, key -> new Node());
+    }
+  }
+
+  private enum Kind
+  {
+    EXACT, PREFIX, SUFFIX
+  }
+
+  private static final class PathFilter
+  {
+    private final Kind kind;
+
+    private final String literal;
+
+    private final boolean ignoreCase;
+
+    private PathFilter(final Kind kind, final String literal, final boolean ignoreCase) {
+      this.kind = kind;
+      this.literal = literal;
+      this.ignoreCase = ignoreCase;
+    }
+  }
+
+  private final int size;
+
+  private final BitSet unindexed = new BitSet();
+
+  private final Node forward = new Node();
+
+  private final Node forwardIgnoreCase = new Node();
+
+  private final Node backward = new Node();
+
+  private final Node backwardIgnoreCase = new Node();
+
+  RouteIndex(final List<Route> routes) {
+    this.size = routes.size();
+    for (int i = 0; i < size; i++) {
+      PathFilter filter = filter(routes.get(i).getMatcher());
+      if (filter == null) {
+        unindexed.set(i);
+      }
+      else {
+        add(filter, i);
+      }
+    }
+  }
+
+  /**
+   * Number of routes which could be indexed.
+   */
+  int indexed() {
+    return size - unindexed.cardinality();
+  }
+
+  /**
+   * Returns the indexes of the routes which may match the given path, in route order.
+   */
+  BitSet candidates(@Nullable final String path) {
+    BitSet candidates = (BitSet) unindexed.clone();
+    if (path == null) {
+      candidates.set(0, size);
+      return candidates;
+    }
+    walk(forward, path, false, false, candidates);
+    walk(forwardIgnoreCase, path, false, true, candidates);
+    walk(backward, path, true, false, candidates);
+    walk(backwardIgnoreCase, path, true, true, candidates);
+    return candidates;
+  }
+
+  private static void walk(final Node root,
+                           final String path,
+                           final boolean reverse,
+                           final boolean ignoreCase,
+                           final BitSet candidates)
+  {
+    Node node = root;
+    int length = path.length();
+    for (int i = 0; i < length && !node.children.isEmpty(); i++) {
+      char ch = path.charAt(reverse ? length - 1 - i : i);
+      node = node.children.get(ignoreCase ? fold(ch) : ch);
+      if (node == null) {
+        return;
+      }
+      candidates.or(node.partial);
+      if (i == length - 1) {
+        candidates.or(node.exact);
+      }
+    }
+  }
+
+  private void add(final PathFilter filter, final int route) {
+    boolean reverse = filter.kind == Kind.SUFFIX;
+    Node node = reverse ? (filter.ignoreCase ? backwardIgnoreCase : backward)
+        : (filter.ignoreCase ? forwardIgnoreCase : forward);
+
+    String literal = filter.literal;
+    int length = literal.length();
+    for (int i = 0; i < length; i++) {
+      char ch = literal.charAt(reverse ? length - 1 - i : i);
+      node = node.child(filter.ignoreCase ? fold(ch) : ch);
+    }
+    (filter.kind == Kind.EXACT ? node.exact : node.partial).set(route);
+  }
+
+  /**
+   * Case folding consistent with {@link String#equalsIgnoreCase(String)}.
+   */
+  private static char fold(final char ch) {
+    return Character.toLowerCase(Character.toUpperCase(ch));
+  }
+
+  /**
+   * Derives a literal the path must equal, start or end with for the given matcher to match, or {@code null}.
+   */
+  @Nullable
+  private static PathFilter filter(@Nullable final Matcher matcher) {
+    if (matcher instanceof LiteralMatcher) {
+      LiteralMatcher literal = (LiteralMatcher) matcher;
+      return filter(Kind.EXACT, literal.getLiteral(), literal.isIgnoreCase());
+    }
+    if (matcher instanceof PrefixMatcher) {
+      PrefixMatcher prefix = (PrefixMatcher) matcher;
+      return filter(Kind.PREFIX, prefix.getPrefix(), prefix.isIgnoreCase());
+    }
+    if (matcher instanceof SuffixMatcher) {
+      SuffixMatcher suffix = (SuffixMatcher) matcher;
+      return filter(Kind.SUFFIX, suffix.getSuffix(), suffix.isIgnoreCase());
+    }
+    if (matcher instanceof TokenMatcher) {
+      return tokenFilter(((TokenMatcher) matcher).getPattern());
+    }
+    if (matcher instanceof AndMatcher) {
+      for (Matcher operand : ((AndMatcher) matcher).getMatchers()) {
+        PathFilter filter = filter(operand);
+        if (filter != null) {
+          return filter;
+        }
+        if (!(operand instanceof ActionMatcher)) {
+          // skipping the route would also skip any side-effects of this operand
+          return null;
+        }
+      }
+    }
+    return null;
+  }
+
+  @Nullable
+  private static PathFilter filter(final Kind kind, final String literal, final boolean ignoreCase) {
+    if (literal.isEmpty()) {
+      return null;
+    }
+    // case-insensitive prefix and suffix matchers lower-case whole strings, which is only equivalent to character
+    // folding for ASCII
+    if (ignoreCase && kind != Kind.EXACT && !literal.chars().allMatch(ch -> ch < 0x80)) {
+      return null;
+    }
+    return new PathFilter(kind, literal, ignoreCase);
+  }
+
+  @Nullable
+  private static PathFilter tokenFilter(final String pattern) {
+    List<Token> tokens = new PatternParser(pattern).getTokens();
+    if (tokens.isEmpty()) {
+      return null;
+    }
+    if (tokens.size() == 1 && tokens.get(0) instanceof LiteralToken) {
+      return filter(Kind.EXACT, literal(tokens.get(0)), false);
+    }
+    String prefix = tokens.get(0) instanceof LiteralToken ? literal(tokens.get(0)) : "";
+    Token last = tokens.get(tokens.size() - 1);
+    String suffix = last instanceof LiteralToken ? literal(last) : "";
+    return prefix.length() >= suffix.length()
+        ? filter(Kind.PREFIX, prefix, false)
+        : filter(Kind.SUFFIX, suffix, false);
+  }
+
+  private static String literal(final Token token) {
+    return ((LiteralToken) token).getValue();
+  }
+}
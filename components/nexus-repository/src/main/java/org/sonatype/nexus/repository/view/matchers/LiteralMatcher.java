@@ -53,6 +53,20 @@ public class LiteralMatcher
     }
   }
 
+  /**
+   * @since 3.3
+   */
+  public String getLiteral() {
+    return literal;
+  }
+
+  /**
+   * @since 3.3
+   */
+  public boolean isIgnoreCase() {
+    return ignoreCase;
+  }
+
   @Override
   public String toString() {
     return getClass().getSimpleName() + "{" +
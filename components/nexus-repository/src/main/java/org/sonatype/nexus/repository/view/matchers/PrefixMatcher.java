@@ -61,6 +61,20 @@ public class PrefixMatcher
     }
   }
 
+  /**
+   * @since 3.3
+   */
+  public String getPrefix() {
+    return prefix;
+  }
+
+  /**
+   * @since 3.3
+   */
+  public boolean isIgnoreCase() {
+    return ignoreCase;
+  }
+
   @Override
   public String toString() {
     return getClass().getSimpleName() + "{" +
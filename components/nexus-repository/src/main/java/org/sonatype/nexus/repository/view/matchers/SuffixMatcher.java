@@ -61,6 +61,20 @@ public class SuffixMatcher
     }
   }
 
+  /**
+   * @since 3.3
+   */
+  public String getSuffix() {
+    return suffix;
+  }
+
+  /**
+   * @since 3.3
+   */
+  public boolean isIgnoreCase() {
+    return ignoreCase;
+  }
+
   @Override
   public String toString() {
     return getClass().getSimpleName() + "{" +
@@ -56,6 +56,13 @@ public class AndMatcher
     return true;
   }
 
+  /**
+   * @since 3.3
+   */
+  public List<Matcher> getMatchers() {
+    return matchers;
+  }
+
   @Override
   public String toString() {
     return getClass().getSimpleName() + "{" +
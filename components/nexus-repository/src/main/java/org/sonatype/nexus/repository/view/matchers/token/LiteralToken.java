@@ -26,6 +26,13 @@ public class LiteralToken
     super(value);
   }
 
+  /**
+   * @since 3.3
+   */
+  public String getValue() {
+    return value;
+  }
+
   @Override
   public String toRegexp() {
     return Pattern.quote(value);
@@ -76,4 +76,11 @@ public class TokenMatcher
     });
     return true;
   }
+
+  /**
+   * @since 3.3
+   */
+  public String getPattern() {
+    return pattern;
+  }
 }
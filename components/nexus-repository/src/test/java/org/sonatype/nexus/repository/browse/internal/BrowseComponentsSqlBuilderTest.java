@@ -12,26 +12,272 @@
  */
 package org.sonatype.nexus.repository.browse.internal;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+
 import org.sonatype.goodies.testsupport.TestSupport;
+import org.sonatype.nexus.orient.testsupport.DatabaseInstanceRule;
 import org.sonatype.nexus.repository.browse.QueryOptions;
+import org.sonatype.nexus.repository.selector.internal.ContentAuth;
+import org.sonatype.nexus.repository.selector.internal.ContentAuthHelper;
+import org.sonatype.nexus.repository.storage.AssetEntityAdapter;
+import org.sonatype.nexus.repository.storage.Bucket;
+import org.sonatype.nexus.repository.storage.BucketEntityAdapter;
+import org.sonatype.nexus.repository.storage.Component;
+import org.sonatype.nexus.repository.storage.ComponentEntityAdapter;
 
+import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
+import com.orientechnologies.orient.core.id.ORID;
+import com.orientechnologies.orient.core.id.ORecordId;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.core.sql.OSQLEngine;
+import com.orientechnologies.orient.core.sql.query.OSQLSynchQuery;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.mockito.Mock;
 
+import static java.util.Arrays.asList;
 import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
 import static org.hamcrest.MatcherAssert.assertThat;
-import static org.hamcrest.core.Is.is;
-import static org.hamcrest.core.IsEqual.equalTo;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyVararg;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.sonatype.nexus.repository.storage.AssetEntityAdapter.P_COMPONENT;
+import static org.sonatype.nexus.repository.storage.BucketEntityAdapter.P_REPOSITORY_NAME;
+import static org.sonatype.nexus.repository.storage.ComponentEntityAdapter.P_GROUP;
+import static org.sonatype.nexus.repository.storage.ComponentEntityAdapter.P_VERSION;
+import static org.sonatype.nexus.repository.storage.MetadataNodeEntityAdapter.P_ATTRIBUTES;
+import static org.sonatype.nexus.repository.storage.MetadataNodeEntityAdapter.P_BUCKET;
+import static org.sonatype.nexus.repository.storage.MetadataNodeEntityAdapter.P_FORMAT;
+import static org.sonatype.nexus.repository.storage.MetadataNodeEntityAdapter.P_NAME;
 
 public class BrowseComponentsSqlBuilderTest
     extends TestSupport
 {
+  private static final String COMPONENT_WHERE = "(component IS NOT NULL)";
+
+  private static final String CONTENT_AUTH_WHERE = "(contentAuth(@this, :browsedRepository) == true)";
+
+  @Rule
+  public DatabaseInstanceRule database = DatabaseInstanceRule.inMemory("test");
+
+  @Mock
+  private ContentAuthHelper contentAuthHelper;
+
+  private final BucketEntityAdapter bucketEntityAdapter = new BucketEntityAdapter();
+
+  private final ComponentEntityAdapter componentEntityAdapter = new ComponentEntityAdapter(bucketEntityAdapter);
+
+  private final AssetEntityAdapter assetEntityAdapter =
+      new AssetEntityAdapter(bucketEntityAdapter, componentEntityAdapter);
+
+  private Bucket bucket;
+
+  private String bucketWhere;
+
+  @Before
+  public void setUp() {
+    OSQLEngine.getInstance().registerFunction(ContentAuth.NAME, new ContentAuth(contentAuthHelper));
+    try (ODatabaseDocumentTx db = database.getInstance().connect()) {
+      bucketEntityAdapter.register(db);
+      componentEntityAdapter.register(db);
+      assetEntityAdapter.register(db);
+
+      ODocument document = new ODocument(bucketEntityAdapter.getTypeName());
+      document.field(P_REPOSITORY_NAME, "repo");
+      document.field(P_ATTRIBUTES, new HashMap<>());
+      bucket = bucketEntityAdapter.readEntity(db.save(document));
+    }
+    bucketWhere = "(bucket = " + bucketEntityAdapter.recordIdentity(bucket) + ")";
+  }
+
+  @After
+  public void tearDown() {
+    OSQLEngine.getInstance().unregisterFunction(ContentAuth.NAME);
+  }
 
   @Test
   public void buildQueryToReturnNothingWhenBucketsIsEmpty() throws Exception {
     String sql = new BrowseComponentsSqlBuilder("repo", true, emptyList(), mock(QueryOptions.class))
         .buildBrowseSql();
-    String expectedWhere = "WHERE false  SKIP 0 LIMIT 0";
+    String expectedWhere = "WHERE false  ORDER BY component ASC SKIP 0 LIMIT 0";
     assertThat(sql.substring(sql.indexOf("WHERE")), is(equalTo(expectedWhere)));
   }
+
+  @Test
+  public void buildUnsortedQueryIsOrderedLikeKeysetPages() throws Exception {
+    QueryOptions queryOptions = new QueryOptions(null, null, null, 100, 50);
+    String sql = new BrowseComponentsSqlBuilder("repo", false, singletonList(bucket), queryOptions)
+        .buildBrowseSql();
+    assertThat(sql.substring(sql.indexOf("WHERE")), is(equalTo(
+        "WHERE " + bucketWhere + " AND " + COMPONENT_WHERE + " AND " + CONTENT_AUTH_WHERE +
+            "  ORDER BY component ASC SKIP 100 LIMIT 50")));
+  }
+
+  @Test
+  public void buildSortedQuerySeeksPastLastComponent() throws Exception {
+    Component lastComponent;
+    try (ODatabaseDocumentTx db = database.getInstance().connect()) {
+      lastComponent = componentEntityAdapter.readEntity(createComponent(db, "foo", "1.0"));
+    }
+    QueryOptions queryOptions = new QueryOptions(null, "name", "desc", 100, 50, "last", false);
+    BrowseComponentsSqlBuilder underTest =
+        new BrowseComponentsSqlBuilder("repo", false, singletonList(bucket), queryOptions, lastComponent);
+    String sql = underTest.buildBrowseSql();
+    assertThat(sql.substring(sql.indexOf("WHERE")), is(equalTo(
+        "WHERE " + bucketWhere + " AND " + COMPONENT_WHERE + " AND " +
+            "(component.name < :lastSortValue OR (component.name = :lastSortValue AND component < :lastComponent))" +
+            " AND " + CONTENT_AUTH_WHERE + "  ORDER BY component.name desc, component desc LIMIT 50")));
+    assertThat(underTest.buildSqlParams().get("lastSortValue"), is("foo"));
+    assertThat(underTest.buildSqlParams().get("lastComponent"),
+        is(componentEntityAdapter.recordIdentity(lastComponent)));
+
+    // the count is not restricted to the following pages
+    assertThat(underTest.buildCountSql(), is(equalTo("SELECT COUNT(DISTINCT(component)) FROM asset WHERE " +
+        bucketWhere + " AND " + COMPONENT_WHERE + " AND " + CONTENT_AUTH_WHERE)));
+  }
+
+  @Test
+  public void buildSortedGroupQueryIsSelectedByOffset() throws Exception {
+    Component lastComponent;
+    try (ODatabaseDocumentTx db = database.getInstance().connect()) {
+      lastComponent = componentEntityAdapter.readEntity(createComponent(db, "foo", "1.0"));
+    }
+    QueryOptions queryOptions = new QueryOptions(null, "name", "asc", 100, 50, "last", false);
+    String sql = new BrowseComponentsSqlBuilder("repo", true, singletonList(bucket), queryOptions, lastComponent)
+        .buildBrowseSql();
+    assertThat(sql.contains(":lastComponent"), is(false));
+    assertThat(sql.endsWith(" SKIP 100 LIMIT 50"), is(true));
+  }
+
+  @Test
+  public void buildEstimatedCountQueryCountsComponents() throws Exception {
+    QueryOptions queryOptions = new QueryOptions("foo", "name", "asc", 0, 50, null, true);
+    String sql = new BrowseComponentsSqlBuilder("repo", false, singletonList(bucket), queryOptions)
+        .buildCountSql();
+    assertThat(sql, is(equalTo("SELECT COUNT(*) FROM component WHERE " + bucketWhere +
+        " AND (name LIKE :nameFilter OR group LIKE :groupFilter OR version LIKE :versionFilter)")));
+  }
+
+  @Test
+  public void buildKeysetBrowseQueryChecksPermissionsLast() throws Exception {
+    QueryOptions queryOptions = new QueryOptions("foo", null, null, 0, 100);
+    String sql = new BrowseComponentsSqlBuilder("repo", false, singletonList(bucket), queryOptions)
+        .buildKeysetBrowseSql(asList(new ORecordId(12, 34), new ORecordId(12, 35)));
+    assertThat(sql, is(equalTo("SELECT DISTINCT(component) AS component FROM [#12:34,#12:35] WHERE " +
+        "(component.name LIKE :nameFilter OR component.group LIKE :groupFilter OR " +
+        "component.version LIKE :versionFilter) AND " + CONTENT_AUTH_WHERE + " ORDER BY component ASC")));
+  }
+
+  @Test
+  public void keysetPagesAreContinuous() throws Exception {
+    try (ODatabaseDocumentTx db = database.getInstance().connect()) {
+      List<ORID> expected = createVisibleComponents(db, i -> "name-" + i).stream()
+          .map(ODocument::getIdentity)
+          .collect(Collectors.toList());
+
+      // components are browsed in id order, which is not necessarily creation order
+      expected.sort(null);
+
+      List<ORID> browsed = new ArrayList<>();
+      ORID lastComponent = null;
+      while (true) {
+        QueryOptions queryOptions = new QueryOptions(null, null, null, 0, 7);
+        BrowseComponentsKeyset underTest = new BrowseComponentsKeyset(assetEntityAdapter, singletonList(bucket),
+            new BrowseComponentsSqlBuilder("repo", false, singletonList(bucket), queryOptions));
+
+        // pages are filled up across batches when some components are not visible
+        List<ODocument> page = underTest.browse(db, lastComponent, 7);
+        if (page.isEmpty()) {
+          break;
+        }
+        assertThat(page.size() == 7 || browsed.size() + page.size() == expected.size(), is(true));
+        for (ODocument row : page) {
+          browsed.add(((ODocument) row.field("component")).getIdentity());
+        }
+        lastComponent = browsed.get(browsed.size() - 1);
+      }
+
+      assertThat(browsed, is(equalTo(expected)));
+    }
+  }
+
+  @Test
+  public void sortedPagesAreContinuous() throws Exception {
+    try (ODatabaseDocumentTx db = database.getInstance().connect()) {
+      // names are not unique, so the component id breaks ties
+      List<ODocument> components = createVisibleComponents(db, i -> "name-" + (i % 7));
+      components.sort(Comparator.<ODocument, String>comparing(component -> component.field(P_NAME))
+          .thenComparing(ODocument::getIdentity));
+      List<ORID> expected = components.stream().map(ODocument::getIdentity).collect(Collectors.toList());
+
+      List<ORID> browsed = new ArrayList<>();
+      Component lastComponent = null;
+      while (true) {
+        QueryOptions queryOptions = new QueryOptions(null, "name", "asc", null, 7, "last", false);
+        BrowseComponentsSqlBuilder underTest =
+            new BrowseComponentsSqlBuilder("repo", false, singletonList(bucket), queryOptions, lastComponent);
+
+        List<ODocument> page = db.query(new OSQLSynchQuery<ODocument>(underTest.buildBrowseSql()),
+            underTest.buildSqlParams());
+        if (page.isEmpty()) {
+          break;
+        }
+        for (ODocument row : page) {
+          browsed.add(((ODocument) row.field("component")).getIdentity());
+        }
+        lastComponent = componentEntityAdapter.readEntity(page.get(page.size() - 1).field("component"));
+      }
+
+      assertThat(browsed, is(equalTo(expected)));
+    }
+  }
+
+  /**
+   * Creates 25 components with two assets each, of which only some are visible, and returns the visible ones.
+   */
+  private List<ODocument> createVisibleComponents(final ODatabaseDocumentTx db, final IntFunction<String> names) {
+    List<ODocument> visibleComponents = new ArrayList<>();
+    for (int i = 0; i < 25; i++) {
+      ODocument component = createComponent(db, names.apply(i), "1.0-" + i);
+
+      boolean visible = i % 5 != 0;
+      for (String extension : new String[]{"jar", "pom"}) {
+        ODocument asset = new ODocument(assetEntityAdapter.getTypeName());
+        asset.field(P_BUCKET, bucketEntityAdapter.recordIdentity(bucket));
+        asset.field(P_FORMAT, "format");
+        asset.field(P_NAME, "asset-" + i + "." + extension);
+        asset.field(P_COMPONENT, component.getIdentity());
+        asset.field("visible", visible);
+        db.save(asset);
+      }
+      if (visible) {
+        visibleComponents.add(component);
+      }
+    }
+    when(contentAuthHelper.checkAssetPermissions(any(ODocument.class), anyVararg()))
+        .then(invocation -> ((ODocument) invocation.getArguments()[0]).field("visible"));
+    return visibleComponents;
+  }
+
+  private ODocument createComponent(final ODatabaseDocumentTx db, final String name, final String version) {
+    ODocument component = new ODocument(componentEntityAdapter.getTypeName());
+    component.field(P_BUCKET, bucketEntityAdapter.recordIdentity(bucket));
+    component.field(P_FORMAT, "format");
+    component.field(P_GROUP, "group");
+    component.field(P_NAME, name);
+    component.field(P_VERSION, version);
+    component.field(P_ATTRIBUTES, new HashMap<>());
+    return db.save(component);
+  }
 }
@@ -22,6 +22,7 @@ import org.sonatype.nexus.repository.Repository;
 import org.sonatype.nexus.repository.group.GroupFacet;
 import org.sonatype.nexus.repository.security.ContentPermissionChecker;
 import org.sonatype.nexus.repository.security.VariableResolverAdapterManager;
+import org.sonatype.nexus.repository.storage.AssetEntityAdapter;
 import org.sonatype.nexus.repository.storage.ComponentEntityAdapter;
 import org.sonatype.nexus.repository.types.GroupType;
 
@@ -41,6 +42,9 @@ public class BrowseServiceImplTest
   @Mock
   ComponentEntityAdapter componentEntityAdapter;
 
+  @Mock
+  AssetEntityAdapter assetEntityAdapter;
+
   @Mock
   VariableResolverAdapterManager variableResolverAdapterManager;
 
@@ -51,8 +55,8 @@ public class BrowseServiceImplTest
 
   @Before
   public void setup() {
-    underTest = new BrowseServiceImpl(new GroupType(), componentEntityAdapter, variableResolverAdapterManager,
-        contentPermissionChecker);
+    underTest = new BrowseServiceImpl(new GroupType(), componentEntityAdapter, assetEntityAdapter,
+        variableResolverAdapterManager, contentPermissionChecker);
   }
 
   @Test
@@ -0,0 +1,96 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2008-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.repository.httpclient.internal;
+
+import java.io.IOException;
+
+import org.sonatype.goodies.testsupport.TestSupport;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpVersion;
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.message.BasicHttpResponse;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for {@link BlockingHttpClient}.
+ */
+public class BlockingHttpClientTest
+    extends TestSupport
+{
+  private static final String URL = "http://example.com/path";
+
+  @Mock
+  private HttpClient delegate;
+
+  private BlockingHttpClient underTest;
+
+  @Before
+  public void setUp() {
+    HttpClientFacetImpl.Config config = new HttpClientFacetImpl.Config();
+    config.autoBlock = true;
+    underTest = new BlockingHttpClient(delegate, config, new RemoteHealth(10, 4, 50));
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    underTest.close();
+  }
+
+  private static HttpResponse response(final int status) {
+    return new BasicHttpResponse(HttpVersion.HTTP_1_1, status, null);
+  }
+
+  @Test
+  public void autoBlockedWhenServerErrorsReachErrorRate() throws Exception {
+    when(delegate.execute(any(HttpUriRequest.class))).thenReturn(response(503));
+
+    for (int i = 0; i < 3; i++) {
+      assertThat(underTest.execute(new HttpGet(URL)).getStatusLine().getStatusCode(), is(503));
+      assertThat(underTest.getStatus().getDescription(), is("Remote Available"));
+    }
+
+    // fourth server error reaches the minimum samples with an error rate of 100%
+    underTest.execute(new HttpGet(URL));
+    assertThat(underTest.getStatus().getDescription(), is("Remote Auto Blocked and Failing"));
+
+    try {
+      underTest.execute(new HttpGet(URL));
+      fail("Expected IOException");
+    }
+    catch (IOException e) {
+      assertThat(e.getMessage(), is("Remote Auto Blocked"));
+    }
+  }
+
+  @Test
+  public void notAutoBlockedWhenErrorRateIsLow() throws Exception {
+    when(delegate.execute(any(HttpUriRequest.class))).thenReturn(response(200), response(500), response(200));
+
+    for (int i = 0; i < 10; i++) {
+      underTest.execute(new HttpGet(URL));
+    }
+    assertThat(underTest.getStatus().getDescription(), is("Remote Available"));
+  }
+}
@@ -0,0 +1,70 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2008-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.repository.httpclient.internal;
+
+import org.sonatype.goodies.testsupport.TestSupport;
+
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * Tests for {@link RemoteHealth}.
+ */
+public class RemoteHealthTest
+    extends TestSupport
+{
+  private final RemoteHealth underTest = new RemoteHealth(10, 4, 50);
+
+  @Test
+  public void notFailingBeforeMinSamples() {
+    underTest.record(true);
+    underTest.record(true);
+    underTest.record(true);
+
+    assertThat(underTest.getErrorRate(), is(100));
+    assertThat(underTest.isFailing(), is(false));
+
+    underTest.record(true);
+
+    assertThat(underTest.isFailing(), is(true));
+  }
+
+  @Test
+  public void oldestOutcomesAreForgotten() {
+    for (int i = 0; i < 10; i++) {
+      underTest.record(true);
+    }
+    assertThat(underTest.isFailing(), is(true));
+
+    for (int i = 0; i < 6; i++) {
+      underTest.record(false);
+    }
+    assertThat(underTest.getSamples(), is(10));
+    assertThat(underTest.getErrorRate(), is(40));
+    assertThat(underTest.isFailing(), is(false));
+  }
+
+  @Test
+  public void resetForgetsEverything() {
+    for (int i = 0; i < 5; i++) {
+      underTest.record(true);
+    }
+    underTest.reset();
+
+    assertThat(underTest.getSamples(), is(0));
+    assertThat(underTest.getErrorRate(), is(0));
+    assertThat(underTest.isFailing(), is(false));
+  }
+}
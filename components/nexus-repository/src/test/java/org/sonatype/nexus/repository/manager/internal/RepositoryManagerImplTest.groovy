@@ -30,8 +30,11 @@ import org.sonatype.nexus.repository.group.GroupFacet
 import org.sonatype.nexus.repository.manager.DefaultRepositoriesContributor
 
 import com.google.common.collect.ImmutableMap
+import org.apache.shiro.mgt.DefaultSecurityManager
+import org.apache.shiro.util.ThreadContext
 import org.junit.Before
 import org.junit.Test
+import org.mockito.InOrder
 import org.mockito.Mock
 
 import static com.google.common.collect.Lists.asList
@@ -41,6 +44,7 @@ import static java.util.Collections.singletonList
 import static org.fest.assertions.api.Assertions.assertThat
 import static org.junit.Assert.assertFalse
 import static org.mockito.Matchers.any
+import static org.mockito.Mockito.inOrder
 import static org.mockito.Mockito.times
 import static org.mockito.Mockito.verify
 import static org.mockito.Mockito.when
@@ -56,6 +60,8 @@ class RepositoryManagerImplTest
 
   List<String> groupMembers
 
+  int startupThreads = 1
+
   @Mock
   EventManager eventManager
 
@@ -197,7 +203,7 @@ class RepositoryManagerImplTest
     repositoryManager = new RepositoryManagerImpl(eventManager, configurationStore, repositoryFactory,
         configurationFacetProvider, ImmutableMap.of(recipeName, recipe), securityContributor,
         defaultRepositoriesContributorList, databaseFreezeService, skipDefaultRepositories, nodeAccess,
-        blobStoreManager)
+        blobStoreManager, startupThreads)
 
     repositoryManager.doStart()
     return repositoryManager
@@ -225,6 +231,30 @@ class RepositoryManagerImplTest
     verify(thirdPartyRepository).start()
   }
 
+  @Test
+  void 'groups are started after their members and start times are recorded'() {
+    // parallel start propagates the subject of the starting thread
+    startupThreads = 4
+    ThreadContext.bind(new DefaultSecurityManager())
+    try {
+      repositoryManager = buildRepositoryManagerImpl(true)
+    }
+    finally {
+      ThreadContext.unbindSecurityManager()
+    }
+
+    InOrder mavenCentralFirst = inOrder(mavenCentralRepository, groupRepository)
+    mavenCentralFirst.verify(mavenCentralRepository).start()
+    mavenCentralFirst.verify(groupRepository).start()
+
+    InOrder apacheSnapshotsFirst = inOrder(apacheSnapshotsRepository, groupRepository)
+    apacheSnapshotsFirst.verify(apacheSnapshotsRepository).start()
+    apacheSnapshotsFirst.verify(groupRepository).start()
+
+    assertThat(repositoryManager.startupTimes.keySet()).
+        containsOnly(MAVEN_CENTRAL_NAME, APACHE_SNAPSHOTS_NAME, 'third-party', 'group')
+  }
+
   @Test
   void 'it should correctly create default repositories if none are configured on startup'() {
     repositoryManager = buildRepositoryManagerImpl(false)
@@ -0,0 +1,129 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2008-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.repository.proxy;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.sonatype.goodies.testsupport.TestSupport;
+import org.sonatype.nexus.repository.Repository;
+import org.sonatype.nexus.repository.http.HttpMethods;
+import org.sonatype.nexus.repository.storage.StorageFacet;
+import org.sonatype.nexus.repository.view.Content;
+import org.sonatype.nexus.repository.view.Context;
+import org.sonatype.nexus.repository.view.Request;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for {@link ProxyPrefetcher}.
+ */
+public class ProxyPrefetcherTest
+    extends TestSupport
+{
+  @Mock
+  private ProxyFacet proxyFacet;
+
+  @Mock
+  private Content content;
+
+  @Mock
+  private Repository repository;
+
+  @Mock
+  private StorageFacet storageFacet;
+
+  @Before
+  public void setUp() {
+    when(repository.facet(StorageFacet.class)).thenReturn(storageFacet);
+    when(storageFacet.txSupplier()).thenReturn(() -> null);
+  }
+
+  private Context context(final String path) {
+    return new Context(repository, new Request.Builder().action(HttpMethods.GET).path(path).build());
+  }
+
+  @Test
+  public void prefetchFetchesAndClosesContent() throws Exception {
+    ProxyPrefetcher underTest = new ProxyPrefetcher(1, 10);
+    underTest.start();
+    Context context = context("/foo");
+    when(proxyFacet.get(context)).thenReturn(content);
+
+    underTest.prefetch(proxyFacet, context);
+
+    assertThat(ProxyPrefetcher.isPrefetch(context), is(true));
+    verify(content, timeout(5000)).close();
+    assertThat(underTest.getSubmittedCount(), is(1L));
+    underTest.stop();
+  }
+
+  @Test
+  public void failuresAreCounted() throws Exception {
+    ProxyPrefetcher underTest = new ProxyPrefetcher(1, 10);
+    Context context = context("/foo");
+    when(proxyFacet.get(context)).thenThrow(new IOException("remote"));
+
+    underTest.fetch(proxyFacet, context);
+
+    assertThat(underTest.getFailedCount(), is(1L));
+    assertThat(underTest.getFetchedCount(), is(0L));
+  }
+
+  @Test
+  public void prefetchesAreDroppedWhenQueueIsFull() throws Exception {
+    ProxyPrefetcher underTest = new ProxyPrefetcher(1, 1);
+    underTest.start();
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    when(proxyFacet.get(any(Context.class))).thenAnswer(invocation -> {
+      started.countDown();
+      release.await(5, TimeUnit.SECONDS);
+      return null;
+    });
+
+    underTest.prefetch(proxyFacet, context("/running"));
+    assertThat(started.await(5, TimeUnit.SECONDS), is(true));
+    underTest.prefetch(proxyFacet, context("/queued"));
+    underTest.prefetch(proxyFacet, context("/dropped"));
+    release.countDown();
+
+    assertThat(underTest.getSubmittedCount(), is(2L));
+    assertThat(underTest.getDroppedCount(), is(1L));
+    underTest.stop();
+  }
+
+  @Test
+  public void prefetchesAreDroppedOnceStopped() throws Exception {
+    ProxyPrefetcher underTest = new ProxyPrefetcher(1, 10);
+    underTest.start();
+    underTest.stop();
+
+    underTest.prefetch(proxyFacet, context("/foo"));
+
+    assertThat(underTest.getSubmittedCount(), is(0L));
+    assertThat(underTest.getDroppedCount(), is(1L));
+    verify(proxyFacet, never()).get(any(Context.class));
+  }
+}
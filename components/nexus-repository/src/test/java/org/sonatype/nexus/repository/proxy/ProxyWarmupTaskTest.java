@@ -0,0 +1,191 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2008-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.repository.proxy;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+import org.sonatype.goodies.testsupport.TestSupport;
+import org.sonatype.nexus.common.app.ApplicationDirectories;
+import org.sonatype.nexus.repository.Repository;
+import org.sonatype.nexus.repository.http.HttpMethods;
+import org.sonatype.nexus.repository.storage.StorageFacet;
+import org.sonatype.nexus.repository.view.Content;
+import org.sonatype.nexus.repository.view.Context;
+import org.sonatype.nexus.repository.view.Request;
+import org.sonatype.nexus.scheduling.TaskConfiguration;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for {@link ProxyWarmupTask}.
+ */
+public class ProxyWarmupTaskTest
+    extends TestSupport
+{
+  private static final String PREFIX = "/repository/central/";
+
+  private static final String LOG_LINE =
+      "10.0.0.1 - - [19/Oct/2016:10:00:00 +0000] \"%s %s HTTP/1.1\" %d 1234 56 \"Apache-Maven/3.3.9\"";
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  @Mock
+  private Repository repository;
+
+  @Mock
+  private StorageFacet storageFacet;
+
+  @Mock
+  private ApplicationDirectories applicationDirectories;
+
+  private File logDirectory;
+
+  @Before
+  public void setUp() throws Exception {
+    logDirectory = temporaryFolder.newFolder("log");
+    when(applicationDirectories.getWorkDirectory("log")).thenReturn(logDirectory);
+    when(repository.getName()).thenReturn("central");
+    when(repository.facet(StorageFacet.class)).thenReturn(storageFacet);
+    when(storageFacet.txSupplier()).thenReturn(() -> null);
+  }
+
+  private static String logLine(final String method, final String url, final int status) {
+    return String.format(LOG_LINE, method, url, status);
+  }
+
+  @Test
+  public void requestLogLines() {
+    assertThat(ProxyWarmupTask.parsePath(logLine("GET", "/repository/central/org/foo/1.0/foo-1.0.jar", 200),
+        PREFIX), is("/org/foo/1.0/foo-1.0.jar"));
+    assertThat(ProxyWarmupTask.parsePath(logLine("HEAD", "/repository/central/org/foo/1.0/foo-1.0.pom", 304),
+        PREFIX), is("/org/foo/1.0/foo-1.0.pom"));
+    assertThat(ProxyWarmupTask.parsePath(logLine("GET", "/repository/central/a%20b.txt?x=1", 200),
+        PREFIX), is("/a b.txt"));
+  }
+
+  @Test
+  public void requestLogLinesIgnored() {
+    // other repository, unsuccessful, not a download or not a repository request
+    assertThat(ProxyWarmupTask.parsePath(logLine("GET", "/repository/other/foo.jar", 200), PREFIX), nullValue());
+    assertThat(ProxyWarmupTask.parsePath(logLine("GET", "/repository/central/foo.jar", 404), PREFIX), nullValue());
+    assertThat(ProxyWarmupTask.parsePath(logLine("PUT", "/repository/central/foo.jar", 200), PREFIX), nullValue());
+    assertThat(ProxyWarmupTask.parsePath(logLine("GET", "/repository/central/", 200), PREFIX), nullValue());
+    assertThat(ProxyWarmupTask.parsePath(logLine("GET", "/service/metrics/ping", 200), PREFIX), nullValue());
+  }
+
+  @Test
+  public void pathListLines() {
+    assertThat(ProxyWarmupTask.parsePath("org/foo/1.0/foo-1.0.jar", PREFIX), is("/org/foo/1.0/foo-1.0.jar"));
+    assertThat(ProxyWarmupTask.parsePath(" /org/foo/1.0/foo-1.0.jar ", PREFIX), is("/org/foo/1.0/foo-1.0.jar"));
+    assertThat(ProxyWarmupTask.parsePath("/repository/central/foo.jar", PREFIX), is("/foo.jar"));
+    assertThat(ProxyWarmupTask.parsePath("# comment", PREFIX), nullValue());
+    assertThat(ProxyWarmupTask.parsePath("", PREFIX), nullValue());
+  }
+
+  @Test
+  public void linesWhichAreNotRepositoryPathsAreIgnored() {
+    assertThat(ProxyWarmupTask.parsePath("2016-10-19 10:00:00,000+0000 INFO [main] *SYSTEM Started", PREFIX),
+        nullValue());
+    assertThat(ProxyWarmupTask.parsePath("../../etc/passwd", PREFIX), nullValue());
+    assertThat(ProxyWarmupTask.parsePath("foo.jar?x=1", PREFIX), nullValue());
+    assertThat(ProxyWarmupTask.parsePath(logLine("GET", "/repository/central/a/%2E%2E/b.jar", 200), PREFIX),
+        nullValue());
+  }
+
+  @Test
+  public void contextPathIsHonoured() {
+    String prefix = ProxyWarmupTask.repositoryPrefix("/nexus", "central");
+    assertThat(prefix, is("/nexus/repository/central/"));
+    assertThat(ProxyWarmupTask.repositoryPrefix("/nexus/", "central"), is(prefix));
+    assertThat(ProxyWarmupTask.repositoryPrefix("/", "central"), is(PREFIX));
+
+    assertThat(ProxyWarmupTask.parsePath(logLine("GET", "/nexus/repository/central/foo.jar", 200), prefix),
+        is("/foo.jar"));
+    assertThat(ProxyWarmupTask.parsePath(logLine("GET", "/repository/central/foo.jar", 200), prefix), nullValue());
+    assertThat(ProxyWarmupTask.parsePath("/nexus/repository/central/foo.jar", prefix), is("/foo.jar"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void sourceOutsideOfLogDirectoryIsRefused() throws Exception {
+    File source = temporaryFolder.newFile("passwd");
+
+    ProxyWarmupTask underTest = new ProxyWarmupTask(applicationDirectories, "/");
+    underTest.configure(configuration(source.getAbsolutePath()));
+
+    underTest.execute(repository);
+  }
+
+  @Test
+  public void warmupFetchesDistinctPaths() throws Exception {
+    File source = new File(logDirectory, "request.log");
+    Files.write(source.toPath(), Arrays.asList(
+        logLine("GET", "/repository/central/foo.jar", 200),
+        logLine("GET", "/repository/central/foo.jar", 200),
+        logLine("GET", "/repository/central/bar.jar", 200),
+        logLine("GET", "/repository/central/missing.jar", 404)
+    ), UTF_8);
+
+    ProxyFacetSupport proxyFacet = mock(ProxyFacetSupport.class);
+    when(repository.facet(ProxyFacet.class)).thenReturn(proxyFacet);
+    when(proxyFacet.createPrefetchContext(anyString())).thenAnswer(invocation -> new Context(repository,
+        new Request.Builder().action(HttpMethods.GET).path((String) invocation.getArguments()[0]).build()));
+    Content content = mock(Content.class);
+    when(proxyFacet.get(any(Context.class))).thenReturn(content);
+
+    ProxyWarmupTask underTest = new ProxyWarmupTask(applicationDirectories, "/");
+    // relative to the log directory
+    underTest.configure(configuration("request.log"));
+
+    underTest.execute(repository);
+
+    ArgumentCaptor<Context> contexts = ArgumentCaptor.forClass(Context.class);
+    verify(proxyFacet, times(2)).get(contexts.capture());
+    assertThat(contexts.getAllValues().stream().map(c -> c.getRequest().getPath()).sorted()
+        .collect(Collectors.toList()),
+        contains("/bar.jar", "/foo.jar"));
+    assertThat(ProxyPrefetcher.isPrefetch(contexts.getValue()), is(true));
+    verify(content, times(2)).close();
+    verify(storageFacet, atLeastOnce()).txSupplier();
+  }
+
+  private static TaskConfiguration configuration(final String source) {
+    TaskConfiguration configuration = new TaskConfiguration();
+    configuration.setId("id");
+    configuration.setTypeId(ProxyWarmupTaskDescriptor.TYPE_ID);
+    configuration.setString(ProxyWarmupTask.SOURCE_FIELD_ID, source);
+    configuration.setInteger(ProxyWarmupTask.REQUESTS_PER_SECOND_FIELD_ID, 100);
+    return configuration;
+  }
+}
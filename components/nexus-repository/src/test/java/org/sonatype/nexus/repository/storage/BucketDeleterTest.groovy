@@ -25,6 +25,7 @@ import org.junit.Before
 import org.junit.Test
 import org.mockito.Mock
 import org.mockito.Mockito
+import org.mockito.stubbing.Answer
 
 import static org.mockito.Matchers.any
 import static org.mockito.Mockito.doThrow
@@ -136,7 +137,7 @@ class BucketDeleterTest
     assets.each { asset -> verify(assetEntityAdapter).deleteEntity(db, asset) }
     verify(blobStore, never()).delete(any(BlobId))
     verify(bucketEntityAdapter).deleteEntity(db, bucket)
-    verify(db, times(4)).commit()
+    verify(db, times(3)).commit()
   }
 
   @Test
@@ -155,7 +156,7 @@ class BucketDeleterTest
     assets.each { asset -> verify(assetEntityAdapter).deleteEntity(db, asset) }
     verify(blobStore, times(1)).delete(any(BlobId))
     verify(bucketEntityAdapter).deleteEntity(db, bucket)
-    verify(db, times(4)).commit()
+    verify(db, times(3)).commit()
   }
 
   @Test
@@ -174,7 +175,32 @@ class BucketDeleterTest
     blobIds.each { blobId -> verify(blobStore).delete(blobId) }
     assets.each { asset -> verify(assetEntityAdapter).deleteEntity(db, asset) }
     verify(bucketEntityAdapter).deleteEntity(db, bucket)
-    verify(db, times(4)).commit()
+    verify(db, times(3)).commit()
+  }
+
+  @Test
+  void 'deletion stops after the current batch when interrupted'() {
+    List<Asset> assets = (1..250).collect { mockAsset(mockBlobRef(mock(BlobId))) }
+
+    when(blobStoreManager.get(BLOB_STORE_NAME)).thenReturn(blobStore)
+    when(componentEntityAdapter.browseByBucket(db, bucket)).thenReturn([])
+    when(assetEntityAdapter.browseByBucket(db, bucket)).thenAnswer({
+      Thread.currentThread().interrupt()
+      return assets
+    } as Answer)
+
+    try {
+      underTest.deleteBucket(bucket)
+      assert false : 'Expected InterruptedException'
+    }
+    catch (InterruptedException e) {
+      assert !Thread.currentThread().isInterrupted()
+    }
+
+    verify(assetEntityAdapter, times(100)).deleteEntity(any(ODatabaseDocumentTx), any(Asset))
+    verify(blobStore, times(100)).delete(any(BlobId))
+    verify(bucketEntityAdapter, never()).deleteEntity(db, bucket)
+    verify(db, times(1)).commit()
   }
 
   private BlobRef mockBlobRef(final BlobId blobId) {
@@ -24,15 +24,26 @@ import org.sonatype.nexus.orient.testsupport.DatabaseInstanceRule;
 import com.google.common.collect.Lists;
 import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
 import com.orientechnologies.orient.core.metadata.schema.OSchema;
+import com.orientechnologies.orient.core.metadata.schema.OType;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import org.joda.time.DateTime;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.emptyIterable;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.sonatype.nexus.repository.storage.ComponentEntityAdapter.P_GROUP;
+import static org.sonatype.nexus.repository.storage.ComponentEntityAdapter.P_LAST_DOWNLOADED;
+import static org.sonatype.nexus.repository.storage.ComponentEntityAdapter.P_VERSION;
 import static org.sonatype.nexus.repository.storage.MetadataNodeEntityAdapter.P_ATTRIBUTES;
+import static org.sonatype.nexus.repository.storage.MetadataNodeEntityAdapter.P_NAME;
 
 public class ComponentEntityAdapterTest
     extends TestSupport
@@ -94,4 +105,146 @@ public class ComponentEntityAdapterTest
       assertThat(components.get(0).version(), is(version));
     }
   }
+
+  @Test
+  public void testBrowseByBucketOrderedByCoordinates() {
+    try (ODatabaseDocumentTx db = database.getInstance().connect()) {
+      entityAdapter.register(db);
+      addComponent(db, "org.b", "x", "1.0");
+      addComponent(db, "org.a", "y", "2.0");
+      addComponent(db, "org.a", "x", "1.1");
+      addComponent(db, "org.a", "x", "1.0");
+
+      List<String> coordinates = Lists.newArrayList();
+      for (Component component : entityAdapter.browseByBucketOrderedByCoordinates(db, bucket, 3)) {
+        coordinates.add(component.group() + ":" + component.name() + ":" + component.version());
+      }
+
+      assertThat(coordinates, contains("org.a:x:1.0", "org.a:x:1.1", "org.a:y:2.0", "org.b:x:1.0"));
+    }
+  }
+
+  @Test
+  public void testBrowseByBucketOrderedByCoordinatesWhileDeletingInBatches() {
+    try (ODatabaseDocumentTx db = database.getInstance().connect()) {
+      entityAdapter.register(db);
+      for (int i = 0; i < 7; i++) {
+        addComponent(db, "org.a", "x", "1." + i);
+      }
+
+      // commit deletions in batches which do not line up with the pages of the index
+      List<String> deleted = Lists.newArrayList();
+      db.begin();
+      for (Component component : entityAdapter.browseByBucketOrderedByCoordinates(db, bucket, 2)) {
+        deleted.add(component.version());
+        entityAdapter.deleteEntity(db, component);
+        if (deleted.size() % 3 == 0) {
+          db.commit();
+          db.begin();
+        }
+      }
+      db.commit();
+
+      assertThat(deleted, contains("1.0", "1.1", "1.2", "1.3", "1.4", "1.5", "1.6"));
+      assertThat(entityAdapter.browseByBucketOrderedByCoordinates(db, bucket, 2), emptyIterable());
+    }
+  }
+
+  @Test
+  public void testBrowseVersions() {
+    try (ODatabaseDocumentTx db = database.getInstance().connect()) {
+      entityAdapter.register(db);
+      addComponent(db, "org.a", "x", "1.0");
+      addComponent(db, "org.a", "x", "1.1");
+      addComponent(db, "org.a", "xy", "2.0");
+      addComponent(db, "org.ab", "x", "3.0");
+
+      assertThat(entityAdapter.browseVersions(db, bucket, "org.a", "x"), containsInAnyOrder("1.0", "1.1"));
+      assertThat(entityAdapter.browseVersions(db, bucket, "org.a", "z"), hasSize(0));
+    }
+  }
+
+  @Test
+  public void testFindByProperty() {
+    try (ODatabaseDocumentTx db = database.getInstance().connect()) {
+      entityAdapter.register(db);
+      addComponent(db, "org.a", "x", "1.0");
+      addComponent(db, "org.b", "y", "2.0");
+
+      // index backed
+      assertThat(entityAdapter.findByProperty(db, P_NAME, "y", bucket).group(), is("org.b"));
+      assertThat(entityAdapter.findByProperty(db, P_GROUP, "org.a", bucket).name(), is("x"));
+      assertThat(entityAdapter.findByProperty(db, P_NAME, "z", bucket), is(nullValue()));
+      assertThat(entityAdapter.findByProperty(db, P_GROUP, "org", bucket), is(nullValue()));
+
+      // query backed
+      assertThat(entityAdapter.findByProperty(db, P_VERSION, "2.0", bucket).name(), is("y"));
+      assertThat(entityAdapter.findByProperty(db, P_VERSION, "3.0", bucket), is(nullValue()));
+    }
+  }
+
+  @Test
+  public void testFindByPropertySeesTransactionChanges() {
+    try (ODatabaseDocumentTx db = database.getInstance().connect()) {
+      entityAdapter.register(db);
+      db.begin();
+      addComponent(db, "org.a", "x", "1.0");
+      assertThat(entityAdapter.findByProperty(db, P_NAME, "x", bucket), is(notNullValue()));
+      db.rollback();
+      assertThat(entityAdapter.findByProperty(db, P_NAME, "x", bucket), is(nullValue()));
+    }
+  }
+
+  @Test
+  public void testBrowseLastDownloadedBefore() {
+    try (ODatabaseDocumentTx db = database.getInstance().connect()) {
+      entityAdapter.register(db);
+      Component unused = addComponent(db, "org.a", "x", "1.0");
+      Component used = addComponent(db, "org.a", "x", "1.1");
+      addComponent(db, "org.a", "x", "1.2");
+      DateTime now = DateTime.now();
+
+      entityAdapter.updateLastDownloaded(db, EntityHelper.id(unused), now.minusDays(10));
+      entityAdapter.updateLastDownloaded(db, EntityHelper.id(used), now);
+
+      List<Component> components = Lists.newArrayList(
+          entityAdapter.browseLastDownloadedBefore(db, bucket, now.minusDays(1).toDate()));
+      assertThat(components, hasSize(1));
+      assertThat(components.get(0).version(), is("1.0"));
+    }
+  }
+
+  @Test
+  public void testUpdateLastDownloadedOnlyRaisesBeyondGranularity() {
+    try (ODatabaseDocumentTx db = database.getInstance().connect()) {
+      entityAdapter.register(db);
+      Component component = addComponent(db, "org.a", "x", "1.0");
+      DateTime lastUpdated = entityAdapter.read(db, EntityHelper.id(component)).lastUpdated();
+      DateTime downloaded = DateTime.now().minusDays(1);
+
+      entityAdapter.updateLastDownloaded(db, EntityHelper.id(component), downloaded);
+      entityAdapter.updateLastDownloaded(db, EntityHelper.id(component), downloaded.plusMinutes(10));
+      entityAdapter.updateLastDownloaded(db, EntityHelper.id(component), downloaded.minusDays(1));
+
+      ODocument document = db.load(entityAdapter.recordIdentity(component));
+      assertThat(document.field(P_LAST_DOWNLOADED, OType.DATETIME), is(downloaded.toDate()));
+      assertThat(entityAdapter.read(db, EntityHelper.id(component)).lastUpdated(), is(lastUpdated));
+
+      entityAdapter.updateLastDownloaded(db, EntityHelper.id(component), downloaded.plusHours(2));
+      document = db.load(entityAdapter.recordIdentity(component));
+      assertThat(document.field(P_LAST_DOWNLOADED, OType.DATETIME), is(downloaded.plusHours(2).toDate()));
+    }
+  }
+
+  private Component addComponent(final ODatabaseDocumentTx db, final String group, final String name,
+                                 final String version)
+  {
+    Component component = new Component();
+    component.bucketId(EntityHelper.id(bucket));
+    component.format("format-id");
+    component.attributes(new NestedAttributesMap(P_ATTRIBUTES, new HashMap<>()));
+    component.group(group).name(name).version(version);
+    entityAdapter.addEntity(db, component);
+    return component;
+  }
 }
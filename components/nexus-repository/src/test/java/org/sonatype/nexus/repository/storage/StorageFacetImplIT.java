@@ -124,7 +124,8 @@ public class StorageFacetImplIT
         mock(ClientInfoProvider.class),
         contentValidatorSelector,
         mimeRulesSourceSelector,
-        storageFacetManager
+        storageFacetManager,
+        new StorageTxConflicts()
     );
     underTest.installDependencies(mock(EventManager.class));
 
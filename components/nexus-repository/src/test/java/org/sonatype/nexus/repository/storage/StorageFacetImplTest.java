@@ -146,7 +146,8 @@ public class StorageFacetImplTest
         clientInfoProvider,
         contentValidatorSelector,
         mimeRulesSourceSelector,
-        storageFacetManager
+        storageFacetManager,
+        new StorageTxConflicts()
     );
     underTest.attach(repository);
   }
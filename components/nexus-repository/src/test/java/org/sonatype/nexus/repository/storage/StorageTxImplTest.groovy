@@ -26,6 +26,11 @@ import org.sonatype.nexus.repository.view.ContentTypes
 import com.google.common.base.Supplier
 import com.google.common.hash.HashCode
 import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx
+import com.orientechnologies.orient.core.exception.OConcurrentModificationException
+import com.orientechnologies.orient.core.id.ORecordId
+import com.orientechnologies.orient.core.metadata.OMetadataDefault
+import com.orientechnologies.orient.core.metadata.schema.OClass
+import com.orientechnologies.orient.core.metadata.schema.OSchemaProxy
 import com.orientechnologies.orient.core.tx.OTransaction
 import org.joda.time.DateTime
 import org.junit.Before
@@ -33,6 +38,7 @@ import org.junit.Test
 import org.mockito.Mock
 
 import static org.hamcrest.MatcherAssert.assertThat
+import static org.hamcrest.Matchers.is
 import static org.mockito.Matchers.any
 import static org.mockito.Matchers.anyBoolean
 import static org.mockito.Matchers.anyString
@@ -588,4 +594,36 @@ extends TestSupport
     verify(asset, never()).blobCreated(any(DateTime))
     verify(asset).blobUpdated(any(DateTime))
   }
+
+  /**
+   * Given:
+   * - a transaction with conflict tracking
+   * When:
+   * - a concurrent modification of an asset record is retried
+   * Then:
+   * - the conflict is counted against the repository and the asset entity type
+   */
+  @Test
+  void 'retried conflicts are counted per repository and entity type'() {
+    def assetClass = mock(OClass)
+    when(assetClass.getName()).thenReturn('asset')
+    def schema = mock(OSchemaProxy)
+    when(schema.getClassByClusterId(12)).thenReturn(assetClass)
+    def metadata = mock(OMetadataDefault)
+    when(metadata.getSchema()).thenReturn(schema)
+    when(db.isActiveOnCurrentThread()).thenReturn(true)
+    when(db.getMetadata()).thenReturn(metadata)
+    when(bucket.getRepositoryName()).thenReturn('testRepo')
+    def conflicts = new StorageTxConflicts()
+    def underTest = new StorageTxImpl('test', blobTx, db, bucket, WritePolicy.ALLOW, WritePolicySelector.DEFAULT,
+        bucketEntityAdapter, componentEntityAdapter, assetEntityAdapter, false, defaultContentValidator,
+        MimeRulesSource.NOOP, conflicts)
+
+    assertThat underTest.allowRetry(new OConcurrentModificationException(new ORecordId(12, 3), 2, 1, 1)), is(true)
+    assertThat underTest.allowRetry(new IllegalStateException()), is(true)
+
+    assertThat conflicts.retries, is(2L)
+    assertThat conflicts.conflictsByRepository, is([testRepo: 2L])
+    assertThat conflicts.conflictsByEntityType, is([asset: 1L, (StorageTxConflicts.UNKNOWN_ENTITY_TYPE): 1L])
+  }
 }
@@ -0,0 +1,169 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2008-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.repository.storage.internal
+
+import org.sonatype.goodies.testsupport.TestSupport
+import org.sonatype.nexus.orient.testsupport.DatabaseInstanceRule
+
+import com.orientechnologies.orient.core.metadata.schema.OClass
+import com.orientechnologies.orient.core.metadata.schema.OSchema
+import com.orientechnologies.orient.core.metadata.schema.OType
+import com.orientechnologies.orient.core.record.impl.ODocument
+import org.junit.Before
+import org.junit.Rule
+import org.junit.Test
+
+import static org.hamcrest.Matchers.is
+import static org.hamcrest.Matchers.notNullValue
+import static org.hamcrest.Matchers.nullValue
+import static org.junit.Assert.assertThat
+import static org.sonatype.nexus.repository.storage.internal.ComponentDatabaseUpgrade_1_4.ASSET_CLASS
+import static org.sonatype.nexus.repository.storage.internal.ComponentDatabaseUpgrade_1_4.BATCH_SIZE
+import static org.sonatype.nexus.repository.storage.internal.ComponentDatabaseUpgrade_1_4.COMPONENT_CLASS
+import static org.sonatype.nexus.repository.storage.internal.ComponentDatabaseUpgrade_1_4.I_ASSET_BLOB_REF
+import static org.sonatype.nexus.repository.storage.internal.ComponentDatabaseUpgrade_1_4.I_ASSET_BUCKET_LAST_DOWNLOADED
+import static org.sonatype.nexus.repository.storage.internal.ComponentDatabaseUpgrade_1_4.I_COMPONENT_BUCKET_LAST_DOWNLOADED
+import static org.sonatype.nexus.repository.storage.internal.ComponentDatabaseUpgrade_1_4.P_BLOB_REF
+import static org.sonatype.nexus.repository.storage.internal.ComponentDatabaseUpgrade_1_4.P_BUCKET
+import static org.sonatype.nexus.repository.storage.internal.ComponentDatabaseUpgrade_1_4.P_COMPONENT
+import static org.sonatype.nexus.repository.storage.internal.ComponentDatabaseUpgrade_1_4.P_LAST_DOWNLOADED
+
+class ComponentDatabaseUpgrade_1_4_Test
+    extends TestSupport
+{
+  static final String P_NAME = 'name'
+
+  @Rule
+  public DatabaseInstanceRule componentDatabase = DatabaseInstanceRule.inMemory("test_component")
+
+  ComponentDatabaseUpgrade_1_4 underTest
+
+  @Before
+  void setUp() {
+    underTest = new ComponentDatabaseUpgrade_1_4(componentDatabase.getInstanceProvider())
+  }
+
+  @Test
+  void 'upgrade step creates indexes and component last_downloaded property'() {
+    populateComponentDatabase()
+
+    underTest.apply()
+
+    componentDatabase.instance.connect().withCloseable { db ->
+      OSchema schema = db.metadata.schema
+      OClass assetType = schema.getClass(ASSET_CLASS)
+      OClass componentType = schema.getClass(COMPONENT_CLASS)
+      assertThat(assetType.getClassIndex(I_ASSET_BUCKET_LAST_DOWNLOADED), is(notNullValue()))
+      assertThat(assetType.getClassIndex(I_ASSET_BLOB_REF), is(notNullValue()))
+      assertThat(componentType.getProperty(P_LAST_DOWNLOADED).type, is(OType.DATETIME))
+      assertThat(componentType.getClassIndex(I_COMPONENT_BUCKET_LAST_DOWNLOADED), is(notNullValue()))
+    }
+  }
+
+  @Test
+  void 'upgrade step populates component last_downloaded from the latest of its assets'() {
+    populateComponentDatabase()
+
+    underTest.apply()
+
+    componentDatabase.instance.connect().withCloseable { db ->
+      Map<String, Date> lastDownloaded = [:]
+      db.browseClass(COMPONENT_CLASS).each { component ->
+        lastDownloaded[component.field(P_NAME)] = component.field(P_LAST_DOWNLOADED, OType.DATETIME)
+      }
+      assertThat(lastDownloaded['downloaded'], is(new Date(2000)))
+      assertThat(lastDownloaded['never-downloaded'], is(nullValue()))
+    }
+  }
+
+  @Test
+  void 'upgrade step populates components over several pages'() {
+    populateComponentDatabase()
+    componentDatabase.instance.connect().withCloseable { db ->
+      ODocument bucket = db.browseClass('bucket').first()
+      (1..BATCH_SIZE).each { i ->
+        ODocument component = db.newInstance(COMPONENT_CLASS)
+            .field(P_BUCKET, bucket)
+            .field(P_NAME, 'extra-' + i)
+            .save()
+        addAsset(db, bucket, component, 'extra-' + i + '.jar', new Date(i))
+      }
+    }
+
+    underTest.apply()
+
+    componentDatabase.instance.connect().withCloseable { db ->
+      int populated = 0
+      db.browseClass(COMPONENT_CLASS).each { component ->
+        if (component.field(P_LAST_DOWNLOADED) != null) {
+          populated++
+        }
+      }
+      assertThat(populated, is(BATCH_SIZE + 1))
+    }
+  }
+
+  @Test
+  void 'upgrade step can be applied twice'() {
+    populateComponentDatabase()
+
+    underTest.apply()
+    underTest.apply()
+  }
+
+  @Test
+  void 'upgrade step does not throw exceptions if classes are not found in schema'() {
+    underTest.apply()
+  }
+
+  private void populateComponentDatabase() {
+    componentDatabase.instance.connect().withCloseable { db ->
+      OSchema schema = db.getMetadata().getSchema()
+      OClass bucketType = schema.createClass('bucket')
+      OClass componentType = schema.createClass(COMPONENT_CLASS)
+      componentType.createProperty(P_BUCKET, OType.LINK, bucketType)
+      componentType.createProperty(P_NAME, OType.STRING)
+      OClass assetType = schema.createClass(ASSET_CLASS)
+      assetType.createProperty(P_BUCKET, OType.LINK, bucketType)
+      assetType.createProperty(P_COMPONENT, OType.LINK, componentType)
+      assetType.createProperty(P_NAME, OType.STRING)
+      assetType.createProperty(P_BLOB_REF, OType.STRING)
+      assetType.createProperty(P_LAST_DOWNLOADED, OType.DATETIME)
+
+      ODocument bucket = db.newInstance('bucket').save()
+      ODocument downloaded = db.newInstance(COMPONENT_CLASS)
+          .field(P_BUCKET, bucket)
+          .field(P_NAME, 'downloaded')
+          .save()
+      ODocument neverDownloaded = db.newInstance(COMPONENT_CLASS)
+          .field(P_BUCKET, bucket)
+          .field(P_NAME, 'never-downloaded')
+          .save()
+
+      addAsset(db, bucket, downloaded, 'a.jar', new Date(1000))
+      addAsset(db, bucket, downloaded, 'a.pom', new Date(2000))
+      addAsset(db, bucket, neverDownloaded, 'b.jar', null)
+      addAsset(db, bucket, null, 'c.txt', new Date(3000))
+    }
+  }
+
+  private static void addAsset(db, ODocument bucket, ODocument component, String name, Date lastDownloaded) {
+    db.newInstance(ASSET_CLASS)
+        .field(P_BUCKET, bucket)
+        .field(P_COMPONENT, component)
+        .field(P_NAME, name)
+        .field(P_BLOB_REF, 'default@' + name)
+        .field(P_LAST_DOWNLOADED, lastDownloaded)
+        .save()
+  }
+}
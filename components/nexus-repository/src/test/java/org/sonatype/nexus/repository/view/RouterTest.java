@@ -12,10 +12,18 @@
  */
 package org.sonatype.nexus.repository.view;
 
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 
 import org.sonatype.goodies.testsupport.TestSupport;
 import org.sonatype.nexus.repository.Repository;
+import org.sonatype.nexus.repository.http.HttpMethods;
+import org.sonatype.nexus.repository.view.matchers.ActionMatcher;
+import org.sonatype.nexus.repository.view.matchers.LiteralMatcher;
+import org.sonatype.nexus.repository.view.matchers.PrefixMatcher;
+import org.sonatype.nexus.repository.view.matchers.SuffixMatcher;
+import org.sonatype.nexus.repository.view.matchers.token.TokenMatcher;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -24,6 +32,14 @@ import org.mockito.Mock;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.sonatype.nexus.repository.view.matchers.logic.LogicMatchers.and;
 import static org.sonatype.nexus.repository.view.Router.LOCAL_ATTRIBUTE_PREFIX;
 
 public class RouterTest
@@ -58,4 +74,54 @@ public class RouterTest
     assertThat(newContext.getAttributes().get("somekey"), is("somevalue"));
     assertThat(newContext.getAttributes().get(LOCAL_ATTRIBUTE_PREFIX + "anotherkey"), nullValue());
   }
+
+  @Test
+  public void testFindRouteMatchesSameRouteAsLinearScan() throws Exception {
+    List<Route> routes = Arrays.asList(
+        route(new LiteralMatcher("/index.html")),
+        route(new PrefixMatcher("/.meta/")),
+        route(new PrefixMatcher("/.Index/", true)),
+        route(new TokenMatcher("/{path:.+}/maven-metadata.xml")),
+        route(new SuffixMatcher(".XML").ignoreCase(true)),
+        route(and(new ActionMatcher(HttpMethods.GET), new SuffixMatcher("/"))),
+        route(context -> context.getRequest().getPath().contains("opaque")),
+        route(new TokenMatcher("/{name:.+}.jar")),
+        route(new TokenMatcher("{name:.+}/"))
+    );
+    Router router = new Router(routes, defaultRoute);
+
+    List<String> paths = Arrays.asList("/index.html", "/INDEX.HTML", "/index.htm", "/.meta/prefixes.txt", "/.index/x",
+        "/org/foo/maven-metadata.xml", "/org/foo/bar.XML", "/org/foo/", "/org/opaque", "/org/foo/bar.jar",
+        "/org/foo/bar.pom", "", "/");
+    for (String path : paths) {
+      when(request.getPath()).thenReturn(path);
+      when(request.getAction()).thenReturn(HttpMethods.GET);
+
+      Route expected = defaultRoute;
+      for (Route route : routes) {
+        if (route.getMatcher().matches(new Context(repository, request))) {
+          expected = route;
+          break;
+        }
+      }
+      assertThat(path, router.findRoute(new Context(repository, request)), sameInstance(expected));
+    }
+  }
+
+  @Test
+  public void testFindRouteOnlyTriesCandidates() throws Exception {
+    Matcher indexed = spy(new LiteralMatcher("/index.html"));
+    Matcher opaque = mock(Matcher.class);
+    Route opaqueRoute = route(opaque);
+    when(opaque.matches(any())).thenReturn(true);
+    Router router = new Router(Arrays.asList(route(indexed), opaqueRoute), defaultRoute);
+
+    when(request.getPath()).thenReturn("/other.html");
+    assertThat(router.findRoute(new Context(repository, request)), sameInstance(opaqueRoute));
+    verify(indexed, never()).matches(any());
+  }
+
+  private static Route route(final Matcher matcher) {
+    return new Route(matcher, Collections.singletonList(mock(Handler.class)));
+  }
 }
@@ -14,6 +14,8 @@ package org.sonatype.nexus.scheduling;
 
 import java.util.concurrent.atomic.AtomicBoolean;
 
+import javax.annotation.Nullable;
+
 import static com.google.common.base.Preconditions.checkNotNull;
 
 /**
@@ -43,6 +45,16 @@ public class CancelableHelper
     currentFlagHolder.remove();
   }
 
+  /**
+   * Returns the flag of the current thread, to be {@link #set(AtomicBoolean) set} on threads doing work on its behalf.
+   *
+   * @since 3.3
+   */
+  @Nullable
+  public static AtomicBoolean get() {
+    return currentFlagHolder.get();
+  }
+
   /**
    * Throws {@link TaskInterruptedException} if current task is canceled or interrupted.
    */
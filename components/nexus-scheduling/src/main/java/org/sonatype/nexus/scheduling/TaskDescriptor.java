@@ -25,6 +25,20 @@ import org.sonatype.nexus.formfields.FormField;
  */
 public interface TaskDescriptor
 {
+  /**
+   * Resource class of tasks which have no particular resource needs.
+   *
+   * @since 3.3
+   */
+  String DEFAULT_RESOURCE_CLASS = "default";
+
+  /**
+   * Resource class of long-running tasks doing heavy I/O, such as rebuilding indexes or metadata and compaction.
+   *
+   * @since 3.3
+   */
+  String HEAVY_RESOURCE_CLASS = "heavy";
+
   /**
    * Unique identifier for descriptor.
    */
@@ -70,4 +84,13 @@ public interface TaskDescriptor
    * Exposed tasks are allowed to be created by users.
    */
   boolean isExposed();
+
+  /**
+   * Returns the resource class of the task, used to limit how many tasks of the same class run concurrently.
+   *
+   * @since 3.3
+   */
+  default String getResourceClass() {
+    return DEFAULT_RESOURCE_CLASS;
+  }
 }
@@ -12,6 +12,7 @@
  */
 package org.sonatype.nexus.security.authz;
 
+import java.util.List;
 import java.util.Set;
 
 import com.google.common.base.Joiner;
@@ -53,6 +54,16 @@ public class WildcardPermission2
     return cachedHash;
   }
 
+  /**
+   * Exposes the parts of this permission, so permissions can be indexed by them.
+   *
+   * @since 3.3
+   */
+  @Override
+  public List<Set<String>> getParts() {
+    return super.getParts();
+  }
+
   private static final Joiner JOINER = Joiner.on(',');
 
   /**
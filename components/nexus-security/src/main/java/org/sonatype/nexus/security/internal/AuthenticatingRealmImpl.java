@@ -59,12 +59,16 @@ public class AuthenticatingRealmImpl
 
   private final PasswordService passwordService;
 
+  private final VerifiedCredentialCache verifiedCredentials;
+
   @Inject
   public AuthenticatingRealmImpl(final SecurityConfigurationManager configuration,
-                                 final PasswordService passwordService)
+                                 final PasswordService passwordService,
+                                 final VerifiedCredentialCache verifiedCredentials)
   {
     this.configuration = configuration;
     this.passwordService = passwordService;
+    this.verifiedCredentials = verifiedCredentials;
 
     PasswordMatcher passwordMatcher = new PasswordMatcher();
     passwordMatcher.setPasswordService(this.passwordService);
@@ -107,6 +111,28 @@ public class AuthenticatingRealmImpl
     }
   }
 
+  /**
+   * Skips the (deliberately expensive) password hash comparison when the same credentials were recently verified
+   * against the same stored hash.
+   */
+  @Override
+  protected void assertCredentialsMatch(final AuthenticationToken token, final AuthenticationInfo info) {
+    if (!(token instanceof UsernamePasswordToken) || !(info.getCredentials() instanceof char[])) {
+      super.assertCredentialsMatch(token, info);
+      return;
+    }
+
+    UsernamePasswordToken upToken = (UsernamePasswordToken) token;
+    String passwordHash = String.valueOf((char[]) info.getCredentials());
+    if (upToken.getUsername() == null || upToken.getPassword() == null) {
+      super.assertCredentialsMatch(token, info);
+    }
+    else if (!verifiedCredentials.isVerified(upToken.getUsername(), upToken.getPassword(), passwordHash)) {
+      super.assertCredentialsMatch(token, info);
+      verifiedCredentials.verified(upToken.getUsername(), upToken.getPassword(), passwordHash);
+    }
+  }
+
   /**
    * Re-hash user password, and persist changes.
    *
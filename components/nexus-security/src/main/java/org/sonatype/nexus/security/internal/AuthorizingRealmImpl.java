@@ -13,6 +13,7 @@
 package org.sonatype.nexus.security.internal;
 
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
@@ -21,6 +22,7 @@ import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
 
+import org.sonatype.nexus.security.authz.WildcardPermission2;
 import org.sonatype.nexus.security.role.RoleIdentifier;
 import org.sonatype.nexus.security.user.RoleMappingUserManager;
 import org.sonatype.nexus.security.user.UserManager;
@@ -31,7 +33,9 @@ import org.apache.shiro.authc.AuthenticationToken;
 import org.apache.shiro.authc.credential.Sha1CredentialsMatcher;
 import org.apache.shiro.authz.AuthorizationException;
 import org.apache.shiro.authz.AuthorizationInfo;
+import org.apache.shiro.authz.Permission;
 import org.apache.shiro.authz.SimpleAuthorizationInfo;
+import org.apache.shiro.authz.permission.RolePermissionResolver;
 import org.apache.shiro.mgt.RealmSecurityManager;
 import org.apache.shiro.realm.AuthorizingRealm;
 import org.apache.shiro.realm.Realm;
@@ -74,6 +78,8 @@ public class AuthorizingRealmImpl
     setName(NAME);
     setAuthenticationCachingEnabled(false); // we authz only, no authc done by this realm
     setAuthorizationCachingEnabled(true);
+    // resolve string permissions to permissions which can be looked up in compiled permissions
+    setPermissionResolver(WildcardPermission2::new);
   }
 
   @Override
@@ -153,6 +159,25 @@ public class AuthorizingRealmImpl
     return new SimpleAuthorizationInfo(roles);
   }
 
+  /**
+   * Checks the permission against the compiled permissions of the role-set, rather than every permission of every role.
+   */
+  @Override
+  protected boolean isPermitted(final Permission permission, final AuthorizationInfo info) {
+    RolePermissionResolver resolver = getRolePermissionResolver();
+    if (resolver instanceof RolePermissionResolverImpl && isEmpty(info.getStringPermissions())
+        && isEmpty(info.getObjectPermissions())) {
+      Collection<String> roles = info.getRoles() != null ? info.getRoles() : Collections.emptySet();
+      return ((RolePermissionResolverImpl) resolver).resolveCompiledPermissionsInRoles(new HashSet<>(roles))
+          .implies(permission);
+    }
+    return super.isPermitted(permission, info);
+  }
+
+  private static boolean isEmpty(final Collection<?> collection) {
+    return collection == null || collection.isEmpty();
+  }
+
   private void cleanUpRealmList(Set<String> realmNames) {
     for (UserManager userManager : this.userManagerMap.values()) {
       String authRealmName = userManager.getAuthenticationRealmName();
@@ -0,0 +1,125 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2008-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.security.internal;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.sonatype.nexus.security.authz.WildcardPermission2;
+
+import org.apache.shiro.authz.Permission;
+
+/**
+ * Set of permissions compiled into a trie keyed by the parts of {@link WildcardPermission2}s (such as domain, format,
+ * repository and action) so checking whether the set implies a permission only inspects the few permissions along the
+ * path of the requested one, instead of every permission held.
+ *
+ * A permission is stored at the node reached by its leading single-token parts; descending stops at the first part
+ * containing a wildcard, which (like the end of a permission) implies anything further down. Permissions with several
+ * tokens in a part are stored under each token. Candidates found along the path are confirmed with
+ * {@link Permission#implies(Permission)}, so the trie only narrows the search and never changes the outcome.
+ *
+ * Instances are immutable once built and may be shared between threads.
+ *
+ * @since 3.3
+ */
+final class PermissionTrie
+{
+  private static final String WILDCARD_TOKEN = "*";
+
+  private static final class Node
+  {
+    private final Map<String, Node> children = new HashMap<>();
+
+    private final List<Permission> permissions = new ArrayList<>();
+
+    private Node child(final String token) {
+      return children.computeIfAbsent(token, key -> new Node());
+    }
+  }
+
+  private final Node root = new Node();
+
+  /**
+   * Permissions which can not be indexed, and must always be checked.
+   */
+  private final List<Permission> unindexed = new ArrayList<>();
+
+  private final List<Permission> all;
+
+  private PermissionTrie(final Collection<Permission> permissions) {
+    this.all = new ArrayList<>(permissions);
+    for (Permission permission : permissions) {
+      if (permission instanceof WildcardPermission2) {
+        add(root, ((WildcardPermission2) permission).getParts(), 0, permission);
+      }
+      else {
+        unindexed.add(permission);
+      }
+    }
+  }
+
+  static PermissionTrie of(final Collection<Permission> permissions) {
+    return new PermissionTrie(permissions);
+  }
+
+  private static void add(final Node node, final List<Set<String>> parts, final int index, final Permission permission) {
+    if (index == parts.size() || parts.get(index).contains(WILDCARD_TOKEN)) {
+      node.permissions.add(permission);
+      return;
+    }
+    for (String token : parts.get(index)) {
+      add(node.child(token), parts, index + 1, permission);
+    }
+  }
+
+  /**
+   * Returns {@code true} if any permission of this set implies the given permission.
+   */
+  boolean implies(final Permission permission) {
+    if (!(permission instanceof WildcardPermission2)) {
+      return anyImplies(all, permission);
+    }
+    if (anyImplies(unindexed, permission)) {
+      return true;
+    }
+
+    List<Set<String>> parts = ((WildcardPermission2) permission).getParts();
+    Node node = root;
+    for (int index = 0; node != null; index++) {
+      if (anyImplies(node.permissions, permission)) {
+        return true;
+      }
+      if (index == parts.size() || parts.get(index).contains(WILDCARD_TOKEN)) {
+        // only permissions with a wildcard (or no) part here can imply the requested one, they were checked above
+        return false;
+      }
+      // any implying permission has all requested tokens in this part, so was stored under each of them
+      node = node.children.get(parts.get(index).iterator().next());
+    }
+    return false;
+  }
+
+  private static boolean anyImplies(final List<Permission> permissions, final Permission permission) {
+    for (Permission candidate : permissions) {
+      if (candidate.implies(permission)) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
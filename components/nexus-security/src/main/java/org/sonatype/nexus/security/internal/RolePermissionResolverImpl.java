@@ -37,6 +37,7 @@ import org.sonatype.nexus.security.role.NoSuchRoleException;
 
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.eventbus.AllowConcurrentEvents;
 import com.google.common.eventbus.Subscribe;
 import org.apache.shiro.authz.Permission;
@@ -72,15 +73,22 @@ public class RolePermissionResolverImpl
    */
   private final Cache<String,String> roleNotFoundCache;
 
+  /**
+   * Role-ids to compiled permissions cache.
+   */
+  private final Cache<Set<String>, PermissionTrie> compiledPermissionsCache;
+
   @Inject
   public RolePermissionResolverImpl(final SecurityConfigurationManager configuration,
                                     final List<PrivilegeDescriptor> privilegeDescriptors,
                                     final EventManager eventManager,
-                                    @Named("${security.roleNotFoundCacheSize:-100000}") final int roleNotFoundCacheSize)
+                                    @Named("${security.roleNotFoundCacheSize:-100000}") final int roleNotFoundCacheSize,
+                                    @Named("${security.compiledPermissionsCacheSize:-10000}") final int compiledPermissionsCacheSize)
   {
     this.configuration = checkNotNull(configuration);
     this.privilegeDescriptors = checkNotNull(privilegeDescriptors);
     this.roleNotFoundCache = CacheBuilder.newBuilder().maximumSize(roleNotFoundCacheSize).build();
+    this.compiledPermissionsCache = CacheBuilder.newBuilder().maximumSize(compiledPermissionsCacheSize).build();
     eventManager.register(this);
   }
 
@@ -91,6 +99,7 @@ public class RolePermissionResolverImpl
     permissionsCache.invalidateAll();
     rolePermissionsCache.invalidateAll();
     roleNotFoundCache.invalidateAll();
+    compiledPermissionsCache.invalidateAll();
     log.trace("Cache invalidated");
   }
 
@@ -166,6 +175,27 @@ public class RolePermissionResolverImpl
     return permissions;
   }
 
+  /**
+   * Returns the permissions of all the given roles compiled for fast checks; subjects with the same set of roles share
+   * the same instance.
+   *
+   * @since 3.3
+   */
+  PermissionTrie resolveCompiledPermissionsInRoles(final Set<String> roleIds) {
+    checkNotNull(roleIds);
+
+    PermissionTrie compiled = compiledPermissionsCache.getIfPresent(roleIds);
+    if (compiled == null) {
+      Set<Permission> permissions = new LinkedHashSet<>();
+      for (String roleId : roleIds) {
+        permissions.addAll(resolvePermissionsInRole(roleId));
+      }
+      compiled = PermissionTrie.of(permissions);
+      compiledPermissionsCache.put(ImmutableSet.copyOf(roleIds), compiled);
+    }
+    return compiled;
+  }
+
   /**
    * Returns the descriptor for the given privilege-type or {@code null}.
    */
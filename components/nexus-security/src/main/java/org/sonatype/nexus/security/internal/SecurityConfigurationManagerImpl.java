@@ -13,6 +13,7 @@
 package org.sonatype.nexus.security.internal;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -20,12 +21,15 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
 
 import org.sonatype.goodies.common.ComponentSupport;
+import org.sonatype.goodies.common.Time;
 import org.sonatype.nexus.common.event.EventAware;
 import org.sonatype.nexus.common.event.EventManager;
 import org.sonatype.nexus.common.text.Strings2;
@@ -41,10 +45,15 @@ import org.sonatype.nexus.security.config.SecurityConfigurationManager;
 import org.sonatype.nexus.security.config.SecurityConfigurationSource;
 import org.sonatype.nexus.security.config.SecurityContributor;
 import org.sonatype.nexus.security.privilege.NoSuchPrivilegeException;
+import org.sonatype.nexus.security.privilege.PrivilegeEvent;
 import org.sonatype.nexus.security.role.NoSuchRoleException;
+import org.sonatype.nexus.security.role.RoleEvent;
 import org.sonatype.nexus.security.user.NoSuchRoleMappingException;
+import org.sonatype.nexus.security.user.User;
+import org.sonatype.nexus.security.user.UserEvent;
 import org.sonatype.nexus.security.user.UserManager;
 import org.sonatype.nexus.security.user.UserNotFoundException;
+import org.sonatype.nexus.security.user.UserRoleMappingEvent;
 
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
@@ -56,6 +65,13 @@ import static com.google.common.base.Preconditions.checkState;
 
 /**
  * Default {@link SecurityConfigurationManager}.
+ *
+ * Users, roles, privileges and user/role mappings of the configuration source are served from an immutable
+ * {@link SecurityModelSnapshot}, so lookups made while authenticating and authorizing never touch the store. Every
+ * change made through this manager is written to the store and then applied to a new snapshot (copy-on-write).
+ * Entries named by user, role, privilege and user/role mapping events are re-read as well, so changes made through
+ * other managers of the same store are picked up, and the whole snapshot is reloaded once older than
+ * {@code nexus.security.snapshot.maxAge} to catch changes made without any event.
  */
 @Named("default")
 @Singleton
@@ -77,6 +93,12 @@ public class SecurityConfigurationManagerImpl
 
   private volatile SecurityConfiguration mergedConfiguration;
 
+  private volatile SecurityModelSnapshot snapshot;
+
+  private volatile long snapshotLoaded;
+
+  private final long snapshotMaxAgeNanos;
+
   private final AtomicInteger mergedConfigurationDirty = new AtomicInteger(1);
 
   private boolean firstTimeConfiguration = true;
@@ -85,18 +107,20 @@ public class SecurityConfigurationManagerImpl
   public SecurityConfigurationManagerImpl(final SecurityConfigurationSource configurationSource,
                                           final SecurityConfigurationCleaner configCleaner,
                                           final PasswordService passwordService,
-                                          final EventManager eventManager)
+                                          final EventManager eventManager,
+                                          @Named("${nexus.security.snapshot.maxAge:-10m}") final Time snapshotMaxAge)
   {
     this.configurationSource = configurationSource;
     this.eventManager = eventManager;
     this.configCleaner = configCleaner;
     this.passwordService = passwordService;
+    this.snapshotMaxAgeNanos = snapshotMaxAge.toNanos();
   }
 
   @Override
   public List<CPrivilege> listPrivileges() {
     List<CPrivilege> privileges = Lists.newArrayList();
-    privileges.addAll(getDefaultConfiguration().getPrivileges());
+    privileges.addAll(copies(getSnapshot().getPrivileges(), CPrivilege::clone));
     privileges.addAll(getMergedConfiguration().getPrivileges());
     return Collections.unmodifiableList(privileges);
   }
@@ -104,29 +128,31 @@ public class SecurityConfigurationManagerImpl
   @Override
   public List<CRole> listRoles() {
     List<CRole> roles = Lists.newArrayList();
-    roles.addAll(getDefaultConfiguration().getRoles());
+    roles.addAll(copies(getSnapshot().getRoles(), CRole::clone));
     roles.addAll(getMergedConfiguration().getRoles());
     return Collections.unmodifiableList(roles);
   }
 
   @Override
   public List<CUser> listUsers() {
-    return Collections.unmodifiableList(getDefaultConfiguration().getUsers());
+    return Collections.unmodifiableList(copies(getSnapshot().getUsers(), CUser::clone));
   }
 
   @Override
   public List<CUserRoleMapping> listUserRoleMappings() {
-    return Collections.unmodifiableList(getDefaultConfiguration().getUserRoleMappings());
+    return Collections.unmodifiableList(copies(getSnapshot().getUserRoleMappings(), CUserRoleMapping::clone));
   }
 
   @Override
   public void createPrivilege(CPrivilege privilege) {
     getDefaultConfiguration().addPrivilege(privilege);
+    refreshPrivilege(privilege.getId());
   }
 
   @Override
   public void createRole(CRole role) {
     getDefaultConfiguration().addRole(role);
+    refreshRole(role.getId());
   }
 
   @Override
@@ -140,6 +166,7 @@ public class SecurityConfigurationManagerImpl
       user.setPassword(passwordService.encryptPassword(password));
     }
     getDefaultConfiguration().addUser(user, roles);
+    refreshUser(user.getId());
   }
 
   @Override
@@ -148,7 +175,13 @@ public class SecurityConfigurationManagerImpl
     if (!found) {
       throw new NoSuchPrivilegeException(id);
     }
-    configCleaner.privilegeRemoved(getDefaultConfiguration(), id);
+    try {
+      configCleaner.privilegeRemoved(getDefaultConfiguration(), id);
+    }
+    finally {
+      // the cleaner may have touched any number of roles
+      invalidateSnapshot();
+    }
   }
 
   @Override
@@ -157,12 +190,19 @@ public class SecurityConfigurationManagerImpl
     if (!found) {
       throw new NoSuchRoleException(id);
     }
-    configCleaner.roleRemoved(getDefaultConfiguration(), id);
+    try {
+      configCleaner.roleRemoved(getDefaultConfiguration(), id);
+    }
+    finally {
+      // the cleaner may have touched any number of roles and user/role mappings
+      invalidateSnapshot();
+    }
   }
 
   @Override
   public void deleteUser(String id) throws UserNotFoundException {
     boolean found = getDefaultConfiguration().removeUser(id);
+    refreshUser(id);
 
     if (!found) {
       throw new UserNotFoundException(id);
@@ -176,9 +216,9 @@ public class SecurityConfigurationManagerImpl
       return privilege;
     }
 
-    privilege = getDefaultConfiguration().getPrivilege(id);
+    privilege = getSnapshot().getPrivilege(id);
     if (privilege != null) {
-      return privilege;
+      return privilege.clone();
     }
 
     throw new NoSuchPrivilegeException(id);
@@ -191,9 +231,9 @@ public class SecurityConfigurationManagerImpl
       return role;
     }
 
-    role = getDefaultConfiguration().getRole(id);
+    role = getSnapshot().getRole(id);
     if (role != null) {
-      return role;
+      return role.clone();
     }
 
     throw new NoSuchRoleException(id);
@@ -201,22 +241,32 @@ public class SecurityConfigurationManagerImpl
 
   @Override
   public CUser readUser(String id) throws UserNotFoundException {
-    CUser user = getDefaultConfiguration().getUser(id);
+    CUser user = getSnapshot().getUser(id);
 
     if (user != null) {
-      return user;
+      return user.clone();
     }
     throw new UserNotFoundException(id);
   }
 
   @Override
   public void updatePrivilege(CPrivilege privilege) throws NoSuchPrivilegeException {
-    getDefaultConfiguration().updatePrivilege(privilege);
+    try {
+      getDefaultConfiguration().updatePrivilege(privilege);
+    }
+    finally {
+      refreshPrivilege(privilege.getId());
+    }
   }
 
   @Override
   public void updateRole(CRole role) throws NoSuchRoleException {
-    getDefaultConfiguration().updateRole(role);
+    try {
+      getDefaultConfiguration().updateRole(role);
+    }
+    finally {
+      refreshRole(role.getId());
+    }
   }
 
   @Override
@@ -233,20 +283,26 @@ public class SecurityConfigurationManagerImpl
 
   @Override
   public void updateUser(CUser user, Set<String> roles) throws UserNotFoundException {
-    getDefaultConfiguration().updateUser(user, roles);
+    try {
+      getDefaultConfiguration().updateUser(user, roles);
+    }
+    finally {
+      refreshUser(user.getId());
+    }
   }
 
   @Override
   public void createUserRoleMapping(CUserRoleMapping userRoleMapping) {
     getDefaultConfiguration().addUserRoleMapping(userRoleMapping);
+    refreshUserRoleMapping(userRoleMapping.getUserId(), userRoleMapping.getSource());
   }
 
   @Override
   public CUserRoleMapping readUserRoleMapping(String userId, String source) throws NoSuchRoleMappingException {
-    CUserRoleMapping mapping = getDefaultConfiguration().getUserRoleMapping(userId, source);
+    CUserRoleMapping mapping = getSnapshot().getUserRoleMapping(userId, source);
 
     if (mapping != null) {
-      return mapping;
+      return mapping.clone();
     }
     else {
       throw new NoSuchRoleMappingException(userId);
@@ -255,12 +311,18 @@ public class SecurityConfigurationManagerImpl
 
   @Override
   public void updateUserRoleMapping(CUserRoleMapping userRoleMapping) throws NoSuchRoleMappingException {
-    getDefaultConfiguration().updateUserRoleMapping(userRoleMapping);
+    try {
+      getDefaultConfiguration().updateUserRoleMapping(userRoleMapping);
+    }
+    finally {
+      refreshUserRoleMapping(userRoleMapping.getUserId(), userRoleMapping.getSource());
+    }
   }
 
   @Override
   public void deleteUserRoleMapping(String userId, String source) throws NoSuchRoleMappingException {
     boolean found = getDefaultConfiguration().removeUserRoleMapping(userId, source);
+    refreshUserRoleMapping(userId, source);
 
     if (!found) {
       throw new NoSuchRoleMappingException(userId);
@@ -302,6 +364,91 @@ public class SecurityConfigurationManagerImpl
     return configurationSource.loadConfiguration();
   }
 
+  private SecurityModelSnapshot getSnapshot() {
+    SecurityModelSnapshot current = this.snapshot;
+    if (current == null || isSnapshotExpired()) {
+      synchronized (this) {
+        current = this.snapshot;
+        if (current == null || isSnapshotExpired()) {
+          this.snapshot = current = SecurityModelSnapshot.of(getDefaultConfiguration());
+          snapshotLoaded = System.nanoTime();
+          log.debug("Loaded security model: {} users, {} roles, {} privileges", current.getUsers().size(),
+              current.getRoles().size(), current.getPrivileges().size());
+        }
+      }
+    }
+    return current;
+  }
+
+  private boolean isSnapshotExpired() {
+    return snapshotMaxAgeNanos > 0 && System.nanoTime() - snapshotLoaded > snapshotMaxAgeNanos;
+  }
+
+  private synchronized void invalidateSnapshot() {
+    snapshot = null;
+  }
+
+  /**
+   * Re-reads the given entries from the configuration source into a new snapshot. Reading and swapping under the same
+   * lock guarantees the latest read always wins when the same entry is changed concurrently.
+   */
+  private synchronized void refresh(final Function<SecurityModelSnapshot, SecurityModelSnapshot> update) {
+    if (snapshot != null) {
+      snapshot = update.apply(snapshot);
+    }
+  }
+
+  private void refreshUser(final String id) {
+    refresh(current -> current
+        .withUser(id, getDefaultConfiguration().getUser(id))
+        .withUserRoleMapping(id, UserManager.DEFAULT_SOURCE,
+            getDefaultConfiguration().getUserRoleMapping(id, UserManager.DEFAULT_SOURCE)));
+  }
+
+  private void refreshRole(final String id) {
+    refresh(current -> current.withRole(id, getDefaultConfiguration().getRole(id)));
+  }
+
+  private void refreshPrivilege(final String id) {
+    refresh(current -> current.withPrivilege(id, getDefaultConfiguration().getPrivilege(id)));
+  }
+
+  private void refreshUserRoleMapping(final String userId, final String source) {
+    refresh(current -> current
+        .withUserRoleMapping(userId, source, getDefaultConfiguration().getUserRoleMapping(userId, source)));
+  }
+
+  private static <T> List<T> copies(final Collection<T> entries, final Function<T, T> copy) {
+    return entries.stream().map(copy).collect(Collectors.toList());
+  }
+
+  @AllowConcurrentEvents
+  @Subscribe
+  public void on(final UserEvent event) {
+    User user = event.getUser();
+    if (UserManager.DEFAULT_SOURCE.equals(user.getSource())) {
+      refreshUser(user.getUserId());
+    }
+  }
+
+  @AllowConcurrentEvents
+  @Subscribe
+  public void on(final RoleEvent event) {
+    refreshRole(event.getRole().getRoleId());
+  }
+
+  @AllowConcurrentEvents
+  @Subscribe
+  public void on(final PrivilegeEvent event) {
+    refreshPrivilege(event.getPrivilege().getId());
+  }
+
+  @AllowConcurrentEvents
+  @Subscribe
+  public void on(final UserRoleMappingEvent event) {
+    refreshUserRoleMapping(event.getUserId(), event.getUserSource());
+  }
+
   @AllowConcurrentEvents
   @Subscribe
   public void on(final SecurityContributionChangedEvent event) {
@@ -0,0 +1,165 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2008-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.security.internal;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+import javax.annotation.Nullable;
+
+import org.sonatype.nexus.security.config.CPrivilege;
+import org.sonatype.nexus.security.config.CRole;
+import org.sonatype.nexus.security.config.CUser;
+import org.sonatype.nexus.security.config.CUserRoleMapping;
+import org.sonatype.nexus.security.config.SecurityConfiguration;
+
+import com.google.common.collect.ImmutableMap;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Immutable in-memory copy of the users, roles, privileges and user/role mappings of a {@link SecurityConfiguration},
+ * so they can be looked up without going to the underlying store.
+ *
+ * Changes produce a new snapshot (copy-on-write), leaving readers of the current one undisturbed. Entries are private
+ * copies: callers must {@link CUser#clone() clone} anything they hand out.
+ *
+ * @since 3.3
+ */
+final class SecurityModelSnapshot
+{
+  private final Map<String, CUser> users;
+
+  private final Map<String, CRole> roles;
+
+  private final Map<String, CPrivilege> privileges;
+
+  private final Map<String, CUserRoleMapping> userRoleMappings;
+
+  private SecurityModelSnapshot(final Map<String, CUser> users,
+                                final Map<String, CRole> roles,
+                                final Map<String, CPrivilege> privileges,
+                                final Map<String, CUserRoleMapping> userRoleMappings)
+  {
+    this.users = ImmutableMap.copyOf(users);
+    this.roles = ImmutableMap.copyOf(roles);
+    this.privileges = ImmutableMap.copyOf(privileges);
+    this.userRoleMappings = ImmutableMap.copyOf(userRoleMappings);
+  }
+
+  /**
+   * Copies the entire content of the given configuration.
+   */
+  static SecurityModelSnapshot of(final SecurityConfiguration configuration) {
+    return new SecurityModelSnapshot(
+        index(configuration.getUsers(), CUser::getId, CUser::clone),
+        index(configuration.getRoles(), CRole::getId, CRole::clone),
+        index(configuration.getPrivileges(), CPrivilege::getId, CPrivilege::clone),
+        index(configuration.getUserRoleMappings(),
+            mapping -> mappingKey(mapping.getUserId(), mapping.getSource()), CUserRoleMapping::clone)
+    );
+  }
+
+  private static <T> Map<String, T> index(final Collection<T> entries,
+                                          final Function<T, String> key,
+                                          final Function<T, T> copy)
+  {
+    Map<String, T> index = new LinkedHashMap<>();
+    if (entries != null) {
+      for (T entry : entries) {
+        index.put(key.apply(entry), copy.apply(entry));
+      }
+    }
+    return index;
+  }
+
+  private static String mappingKey(final String userId, final String source) {
+    return userId + '/' + source;
+  }
+
+  @Nullable
+  CUser getUser(final String id) {
+    return users.get(checkNotNull(id));
+  }
+
+  Collection<CUser> getUsers() {
+    return users.values();
+  }
+
+  @Nullable
+  CRole getRole(final String id) {
+    return roles.get(checkNotNull(id));
+  }
+
+  Collection<CRole> getRoles() {
+    return roles.values();
+  }
+
+  @Nullable
+  CPrivilege getPrivilege(final String id) {
+    return privileges.get(checkNotNull(id));
+  }
+
+  Collection<CPrivilege> getPrivileges() {
+    return privileges.values();
+  }
+
+  @Nullable
+  CUserRoleMapping getUserRoleMapping(final String userId, final String source) {
+    return userRoleMappings.get(mappingKey(checkNotNull(userId), checkNotNull(source)));
+  }
+
+  Collection<CUserRoleMapping> getUserRoleMappings() {
+    return userRoleMappings.values();
+  }
+
+  //
+  // Copy-on-write updates; a null entry removes the existing one
+  //
+
+  SecurityModelSnapshot withUser(final String id, @Nullable final CUser user) {
+    return new SecurityModelSnapshot(with(users, id, user == null ? null : user.clone()),
+        roles, privileges, userRoleMappings);
+  }
+
+  SecurityModelSnapshot withRole(final String id, @Nullable final CRole role) {
+    return new SecurityModelSnapshot(users, with(roles, id, role == null ? null : role.clone()),
+        privileges, userRoleMappings);
+  }
+
+  SecurityModelSnapshot withPrivilege(final String id, @Nullable final CPrivilege privilege) {
+    return new SecurityModelSnapshot(users, roles,
+        with(privileges, id, privilege == null ? null : privilege.clone()), userRoleMappings);
+  }
+
+  SecurityModelSnapshot withUserRoleMapping(final String userId,
+                                            final String source,
+                                            @Nullable final CUserRoleMapping mapping)
+  {
+    return new SecurityModelSnapshot(users, roles, privileges,
+        with(userRoleMappings, mappingKey(userId, source), mapping == null ? null : mapping.clone()));
+  }
+
+  private static <T> Map<String, T> with(final Map<String, T> entries, final String key, @Nullable final T entry) {
+    Map<String, T> copy = new LinkedHashMap<>(entries);
+    if (entry != null) {
+      copy.put(key, entry);
+    }
+    else {
+      copy.remove(key);
+    }
+    return copy;
+  }
+}
@@ -0,0 +1,199 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2008-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.security.internal;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.Nullable;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.sonatype.goodies.common.ComponentSupport;
+import org.sonatype.goodies.common.Time;
+import org.sonatype.nexus.common.event.EventAware;
+import org.sonatype.nexus.crypto.CryptoHelper;
+import org.sonatype.nexus.jmx.reflect.ManagedAttribute;
+import org.sonatype.nexus.jmx.reflect.ManagedObject;
+import org.sonatype.nexus.jmx.reflect.ManagedOperation;
+import org.sonatype.nexus.security.UserPrincipalsExpired;
+import org.sonatype.nexus.security.user.UserDeletedEvent;
+import org.sonatype.nexus.security.user.UserUpdatedEvent;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.eventbus.AllowConcurrentEvents;
+import com.google.common.eventbus.Subscribe;
+import com.google.common.io.BaseEncoding;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Remembers credentials which have recently been verified against a stored password hash, so clients sending the same
+ * username and password with every request (such as build agents using HTTP Basic authentication without a session)
+ * do not pay for salted, iterated password hashing each time.
+ *
+ * Entries are keyed by an HMAC, under a random per-process key, of the username, the password and the stored hash;
+ * the clear-text password is never kept, and a changed password hash can never match an earlier entry. Entries expire
+ * after a short time, the cache is bounded in size and users are evicted when they are updated or deleted.
+ *
+ * @since 3.3
+ */
+@Named
+@Singleton
+@ManagedObject
+public class VerifiedCredentialCache
+    extends ComponentSupport
+    implements EventAware
+{
+  private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+  private final SecretKeySpec key;
+
+  private final Cache<String, String> verified;
+
+  private final LongAdder hits = new LongAdder();
+
+  private final LongAdder misses = new LongAdder();
+
+  @Inject
+  public VerifiedCredentialCache(final CryptoHelper crypto,
+                                 @Named("${nexus.security.credentialCache.ttl:-1m}") final Time ttl,
+                                 @Named("${nexus.security.credentialCache.maxSize:-10000}") final int maxSize)
+  {
+    byte[] secret = new byte[32];
+    crypto.createSecureRandom().nextBytes(secret);
+    this.key = new SecretKeySpec(secret, HMAC_ALGORITHM);
+
+    this.verified = CacheBuilder.newBuilder()
+        .expireAfterWrite(ttl.toMillis(), TimeUnit.MILLISECONDS)
+        .maximumSize(maxSize)
+        .build();
+
+    log.debug("TTL: {}, max-size: {}", ttl, maxSize);
+  }
+
+  /**
+   * Returns {@code true} if the given credentials were recently verified against the given stored password hash.
+   */
+  public boolean isVerified(final String username, final char[] password, final String passwordHash) {
+    String entry = entryKey(username, password, passwordHash);
+    if (entry != null && verified.getIfPresent(entry) != null) {
+      hits.increment();
+      return true;
+    }
+    misses.increment();
+    return false;
+  }
+
+  /**
+   * Records that the given credentials have been verified against the given stored password hash.
+   */
+  public void verified(final String username, final char[] password, final String passwordHash) {
+    String entry = entryKey(username, password, passwordHash);
+    if (entry != null) {
+      verified.put(entry, username);
+    }
+  }
+
+  /**
+   * Evicts all entries of the given user.
+   */
+  public void invalidate(final String username) {
+    checkNotNull(username);
+    verified.asMap().values().removeIf(username::equals);
+  }
+
+  @ManagedOperation
+  public void invalidateAll() {
+    verified.invalidateAll();
+  }
+
+  @Nullable
+  private String entryKey(final String username, final char[] password, final String passwordHash) {
+    ByteBuffer passwordBytes = StandardCharsets.UTF_8.encode(CharBuffer.wrap(password));
+    try {
+      Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+      mac.init(key);
+      mac.update(username.getBytes(StandardCharsets.UTF_8));
+      mac.update((byte) 0);
+      mac.update(passwordBytes.duplicate());
+      mac.update((byte) 0);
+      mac.update(passwordHash.getBytes(StandardCharsets.UTF_8));
+      return BaseEncoding.base16().encode(mac.doFinal());
+    }
+    catch (GeneralSecurityException e) {
+      log.warn("Unable to compute credential key, not caching", e);
+      return null;
+    }
+    finally {
+      if (passwordBytes.hasArray()) {
+        Arrays.fill(passwordBytes.array(), (byte) 0);
+      }
+    }
+  }
+
+  //
+  // Metrics
+  //
+
+  @ManagedAttribute
+  public long getHitCount() {
+    return hits.sum();
+  }
+
+  @ManagedAttribute
+  public long getMissCount() {
+    return misses.sum();
+  }
+
+  @ManagedAttribute
+  public long getSize() {
+    return verified.size();
+  }
+
+  //
+  // Event handling
+  //
+
+  @Subscribe
+  @AllowConcurrentEvents
+  public void on(final UserUpdatedEvent event) {
+    invalidate(event.getUser().getUserId());
+  }
+
+  @Subscribe
+  @AllowConcurrentEvents
+  public void on(final UserDeletedEvent event) {
+    invalidate(event.getUser().getUserId());
+  }
+
+  @Subscribe
+  @AllowConcurrentEvents
+  public void on(final UserPrincipalsExpired event) {
+    if (event.getUserId() != null) {
+      invalidate(event.getUserId());
+    }
+    else {
+      invalidateAll();
+    }
+  }
+}
@@ -73,6 +73,12 @@ public class AuthorizingRealmImplTest
     Assert.assertFalse(realm.isPermitted(principal, new WildcardPermission("app:ui:create")));
     Assert.assertFalse(realm.isPermitted(principal, new WildcardPermission("app:ui:update")));
     Assert.assertFalse(realm.isPermitted(principal, new WildcardPermission("app:ui:delete")));
+
+    // Verify string permissions
+    Assert.assertTrue(realm.isPermitted(principal, "app:config:read"));
+    Assert.assertTrue(realm.isPermitted(principal, "app:config:read:extra"));
+    Assert.assertFalse(realm.isPermitted(principal, "app:config:*"));
+    Assert.assertFalse(realm.isPermitted(principal, "app:ui:read"));
   }
 
   private void buildTestAuthorizationConfig() throws Exception {
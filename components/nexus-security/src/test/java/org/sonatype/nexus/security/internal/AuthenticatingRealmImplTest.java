@@ -12,10 +12,13 @@
  */
 package org.sonatype.nexus.security.internal;
 
+import org.sonatype.goodies.common.Time;
 import org.sonatype.goodies.testsupport.TestSupport;
+import org.sonatype.nexus.crypto.internal.CryptoHelperImpl;
 import org.sonatype.nexus.security.config.CUser;
 import org.sonatype.nexus.security.config.SecurityConfigurationManager;
 
+import org.apache.shiro.authc.IncorrectCredentialsException;
 import org.apache.shiro.authc.UsernamePasswordToken;
 import org.junit.Before;
 import org.junit.Test;
@@ -24,6 +27,7 @@ import org.mockito.Mock;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.startsWith;
+import static org.junit.Assert.fail;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.when;
@@ -42,6 +46,8 @@ public class AuthenticatingRealmImplTest
 
   private CUser testUser = new CUser();
 
+  private VerifiedCredentialCache verifiedCredentials;
+
   private AuthenticatingRealmImpl underTest;
 
   @Before
@@ -61,8 +67,10 @@ public class AuthenticatingRealmImplTest
       return null;
     }).when(configuration).updateUser(any());
 
+    verifiedCredentials = new VerifiedCredentialCache(new CryptoHelperImpl(), Time.minutes(1), 100);
+
     underTest = new AuthenticatingRealmImpl(configuration,
-        new DefaultSecurityPasswordService(new LegacyNexusPasswordService()));
+        new DefaultSecurityPasswordService(new LegacyNexusPasswordService()), verifiedCredentials);
   }
 
   @Test
@@ -71,4 +79,47 @@ public class AuthenticatingRealmImplTest
     underTest.getAuthenticationInfo(new UsernamePasswordToken(TEST_USERNAME, TEST_PASSWORD));
     assertThat(testUser.getPassword(), startsWith("$shiro1$SHA-512$1024$"));
   }
+
+  @Test
+  public void testVerifiedCredentialsAreCached() throws Exception {
+    underTest.getAuthenticationInfo(new UsernamePasswordToken(TEST_USERNAME, TEST_PASSWORD));
+    assertThat(verifiedCredentials.getSize(), is(1L));
+
+    underTest.getAuthenticationInfo(new UsernamePasswordToken(TEST_USERNAME, TEST_PASSWORD));
+    assertThat(verifiedCredentials.getHitCount(), is(1L));
+
+    // wrong password never hits the cache
+    try {
+      underTest.getAuthenticationInfo(new UsernamePasswordToken(TEST_USERNAME, "wrong"));
+      fail();
+    }
+    catch (IncorrectCredentialsException e) {
+      assertThat(verifiedCredentials.getHitCount(), is(1L));
+    }
+  }
+
+  @Test
+  public void testChangedPasswordIsNotServedFromCache() throws Exception {
+    underTest.getAuthenticationInfo(new UsernamePasswordToken(TEST_USERNAME, TEST_PASSWORD));
+
+    testUser.setPassword(new DefaultSecurityPasswordService(new LegacyNexusPasswordService()).encryptPassword("new"));
+    try {
+      underTest.getAuthenticationInfo(new UsernamePasswordToken(TEST_USERNAME, TEST_PASSWORD));
+      fail();
+    }
+    catch (IncorrectCredentialsException e) {
+      assertThat(verifiedCredentials.getHitCount(), is(0L));
+    }
+  }
+
+  @Test
+  public void testInvalidatedUserIsNotServedFromCache() throws Exception {
+    underTest.getAuthenticationInfo(new UsernamePasswordToken(TEST_USERNAME, TEST_PASSWORD));
+    verifiedCredentials.invalidate(TEST_USERNAME);
+    assertThat(verifiedCredentials.getSize(), is(0L));
+
+    underTest.getAuthenticationInfo(new UsernamePasswordToken(TEST_USERNAME, TEST_PASSWORD));
+    assertThat(verifiedCredentials.getHitCount(), is(0L));
+    assertThat(verifiedCredentials.getMissCount(), is(2L));
+  }
 }
@@ -0,0 +1,87 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2008-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.security.internal;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.sonatype.goodies.testsupport.TestSupport;
+import org.sonatype.nexus.security.authz.WildcardPermission2;
+
+import org.apache.shiro.authz.Permission;
+import org.apache.shiro.authz.permission.AllPermission;
+import org.apache.shiro.authz.permission.WildcardPermission;
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * Tests for {@link PermissionTrie}.
+ */
+public class PermissionTrieTest
+    extends TestSupport
+{
+  private static final List<String> HELD = Arrays.asList(
+      "nexus:repository-view:maven2:maven-central:browse,read",
+      "nexus:repository-view:npm:*:read",
+      "nexus:repository-admin:*:*:*",
+      "nexus:settings:read",
+      "nexus:users",
+      "nexus:*:nuget:nuget-hosted:delete"
+  );
+
+  private static final List<String> REQUESTED = Arrays.asList(
+      "nexus:repository-view:maven2:maven-central:read",
+      "nexus:repository-view:maven2:maven-central:browse,read",
+      "nexus:repository-view:maven2:maven-central:edit",
+      "nexus:repository-view:maven2:maven-releases:read",
+      "nexus:repository-view:maven2:*:read",
+      "nexus:repository-view:npm:npmjs:read",
+      "nexus:repository-view:npm:npmjs:add",
+      "nexus:repository-admin:maven2:maven-central:edit",
+      "nexus:repository-admin",
+      "nexus:settings:read",
+      "nexus:settings:update",
+      "nexus:settings",
+      "nexus:users:create",
+      "nexus:users:*",
+      "nexus:repository-view:nuget:nuget-hosted:delete",
+      "nexus:repository-admin:nuget:nuget-hosted:delete",
+      "nexus:*",
+      "other:settings:read"
+  );
+
+  @Test
+  public void agreesWithLinearImplies() {
+    List<Permission> held = Arrays.asList(HELD.stream().map(WildcardPermission2::new).toArray(Permission[]::new));
+    PermissionTrie underTest = PermissionTrie.of(held);
+
+    for (String requested : REQUESTED) {
+      Permission indexed = new WildcardPermission2(requested);
+      Permission plain = new WildcardPermission(requested);
+      boolean expected = held.stream().anyMatch(permission -> permission.implies(indexed));
+      assertThat(requested, underTest.implies(indexed), is(expected));
+      assertThat(requested, underTest.implies(plain), is(expected));
+    }
+  }
+
+  @Test
+  public void unindexedPermissionsAreAlwaysChecked() {
+    PermissionTrie underTest = PermissionTrie.of(Arrays.asList(new AllPermission()));
+    assertThat(underTest.implies(new WildcardPermission2("nexus:settings:read")), is(true));
+
+    underTest = PermissionTrie.of(Arrays.asList());
+    assertThat(underTest.implies(new WildcardPermission2("nexus:settings:read")), is(false));
+  }
+}
@@ -44,7 +44,7 @@ public class RolePermissionResolverImplTest
     securityConfigurationManager = mock(SecurityConfigurationManager.class);
     when(securityConfigurationManager.readRole(any())).thenThrow(new NoSuchRoleException("Role not found"));
     underTest = new RolePermissionResolverImpl(securityConfigurationManager, Collections.emptyList(),
-        mock(EventManager.class), 10);
+        mock(EventManager.class), 10, 10);
   }
 
   @Test
@@ -12,15 +12,23 @@
  */
 package org.sonatype.nexus.security.internal;
 
+import org.sonatype.goodies.common.Time;
 import org.sonatype.goodies.testsupport.TestSupport;
 import org.sonatype.nexus.common.event.EventManager;
 import org.sonatype.nexus.security.config.CPrivilege;
+import org.sonatype.nexus.security.config.CUser;
 import org.sonatype.nexus.security.config.MemorySecurityConfiguration;
 import org.sonatype.nexus.security.config.SecurityConfiguration;
 import org.sonatype.nexus.security.config.SecurityConfigurationCleaner;
 import org.sonatype.nexus.security.config.SecurityConfigurationSource;
 import org.sonatype.nexus.security.config.SecurityContributor;
+import org.sonatype.nexus.security.user.User;
+import org.sonatype.nexus.security.user.UserCreatedEvent;
+import org.sonatype.nexus.security.user.UserManager;
+import org.sonatype.nexus.security.user.UserNotFoundException;
+import org.sonatype.nexus.security.user.UserRoleMappingCreatedEvent;
 
+import com.google.common.collect.ImmutableSet;
 import org.apache.shiro.authc.credential.PasswordService;
 import org.junit.Before;
 import org.junit.Test;
@@ -29,7 +37,12 @@ import org.mockito.Mock;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class SecurityConfigurationManagerImplTest
@@ -47,12 +60,16 @@ public class SecurityConfigurationManagerImplTest
   @Mock
   private EventManager eventManager;
 
+  private MemorySecurityConfiguration configuration;
+
   private SecurityConfigurationManagerImpl manager;
 
   @Before
   public void setUp() {
-    when(configSource.loadConfiguration()).thenReturn(new MemorySecurityConfiguration());
-    manager = new SecurityConfigurationManagerImpl(configSource, configCleaner, passwordService, eventManager);
+    configuration = spy(new MemorySecurityConfiguration());
+    when(configSource.loadConfiguration()).thenReturn(configuration);
+    manager = new SecurityConfigurationManagerImpl(configSource, configCleaner, passwordService, eventManager,
+        Time.minutes(10));
   }
 
   @Test
@@ -93,4 +110,79 @@ public class SecurityConfigurationManagerImplTest
     assertThat(manager.listPrivileges(), hasSize(1));
     assertThat(mutableContributorCallCount[0], is(2));
   }
+
+  @Test
+  public void testReadsAreServedFromSnapshot() throws Exception {
+    assertThat(manager.listUsers(), hasSize(0));
+    manager.createUser(user("test"), ImmutableSet.of("role1"));
+    manager.readUser("test");
+    manager.readUser("test");
+    manager.readUserRoleMapping("test", UserManager.DEFAULT_SOURCE);
+
+    // only re-read once, to apply the change to the snapshot
+    verify(configuration, times(1)).getUser("test");
+    verify(configuration, times(1)).getUserRoleMapping("test", UserManager.DEFAULT_SOURCE);
+  }
+
+  @Test
+  public void testChangesAreAppliedToSnapshot() throws Exception {
+    manager.createUser(user("test"), ImmutableSet.of("role1"));
+
+    CUser user = manager.readUser("test");
+    user.setFirstName("Changed");
+    assertThat("snapshot is not affected by callers", manager.readUser("test").getFirstName(), is("Test"));
+
+    manager.updateUser(user, ImmutableSet.of("role2"));
+    assertThat(manager.readUser("test").getFirstName(), is("Changed"));
+    assertThat(manager.readUserRoleMapping("test", UserManager.DEFAULT_SOURCE).getRoles(), contains("role2"));
+
+    manager.deleteUser("test");
+    assertThat(manager.listUsers(), hasSize(0));
+    try {
+      manager.readUser("test");
+      fail();
+    }
+    catch (UserNotFoundException e) {
+      // expected
+    }
+  }
+
+  @Test
+  public void testEventsRefreshSnapshot() throws Exception {
+    assertThat(manager.listUsers(), hasSize(0));
+
+    // changed in the store by another manager
+    configuration.addUser(user("other"), ImmutableSet.of("role1"));
+    assertThat(manager.listUsers(), hasSize(0));
+
+    User other = new User();
+    other.setUserId("other");
+    other.setSource(UserManager.DEFAULT_SOURCE);
+    manager.on(new UserCreatedEvent(other));
+    manager.on(new UserRoleMappingCreatedEvent("other", UserManager.DEFAULT_SOURCE, ImmutableSet.of("role1")));
+
+    assertThat(manager.readUser("other").getFirstName(), is("Test"));
+    assertThat(manager.readUserRoleMapping("other", UserManager.DEFAULT_SOURCE).getRoles(), contains("role1"));
+  }
+
+  @Test
+  public void testSnapshotIsReloadedOnceExpired() throws Exception {
+    manager = new SecurityConfigurationManagerImpl(configSource, configCleaner, passwordService, eventManager,
+        Time.millis(1));
+    assertThat(manager.listUsers(), hasSize(0));
+
+    // changed in the store without any event
+    configuration.addUser(user("other"), ImmutableSet.of("role1"));
+    Thread.sleep(5);
+
+    assertThat(manager.readUser("other").getFirstName(), is("Test"));
+  }
+
+  private static CUser user(final String id) {
+    CUser user = new CUser();
+    user.setId(id);
+    user.setFirstName("Test");
+    user.setStatus(CUser.STATUS_ACTIVE);
+    return user;
+  }
 }
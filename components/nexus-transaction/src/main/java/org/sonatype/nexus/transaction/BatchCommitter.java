@@ -0,0 +1,167 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2008-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.transaction;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.function.LongConsumer;
+
+import com.google.common.base.Throwables;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Commits a long-running sequence of write operations on an active {@link Transaction} in batches, to keep the size
+ * of the transaction (and the time it holds database resources) within reason:
+ *
+ * <pre>
+ * BatchCommitter batch = BatchCommitter.forCurrentTx(100).onProgress(count -> log.info("Deleted {}", count));
+ * for (Component component : components) {
+ *   tx.deleteComponent(component);
+ *   batch.increment();
+ * }
+ * batch.commit();
+ * </pre>
+ *
+ * Every {@code batchSize} operations the transaction is committed and immediately restarted, after which any
+ * post-commit actions (such as deleting blobs only once their metadata is gone) and the progress callback are invoked.
+ * The batch then stops if it has been canceled, either by the cancellation check (such as the one of the surrounding
+ * task) or with a {@link CancellationException} when the thread has been interrupted, leaving the uncommitted
+ * remainder to be rolled back by the caller.
+ *
+ * Batched work is not atomic: a failure only rolls back the current batch, so it should be safe to repeat, as it will
+ * be when a transactional method is retried.
+ *
+ * @since 3.3
+ */
+public final class BatchCommitter
+{
+  private final Transaction tx;
+
+  private final int batchSize;
+
+  private final List<Runnable> postCommitActions = new ArrayList<>();
+
+  private LongConsumer progress = count -> {
+    // no-op
+  };
+
+  private Runnable cancellationCheck = () -> {
+    // no-op
+  };
+
+  private int pending;
+
+  private long committed;
+
+  public BatchCommitter(final Transaction tx, final int batchSize) {
+    checkArgument(batchSize > 0, "Batch size must be positive");
+    this.tx = checkNotNull(tx);
+    this.batchSize = batchSize;
+  }
+
+  /**
+   * Batches operations on the transaction of the current {@link UnitOfWork}.
+   */
+  public static BatchCommitter forCurrentTx(final int batchSize) {
+    return new BatchCommitter(UnitOfWork.currentTx(), batchSize);
+  }
+
+  /**
+   * Adds an action to run after each batch has been committed.
+   */
+  public BatchCommitter onCommit(final Runnable action) {
+    postCommitActions.add(checkNotNull(action));
+    return this;
+  }
+
+  /**
+   * Sets the callback receiving the total number of committed operations after each batch.
+   */
+  public BatchCommitter onProgress(final LongConsumer progress) {
+    this.progress = checkNotNull(progress);
+    return this;
+  }
+
+  /**
+   * Sets the check run at each batch boundary, which throws to stop the batch once the work has been canceled.
+   */
+  public BatchCommitter onCancellationCheck(final Runnable cancellationCheck) {
+    this.cancellationCheck = checkNotNull(cancellationCheck);
+    return this;
+  }
+
+  /**
+   * Records one operation, committing the batch once it is full.
+   *
+   * @throws CancellationException if the thread was interrupted
+   */
+  public void increment() {
+    increment(1);
+  }
+
+  /**
+   * Records the given number of operations, committing the batch once it is full.
+   *
+   * @throws CancellationException if the thread was interrupted
+   */
+  public void increment(final int operations) {
+    pending += operations;
+    if (pending >= batchSize) {
+      commit();
+    }
+  }
+
+  /**
+   * Commits any pending operations and restarts the transaction so further work can be batched.
+   *
+   * @throws CancellationException if the thread was interrupted
+   */
+  public void commit() {
+    if (pending > 0) {
+      try {
+        tx.commit();
+        tx.begin();
+      }
+      catch (Exception e) {
+        Throwables.throwIfUnchecked(e);
+        throw new RuntimeException(e);
+      }
+      committed += pending;
+      pending = 0;
+
+      postCommitActions.forEach(Runnable::run);
+      progress.accept(committed);
+    }
+    cancellationCheck.run();
+    if (Thread.currentThread().isInterrupted()) {
+      throw new CancellationException("Interrupted after committing " + committed + " operations");
+    }
+  }
+
+  /**
+   * @return number of operations committed so far
+   */
+  public long getCommitted() {
+    return committed;
+  }
+
+  /**
+   * @return number of operations waiting for the next commit
+   */
+  public int getPending() {
+    return pending;
+  }
+}
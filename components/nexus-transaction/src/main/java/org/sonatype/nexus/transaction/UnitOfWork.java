@@ -113,6 +113,16 @@ public final class UnitOfWork
     return (T) tx;
   }
 
+  /**
+   * @return {@code true} if the current context has an active transaction
+   *
+   * @since 3.3
+   */
+  public static boolean isActiveTx() {
+    final UnitOfWork self = SELF.get();
+    return self != null && self.isActive();
+  }
+
   /**
    * Pauses current unit-of-work to avoid leaking context when sending events, etc.
    */
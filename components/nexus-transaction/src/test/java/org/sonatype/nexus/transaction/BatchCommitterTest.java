@@ -0,0 +1,114 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2008-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.transaction;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+
+import org.sonatype.goodies.testsupport.TestSupport;
+
+import org.junit.Test;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Tests for {@link BatchCommitter}.
+ */
+public class BatchCommitterTest
+    extends TestSupport
+{
+  @Mock
+  private Transaction tx;
+
+  @Test
+  public void commitsEveryBatchAndTheRemainder() throws Exception {
+    List<Long> progress = new ArrayList<>();
+    BatchCommitter batch = new BatchCommitter(tx, 10).onProgress(progress::add);
+
+    for (int i = 0; i < 25; i++) {
+      batch.increment();
+    }
+    verify(tx, times(2)).commit();
+    assertThat(batch.getPending(), is(5));
+
+    batch.commit();
+    verify(tx, times(3)).commit();
+    verify(tx, times(3)).begin();
+    assertThat(batch.getCommitted(), is(25L));
+    assertThat(progress, contains(10L, 20L, 25L));
+
+    // nothing pending, nothing to commit
+    batch.commit();
+    verify(tx, times(3)).commit();
+  }
+
+  @Test
+  public void postCommitActionsRunAfterCommit() throws Exception {
+    Runnable action = mock(Runnable.class);
+    BatchCommitter batch = new BatchCommitter(tx, 2).onCommit(action);
+
+    batch.increment();
+    verify(action, never()).run();
+
+    batch.increment();
+    InOrder order = inOrder(tx, action);
+    order.verify(tx).commit();
+    order.verify(tx).begin();
+    order.verify(action).run();
+  }
+
+  @Test
+  public void cancellationCheckStopsTheBatchAfterCommit() throws Exception {
+    BatchCommitter batch = new BatchCommitter(tx, 2).onCancellationCheck(() -> {
+      throw new IllegalStateException("canceled");
+    });
+    batch.increment();
+    verify(tx, never()).commit();
+    try {
+      batch.increment();
+      fail();
+    }
+    catch (IllegalStateException e) {
+      verify(tx).commit();
+      assertThat(batch.getCommitted(), is(2L));
+    }
+  }
+
+  @Test
+  public void interruptionStopsTheBatchAfterCommit() throws Exception {
+    BatchCommitter batch = new BatchCommitter(tx, 1);
+    Thread.currentThread().interrupt();
+    try {
+      batch.increment();
+      fail();
+    }
+    catch (CancellationException e) {
+      verify(tx).commit();
+      assertThat(batch.getCommitted(), is(1L));
+    }
+    finally {
+      Thread.interrupted();
+    }
+  }
+}
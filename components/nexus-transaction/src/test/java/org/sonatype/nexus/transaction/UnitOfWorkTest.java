@@ -18,6 +18,9 @@ import com.google.common.base.Suppliers;
 import com.google.inject.Guice;
 import org.junit.Test;
 
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
 /**
  * Test unit-of-work behaviour.
  */
@@ -52,6 +55,18 @@ public class UnitOfWorkTest
     }
   }
 
+  @Test
+  public void testNoActiveTxWithNoWork() {
+    assertThat(UnitOfWork.isActiveTx(), is(false));
+    UnitOfWork.begin(Suppliers.<Transaction> ofInstance(null));
+    try {
+      assertThat(UnitOfWork.isActiveTx(), is(false));
+    }
+    finally {
+      UnitOfWork.end();
+    }
+  }
+
   @Test(expected = IllegalStateException.class)
   public void testCannotStartTransactionWithNoWork() {
     Guice.createInjector(new TransactionModule()).getInstance(ExampleMethods.class).transactional();
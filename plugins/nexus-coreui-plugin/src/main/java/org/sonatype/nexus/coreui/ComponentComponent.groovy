@@ -325,7 +325,9 @@ class ComponentComponent
         sort?.property,
         sort?.direction,
         storeLoadParameters.start,
-        storeLoadParameters.limit)
+        storeLoadParameters.limit,
+        storeLoadParameters.getFilter('lastId'),
+        Boolean.parseBoolean(storeLoadParameters.getFilter('estimateCount')))
   }
 
   /**
@@ -41,6 +41,50 @@ Ext.define('NX.coreui.store.Component', {
   remoteFilter: true,
   remoteSort: true,
 
-  sorters: { property: 'name', direction: 'ASC' }
+  sorters: { property: 'name', direction: 'ASC' },
+
+  listeners: {
+    beforeprefetch: function(store, operation) {
+      store.applyKeyset(operation);
+    }
+  },
+
+  /**
+   * Pages are counted by estimate. Pages following a page which is loaded already are loaded by keyset: they only
+   * select the components after the last component of that page, in sort order, instead of skipping all preceding
+   * ones, and are not counted again as the total is known from the first page. Other pages, such as those reached by
+   * jumping ahead, are loaded by offset.
+   *
+   * @private
+   * @since 3.3
+   */
+  applyKeyset: function(operation) {
+    var me = this,
+        previousPage = operation.page > 1 && me.data.hasPage(operation.page - 1) && me.data.getPage(operation.page - 1),
+        filters = Ext.Array.filter(operation.filters || [], function(filter) {
+          return filter.property !== 'lastId' && filter.property !== 'estimateCount';
+        });
+
+    filters.push(new Ext.util.Filter({ property: 'estimateCount', value: 'true' }));
+    if (previousPage && previousPage.length && me.totalCount) {
+      filters.push(new Ext.util.Filter({ property: 'lastId', value: previousPage[previousPage.length - 1].getId() }));
+      operation.keysetTotal = me.totalCount;
+    }
+    operation.filters = filters;
+  },
+
+  /**
+   * Keeps the total of the first page for the following keyset pages, which are not counted.
+   *
+   * @override
+   */
+  onProxyPrefetch: function(operation) {
+    var resultSet = operation.getResultSet();
+
+    if (resultSet && operation.keysetTotal !== undefined) {
+      resultSet.total = operation.keysetTotal;
+    }
+    this.callParent(arguments);
+  }
 
 });
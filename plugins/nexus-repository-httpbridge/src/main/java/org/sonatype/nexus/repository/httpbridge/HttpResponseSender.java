@@ -16,6 +16,7 @@ import java.io.IOException;
 
 import javax.annotation.Nullable;
 import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
 import org.sonatype.nexus.repository.view.Request;
@@ -30,4 +31,20 @@ public interface HttpResponseSender
 {
   void send(@Nullable Request request, Response response, HttpServletResponse httpServletResponse)
       throws ServletException, IOException;
+
+  /**
+   * Send response, with access to the originating servlet request so the response may be written asynchronously.
+   *
+   * Defaults to {@link #send(Request, Response, HttpServletResponse)}.
+   *
+   * @since 3.3
+   */
+  default void send(@Nullable Request request,
+                    Response response,
+                    HttpServletRequest httpServletRequest,
+                    HttpServletResponse httpServletResponse)
+      throws ServletException, IOException
+  {
+    send(request, response, httpServletResponse);
+  }
 }
@@ -0,0 +1,174 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2008-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.repository.httpbridge.internal;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+
+import org.sonatype.nexus.repository.view.Payload;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Writes a {@link Payload} to the response using Servlet 3.1 non-blocking I/O, so no container thread is held while
+ * the client is not ready to receive more data.
+ *
+ * The payload is closed once fully written, or when the client goes away or the request fails.
+ *
+ * @since 3.3
+ */
+class AsyncPayloadWriter
+    implements WriteListener, AsyncListener
+{
+  private static final Logger log = LoggerFactory.getLogger(AsyncPayloadWriter.class);
+
+  private final AsyncContext context;
+
+  private final Payload payload;
+
+  private final InputStream input;
+
+  private final ServletOutputStream output;
+
+  private final byte[] buffer;
+
+  private final AtomicBoolean closed = new AtomicBoolean();
+
+  private AsyncPayloadWriter(final AsyncContext context,
+                             final Payload payload,
+                             final InputStream input,
+                             final ServletOutputStream output,
+                             final int bufferSize)
+  {
+    this.context = checkNotNull(context);
+    this.payload = checkNotNull(payload);
+    this.input = checkNotNull(input);
+    this.output = checkNotNull(output);
+    this.buffer = new byte[bufferSize];
+  }
+
+  /**
+   * Puts the request into asynchronous mode and starts writing the payload to the given response output.
+   *
+   * Once this returns the payload belongs to the writer, which closes it when done.
+   */
+  static void write(final HttpServletRequest httpRequest,
+                    final Payload payload,
+                    final ServletOutputStream output,
+                    final int bufferSize)
+      throws IOException
+  {
+    InputStream input = payload.openInputStream();
+    try {
+      AsyncContext context = httpRequest.startAsync();
+      // stalled clients are dropped by the connector idle-timeout instead
+      context.setTimeout(0);
+
+      AsyncPayloadWriter writer = new AsyncPayloadWriter(context, payload, input, output, bufferSize);
+      context.addListener(writer);
+      output.setWriteListener(writer);
+    }
+    catch (RuntimeException e) {
+      input.close();
+      throw e;
+    }
+  }
+
+  //
+  // WriteListener
+  //
+
+  @Override
+  public void onWritePossible() throws IOException {
+    while (output.isReady()) {
+      int read = input.read(buffer);
+      if (read < 0) {
+        log.trace("Payload sent: {}", payload);
+        complete();
+        return;
+      }
+      output.write(buffer, 0, read);
+    }
+  }
+
+  @Override
+  public void onError(final Throwable failure) {
+    log.debug("Failed to send payload: {}", payload, failure);
+    complete();
+  }
+
+  //
+  // AsyncListener
+  //
+
+  @Override
+  public void onComplete(final AsyncEvent event) {
+    close();
+  }
+
+  @Override
+  public void onTimeout(final AsyncEvent event) {
+    log.debug("Timed out sending payload: {}", payload);
+    complete();
+  }
+
+  @Override
+  public void onError(final AsyncEvent event) {
+    log.debug("Failed to send payload: {}", payload, event.getThrowable());
+    complete();
+  }
+
+  @Override
+  public void onStartAsync(final AsyncEvent event) {
+    // ignore
+  }
+
+  private void complete() {
+    if (close()) {
+      context.complete();
+    }
+  }
+
+  /**
+   * Closes the payload, returns {@code true} if it was still open.
+   */
+  private boolean close() {
+    if (!closed.compareAndSet(false, true)) {
+      return false;
+    }
+    try {
+      input.close();
+    }
+    catch (IOException e) {
+      log.debug("Failed to close payload stream: {}", payload, e);
+    }
+    try {
+      payload.close();
+    }
+    catch (IOException e) {
+      log.debug("Failed to close payload: {}", payload, e);
+    }
+    return true;
+  }
+}
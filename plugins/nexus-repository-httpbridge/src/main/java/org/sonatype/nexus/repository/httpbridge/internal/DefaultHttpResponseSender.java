@@ -18,11 +18,14 @@ import java.io.OutputStream;
 import java.util.Map;
 
 import javax.annotation.Nullable;
+import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
 import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
+import org.sonatype.goodies.common.ByteSize;
 import org.sonatype.goodies.common.ComponentSupport;
 import org.sonatype.nexus.repository.http.HttpMethods;
 import org.sonatype.nexus.repository.httpbridge.HttpResponseSender;
@@ -36,6 +39,9 @@ import com.google.common.io.ByteStreams;
 /**
  * Default {@link HttpResponseSender}.
  *
+ * Payloads of at least {@code nexus.view.async.threshold} bytes (or of unknown size) are written with non-blocking
+ * I/O when the container supports it, so slow clients do not hold a container thread for the whole download.
+ *
  * @since 3.0
  */
 @Named
@@ -44,9 +50,36 @@ public class DefaultHttpResponseSender
     extends ComponentSupport
     implements HttpResponseSender
 {
+  private final boolean asyncEnabled;
+
+  private final long asyncThreshold;
+
+  private final int asyncBufferSize;
+
+  @Inject
+  public DefaultHttpResponseSender(@Named("${nexus.view.async.enabled:-true}") final boolean asyncEnabled,
+                                   @Named("${nexus.view.async.threshold:-1m}") final ByteSize asyncThreshold,
+                                   @Named("${nexus.view.async.bufferSize:-32k}") final ByteSize asyncBufferSize)
+  {
+    this.asyncEnabled = asyncEnabled;
+    this.asyncThreshold = asyncThreshold.toBytes();
+    this.asyncBufferSize = asyncBufferSize.toBytesI();
+    log.debug("Async enabled: {}, threshold: {}, buffer-size: {}", asyncEnabled, asyncThreshold, asyncBufferSize);
+  }
+
   @Override
   public void send(@Nullable final Request request, final Response response, final HttpServletResponse httpResponse)
       throws ServletException, IOException
+  {
+    send(request, response, null, httpResponse);
+  }
+
+  @Override
+  public void send(@Nullable final Request request,
+                   final Response response,
+                   @Nullable final HttpServletRequest httpRequest,
+                   final HttpServletResponse httpResponse)
+      throws ServletException, IOException
   {
     log.debug("Sending response: {}", response);
 
@@ -58,7 +91,9 @@ public class DefaultHttpResponseSender
     // add status followed by payload if we have one
     Status status = response.getStatus();
     String statusMessage = status.getMessage();
-    try (Payload payload = response.getPayload()) {
+    Payload payload = response.getPayload();
+    boolean async = false;
+    try {
       if (status.isSuccessful() || payload != null) {
 
         if (statusMessage == null) {
@@ -79,8 +114,17 @@ public class DefaultHttpResponseSender
           }
 
           if (request != null && !HttpMethods.HEAD.equals(request.getAction())) {
-            try (InputStream input = payload.openInputStream(); OutputStream output = httpResponse.getOutputStream()) {
-              ByteStreams.copy(input, output);
+            if (isAsync(httpRequest, payload)) {
+              log.trace("Sending payload asynchronously");
+              AsyncPayloadWriter.write(httpRequest, payload, httpResponse.getOutputStream(), asyncBufferSize);
+              // the writer closes the payload once sent
+              async = true;
+            }
+            else {
+              try (InputStream input = payload.openInputStream();
+                   OutputStream output = httpResponse.getOutputStream()) {
+                ByteStreams.copy(input, output);
+              }
             }
           }
         }
@@ -89,5 +133,21 @@ public class DefaultHttpResponseSender
         httpResponse.sendError(status.getCode(), statusMessage);
       }
     }
+    finally {
+      if (payload != null && !async) {
+        payload.close();
+      }
+    }
+  }
+
+  /**
+   * Returns {@code true} if the given payload should be written asynchronously.
+   */
+  private boolean isAsync(@Nullable final HttpServletRequest httpRequest, final Payload payload) {
+    if (!asyncEnabled || httpRequest == null || !httpRequest.isAsyncSupported() || httpRequest.isAsyncStarted()) {
+      return false;
+    }
+    long size = payload.getSize();
+    return size == Payload.UNKNOWN_SIZE || size >= asyncThreshold;
   }
 }
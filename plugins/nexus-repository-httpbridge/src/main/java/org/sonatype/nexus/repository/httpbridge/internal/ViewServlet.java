@@ -156,7 +156,7 @@ public class ViewServlet
 
     // Dispatch the request
     Request request = buildRequest(httpRequest, path.getRemainingPath());
-    dispatchAndSend(request, facet, httpResponseSenderSelector.sender(repo), httpResponse);
+    dispatchAndSend(request, facet, httpResponseSenderSelector.sender(repo), httpRequest, httpResponse);
   }
 
   /**
@@ -188,6 +188,7 @@ public class ViewServlet
   void dispatchAndSend(final Request request,
                        final ViewFacet facet,
                        final HttpResponseSender sender,
+                       final HttpServletRequest httpRequest,
                        final HttpServletResponse httpResponse)
       throws Exception
   {
@@ -210,7 +211,7 @@ public class ViewServlet
         throw failure;
       }
       log.debug("Request: {}", request);
-      sender.send(request, response, httpResponse);
+      sender.send(request, response, httpRequest, httpResponse);
     }
   }
 
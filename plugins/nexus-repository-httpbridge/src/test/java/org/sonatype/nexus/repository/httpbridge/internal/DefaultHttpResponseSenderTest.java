@@ -17,7 +17,10 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 
+import javax.servlet.AsyncContext;
 import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
 import org.sonatype.goodies.testsupport.TestSupport;
@@ -33,6 +36,7 @@ import org.sonatype.nexus.repository.view.payloads.StringPayload;
 
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.Spy;
@@ -45,8 +49,11 @@ import static org.mockito.Matchers.anyInt;
 import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.sonatype.goodies.common.ByteSize.kiloBytes;
+import static org.sonatype.goodies.common.ByteSize.megaBytes;
 import static org.sonatype.nexus.repository.http.HttpStatus.FORBIDDEN;
 
 /**
@@ -58,7 +65,7 @@ public class DefaultHttpResponseSenderTest
 
   private static final byte[] TEST_CONTENT = "TEST CONTENT".getBytes(StandardCharsets.UTF_8);
 
-  private final HttpResponseSender underTest = new DefaultHttpResponseSender();
+  private final HttpResponseSender underTest = new DefaultHttpResponseSender(true, megaBytes(1), kiloBytes(32));
 
   @Mock
   private Request request;
@@ -69,6 +76,12 @@ public class DefaultHttpResponseSenderTest
   @Spy
   private InputStream input = new ByteArrayInputStream(TEST_CONTENT);
 
+  @Mock
+  private HttpServletRequest httpServletRequest;
+
+  @Mock
+  private AsyncContext asyncContext;
+
   @Mock
   private HttpServletResponse httpServletResponse;
 
@@ -80,6 +93,8 @@ public class DefaultHttpResponseSenderTest
     when(request.getHeaders()).thenReturn(new Headers());
     when(payload.openInputStream()).thenReturn(input);
     when(httpServletResponse.getOutputStream()).thenReturn(output);
+    when(httpServletRequest.isAsyncSupported()).thenReturn(true);
+    when(httpServletRequest.startAsync()).thenReturn(asyncContext);
   }
 
   @Test
@@ -179,4 +194,58 @@ public class DefaultHttpResponseSenderTest
     verify(httpServletResponse).setStatus(403, "You can't see this");
   }
 
+  @Test
+  public void smallPayloadSentBlocking() throws Exception {
+    when(request.getAction()).thenReturn(HttpMethods.GET);
+    when(payload.getSize()).thenReturn((long) TEST_CONTENT.length);
+
+    underTest.send(request, HttpResponses.ok(payload), httpServletRequest, httpServletResponse);
+
+    verify(httpServletRequest, never()).startAsync();
+    verify(output).write(any(byte[].class), anyInt(), anyInt());
+    verify(input).close();
+    verify(payload).close();
+  }
+
+  @Test
+  public void largePayloadSentAsynchronously() throws Exception {
+    when(request.getAction()).thenReturn(HttpMethods.GET);
+    when(payload.getSize()).thenReturn(Payload.UNKNOWN_SIZE);
+    when(output.isReady()).thenReturn(true);
+
+    underTest.send(request, HttpResponses.ok(payload), httpServletRequest, httpServletResponse);
+
+    ArgumentCaptor<WriteListener> listener = ArgumentCaptor.forClass(WriteListener.class);
+    verify(asyncContext).setTimeout(0);
+    verify(output).setWriteListener(listener.capture());
+
+    // nothing written or closed until the container signals the output is ready
+    verify(output, never()).write(any(byte[].class), anyInt(), anyInt());
+    verify(payload, never()).close();
+
+    listener.getValue().onWritePossible();
+
+    InOrder order = inOrder(output, input, payload, asyncContext);
+    order.verify(output).write(any(byte[].class), anyInt(), anyInt());
+    order.verify(input).close();
+    order.verify(payload).close();
+    order.verify(asyncContext).complete();
+  }
+
+  @Test
+  public void payloadClosedAfterAsyncError() throws Exception {
+    when(request.getAction()).thenReturn(HttpMethods.GET);
+    when(payload.getSize()).thenReturn(Payload.UNKNOWN_SIZE);
+
+    underTest.send(request, HttpResponses.ok(payload), httpServletRequest, httpServletResponse);
+
+    ArgumentCaptor<WriteListener> listener = ArgumentCaptor.forClass(WriteListener.class);
+    verify(output).setWriteListener(listener.capture());
+
+    listener.getValue().onError(new IOException("Dropped"));
+
+    verify(input).close();
+    verify(payload).close();
+    verify(asyncContext).complete();
+  }
 }
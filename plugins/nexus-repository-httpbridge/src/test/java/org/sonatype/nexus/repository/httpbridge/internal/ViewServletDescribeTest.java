@@ -14,6 +14,7 @@ package org.sonatype.nexus.repository.httpbridge.internal;
 
 import java.util.Collections;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
 import org.sonatype.goodies.testsupport.TestSupport;
@@ -42,6 +43,8 @@ import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.sonatype.goodies.common.ByteSize.kiloBytes;
+import static org.sonatype.goodies.common.ByteSize.megaBytes;
 
 /**
  * Tests for describe functionality of {@link ViewServlet}.
@@ -55,6 +58,9 @@ public class ViewServletDescribeTest
   @Mock
   private ViewFacet facet;
 
+  @Mock
+  private HttpServletRequest servletRequest;
+
   @Mock(answer = RETURNS_DEEP_STUBS)
   private HttpServletResponse servletResponse;
 
@@ -75,7 +81,7 @@ public class ViewServletDescribeTest
 
   @Before
   public void setUp() throws Exception {
-    defaultResponseSender = spy(new DefaultHttpResponseSender());
+    defaultResponseSender = spy(new DefaultHttpResponseSender(false, megaBytes(1), kiloBytes(32)));
 
     when(descriptionRenderer.renderHtml(any(Description.class))).thenReturn("HTML");
     when(descriptionRenderer.renderJson(any(Description.class))).thenReturn("JSON");
@@ -109,7 +115,7 @@ public class ViewServletDescribeTest
     descriptionRequested(null);
     facetThrowsException(false);
 
-    underTest.dispatchAndSend(request, facet, defaultResponseSender, servletResponse);
+    underTest.dispatchAndSend(request, facet, defaultResponseSender, servletRequest, servletResponse);
 
     verify(underTest, never()).describe(
         any(Request.class),
@@ -117,7 +123,7 @@ public class ViewServletDescribeTest
         any(Exception.class),
         any(String.class)
     );
-    verify(defaultResponseSender).send(eq(request), any(Response.class), eq(servletResponse));
+    verify(defaultResponseSender).send(eq(request), any(Response.class), eq(servletRequest), eq(servletResponse));
   }
 
   @Test
@@ -125,7 +131,7 @@ public class ViewServletDescribeTest
     descriptionRequested("HTML");
     facetThrowsException(false);
 
-    underTest.dispatchAndSend(request, facet, defaultResponseSender, servletResponse);
+    underTest.dispatchAndSend(request, facet, defaultResponseSender, servletRequest, servletResponse);
 
     verify(underTest).describe(request, facetResponse, null, "HTML");
     verify(underTest).send(eq(request), any(Response.class), eq(servletResponse));
@@ -137,7 +143,7 @@ public class ViewServletDescribeTest
     descriptionRequested("JSON");
     facetThrowsException(false);
 
-    underTest.dispatchAndSend(request, facet, defaultResponseSender, servletResponse);
+    underTest.dispatchAndSend(request, facet, defaultResponseSender, servletRequest, servletResponse);
 
     verify(underTest).describe(request, facetResponse, null, "JSON");
     verify(underTest).send(eq(request), any(Response.class), eq(servletResponse));
@@ -149,7 +155,7 @@ public class ViewServletDescribeTest
     descriptionRequested(null);
     facetThrowsException(true);
 
-    underTest.dispatchAndSend(request, facet, defaultResponseSender, servletResponse);
+    underTest.dispatchAndSend(request, facet, defaultResponseSender, servletRequest, servletResponse);
   }
 
   @Test
@@ -157,7 +163,7 @@ public class ViewServletDescribeTest
     descriptionRequested("HTML");
     facetThrowsException(true);
 
-    underTest.dispatchAndSend(request, facet, defaultResponseSender, servletResponse);
+    underTest.dispatchAndSend(request, facet, defaultResponseSender, servletRequest, servletResponse);
 
     // The exception got described
     verify(underTest).describe(request, null, facetException, "HTML");
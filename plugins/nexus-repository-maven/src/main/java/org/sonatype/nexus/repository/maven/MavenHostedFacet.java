@@ -43,7 +43,8 @@ public interface MavenHostedFacet
                        boolean rebuildChecksums);
 
   /**
-   * Rebuilds archetype catalog for given repository. Returns the number of archetypes hosted.
+   * Rebuilds archetype catalog for given repository. Returns the number of archetypes hosted. Concurrent invocations
+   * share the result of a single in-flight rebuild.
    */
   int rebuildArchetypeCatalog() throws IOException;
 
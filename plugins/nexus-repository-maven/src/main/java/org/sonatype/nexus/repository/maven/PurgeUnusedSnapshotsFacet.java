@@ -29,4 +29,16 @@ public interface PurgeUnusedSnapshotsFacet
    * @param numberOfDays number of days from the moment the method is invoked. Must be > 0.
    */
   void purgeUnusedSnapshots(int numberOfDays);
+
+  /**
+   * Purges snapshots that were not used/accessed for a number of days. For groups, up to {@code memberConcurrency}
+   * hosted members are purged in parallel, each in its own transaction.
+   *
+   * @param numberOfDays      number of days from the moment the method is invoked. Must be > 0.
+   * @param memberConcurrency number of group members to purge in parallel, members are purged one after another if 1
+   *                          or less.
+   * @return summary of the purged snapshots, per repository
+   * @since 3.3
+   */
+  SnapshotPurgeSummary purgeUnusedSnapshots(int numberOfDays, int memberConcurrency);
 }
@@ -29,6 +29,7 @@ public interface RemoveSnapshotsFacet
    * Delete snapshots matching this configuration, and update associated metadata in the repository.
    *
    * @param removeSnapshotsConfig {@link RemoveSnapshotsConfig}
+   * @return summary of the removed snapshots, per repository
    */
-  void removeSnapshots(RemoveSnapshotsConfig removeSnapshotsConfig);
+  SnapshotPurgeSummary removeSnapshots(RemoveSnapshotsConfig removeSnapshotsConfig);
 }
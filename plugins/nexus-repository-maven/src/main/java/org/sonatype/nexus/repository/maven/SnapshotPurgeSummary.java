@@ -0,0 +1,119 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2008-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.repository.maven;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Thread safe summary of snapshot removal, tracking the number of components, assets and bytes freed per repository.
+ *
+ * @since 3.3
+ */
+public class SnapshotPurgeSummary
+{
+  private final Map<String, Counts> repositories = new ConcurrentSkipListMap<>();
+
+  /**
+   * Records removal of one component of given repository, having given number of assets and total size in bytes.
+   */
+  public void componentRemoved(final String repositoryName, final long assets, final long bytes) {
+    Counts counts = counts(repositoryName);
+    counts.components.incrementAndGet();
+    counts.assets.addAndGet(assets);
+    counts.bytes.addAndGet(bytes);
+  }
+
+  /**
+   * Adds all counts of given summary to this summary.
+   */
+  public void merge(final SnapshotPurgeSummary summary) {
+    checkNotNull(summary);
+    summary.repositories.forEach((repositoryName, other) -> {
+      Counts counts = counts(repositoryName);
+      counts.components.addAndGet(other.getComponents());
+      counts.assets.addAndGet(other.getAssets());
+      counts.bytes.addAndGet(other.getBytes());
+    });
+  }
+
+  /**
+   * Returns the counts keyed by repository name.
+   */
+  public Map<String, Counts> getRepositories() {
+    return Collections.unmodifiableMap(repositories);
+  }
+
+  public long getComponents() {
+    return repositories.values().stream().mapToLong(Counts::getComponents).sum();
+  }
+
+  public long getAssets() {
+    return repositories.values().stream().mapToLong(Counts::getAssets).sum();
+  }
+
+  public long getBytes() {
+    return repositories.values().stream().mapToLong(Counts::getBytes).sum();
+  }
+
+  private Counts counts(final String repositoryName) {
+    return repositories.computeIfAbsent(checkNotNull(repositoryName), k -> new Counts());
+  }
+
+  @Override
+  public String toString() {
+    return getClass().getSimpleName() + "{" +
+        "components=" + getComponents() +
+        ", assets=" + getAssets() +
+        ", bytes=" + getBytes() +
+        ", repositories=" + repositories +
+        '}';
+  }
+
+  /**
+   * Counts of one repository.
+   */
+  public static class Counts
+  {
+    private final AtomicLong components = new AtomicLong();
+
+    private final AtomicLong assets = new AtomicLong();
+
+    private final AtomicLong bytes = new AtomicLong();
+
+    public long getComponents() {
+      return components.get();
+    }
+
+    public long getAssets() {
+      return assets.get();
+    }
+
+    public long getBytes() {
+      return bytes.get();
+    }
+
+    @Override
+    public String toString() {
+      return "{" +
+          "components=" + components +
+          ", assets=" + assets +
+          ", bytes=" + bytes +
+          '}';
+    }
+  }
+}
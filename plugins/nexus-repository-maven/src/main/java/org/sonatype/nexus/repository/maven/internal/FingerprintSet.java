@@ -0,0 +1,143 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2008-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.repository.maven.internal;
+
+import java.nio.charset.StandardCharsets;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Compact set of 64-bit string fingerprints, backed by a primitive open-addressing (linear probing) table. Instead of
+ * retaining the strings themselves, only a 64-bit murmur3 fingerprint of them is kept, so each entry costs 8 bytes
+ * (plus table slack) regardless of the length of the strings. Fingerprint collisions are possible in theory, but with
+ * 64 bits they are negligible even for tens of millions of entries (birthday bound ~ n^2/2^65).
+ *
+ * This class is not thread safe.
+ *
+ * @since 3.3
+ */
+class FingerprintSet
+{
+  private static final HashFunction FINGERPRINT = Hashing.murmur3_128();
+
+  /**
+   * Value used to mark empty slots. A real fingerprint having this value is remapped, see {@link #fingerprint}.
+   */
+  private static final long EMPTY = 0L;
+
+  private static final int DEFAULT_CAPACITY = 1024;
+
+  private static final float LOAD_FACTOR = 0.75f;
+
+  private long[] table;
+
+  private int mask;
+
+  private int size;
+
+  private int resizeThreshold;
+
+  FingerprintSet() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  FingerprintSet(final int expectedSize) {
+    checkArgument(expectedSize >= 0);
+    allocate(tableSizeFor((int) Math.ceil(Math.max(expectedSize, 2) / LOAD_FACTOR)));
+  }
+
+  /**
+   * Adds fingerprint of given strings (as one composite key) and returns {@code true} if it was not yet present.
+   * {@code null} elements are allowed and are distinct from empty strings.
+   */
+  boolean add(final String... parts) {
+    return add(fingerprint(parts));
+  }
+
+  /**
+   * Adds given fingerprint and returns {@code true} if it was not yet present.
+   */
+  boolean add(final long fingerprint) {
+    long value = fingerprint == EMPTY ? 1L : fingerprint;
+    int slot = mix(value) & mask;
+    while (true) {
+      long existing = table[slot];
+      if (existing == EMPTY) {
+        table[slot] = value;
+        if (++size > resizeThreshold) {
+          rehash(table.length << 1);
+        }
+        return true;
+      }
+      if (existing == value) {
+        return false;
+      }
+      slot = (slot + 1) & mask;
+    }
+  }
+
+  int size() {
+    return size;
+  }
+
+  /**
+   * Calculates the 64-bit fingerprint of given strings as one composite key.
+   */
+  static long fingerprint(final String... parts) {
+    Hasher hasher = FINGERPRINT.newHasher();
+    for (String part : parts) {
+      if (part == null) {
+        hasher.putInt(-1);
+      }
+      else {
+        hasher.putInt(part.length());
+        hasher.putString(part, StandardCharsets.UTF_8);
+      }
+    }
+    return hasher.hash().asLong();
+  }
+
+  private void allocate(final int capacity) {
+    table = new long[capacity];
+    mask = capacity - 1;
+    resizeThreshold = (int) (capacity * LOAD_FACTOR);
+  }
+
+  private void rehash(final int capacity) {
+    checkArgument(capacity > 0, "Too many entries: %s", size);
+    long[] old = table;
+    allocate(capacity);
+    for (long value : old) {
+      if (value != EMPTY) {
+        int slot = mix(value) & mask;
+        while (table[slot] != EMPTY) {
+          slot = (slot + 1) & mask;
+        }
+        table[slot] = value;
+      }
+    }
+  }
+
+  private static int mix(final long value) {
+    long h = value * 0x9E3779B97F4A7C15L;
+    return (int) (h ^ (h >>> 32));
+  }
+
+  private static int tableSizeFor(final int capacity) {
+    return Integer.highestOneBit(Math.max(capacity - 1, 1)) << 1;
+  }
+}
@@ -0,0 +1,137 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2008-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.repository.maven.internal;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+import org.sonatype.goodies.common.MultipleFailures;
+import org.sonatype.goodies.common.MultipleFailures.MultipleFailuresException;
+import org.sonatype.nexus.repository.Repository;
+import org.sonatype.nexus.repository.maven.SnapshotPurgeSummary;
+import org.sonatype.nexus.scheduling.CancelableHelper;
+import org.sonatype.nexus.thread.NexusExecutorService;
+import org.sonatype.nexus.thread.NexusThreadFactory;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Applies a snapshot maintenance operation to the (leaf) members of a group, either one after another on the calling
+ * thread, or in parallel on a bounded pool when concurrency is greater than one. Each member operation is expected
+ * to run in its own unit of work. The summaries of all members are aggregated. Either way every member is processed,
+ * and failures of members are propagated together once all members have been processed. Parallel members can be
+ * canceled like the calling thread, as they share its {@link CancelableHelper} flag.
+ *
+ * @since 3.3
+ */
+final class GroupMemberProcessor
+{
+  private static final Logger log = LoggerFactory.getLogger(GroupMemberProcessor.class);
+
+  private GroupMemberProcessor() {
+    // no instance
+  }
+
+  static SnapshotPurgeSummary process(final String groupName,
+                                      final Collection<Repository> members,
+                                      final int concurrency,
+                                      final Function<Repository, SnapshotPurgeSummary> operation)
+  {
+    SnapshotPurgeSummary summary = new SnapshotPurgeSummary();
+    MultipleFailures failures = new MultipleFailures();
+    if (concurrency <= 1 || members.size() <= 1) {
+      for (Repository member : members) {
+        try {
+          summary.merge(operation.apply(member));
+        }
+        catch (RuntimeException e) {
+          failures.add(e);
+        }
+        if (Thread.currentThread().isInterrupted()) {
+          failures.add(new CancellationException("Interrupted while processing members of group " + groupName));
+          break;
+        }
+      }
+      propagateFailures(groupName, failures);
+      return summary;
+    }
+
+    int threads = Math.min(concurrency, members.size());
+    log.info("Processing {} members of group {} with {} threads", members.size(), groupName, threads);
+    AtomicBoolean canceledFlag = CancelableHelper.get();
+    List<Callable<SnapshotPurgeSummary>> jobs = new ArrayList<>(members.size());
+    for (Repository member : members) {
+      jobs.add(() -> {
+        if (canceledFlag != null) {
+          CancelableHelper.set(canceledFlag);
+        }
+        try {
+          CancelableHelper.checkCancellation();
+          return operation.apply(member);
+        }
+        finally {
+          CancelableHelper.remove();
+        }
+      });
+    }
+
+    ExecutorService executorService = makeExecutorService(groupName, threads);
+    try {
+      for (Future<SnapshotPurgeSummary> future : executorService.invokeAll(jobs)) {
+        try {
+          summary.merge(future.get());
+        }
+        catch (ExecutionException e) {
+          failures.add(e.getCause() != null ? e.getCause() : e);
+        }
+      }
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      failures.add(e);
+    }
+    finally {
+      executorService.shutdownNow();
+    }
+    propagateFailures(groupName, failures);
+    return summary;
+  }
+
+  private static void propagateFailures(final String groupName, final MultipleFailures failures) {
+    try {
+      failures.maybePropagate(String.format("Failed to process members of group %s", groupName));
+    }
+    catch (MultipleFailuresException e) {
+      throw new RuntimeException(e.getMessage(), e);
+    }
+  }
+
+  private static ExecutorService makeExecutorService(final String groupName, final int threads) {
+    ThreadPoolExecutor backing = new ThreadPoolExecutor(threads, threads, 1, TimeUnit.NANOSECONDS,
+        new LinkedBlockingQueue<>(), new NexusThreadFactory("snapshots-" + groupName, "snapshots"));
+    backing.allowCoreThreadTimeOut(true);
+    return NexusExecutorService.forCurrentSubject(backing);
+  }
+}
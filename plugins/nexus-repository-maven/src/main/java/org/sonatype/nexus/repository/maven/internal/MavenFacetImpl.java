@@ -13,8 +13,14 @@
 package org.sonatype.nexus.repository.maven.internal;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -23,11 +29,14 @@ import javax.inject.Named;
 import javax.validation.constraints.NotNull;
 import javax.validation.groups.Default;
 
+import org.sonatype.goodies.common.Time;
 import org.sonatype.nexus.blobstore.api.Blob;
 import org.sonatype.nexus.common.collect.AttributesMap;
 import org.sonatype.nexus.common.collect.NestedAttributesMap;
 import org.sonatype.nexus.common.hash.HashAlgorithm;
 import org.sonatype.nexus.repository.FacetSupport;
+import org.sonatype.nexus.repository.InvalidContentException;
+import org.sonatype.nexus.repository.Type;
 import org.sonatype.nexus.repository.config.Configuration;
 import org.sonatype.nexus.repository.config.ConfigurationFacet;
 import org.sonatype.nexus.repository.maven.MavenFacet;
@@ -39,6 +48,7 @@ import org.sonatype.nexus.repository.maven.LayoutPolicy;
 import org.sonatype.nexus.repository.maven.VersionPolicy;
 import org.sonatype.nexus.repository.storage.Asset;
 import org.sonatype.nexus.repository.storage.AssetBlob;
+import org.sonatype.nexus.repository.storage.AssetEvent;
 import org.sonatype.nexus.repository.storage.Bucket;
 import org.sonatype.nexus.repository.storage.Component;
 import org.sonatype.nexus.repository.storage.StorageFacet;
@@ -52,13 +62,24 @@ import org.sonatype.nexus.repository.types.ProxyType;
 import org.sonatype.nexus.repository.view.Content;
 import org.sonatype.nexus.repository.view.Payload;
 import org.sonatype.nexus.repository.view.payloads.BlobPayload;
+import org.sonatype.nexus.repository.view.payloads.StringPayload;
+import org.sonatype.nexus.transaction.Transactional;
 import org.sonatype.nexus.transaction.UnitOfWork;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.CharMatcher;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.eventbus.AllowConcurrentEvents;
+import com.google.common.eventbus.Subscribe;
 import com.google.common.hash.HashCode;
+import com.google.common.io.ByteStreams;
+import com.google.common.util.concurrent.Striped;
 import org.apache.maven.model.Model;
+import org.joda.time.DateTime;
 
 import static com.google.common.base.Preconditions.checkNotNull;
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.sonatype.nexus.repository.maven.internal.Attributes.*;
 import static org.sonatype.nexus.repository.maven.internal.MavenFacetUtils.findAsset;
 import static org.sonatype.nexus.repository.maven.internal.MavenFacetUtils.findComponent;
@@ -77,7 +98,13 @@ import static org.sonatype.nexus.repository.storage.AssetEntityAdapter.P_ASSET_K
  * <ul>
  * <li>CMA assets: keyed by path</li>
  * </ul>
- * In both cases, "external" hashes are stored as separate asset, as their path differs too.
+ * In both cases, "external" hashes are stored as separate asset, as their path differs too. Optionally (see
+ * {@code nexus.maven.hashesFromAttributes}), hosted repositories do not store them, but answer hash requests from the
+ * checksums recorded in the attributes of the main asset, kept in a small in-memory cache.
+ * <p/>
+ * Writes of {@code maven-metadata.xml} files are write hot spots during concurrent deploys of the same artifact, so by
+ * default (see {@code nexus.maven.serializeMetadataWrites}) they are serialized per path through a striped lock, rather
+ * than left to conflict and be retried.
  *
  * @since 3.0
  */
@@ -88,9 +115,35 @@ public class MavenFacetImpl
 {
   private final Map<String, MavenPathParser> mavenPathParsers;
 
+  private final Type hostedType;
+
+  private final boolean hashesFromAttributes;
+
+  /**
+   * Checksums of main assets keyed by path, used to answer hash requests when {@link #hashesFromAttributes} is set.
+   * Entries are invalidated by the {@link AssetEvent} of their asset, which is only posted once changes committed.
+   */
+  private final Cache<String, Checksums> checksumsCache;
+
+  /**
+   * Incremented on every invalidation of {@link #checksumsCache}, to detect invalidations racing with a load.
+   */
+  private final AtomicLong checksumsGeneration = new AtomicLong();
+
+  /**
+   * Per path locks serializing metadata writes, {@code null} when {@code nexus.maven.serializeMetadataWrites} is off.
+   */
+  @Nullable
+  private final Striped<Lock> metadataWriteLocks;
+
   @VisibleForTesting
   static final String CONFIG_KEY = "maven";
 
+  /**
+   * Maximum size of hash payloads read to compare them with main asset checksums.
+   */
+  private static final int MAX_HASH_PAYLOAD_SIZE = 1024;
+
   @VisibleForTesting
   static class Config
   {
@@ -116,8 +169,21 @@ public class MavenFacetImpl
   private StorageFacet storageFacet;
 
   @Inject
-  public MavenFacetImpl(final Map<String, MavenPathParser> mavenPathParsers) {
+  public MavenFacetImpl(final Map<String, MavenPathParser> mavenPathParsers,
+                        @Named(HostedType.NAME) final Type hostedType,
+                        @Named("${nexus.maven.hashesFromAttributes:-false}") final boolean hashesFromAttributes,
+                        @Named("${nexus.maven.hashesFromAttributes.cacheSize:-10000}") final long cacheSize,
+                        @Named("${nexus.maven.hashesFromAttributes.cacheTtl:-1h}") final Time cacheTtl,
+                        @Named("${nexus.maven.serializeMetadataWrites:-true}") final boolean serializeMetadataWrites)
+  {
     this.mavenPathParsers = checkNotNull(mavenPathParsers);
+    this.hostedType = checkNotNull(hostedType);
+    this.hashesFromAttributes = hashesFromAttributes;
+    this.checksumsCache = CacheBuilder.newBuilder()
+        .maximumSize(cacheSize)
+        .expireAfterWrite(cacheTtl.toMillis(), TimeUnit.MILLISECONDS)
+        .build();
+    this.metadataWriteLocks = serializeMetadataWrites ? Striped.lock(64) : null;
   }
 
   @Override
@@ -141,6 +207,11 @@ public class MavenFacetImpl
     log.debug("Config: {}", config);
   }
 
+  @Override
+  protected void doStop() throws Exception {
+    checksumsCache.invalidateAll();
+  }
+
   @Override
   protected void doDestroy() throws Exception {
     config = null;
@@ -165,8 +236,19 @@ public class MavenFacetImpl
 
   @Nullable
   @Override
-  @TransactionalTouchBlob
   public Content get(final MavenPath path) throws IOException {
+    if (isHashFromAttributes(path)) {
+      Content content = getHashFromAttributes(path);
+      if (content != null) {
+        return content;
+      }
+    }
+    return doGet(path);
+  }
+
+  @Nullable
+  @TransactionalTouchBlob
+  protected Content doGet(final MavenPath path) throws IOException {
     log.debug("GET {} : {}", getRepository().getName(), path.getPath());
 
     final StorageTx tx = UnitOfWork.currentTx();
@@ -183,6 +265,97 @@ public class MavenFacetImpl
     return toContent(asset, blob);
   }
 
+  /**
+   * Returns {@code true} if given path is a hash which should be answered from the checksums of its main asset.
+   */
+  private boolean isHashFromAttributes(final MavenPath path) {
+    return hashesFromAttributes && path.isHash() && hostedType.equals(getRepository().getType());
+  }
+
+  /**
+   * Returns the hash content of given hash path built from the checksums of its main asset, or {@code null} if the
+   * main asset does not exist or lacks the checksum.
+   */
+  @Nullable
+  private Content getHashFromAttributes(final MavenPath path) throws IOException {
+    Checksums checksums = getChecksums(path.main());
+    if (checksums == null) {
+      return null;
+    }
+    HashType hashType = checkNotNull(path.getHashType());
+    HashCode hashCode = checksums.hashCodes.get(hashType.getHashAlgorithm());
+    if (hashCode == null) {
+      return null;
+    }
+    log.debug("GET {} : {} (from main asset checksum)", getRepository().getName(), path.getPath());
+    String hash = hashCode.toString();
+    Map<HashAlgorithm, HashCode> hashCodes = new HashMap<>();
+    for (HashType type : HashType.values()) {
+      hashCodes.put(type.getHashAlgorithm(), type.getHashAlgorithm().function().hashString(hash, UTF_8));
+    }
+    Content content = new Content(new StringPayload(hash, Constants.CHECKSUM_CONTENT_TYPE));
+    content.getAttributes().set(Content.CONTENT_LAST_MODIFIED, checksums.lastModified);
+    content.getAttributes().set(Content.CONTENT_HASH_CODES_MAP, hashCodes);
+    return content;
+  }
+
+  /**
+   * Returns the checksums of given main asset path, from cache when present. Checksums read within an active
+   * transaction may belong to an asset which is not committed yet, so they are not cached.
+   */
+  @Nullable
+  private Checksums getChecksums(final MavenPath mainPath) {
+    String key = mainPath.getPath();
+    Checksums checksums = checksumsCache.getIfPresent(key);
+    if (checksums == null) {
+      boolean uncommitted = UnitOfWork.isActiveTx();
+      long generation = checksumsGeneration.get();
+      checksums = findChecksums(mainPath);
+      if (checksums == null || uncommitted) {
+        return checksums;
+      }
+      checksumsCache.put(key, checksums);
+      if (checksumsGeneration.get() != generation) {
+        // the asset may have changed since it was read, and the invalidation may have preceded the put
+        checksumsCache.invalidate(key);
+      }
+    }
+    return checksums;
+  }
+
+  @Nullable
+  @Transactional
+  protected Checksums findChecksums(final MavenPath mainPath) {
+    final StorageTx tx = UnitOfWork.currentTx();
+    final Asset asset = findAsset(tx, tx.findBucket(getRepository()), mainPath);
+    if (asset == null) {
+      return null;
+    }
+    Map<HashAlgorithm, HashCode> hashCodes = new HashMap<>();
+    for (HashType hashType : HashType.values()) {
+      HashCode hashCode = asset.getChecksum(hashType.getHashAlgorithm());
+      if (hashCode != null) {
+        hashCodes.put(hashType.getHashAlgorithm(), hashCode);
+      }
+    }
+    AttributesMap contentAttributes = new AttributesMap();
+    Content.extractFromAsset(asset, Collections.emptyList(), contentAttributes);
+    return new Checksums(hashCodes, contentAttributes.get(Content.CONTENT_LAST_MODIFIED, DateTime.class));
+  }
+
+  @Subscribe
+  @AllowConcurrentEvents
+  public void on(final AssetEvent event) {
+    if (hashesFromAttributes && getRepository().getName().equals(event.getRepositoryName())) {
+      invalidateChecksums(event.getAsset().name());
+    }
+  }
+
+  private void invalidateChecksums(final String path) {
+    checksumsGeneration.incrementAndGet();
+    checksumsCache.invalidate(path);
+  }
+
   private Content toContent(final Asset asset, final Blob blob) {
     final String contentType = asset.contentType();
     final Content content = new Content(new BlobPayload(blob, contentType));
@@ -194,10 +367,45 @@ public class MavenFacetImpl
   public Content put(final MavenPath path, final Payload payload)
       throws IOException
   {
+    if (isHashFromAttributes(path)) {
+      Content content = getHashFromAttributes(path);
+      if (content != null) {
+        String expected = readHash(content);
+        String uploaded = readHash(payload);
+        if (!expected.equalsIgnoreCase(uploaded)) {
+          log.warn("PUT {} : {} rejected, hash {} does not match main asset checksum {}", getRepository().getName(),
+              path.getPath(), uploaded, expected);
+          throw new InvalidContentException(
+              "Hash " + path.getPath() + " does not match checksum of " + path.main().getPath());
+        }
+        log.debug("PUT {} : {} skipped, hash is answered from main asset checksum", getRepository().getName(),
+            path.getPath());
+        return content;
+      }
+    }
     log.debug("PUT {} : {}", getRepository().getName(), path.getPath());
 
     try (TempBlob tempBlob = storageFacet.createTempBlob(payload, HashType.ALGORITHMS)) {
-      return doPut(path, payload, tempBlob);
+      Lock lock = lockMetadataWrite(path);
+      try {
+        return doPut(path, payload, tempBlob);
+      }
+      finally {
+        unlock(lock);
+      }
+    }
+  }
+
+  /**
+   * Reads the hash from the payload of a hash file, which may be followed by the file name as written by some tools.
+   */
+  private static String readHash(final Payload payload) throws IOException {
+    try (InputStream in = payload.openInputStream()) {
+      byte[] buffer = new byte[MAX_HASH_PAYLOAD_SIZE];
+      int length = ByteStreams.read(in, buffer, 0, buffer.length);
+      String hash = new String(buffer, 0, length, UTF_8).trim();
+      int end = CharMatcher.whitespace().indexIn(hash);
+      return end < 0 ? hash : hash.substring(0, end);
     }
   }
 
@@ -212,7 +420,13 @@ public class MavenFacetImpl
   {
     log.debug("PUT {} : {}", getRepository().getName(), path.getPath());
 
-    return doPut(path, sourceFile, contentType, contentAttributes, hashes, size);
+    Lock lock = lockMetadataWrite(path);
+    try {
+      return doPut(path, sourceFile, contentType, contentAttributes, hashes, size);
+    }
+    finally {
+      unlock(lock);
+    }
   }
 
   @Override
@@ -222,7 +436,33 @@ public class MavenFacetImpl
                      final AttributesMap contentAttributes)
       throws IOException
   {
-    return doPut(path, blob, contentType, contentAttributes);
+    Lock lock = lockMetadataWrite(path);
+    try {
+      return doPut(path, blob, contentType, contentAttributes);
+    }
+    finally {
+      unlock(lock);
+    }
+  }
+
+  /**
+   * Acquires the write lock of given path if it is a metadata file and metadata writes are serialized, the returned
+   * lock (if any) must be passed to {@link #unlock(Lock)} once the write transaction completed.
+   */
+  @Nullable
+  private Lock lockMetadataWrite(final MavenPath path) {
+    if (metadataWriteLocks == null || !Constants.METADATA_FILENAME.equals(path.getFileName())) {
+      return null;
+    }
+    Lock lock = metadataWriteLocks.get(path.getPath());
+    lock.lock();
+    return lock;
+  }
+
+  private static void unlock(@Nullable final Lock lock) {
+    if (lock != null) {
+      lock.unlock();
+    }
   }
 
   @TransactionalStoreBlob
@@ -452,4 +692,20 @@ public class MavenFacetImpl
     tx.deleteAsset(asset);
     return true;
   }
+
+  /**
+   * Checksums and last modified timestamp of a main asset.
+   */
+  static final class Checksums
+  {
+    final Map<HashAlgorithm, HashCode> hashCodes;
+
+    @Nullable
+    final DateTime lastModified;
+
+    Checksums(final Map<HashAlgorithm, HashCode> hashCodes, @Nullable final DateTime lastModified) {
+      this.hashCodes = checkNotNull(hashCodes);
+      this.lastModified = lastModified;
+    }
+  }
 }
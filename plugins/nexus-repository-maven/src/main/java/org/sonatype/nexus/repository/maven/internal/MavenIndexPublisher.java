@@ -23,11 +23,9 @@ import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
-import java.util.Set;
 import java.util.TreeSet;
 
 import javax.annotation.Nonnull;
@@ -500,42 +498,26 @@ public final class MavenIndexPublisher
 
   /**
    * Memory conservative "uniqueness filter" that filters MI keys (UINFO), allowing one uinfo at the time. MI index
-   * is unique by UINFO composite field, and this predicate filters it as such.
+   * is unique by UINFO composite field, and this predicate filters it as such. Only 64-bit fingerprints of seen keys
+   * are retained, see {@link FingerprintSet}.
    */
   private static class UniqueFilter
       implements Predicate<Record>
   {
     /**
-     * G->A->V->Set(CE), just to check for uniqueness.
+     * Fingerprints of G:A:V:C:E, just to check for uniqueness.
      */
-    private Map<String, Map<String, Map<String, Set<String>>>> gavce = new HashMap<>();
+    private final FingerprintSet gavce = new FingerprintSet();
 
     @Override
     public boolean apply(final Record input) {
-      String g = input.get(Record.GROUP_ID);
-      String a = input.get(Record.ARTIFACT_ID);
-      String v = input.get(Record.VERSION);
-      String ce = defStr(input.get(Record.CLASSIFIER), "n/a") + ":" + input.get(Record.FILE_EXTENSION);
-      // G
-      Map<String, Map<String, Set<String>>> gMap = gavce.get(g);
-      if (gMap == null) {
-        gMap = new HashMap<>();
-        gavce.put(g, gMap);
-      }
-      // A
-      Map<String, Set<String>> aMap = gMap.get(a);
-      if (aMap == null) {
-        aMap = new HashMap<>();
-        gMap.put(a, aMap);
-      }
-      // V
-      Set<String> vSet = aMap.get(v);
-      if (vSet == null) {
-        vSet = new HashSet<>();
-        aMap.put(v, vSet);
-      }
-      // CE
-      return vSet.add(ce);
+      return gavce.add(
+          input.get(Record.GROUP_ID),
+          input.get(Record.ARTIFACT_ID),
+          input.get(Record.VERSION),
+          defStr(input.get(Record.CLASSIFIER), "n/a"),
+          input.get(Record.FILE_EXTENSION)
+      );
     }
   }
 
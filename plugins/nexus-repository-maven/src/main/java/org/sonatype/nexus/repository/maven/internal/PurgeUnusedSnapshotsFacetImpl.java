@@ -13,11 +13,16 @@
 package org.sonatype.nexus.repository.maven.internal;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
 import javax.inject.Inject;
 import javax.inject.Named;
@@ -26,9 +31,11 @@ import org.sonatype.nexus.common.collect.NestedAttributesMap;
 import org.sonatype.nexus.common.stateguard.Guarded;
 import org.sonatype.nexus.orient.entity.AttachedEntityHelper;
 import org.sonatype.nexus.repository.FacetSupport;
+import org.sonatype.nexus.repository.Repository;
 import org.sonatype.nexus.repository.Type;
 import org.sonatype.nexus.repository.maven.MavenFacet;
 import org.sonatype.nexus.repository.maven.PurgeUnusedSnapshotsFacet;
+import org.sonatype.nexus.repository.maven.SnapshotPurgeSummary;
 import org.sonatype.nexus.repository.maven.internal.group.MavenGroupFacet;
 import org.sonatype.nexus.repository.maven.internal.hosted.metadata.MetadataRebuilder;
 import org.sonatype.nexus.repository.maven.internal.hosted.metadata.MetadataUtils;
@@ -100,49 +107,64 @@ public class PurgeUnusedSnapshotsFacetImpl
   @Override
   @Guarded(by = STARTED)
   public void purgeUnusedSnapshots(final int numberOfDays) {
+    purgeUnusedSnapshots(numberOfDays, 1);
+  }
+
+  @Override
+  @Guarded(by = STARTED)
+  public SnapshotPurgeSummary purgeUnusedSnapshots(final int numberOfDays, final int memberConcurrency) {
     checkArgument(numberOfDays > 0, "Number of days must be greater than zero");
     log.info("Purging unused snapshots {} days or older from repository {}", numberOfDays, getRepository().getName());
     if (groupType.equals(getRepository().getType())) {
-      processAsGroup(facet(MavenGroupFacet.class), numberOfDays);
+      return processAsGroup(facet(MavenGroupFacet.class), numberOfDays, memberConcurrency);
     }
     else if (hostedType.equals(getRepository().getType())) {
-      processAsHosted(numberOfDays);
+      return processAsHosted(numberOfDays);
     }
     else {
       log.debug("Skipping repository {}, is not group or hosted", getRepository().getName());
+      return new SnapshotPurgeSummary();
     }
   }
 
   /**
    * Processes this facet's associated repository as a hosted repository.
    */
-  private void processAsHosted(final int numberOfDays) {
-    Set<String> groups = purgeSnapshotsFromRepository(numberOfDays);
+  private SnapshotPurgeSummary processAsHosted(final int numberOfDays) {
+    SnapshotPurgeSummary summary = new SnapshotPurgeSummary();
+    Set<String> groups = purgeSnapshotsFromRepository(numberOfDays, summary);
     for (String groupId : groups) {
       metadataRebuilder.rebuild(getRepository(), false, false, groupId, null, null);
     }
+    return summary;
   }
 
   /**
-   * Processes this facet's associated repository as a group repository, iterating over its members.
+   * Processes this facet's associated repository as a group repository, iterating over its distinct hosted leaf
+   * members, up to {@code memberConcurrency} of them in parallel.
    */
-  private void processAsGroup(final MavenGroupFacet groupFacet, final int numberOfDays) {
-    groupFacet.members().stream()
-        .filter(member -> hostedType.equals(member.getType()) || groupType.equals(member.getType()))
-        .forEach(member -> {
-          member.facet(PurgeUnusedSnapshotsFacet.class).purgeUnusedSnapshots(numberOfDays);
-        });
+  private SnapshotPurgeSummary processAsGroup(final MavenGroupFacet groupFacet,
+                                              final int numberOfDays,
+                                              final int memberConcurrency)
+  {
+    List<Repository> members = new ArrayList<>(new LinkedHashSet<>(groupFacet.leafMembers()));
+    members.removeIf(member -> !hostedType.equals(member.getType()));
+    return GroupMemberProcessor.process(getRepository().getName(), members, memberConcurrency,
+        member -> member.facet(PurgeUnusedSnapshotsFacet.class).purgeUnusedSnapshots(numberOfDays, 1));
   }
 
   /**
    * Purges snapshots from the given repository, returning a set of the affected groups for metadata rebuilding.
    */
-  private Set<String> purgeSnapshotsFromRepository(final int numberOfDays) {
+  private Set<String> purgeSnapshotsFromRepository(final int numberOfDays, final SnapshotPurgeSummary summary) {
     Date olderThan = DateTime.now().minusDays(numberOfDays).withTimeAtStartOfDay().toDate();
     Set<String> groups = Collections.emptySet();
+    AtomicReference<SnapshotPurgeSummary> removed = new AtomicReference<>();
     UnitOfWork.beginBatch(facet(StorageFacet.class).txSupplier());
     try {
-      groups = deleteUnusedSnapshotComponents(olderThan);
+      groups = deleteUnusedSnapshotComponents(olderThan, removed);
+      // only the removals of the committed attempt are counted
+      summary.merge(removed.get());
     }
     finally {
       UnitOfWork.end();
@@ -151,19 +173,31 @@ public class PurgeUnusedSnapshotsFacetImpl
   }
 
   /**
-   * Deletes the unused snapshot components and their associated metadata.
+   * Deletes the unused snapshot components and their associated metadata. Each attempt sets a new summary of its
+   * removals, so only those of the attempt which is committed are reported when the transaction is retried.
    *
    * @return the affected groups
    */
   @TransactionalDeleteBlob
-  protected Set<String> deleteUnusedSnapshotComponents(Date olderThan) {
+  protected Set<String> deleteUnusedSnapshotComponents(final Date olderThan,
+                                                       final AtomicReference<SnapshotPurgeSummary> removed)
+  {
     MavenFacet facet = facet(MavenFacet.class);
     StorageTx tx = UnitOfWork.currentTx();
+    SnapshotPurgeSummary summary = new SnapshotPurgeSummary();
+    removed.set(summary);
 
     Set<String> groups = new HashSet<>();
     for (Component component : findUnusedSnapshots(tx, olderThan)) {
       log.debug("Deleting unused snapshot component {}", component);
-      tx.deleteComponent(component);
+      AtomicLong assets = new AtomicLong();
+      AtomicLong bytes = new AtomicLong();
+      tx.deleteComponent(component, asset -> {
+        Long size = asset.size();
+        assets.incrementAndGet();
+        bytes.addAndGet(size != null ? size : 0L);
+      });
+      summary.componentRemoved(getRepository().getName(), assets.get(), bytes.get());
 
       NestedAttributesMap attributes = component.formatAttributes();
       String groupId = attributes.get(P_GROUP_ID, String.class);
@@ -12,28 +12,32 @@
  */
 package org.sonatype.nexus.repository.maven.internal;
 
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Date;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.Set;
-import java.util.function.Function;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
+import javax.annotation.Nullable;
 import javax.inject.Inject;
 import javax.inject.Named;
 
 import org.sonatype.nexus.common.stateguard.Guarded;
-import org.sonatype.nexus.orient.entity.AttachedEntityHelper;
 import org.sonatype.nexus.repository.FacetSupport;
 import org.sonatype.nexus.repository.Repository;
 import org.sonatype.nexus.repository.Type;
+import org.sonatype.nexus.repository.manager.RepositoryManager;
 import org.sonatype.nexus.repository.maven.MavenFacet;
 import org.sonatype.nexus.repository.maven.MavenHostedFacet;
 import org.sonatype.nexus.repository.maven.RemoveSnapshotsFacet;
+import org.sonatype.nexus.repository.maven.SnapshotPurgeSummary;
 import org.sonatype.nexus.repository.maven.VersionPolicy;
 import org.sonatype.nexus.repository.maven.internal.group.MavenGroupFacet;
 import org.sonatype.nexus.repository.maven.tasks.RemoveSnapshotsConfig;
@@ -45,27 +49,27 @@ import org.sonatype.nexus.repository.storage.StorageFacet;
 import org.sonatype.nexus.repository.storage.StorageTx;
 import org.sonatype.nexus.repository.transaction.TransactionalDeleteBlob;
 import org.sonatype.nexus.repository.types.GroupType;
+import org.sonatype.nexus.scheduling.CancelableHelper;
+import org.sonatype.nexus.transaction.BatchCommitter;
 import org.sonatype.nexus.transaction.UnitOfWork;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Objects;
-import com.google.common.collect.Iterables;
-import com.google.common.collect.Lists;
-import com.google.common.collect.Sets;
-import com.orientechnologies.orient.core.record.impl.ODocument;
-import com.orientechnologies.orient.core.sql.query.OResultSet;
-import com.orientechnologies.orient.core.sql.query.OSQLSynchQuery;
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import com.google.common.collect.ImmutableList;
 import org.joda.time.DateTime;
 
 import static com.google.common.base.Preconditions.checkNotNull;
-import static java.util.stream.StreamSupport.stream;
 import static org.sonatype.nexus.common.stateguard.StateGuardLifecycleSupport.State.STARTED;
 import static org.sonatype.nexus.repository.maven.internal.Attributes.P_BASE_VERSION;
 import static org.sonatype.nexus.repository.maven.internal.MavenFacetUtils.version;
-import static org.sonatype.nexus.repository.storage.ComponentEntityAdapter.P_GROUP;
-import static org.sonatype.nexus.repository.storage.MetadataNodeEntityAdapter.P_NAME;
 
 /**
+ * Removes snapshots with a single pass over the components of a repository. Components are streamed in (group, name,
+ * version) order from the bucket-group-name-version index, and each GA is evaluated in memory against the retention
+ * criteria, along with a lookup of its release versions. Deletions are committed in batches.
+ *
  * @since 3.0
  */
 @Named
@@ -73,48 +77,25 @@ public class RemoveSnapshotsFacetImpl
     extends FacetSupport
     implements RemoveSnapshotsFacet
 {
+  private static final String SNAPSHOT = "SNAPSHOT";
 
-  /**
-   * Find where we have more than X snapshots for a given GAbV. Results are confined to the same repository (bucket).
-   */
-  private static final String SNAPSHOTS_WITH_MINIMUM_COUNT = "SELECT FROM (SELECT group, name, attributes" +
-      ".maven2.baseVersion AS baseVersion, count(*) AS cnt FROM component WHERE bucket=:bucket AND " +
-      "attributes.maven2.baseVersion LIKE '%SNAPSHOT' GROUP BY group, name, attributes.maven2.baseVersion) where cnt " +
-      ">:minimumCount";
-
-  /**
-   * Load components that are candidates for deletion.
-   */
-  private static final String SNAPSHOTS_FOR_GABV = "SELECT FROM component WHERE bucket=:bucket AND group=:group " +
-      "AND name=:name AND attributes.maven2.baseVersion=:baseVersion " +
-      "ORDER BY last_updated ASC LIMIT :limit";
-
-  /**
-   * Find where we have a release (in any repository) related to a snapshot in a specific repository (bucket),
-   * older than X.
-   */
-  private static final String WITH_RELEASES = "SELECT FROM component " +
-      "LET $temp = (SELECT FROM component WHERE format='maven2' AND group = $parent.current.group " +
-      " AND name = $parent.current.name " +
-      " AND version = $parent.current.attributes.maven2.baseVersion.replace('-SNAPSHOT', '')" +
-      ") " +
-      "WHERE bucket=:bucket AND format='maven2' AND last_updated < :lastUpdated " +
-      "AND attributes.maven2.baseVersion LIKE '%-SNAPSHOT'AND $temp.size() > 0 ";
+  private static final String SNAPSHOT_SUFFIX = "-" + SNAPSHOT;
 
-  private static final Function<Component, GAV> GROUPING_FUNCTION = t -> new GAV(t.group(), t.name(),
-      (String) t.attributes().child(Maven2Format.NAME).get(P_BASE_VERSION), -1);
+  private final int batchSize;
 
-  private final long batchSize;
+  private final RepositoryManager repositoryManager;
 
   private final ComponentEntityAdapter componentEntityAdapter;
 
   private final Type groupType;
 
   @Inject
-  public RemoveSnapshotsFacetImpl(final ComponentEntityAdapter componentEntityAdapter,
+  public RemoveSnapshotsFacetImpl(final RepositoryManager repositoryManager,
+                                  final ComponentEntityAdapter componentEntityAdapter,
                                   @Named(GroupType.NAME) final Type groupType,
-                                  @Named("${nexus.removeSnapshots.batchSize:-500}") long batchSize)
+                                  @Named("${nexus.removeSnapshots.batchSize:-500}") int batchSize)
   {
+    this.repositoryManager = checkNotNull(repositoryManager);
     this.componentEntityAdapter = checkNotNull(componentEntityAdapter);
     this.groupType = checkNotNull(groupType);
     this.batchSize = batchSize;
@@ -122,19 +103,19 @@ public class RemoveSnapshotsFacetImpl
 
   @Override
   @Guarded(by = STARTED)
-  public void removeSnapshots(RemoveSnapshotsConfig config)
+  public SnapshotPurgeSummary removeSnapshots(RemoveSnapshotsConfig config)
   {
     Repository repository = getRepository();
     log.info("Removing snapshots on repository {} with configuration: {}", repository.getName(), config);
+    if (groupType.equals(repository.getType())) {
+      return processGroup(repository.facet(MavenGroupFacet.class), config);
+    }
+
+    SnapshotPurgeSummary summary = new SnapshotPurgeSummary();
     UnitOfWork.beginBatch(facet(StorageFacet.class).txSupplier());
     Set<GAV> metadataUpdateRequired = new HashSet<>();
     try {
-      if (groupType.equals(repository.getType())) {
-        processGroup(repository.facet(MavenGroupFacet.class), config);
-      }
-      else {
-        metadataUpdateRequired.addAll(processRepository(repository, config));
-      }
+      metadataUpdateRequired.addAll(processRepository(repository, config, summary));
     }
     finally {
       UnitOfWork.end();
@@ -153,15 +134,18 @@ public class RemoveSnapshotsFacetImpl
     else {
       log.info("Skipping metadata updates on proxy repository: {}", repository.getName());
     }
+    return summary;
   }
 
   /**
-   * Iterate over group members which may contain snapshots and recursively apply the snapshot removal.
+   * Apply the snapshot removal to the distinct leaf members of the group which may contain snapshots, processing up to
+   * {@link RemoveSnapshotsConfig#getMemberConcurrency()} members in parallel, each in its own batch transaction.
    */
-  private void processGroup(final MavenGroupFacet groupFacet, final RemoveSnapshotsConfig config) {
-    groupFacet.members().stream()
-        .filter(member -> isSnapshotRepo(member) || groupType.equals(member.getType()))
-        .forEach(member -> member.facet(RemoveSnapshotsFacet.class).removeSnapshots(config));
+  private SnapshotPurgeSummary processGroup(final MavenGroupFacet groupFacet, final RemoveSnapshotsConfig config) {
+    List<Repository> members = new ArrayList<>(new LinkedHashSet<>(groupFacet.leafMembers()));
+    members.removeIf(member -> !isSnapshotRepo(member));
+    return GroupMemberProcessor.process(getRepository().getName(), members, config.getMemberConcurrency(),
+        member -> member.facet(RemoveSnapshotsFacet.class).removeSnapshots(config));
   }
 
   /**
@@ -169,111 +153,63 @@ public class RemoveSnapshotsFacetImpl
    * require a metadata update.
    */
   @TransactionalDeleteBlob
-  protected Collection<GAV> processRepository(final Repository repository, final RemoveSnapshotsConfig config) {
-    StorageTx tx = UnitOfWork.currentTx();
-
-    //collect any GAVs we need to refresh metadata for
-    Set<GAV> metadataUpdateRequired = new HashSet<>();
-
-    metadataUpdateRequired.addAll(processSnapshots(repository, config, tx));
-
-    // since this spans all maven repos it can be expensive to find deletion candidates, so we do it after deleting 
-    // based on other criteria
-    if (config.getRemoveIfReleased()) {
-      metadataUpdateRequired.addAll(processReleasedSnapshots(repository, config, tx));
-    }
-
-    return metadataUpdateRequired;
-  }
-
-  /**
-   * Delete all snapshots created before the grace period and for which there is an associated release.
-   */
-  private Collection<GAV> processReleasedSnapshots(final Repository repository, final RemoveSnapshotsConfig config,
-                                                   final StorageTx tx)
+  protected Collection<GAV> processRepository(final Repository repository,
+                                              final RemoveSnapshotsConfig config,
+                                              final SnapshotPurgeSummary summary)
   {
-    Date gracePeriod = DateTime.now().minusDays(Math.max(config.getGracePeriod(), 0)).toDate();
-    log.debug("Looking for snapshots with associated releases created before {}", gracePeriod);
-
-    //lookup results and group around the baseVersion
-    Iterable<Component> releasedSnapshots = findReleasedSnapshots(tx, repository, gracePeriod);
-    Map<GAV, List<Component>> groupedReleasedSnapshots = stream(releasedSnapshots.spliterator(), false)
-        .collect(Collectors.groupingBy(GROUPING_FUNCTION));
-    log.info("Processing {} GAVs found that have already been released and for which the grace period has elapsed",
-        groupedReleasedSnapshots.size());
-
-    long deleted = 0;
-
-    for (Entry<GAV, List<Component>> entry : groupedReleasedSnapshots.entrySet()) {
-      GAV key = entry.getKey();
-      log.debug("Processing GAV = {}", key);
-      for (Component component : entry.getValue()) {
-        log.debug("Deleting component: {}", component);
-        tx.deleteComponent(component);
-        if (++deleted % batchSize == 0) {
-          log.debug("Committing batch delete");
-          tx.commit();
-          tx.begin();
-        }
-      }
-    }
-    //commit any potential leftovers that didn't fit in the batch delete window
-    log.debug("Committing final batch delete");
-    tx.commit();
-    tx.begin();
-    log.info("Finished processing snapshots with associated releases");
-    return groupedReleasedSnapshots.keySet();
+    return processSnapshots(repository, config, UnitOfWork.currentTx(), summary);
   }
 
   /**
-   * Delete all snapshots created before the retention period and potentially preserving a certain number.
+   * Delete all snapshots created before the retention period (potentially preserving a certain number) and, if
+   * configured, all snapshots created before the grace period for which there is an associated release.
    */
   @VisibleForTesting
-  Set<GAV> processSnapshots(final Repository repository, final RemoveSnapshotsConfig config, final StorageTx tx)
+  Set<GAV> processSnapshots(final Repository repository,
+                            final RemoveSnapshotsConfig config,
+                            final StorageTx tx,
+                            final SnapshotPurgeSummary summary)
   {
-    if (config.getMinimumRetained() == -1) {
+    boolean byCount = config.getMinimumRetained() != -1;
+    if (!byCount) {
       log.info("Skipping processing of snapshots by age and minimum count due to configuration");
+    }
+    if (!byCount && !config.getRemoveIfReleased()) {
       return new HashSet<>();
     }
 
     DateTime olderThan = DateTime.now().minusDays(Math.max(config.getSnapshotRetentionDays(), 0));
-    Set<GAV> snapshotCandidates = Sets.newHashSet(findSnapshotCandidates(tx, repository, config.getMinimumRetained()));
-    log.info("Processing {} GAVs found with more than minimum {} snapshot versions", snapshotCandidates.size(),
-        config.getMinimumRetained());
+    DateTime gracePeriod = DateTime.now().minusDays(Math.max(config.getGracePeriod(), 0));
+    log.debug("Looking for snapshots created before {} and released snapshots created before {}", olderThan,
+        gracePeriod);
 
     // only interested in the ones where we actually delete something, otherwise we would needlessly regenerate metadata
     Set<GAV> gavsWithDeletions = new HashSet<>();
-
-    long deleted = 0;
-    for (GAV snapshotCandidate : snapshotCandidates) {
-      log.debug("Processing GAV = {}", snapshotCandidate);
-      List<Component> components = Lists.newArrayList(findSnapshots(tx, repository, snapshotCandidate));
-      components.sort((o1, o2) -> version(o2.version()).compareTo(version(o1.version())));
-
-      // always keep this many at least
-      components.subList(0, config.getMinimumRetained()).clear();
-
-      // filter out any components that don't meet time criteria
-      List<Component> toDelete = components.stream()
-          .filter(component -> component.lastUpdated().isBefore(olderThan))
-          .collect(Collectors.toList());
-
-      if (!toDelete.isEmpty()) {
-        gavsWithDeletions.add(snapshotCandidate);
-        for (Component component : toDelete) {
-          log.debug("Deleting component: {}", component);
-          tx.deleteComponent(component);
-          if (++deleted % batchSize == 0) {
-            log.debug("Committing batch delete");
-            tx.commit();
-            tx.begin();
-          }
-        }
-        log.debug("Committing final batch delete");
-        tx.commit();
-        tx.begin();
+    List<Component> toDelete = new ArrayList<>();
+    List<Component> ga = new ArrayList<>();
+    // removals only count once their batch is committed, so rolled back or retried batches are not counted twice
+    AtomicReference<SnapshotPurgeSummary> pending = new AtomicReference<>(new SnapshotPurgeSummary());
+    BatchCommitter batch = new BatchCommitter(tx, batchSize)
+        .onCommit(() -> summary.merge(pending.getAndSet(new SnapshotPurgeSummary())))
+        .onProgress(count -> log.debug("Committed batch delete, {} components deleted so far", count))
+        .onCancellationCheck(CancelableHelper::checkCancellation);
+    // the other repositories are resolved once per run, and only when a release has to be looked up in them
+    Supplier<List<Bucket>> otherBuckets = Suppliers.memoize(() -> findOtherMavenBuckets(tx, repository));
+
+    for (Component component : browseComponents(tx, repository)) {
+      if (!ga.isEmpty() && !sameGA(ga.get(0), component)) {
+        selectSnapshots(config, olderThan, gracePeriod, ga, toDelete, gavsWithDeletions, tx, otherBuckets);
+        ga.clear();
+        deleteComponents(repository, toDelete, batch, tx, pending);
       }
+      ga.add(component);
+    }
+    if (!ga.isEmpty()) {
+      selectSnapshots(config, olderThan, gracePeriod, ga, toDelete, gavsWithDeletions, tx, otherBuckets);
+      deleteComponents(repository, toDelete, batch, tx, pending);
     }
+    batch.commit();
+    long deleted = batch.getCommitted();
 
     log.info("Finished processing snapshots with more than {} versions created before {}", config.getMinimumRetained(),
         olderThan);
@@ -282,46 +218,150 @@ public class RemoveSnapshotsFacetImpl
   }
 
   /**
-   * Find all snapshots in this repository that have an associated release, taking into account the grace period.
+   * Evaluates all components of one GA and adds those to be deleted to {@code toDelete}.
    */
-  private Iterable<Component> findReleasedSnapshots(final StorageTx tx, final Repository repository,
-                                                    final Date gracePeriod)
+  private void selectSnapshots(final RemoveSnapshotsConfig config,
+                               final DateTime olderThan,
+                               final DateTime gracePeriod,
+                               final List<Component> ga,
+                               final List<Component> toDelete,
+                               final Set<GAV> gavsWithDeletions,
+                               final StorageTx tx,
+                               final Supplier<List<Bucket>> otherBuckets)
   {
-    final Bucket bucket = tx.findBucket(repository);
-    final OResultSet<ODocument> result = tx.getDb().command(new OSQLSynchQuery<>(WITH_RELEASES))
-        .execute(AttachedEntityHelper.id(bucket), gracePeriod);
-    return Iterables.transform(result, componentEntityAdapter::readEntity);
+    Map<String, List<Component>> snapshots = new HashMap<>();
+    Set<String> releases = new HashSet<>();
+    for (Component component : ga) {
+      String baseVersion = component.formatAttributes().get(P_BASE_VERSION, String.class);
+      if (baseVersion != null && baseVersion.endsWith(SNAPSHOT)) {
+        snapshots.computeIfAbsent(baseVersion, k -> new ArrayList<>()).add(component);
+      }
+      else {
+        releases.add(component.version());
+      }
+    }
+    if (snapshots.isEmpty()) {
+      return;
+    }
+
+    Component first = ga.get(0);
+    Set<String> otherReleases = null;
+    for (Entry<String, List<Component>> entry : snapshots.entrySet()) {
+      String baseVersion = entry.getKey();
+      List<Component> components = entry.getValue();
+      int selected = 0;
+
+      if (config.getMinimumRetained() != -1 && components.size() > config.getMinimumRetained()) {
+        components.sort((o1, o2) -> version(o2.version()).compareTo(version(o1.version())));
+        // always keep this many at least
+        List<Component> remaining = new ArrayList<>(components.subList(0, config.getMinimumRetained()));
+        for (Component component : components.subList(config.getMinimumRetained(), components.size())) {
+          if (component.lastUpdated().isBefore(olderThan)) {
+            toDelete.add(component);
+            selected++;
+          }
+          else {
+            remaining.add(component);
+          }
+        }
+        components = remaining;
+      }
+
+      if (config.getRemoveIfReleased() && baseVersion.endsWith(SNAPSHOT_SUFFIX)) {
+        List<Component> candidates = new ArrayList<>();
+        for (Component component : components) {
+          if (component.lastUpdated().isBefore(gracePeriod)) {
+            candidates.add(component);
+          }
+        }
+        if (!candidates.isEmpty()) {
+          String release = baseVersion.substring(0, baseVersion.length() - SNAPSHOT_SUFFIX.length());
+          if (!releases.contains(release) && otherReleases == null) {
+            otherReleases = findReleaseVersions(tx, otherBuckets.get(), first.group(), first.name());
+          }
+          if (releases.contains(release) || otherReleases.contains(release)) {
+            log.debug("Snapshots of {}:{}:{} have been released", first.group(), first.name(), baseVersion);
+            toDelete.addAll(candidates);
+            selected += candidates.size();
+          }
+        }
+      }
+
+      if (selected > 0) {
+        gavsWithDeletions.add(new GAV(first.group(), first.name(), baseVersion));
+      }
+    }
   }
 
   /**
-   * Find all snapshots in this repository for the given GAbV.
+   * Deletes the given components through the batch, which commits every {@code batchSize} deletions, and clears the
+   * list. The removed assets and their sizes are recorded in the summary of the pending batch as they are deleted; the
+   * summary is looked up for each component, as it is replaced whenever the batch commits.
    */
-  @VisibleForTesting
-  Iterable<Component> findSnapshots(final StorageTx tx, final Repository repository, final GAV gav)
+  private void deleteComponents(final Repository repository,
+                                final List<Component> toDelete,
+                                final BatchCommitter batch,
+                                final StorageTx tx,
+                                final AtomicReference<SnapshotPurgeSummary> pending)
   {
-    final Bucket bucket = tx.findBucket(repository);
-    final OResultSet<ODocument> result = tx.getDb().command(new OSQLSynchQuery<>(SNAPSHOTS_FOR_GABV))
-        .execute(AttachedEntityHelper.id(bucket), gav.group, gav.name, gav.baseVersion, gav.count);
-    return Iterables.transform(result, componentEntityAdapter::readEntity);
+    for (Component component : toDelete) {
+      log.debug("Deleting component: {}", component);
+      AtomicLong assets = new AtomicLong();
+      AtomicLong bytes = new AtomicLong();
+      tx.deleteComponent(component, asset -> {
+        Long size = asset.size();
+        assets.incrementAndGet();
+        bytes.addAndGet(size != null ? size : 0L);
+      });
+      pending.get().componentRemoved(repository.getName(), assets.get(), bytes.get());
+      batch.increment();
+    }
+    toDelete.clear();
+  }
+
+  private static boolean sameGA(final Component c1, final Component c2) {
+    return Objects.equal(c1.group(), c2.group()) && Objects.equal(c1.name(), c2.name());
   }
 
   /**
-   * Find all GAVs that qualify for deletion.
+   * Streams all components of this repository in (group, name, version) order, reading the index one batch of
+   * entries at a time so the batches of deletions committed meanwhile never run under an open index cursor.
    */
   @VisibleForTesting
-  Iterable<GAV> findSnapshotCandidates(final StorageTx tx, final Repository repository, int minimumCount)
+  Iterable<Component> browseComponents(final StorageTx tx, final Repository repository) {
+    return componentEntityAdapter.browseByBucketOrderedByCoordinates(tx.getDb(), tx.findBucket(repository), batchSize);
+  }
+
+  /**
+   * Find all versions of given GA in the buckets of other maven repositories, using index lookups only.
+   */
+  @VisibleForTesting
+  Set<String> findReleaseVersions(final StorageTx tx,
+                                  final Iterable<Bucket> otherBuckets,
+                                  @Nullable final String group,
+                                  final String name)
   {
-    final Bucket bucket = tx.findBucket(repository);
-    final OResultSet<ODocument> result = tx.getDb().command(new OSQLSynchQuery<>(SNAPSHOTS_WITH_MINIMUM_COUNT))
-        .execute(AttachedEntityHelper.id(bucket), minimumCount);
-    return Iterables.transform(result, (doc) -> {
-          String group = doc.field(P_GROUP, String.class);
-          String name = doc.field(P_NAME, String.class);
-          String baseVersion = doc.field("baseVersion", String.class);
-          Integer count = doc.field("cnt", Integer.class);
-          return new GAV(group, name, baseVersion, count);
-        }
-    );
+    Set<String> versions = new HashSet<>();
+    for (Bucket bucket : otherBuckets) {
+      versions.addAll(componentEntityAdapter.browseVersions(tx.getDb(), bucket, group, name));
+    }
+    return versions;
+  }
+
+  /**
+   * Find the buckets of all maven repositories other than the given one, excluding groups.
+   */
+  @VisibleForTesting
+  List<Bucket> findOtherMavenBuckets(final StorageTx tx, final Repository repository) {
+    List<Repository> repositories = new ArrayList<>();
+    for (Repository candidate : repositoryManager.browse()) {
+      if (!candidate.getName().equals(repository.getName())
+          && !groupType.equals(candidate.getType())
+          && Maven2Format.NAME.equals(candidate.getFormat().getValue())) {
+        repositories.add(candidate);
+      }
+    }
+    return ImmutableList.copyOf(tx.findBuckets(repositories));
   }
 
   /**
@@ -342,13 +382,10 @@ public class RemoveSnapshotsFacetImpl
 
     final String baseVersion;
 
-    final int count;
-
-    public GAV(final String group, final String name, final String baseVersion, final int count) {
+    public GAV(final String group, final String name, final String baseVersion) {
       this.group = group;
       this.name = name;
       this.baseVersion = baseVersion;
-      this.count = count;
     }
 
     @Override
@@ -360,15 +397,14 @@ public class RemoveSnapshotsFacetImpl
         return false;
       }
       GAV gav = (GAV) o;
-      return count == gav.count &&
-          Objects.equal(group, gav.group) &&
+      return Objects.equal(group, gav.group) &&
           Objects.equal(name, gav.name) &&
           Objects.equal(baseVersion, gav.baseVersion);
     }
 
     @Override
     public int hashCode() {
-      return Objects.hashCode(group, name, baseVersion, count);
+      return Objects.hashCode(group, name, baseVersion);
     }
 
     @Override
@@ -377,7 +413,6 @@ public class RemoveSnapshotsFacetImpl
           "group='" + group + '\'' +
           ", name='" + name + '\'' +
           ", baseVersion='" + baseVersion + '\'' +
-          ", count=" + count +
           '}';
     }
   }
@@ -67,7 +67,7 @@ public class ArchetypeCatalogHandler
     MavenFacet mavenFacet = repository.facet(MavenFacet.class);
     Content content = mavenFacet.get(path);
     if (content == null) {
-      // try to generate it
+      // try to generate it, concurrent requests will wait for the same generation
       repository.facet(MavenHostedFacet.class).rebuildArchetypeCatalog();
       content = mavenFacet.get(path);
       if (content == null) {
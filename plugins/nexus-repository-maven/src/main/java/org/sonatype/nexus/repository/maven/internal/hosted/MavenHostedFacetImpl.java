@@ -18,11 +18,18 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
 import javax.annotation.Nullable;
 import javax.inject.Inject;
 import javax.inject.Named;
 
+import org.sonatype.nexus.common.collect.NestedAttributesMap;
 import org.sonatype.nexus.common.entity.EntityBatchEvent;
 import org.sonatype.nexus.common.entity.EntityEvent;
 import org.sonatype.nexus.orient.entity.AttachedEntityHelper;
@@ -31,11 +38,12 @@ import org.sonatype.nexus.repository.config.Configuration;
 import org.sonatype.nexus.repository.maven.MavenFacet;
 import org.sonatype.nexus.repository.maven.MavenHostedFacet;
 import org.sonatype.nexus.repository.maven.MavenPath;
-import org.sonatype.nexus.repository.maven.internal.Attributes;
 import org.sonatype.nexus.repository.maven.internal.Constants;
 import org.sonatype.nexus.repository.maven.internal.MavenFacetUtils;
 import org.sonatype.nexus.repository.maven.internal.MavenModels;
 import org.sonatype.nexus.repository.maven.internal.hosted.metadata.MetadataRebuilder;
+import org.sonatype.nexus.repository.storage.Component;
+import org.sonatype.nexus.repository.storage.ComponentDeletedEvent;
 import org.sonatype.nexus.repository.storage.ComponentEvent;
 import org.sonatype.nexus.repository.storage.StorageFacet;
 import org.sonatype.nexus.repository.storage.StorageTx;
@@ -45,8 +53,9 @@ import org.sonatype.nexus.repository.view.Content;
 import org.sonatype.nexus.repository.view.ContentTypes;
 import org.sonatype.nexus.transaction.UnitOfWork;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Strings;
-import com.google.common.collect.Iterables;
+import com.google.common.base.Throwables;
 import com.google.common.eventbus.AllowConcurrentEvents;
 import com.google.common.eventbus.Subscribe;
 import com.orientechnologies.orient.core.record.impl.ODocument;
@@ -55,9 +64,19 @@ import org.apache.maven.archetype.catalog.ArchetypeCatalog;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.collect.Iterables.transform;
+import static org.sonatype.nexus.repository.maven.internal.Attributes.P_ARTIFACT_ID;
+import static org.sonatype.nexus.repository.maven.internal.Attributes.P_GROUP_ID;
+import static org.sonatype.nexus.repository.maven.internal.Attributes.P_PACKAGING;
+import static org.sonatype.nexus.repository.maven.internal.Attributes.P_POM_DESCRIPTION;
+import static org.sonatype.nexus.repository.maven.internal.Attributes.P_VERSION;
 
 /**
  * A {@link MavenHostedFacet} implementation.
+ * <p/>
+ * The hosted archetype catalog is backed by an in-memory model of the {@code maven-archetype} packaged components,
+ * that is loaded with one component query on first use, and is then kept up to date from {@link ComponentEvent}s.
+ * Changes just invalidate the stored catalog, which is regenerated from the model on next request, and concurrent
+ * regeneration requests share a single in-flight regeneration.
  *
  * @since 3.0
  */
@@ -83,6 +102,18 @@ public class MavenHostedFacetImpl
 
   private MavenPath archetypeCatalogMavenPath;
 
+  /**
+   * Archetypes hosted by this repository keyed by GAV, or {@code null} if not (yet) loaded from the database.
+   */
+  private volatile ConcurrentMap<String, Archetype> archetypes;
+
+  /**
+   * Incremented on every archetype change, to detect changes made while the model is being loaded.
+   */
+  private final AtomicLong archetypeChanges = new AtomicLong();
+
+  private final AtomicReference<CompletableFuture<Integer>> archetypeCatalogRebuild = new AtomicReference<>();
+
   @Inject
   public MavenHostedFacetImpl(final MetadataRebuilder metadataRebuilder)
   {
@@ -111,8 +142,41 @@ public class MavenHostedFacetImpl
 
   @Override
   public int rebuildArchetypeCatalog() throws IOException {
+    CompletableFuture<Integer> rebuild = new CompletableFuture<>();
+    // atomically either join the in-flight rebuild or become it
+    CompletableFuture<Integer> inFlight =
+        archetypeCatalogRebuild.getAndUpdate(current -> current != null ? current : rebuild);
+    if (inFlight != null) {
+      log.debug("Awaiting in-flight hosted archetype catalog rebuild for {}", getRepository().getName());
+      return awaitArchetypeCatalog(inFlight);
+    }
     log.debug("Rebuilding hosted archetype catalog for {}", getRepository().getName());
-    return doRebuildArchetypeCatalog();
+    try {
+      int count = doRebuildArchetypeCatalog();
+      rebuild.complete(count);
+      return count;
+    }
+    catch (Throwable e) {
+      rebuild.completeExceptionally(e);
+      throw e;
+    }
+    finally {
+      archetypeCatalogRebuild.compareAndSet(rebuild, null);
+    }
+  }
+
+  private int awaitArchetypeCatalog(final CompletableFuture<Integer> inFlight) throws IOException {
+    try {
+      return inFlight.get();
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while awaiting archetype catalog", e);
+    }
+    catch (ExecutionException e) {
+      Throwables.propagateIfPossible(e.getCause(), IOException.class);
+      throw new IOException(e.getCause());
+    }
   }
 
   @Override
@@ -128,9 +192,8 @@ public class MavenHostedFacetImpl
     int count = 0;
     try {
       StorageTx tx = UnitOfWork.currentTx();
-      Iterable<Archetype> archetypes = getArchetypes(tx);
       ArchetypeCatalog hostedCatalog = new ArchetypeCatalog();
-      Iterables.addAll(hostedCatalog.getArchetypes(), archetypes);
+      hostedCatalog.getArchetypes().addAll(loadArchetypes(tx).values());
       count = hostedCatalog.getArchetypes().size();
 
       try (Content content = MavenFacetUtils.createTempContent(
@@ -143,11 +206,30 @@ public class MavenHostedFacetImpl
     }
     finally {
       Files.delete(path);
-      
     }
     return count;
   }
 
+  /**
+   * Returns the in-memory archetype model, loading it from the database if needed. The loaded model is retained only
+   * if no archetype change happened while loading it, otherwise it is reloaded on next use.
+   */
+  @VisibleForTesting
+  Map<String, Archetype> loadArchetypes(final StorageTx tx) throws IOException {
+    ConcurrentMap<String, Archetype> result = archetypes;
+    if (result == null) {
+      long changes = archetypeChanges.get();
+      result = new ConcurrentSkipListMap<>();
+      for (Archetype archetype : getArchetypes(tx)) {
+        result.put(archetypeKey(archetype.getGroupId(), archetype.getArtifactId(), archetype.getVersion()), archetype);
+      }
+      if (archetypeChanges.get() == changes) {
+        archetypes = result;
+      }
+    }
+    return result;
+  }
+
   /**
    * Returns the archetypes to publish for a hosted repository, the SELECT result count will be in parity with
    * published records count!
@@ -177,11 +259,8 @@ public class MavenHostedFacetImpl
     for (final EntityEvent event : batchEvent.getEvents()) {
       if (event instanceof ComponentEvent) {
         final ComponentEvent componentEvent = (ComponentEvent) event;
-        if (getRepository().getName().equals(componentEvent.getRepositoryName()) &&
-            MAVEN_ARCHETYPE_PACKAGING.equals(
-                componentEvent.getComponent().formatAttributes().get(Attributes.P_PACKAGING, String.class))) {
-          deleteCatalog = true;
-          break;
+        if (getRepository().getName().equals(componentEvent.getRepositoryName())) {
+          deleteCatalog = updateArchetypes(componentEvent) || deleteCatalog;
         }
       }
     }
@@ -201,4 +280,44 @@ public class MavenHostedFacetImpl
       }
     }
   }
+
+  /**
+   * Applies the component event to the in-memory archetype model, returns {@code true} if the catalog is affected.
+   */
+  @VisibleForTesting
+  boolean updateArchetypes(final ComponentEvent event) {
+    Component component = event.getComponent();
+    NestedAttributesMap attributes = component.formatAttributes();
+    boolean archetype = MAVEN_ARCHETYPE_PACKAGING.equals(attributes.get(P_PACKAGING, String.class));
+    String key = archetypeKey(
+        attributes.get(P_GROUP_ID, String.class),
+        attributes.get(P_ARTIFACT_ID, String.class),
+        attributes.get(P_VERSION, String.class)
+    );
+    Map<String, Archetype> model = archetypes;
+    if (archetype && !(event instanceof ComponentDeletedEvent)) {
+      archetypeChanges.incrementAndGet();
+      if (model != null) {
+        Archetype entry = new Archetype();
+        entry.setGroupId(attributes.get(P_GROUP_ID, String.class));
+        entry.setArtifactId(attributes.get(P_ARTIFACT_ID, String.class));
+        entry.setVersion(attributes.get(P_VERSION, String.class));
+        entry.setDescription(attributes.get(P_POM_DESCRIPTION, String.class));
+        model.put(key, entry);
+      }
+      return true;
+    }
+    else if (archetype || (model != null && model.containsKey(key))) {
+      archetypeChanges.incrementAndGet();
+      if (model != null) {
+        model.remove(key);
+      }
+      return true;
+    }
+    return false;
+  }
+
+  private static String archetypeKey(final String groupId, final String artifactId, final String version) {
+    return groupId + ':' + artifactId + ':' + version;
+  }
 }
@@ -13,9 +13,12 @@
 package org.sonatype.nexus.repository.maven.internal.proxy;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import javax.inject.Inject;
 import javax.inject.Named;
 
 import org.sonatype.nexus.repository.cache.CacheController;
@@ -23,6 +26,8 @@ import org.sonatype.nexus.repository.cache.CacheInfo;
 import org.sonatype.nexus.repository.config.Configuration;
 import org.sonatype.nexus.repository.maven.MavenFacet;
 import org.sonatype.nexus.repository.maven.MavenPath;
+import org.sonatype.nexus.repository.maven.MavenPath.Coordinates;
+import org.sonatype.nexus.repository.maven.MavenPath.HashType;
 import org.sonatype.nexus.repository.maven.internal.Constants;
 import org.sonatype.nexus.repository.maven.LayoutPolicy;
 import org.sonatype.nexus.repository.proxy.ProxyFacetSupport;
@@ -39,14 +44,27 @@ import static org.sonatype.nexus.repository.maven.internal.MavenFacetUtils.findA
 /**
  * Maven specific implementation of {@link ProxyFacetSupport}.
  *
+ * When prefetching is enabled, fetching an artifact for the first time also fetches its SHA1 hash and, for main
+ * artifacts other than the POM, the POM with its SHA1 hash (and optionally the sources JAR of JARs), which Maven
+ * clients request right after.
+ *
  * @since 3.0
  */
 @Named
 public class MavenProxyFacet
     extends ProxyFacetSupport
 {
+  private static final String SOURCES_CLASSIFIER = "sources";
+
+  private final boolean prefetchSources;
+
   private MavenFacet mavenFacet;
 
+  @Inject
+  public MavenProxyFacet(@Named("${nexus.maven.proxy.prefetchSources:-false}") final boolean prefetchSources) {
+    this.prefetchSources = prefetchSources;
+  }
+
   @Override
   protected void doInit(final Configuration configuration) throws Exception {
     super.doInit(configuration);
@@ -73,6 +91,39 @@ public class MavenProxyFacet
     return super.fetch(context, stale);
   }
 
+  @Override
+  protected List<Context> getPrefetchContexts(final Context context) {
+    List<Context> contexts = new ArrayList<>();
+    MavenPath mavenPath = mavenPath(context);
+    Coordinates coordinates = mavenPath.getCoordinates();
+    if (coordinates == null || mavenPath.isSubordinate()) {
+      return contexts;
+    }
+
+    contexts.add(prefetchContext(mavenPath.hash(HashType.SHA1)));
+    // the POM of classified artifacts is usually fetched along with the main artifact already
+    if (coordinates.getClassifier() == null && !mavenPath.isPom()) {
+      MavenPath pom = mavenPath.locatePom();
+      contexts.add(prefetchContext(pom));
+      contexts.add(prefetchContext(pom.hash(HashType.SHA1)));
+      if (prefetchSources && "jar".equals(coordinates.getExtension())) {
+        contexts.add(prefetchContext(mavenPath.locate(coordinates.getExtension(), SOURCES_CLASSIFIER)));
+      }
+    }
+    return contexts;
+  }
+
+  @Override
+  protected Context createPrefetchContext(final String path) {
+    return prefetchContext(mavenFacet.getMavenPathParser().parsePath(path));
+  }
+
+  private Context prefetchContext(final MavenPath mavenPath) {
+    Context context = super.createPrefetchContext("/" + mavenPath.getPath());
+    context.getAttributes().set(MavenPath.class, mavenPath);
+    return context;
+  }
+
   @Override
   protected CacheController getCacheController(@Nonnull final Context context) {
     if (mavenFacet.getMavenPathParser().isRepositoryMetadata(mavenPath(context))) {
@@ -47,4 +47,9 @@ public class PublishMavenIndexTaskDescriptor
         ).includingAnyOfFormats(Maven2Format.NAME).includeAnEntryForAllRepositories()
     );
   }
+
+  @Override
+  public String getResourceClass() {
+    return HEAVY_RESOURCE_CLASS;
+  }
 }
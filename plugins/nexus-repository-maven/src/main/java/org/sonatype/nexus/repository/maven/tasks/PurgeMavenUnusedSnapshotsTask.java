@@ -20,6 +20,7 @@ import org.sonatype.nexus.repository.Repository;
 import org.sonatype.nexus.repository.RepositoryTaskSupport;
 import org.sonatype.nexus.repository.Type;
 import org.sonatype.nexus.repository.maven.PurgeUnusedSnapshotsFacet;
+import org.sonatype.nexus.repository.maven.SnapshotPurgeSummary;
 import org.sonatype.nexus.repository.maven.internal.Maven2Format;
 import org.sonatype.nexus.repository.types.GroupType;
 import org.sonatype.nexus.repository.types.HostedType;
@@ -37,12 +38,16 @@ public class PurgeMavenUnusedSnapshotsTask
 {
   public static final String LAST_USED_FIELD_ID = "lastUsed";
 
+  public static final String MEMBER_CONCURRENCY_FIELD_ID = "memberConcurrency";
+
   private final Type groupType;
 
   private final Type hostedType;
 
   private final Format maven2Format;
 
+  private final SnapshotPurgeSummary summary = new SnapshotPurgeSummary();
+
   @Inject
   public PurgeMavenUnusedSnapshotsTask(@Named(GroupType.NAME) final Type groupType,
                                        @Named(HostedType.NAME) final Type hostedType,
@@ -53,10 +58,18 @@ public class PurgeMavenUnusedSnapshotsTask
     this.maven2Format = checkNotNull(maven2Format);
   }
 
+  @Override
+  protected Object execute() throws Exception {
+    super.execute();
+    log.info("Purged unused snapshots: {}", summary);
+    return summary;
+  }
+
   @Override
   protected void execute(final Repository repository) {
-    repository.facet(PurgeUnusedSnapshotsFacet.class)
-        .purgeUnusedSnapshots(getConfiguration().getInteger(LAST_USED_FIELD_ID, -1));
+    summary.merge(repository.facet(PurgeUnusedSnapshotsFacet.class).purgeUnusedSnapshots(
+        getConfiguration().getInteger(LAST_USED_FIELD_ID, -1),
+        getConfiguration().getInteger(MEMBER_CONCURRENCY_FIELD_ID, 1)));
   }
 
   @Override
@@ -23,6 +23,7 @@ import org.sonatype.nexus.scheduling.TaskDescriptorSupport;
 
 import static org.sonatype.nexus.repository.RepositoryTaskSupport.REPOSITORY_NAME_FIELD_ID;
 import static org.sonatype.nexus.repository.maven.tasks.PurgeMavenUnusedSnapshotsTask.LAST_USED_FIELD_ID;
+import static org.sonatype.nexus.repository.maven.tasks.PurgeMavenUnusedSnapshotsTask.MEMBER_CONCURRENCY_FIELD_ID;
 
 /**
  * Task descriptor for {@link PurgeMavenUnusedSnapshotsTask}.
@@ -53,7 +54,13 @@ public class PurgeMavenUnusedSnapshotsTaskDescriptor
             "Last used in days",
             "Purge all snapshots that were last used before given number of days",
             FormField.MANDATORY
-        )
+        ),
+        new NumberTextFormField(
+            MEMBER_CONCURRENCY_FIELD_ID,
+            "Group member concurrency",
+            "The number of group members to purge unused snapshot versions from in parallel",
+            FormField.OPTIONAL
+        ).withInitialValue(1).withMinimumValue(1)
     );
   }
 }
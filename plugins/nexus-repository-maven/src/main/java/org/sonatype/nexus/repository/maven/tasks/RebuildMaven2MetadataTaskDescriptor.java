@@ -87,4 +87,9 @@ public class RebuildMaven2MetadataTaskDescriptor
         ).withInitialValue(false)
     );
   }
+
+  @Override
+  public String getResourceClass() {
+    return HEAVY_RESOURCE_CLASS;
+  }
 }
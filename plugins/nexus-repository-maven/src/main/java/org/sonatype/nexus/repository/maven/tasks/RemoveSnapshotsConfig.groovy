@@ -42,4 +42,11 @@ class RemoveSnapshotsConfig
    * An optional period to keep snapshots around, even if a release version of the same artifact is available.
    */
   int gracePeriod;
+
+  /**
+   * The number of group members to process in parallel, members are processed one after another if 1 or less.
+   *
+   * @since 3.3
+   */
+  int memberConcurrency;
 }
@@ -20,12 +20,14 @@ import org.sonatype.nexus.repository.Repository;
 import org.sonatype.nexus.repository.RepositoryTaskSupport;
 import org.sonatype.nexus.repository.maven.MavenFacet;
 import org.sonatype.nexus.repository.maven.RemoveSnapshotsFacet;
+import org.sonatype.nexus.repository.maven.SnapshotPurgeSummary;
 import org.sonatype.nexus.repository.maven.VersionPolicy;
 import org.sonatype.nexus.repository.maven.internal.Maven2Format;
 import org.sonatype.nexus.scheduling.TaskConfiguration;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 import static org.sonatype.nexus.repository.maven.tasks.RemoveSnapshotsTaskDescriptor.GRACE_PERIOD;
+import static org.sonatype.nexus.repository.maven.tasks.RemoveSnapshotsTaskDescriptor.MEMBER_CONCURRENCY;
 import static org.sonatype.nexus.repository.maven.tasks.RemoveSnapshotsTaskDescriptor.MINIMUM_SNAPSHOT_RETAINED_COUNT;
 import static org.sonatype.nexus.repository.maven.tasks.RemoveSnapshotsTaskDescriptor.REMOVE_IF_RELEASED;
 import static org.sonatype.nexus.repository.maven.tasks.RemoveSnapshotsTaskDescriptor.SNAPSHOT_RETENTION_DAYS;
@@ -39,6 +41,8 @@ public class RemoveSnapshotsTask
     extends RepositoryTaskSupport
 {
   private final Format maven2Format;
+
+  private final SnapshotPurgeSummary summary = new SnapshotPurgeSummary();
   
   @Inject
   public RemoveSnapshotsTask(@Named(Maven2Format.NAME) final Format maven2Format)
@@ -46,6 +50,13 @@ public class RemoveSnapshotsTask
     this.maven2Format = checkNotNull(maven2Format);
   }
   
+  @Override
+  protected Object execute() throws Exception {
+    super.execute();
+    log.info("Removed snapshots: {}", summary);
+    return summary;
+  }
+
   @Override
   protected void execute(final Repository repository) {
     log.info("Executing removal of snapshots on repository: {}", repository);
@@ -54,8 +65,9 @@ public class RemoveSnapshotsTask
         config.getInteger(MINIMUM_SNAPSHOT_RETAINED_COUNT, 1),
         config.getInteger(SNAPSHOT_RETENTION_DAYS, 30),
         config.getBoolean(REMOVE_IF_RELEASED, false),
-        config.getInteger(GRACE_PERIOD, -1));
-    repository.facet(RemoveSnapshotsFacet.class).removeSnapshots(removeSnapshotsConfig);
+        config.getInteger(GRACE_PERIOD, -1),
+        config.getInteger(MEMBER_CONCURRENCY, 1));
+    summary.merge(repository.facet(RemoveSnapshotsFacet.class).removeSnapshots(removeSnapshotsConfig));
   }
 
   @Override
@@ -42,6 +42,8 @@ public class RemoveSnapshotsTaskDescriptor
   public static final String REMOVE_IF_RELEASED = "removeIfReleased";
   
   public static final String GRACE_PERIOD = "gracePeriodInDays";
+
+  public static final String MEMBER_CONCURRENCY = "memberConcurrency";
   
   public RemoveSnapshotsTaskDescriptor()
   {
@@ -70,6 +72,10 @@ public class RemoveSnapshotsTaskDescriptor
         new NumberTextFormField(GRACE_PERIOD,
             "Grace period after release (days)",
             "The grace period during which snapshots with an associated release will not be purged.",
-            false).withMinimumValue(0));
+            false).withMinimumValue(0),
+        new NumberTextFormField(MEMBER_CONCURRENCY,
+            "Group member concurrency",
+            "The number of group members to remove snapshots from in parallel.",
+            false).withInitialValue(1).withMinimumValue(1));
   }
 }
@@ -0,0 +1,65 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2008-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.repository.maven.internal;
+
+import org.sonatype.goodies.testsupport.TestSupport;
+
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+
+/**
+ * UT for {@link FingerprintSet}
+ */
+public class FingerprintSetTest
+    extends TestSupport
+{
+  @Test
+  public void addReportsUniqueness() {
+    FingerprintSet set = new FingerprintSet();
+    assertThat(set.add("org.foo", "bar", "1.0", "n/a", "jar"), is(true));
+    assertThat(set.add("org.foo", "bar", "1.0", "n/a", "jar"), is(false));
+    assertThat(set.add("org.foo", "bar", "1.0", "sources", "jar"), is(true));
+    assertThat(set.add("org.foo", "bar", "1.0", "n/a", "pom"), is(true));
+    assertThat(set.size(), equalTo(3));
+  }
+
+  @Test
+  public void compositeKeyBoundariesAreRespected() {
+    assertThat(FingerprintSet.fingerprint("ab", "c"), not(equalTo(FingerprintSet.fingerprint("a", "bc"))));
+    assertThat(FingerprintSet.fingerprint("a", null), not(equalTo(FingerprintSet.fingerprint("a", ""))));
+  }
+
+  @Test
+  public void zeroFingerprintIsStored() {
+    FingerprintSet set = new FingerprintSet(0);
+    assertThat(set.add(0L), is(true));
+    assertThat(set.add(0L), is(false));
+    assertThat(set.size(), equalTo(1));
+  }
+
+  @Test
+  public void growsBeyondInitialCapacity() {
+    FingerprintSet set = new FingerprintSet(4);
+    for (int i = 0; i < 100_000; i++) {
+      assertThat(set.add("g" + (i % 100), "a" + i, "1.0", "n/a", "jar"), is(true));
+    }
+    for (int i = 0; i < 100_000; i++) {
+      assertThat(set.add("g" + (i % 100), "a" + i, "1.0", "n/a", "jar"), is(false));
+    }
+    assertThat(set.size(), equalTo(100_000));
+  }
+}
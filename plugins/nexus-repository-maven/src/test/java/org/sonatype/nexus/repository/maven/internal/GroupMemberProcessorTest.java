@@ -0,0 +1,160 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2008-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.repository.maven.internal;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.sonatype.goodies.common.MultipleFailures.MultipleFailuresException;
+import org.sonatype.goodies.testsupport.TestSupport;
+import org.sonatype.nexus.repository.Repository;
+import org.sonatype.nexus.repository.maven.SnapshotPurgeSummary;
+import org.sonatype.nexus.scheduling.CancelableHelper;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import org.apache.shiro.mgt.DefaultSecurityManager;
+import org.apache.shiro.subject.Subject;
+import org.apache.shiro.util.ThreadContext;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * UT for {@link GroupMemberProcessor}
+ */
+public class GroupMemberProcessorTest
+    extends TestSupport
+{
+  private List<Repository> members;
+
+  @Before
+  public void setUp() {
+    ThreadContext.bind(new Subject.Builder(new DefaultSecurityManager()).buildSubject());
+    members = ImmutableList.of(repository("a"), repository("b"), repository("c"));
+  }
+
+  @After
+  public void tearDown() {
+    ThreadContext.remove();
+    CancelableHelper.remove();
+  }
+
+  @Test
+  public void sequentialProcessingUsesCallingThread() {
+    Thread caller = Thread.currentThread();
+    SnapshotPurgeSummary summary = GroupMemberProcessor.process("group", members, 1, member -> {
+      assertThat(Thread.currentThread(), equalTo(caller));
+      return removed(member, 2, 10L);
+    });
+    assertThat(summary.getComponents(), equalTo(3L));
+    assertThat(summary.getAssets(), equalTo(6L));
+    assertThat(summary.getBytes(), equalTo(30L));
+  }
+
+  @Test
+  public void parallelProcessingAggregatesSummaries() {
+    CountDownLatch latch = new CountDownLatch(members.size());
+    Set<Thread> threads = ConcurrentHashMap.newKeySet();
+    SnapshotPurgeSummary summary = GroupMemberProcessor.process("group", members, members.size(), member -> {
+      threads.add(Thread.currentThread());
+      latch.countDown();
+      try {
+        // all members must be in flight at the same time
+        assertThat(latch.await(10, TimeUnit.SECONDS), equalTo(true));
+      }
+      catch (InterruptedException e) {
+        throw new RuntimeException(e);
+      }
+      return removed(member, 1, 5L);
+    });
+    assertThat(threads, hasSize(members.size()));
+    assertThat(summary.getRepositories().keySet(), equalTo(ImmutableSet.of("a", "b", "c")));
+    assertThat(summary.getBytes(), equalTo(15L));
+  }
+
+  @Test
+  public void parallelMembersShareTheCancelFlagOfTheCaller() {
+    AtomicBoolean canceledFlag = new AtomicBoolean();
+    CancelableHelper.set(canceledFlag);
+    Set<String> processed = ConcurrentHashMap.newKeySet();
+    try {
+      GroupMemberProcessor.process("group", members, 2, member -> {
+        assertThat(CancelableHelper.get(), equalTo(canceledFlag));
+        processed.add(member.getName());
+        canceledFlag.set(true);
+        CancelableHelper.checkCancellation();
+        return removed(member, 1, 1L);
+      });
+      fail();
+    }
+    catch (RuntimeException e) {
+      assertThat(e.getCause(), instanceOf(MultipleFailuresException.class));
+    }
+    // members still waiting for a thread are not started once canceled
+    assertThat(processed.size() < members.size(), equalTo(true));
+  }
+
+  @Test
+  public void failuresOfMembersArePropagatedAfterAllMembersRan() {
+    assertFailuresArePropagatedAfterAllMembersRan(2);
+  }
+
+  @Test
+  public void sequentialFailuresOfMembersArePropagatedAfterAllMembersRan() {
+    assertFailuresArePropagatedAfterAllMembersRan(1);
+  }
+
+  private void assertFailuresArePropagatedAfterAllMembersRan(final int concurrency) {
+    Set<String> processed = ConcurrentHashMap.newKeySet();
+    try {
+      GroupMemberProcessor.process("group", members, concurrency, member -> {
+        processed.add(member.getName());
+        if ("b".equals(member.getName())) {
+          throw new IllegalStateException("boom");
+        }
+        return removed(member, 1, 1L);
+      });
+      fail();
+    }
+    catch (RuntimeException e) {
+      assertThat(e.getMessage(), containsString("group"));
+    }
+    assertThat(processed, hasSize(members.size()));
+  }
+
+  private static SnapshotPurgeSummary removed(final Repository member, final long assets, final long bytes) {
+    SnapshotPurgeSummary summary = new SnapshotPurgeSummary();
+    summary.componentRemoved(member.getName(), assets, bytes);
+    return summary;
+  }
+
+  private static Repository repository(final String name) {
+    Repository repository = mock(Repository.class);
+    when(repository.getName()).thenReturn(name);
+    return repository;
+  }
+}
@@ -0,0 +1,207 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2008-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.repository.maven.internal;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+
+import org.sonatype.goodies.common.Time;
+import org.sonatype.goodies.testsupport.TestSupport;
+import org.sonatype.nexus.common.collect.NestedAttributesMap;
+import org.sonatype.nexus.common.hash.HashAlgorithm;
+import org.sonatype.nexus.repository.InvalidContentException;
+import org.sonatype.nexus.repository.Repository;
+import org.sonatype.nexus.repository.maven.MavenPath;
+import org.sonatype.nexus.repository.maven.MavenPath.HashType;
+import org.sonatype.nexus.repository.maven.MavenPathParser;
+import org.sonatype.nexus.repository.storage.Asset;
+import org.sonatype.nexus.repository.storage.AssetEvent;
+import org.sonatype.nexus.repository.storage.Bucket;
+import org.sonatype.nexus.repository.storage.StorageTx;
+import org.sonatype.nexus.repository.types.HostedType;
+import org.sonatype.nexus.repository.view.Content;
+import org.sonatype.nexus.repository.view.payloads.StringPayload;
+import org.sonatype.nexus.transaction.UnitOfWork;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.io.ByteStreams;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.CALLS_REAL_METHODS;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.sonatype.nexus.repository.storage.AssetEntityAdapter.P_NAME;
+
+/**
+ * Tests for {@link MavenFacetImpl} answering hash requests from main asset checksums.
+ */
+public class MavenFacetImplTest
+    extends TestSupport
+{
+  private static final String REPOSITORY_NAME = "maven-releases";
+
+  private static final String JAR_PATH = "org/example/foo/1.0/foo-1.0.jar";
+
+  private static final String OLD_SHA1 = "0123456789abcdef0123456789abcdef01234567";
+
+  private static final String NEW_SHA1 = "76543210fedcba9876543210fedcba9876543210";
+
+  @Mock
+  private Repository repository;
+
+  @Mock
+  private StorageTx tx;
+
+  @Mock
+  private Bucket bucket;
+
+  private final MavenPathParser mavenPathParser = new Maven2MavenPathParser();
+
+  private MavenFacetImpl underTest;
+
+  @Before
+  public void setUp() throws Exception {
+    HostedType hostedType = new HostedType();
+    when(repository.getName()).thenReturn(REPOSITORY_NAME);
+    when(repository.getType()).thenReturn(hostedType);
+    when(repository.getFormat()).thenReturn(new Maven2Format());
+    when(tx.findBucket(repository)).thenReturn(bucket);
+
+    underTest = new MavenFacetImpl(ImmutableMap.of(Maven2Format.NAME, mavenPathParser), hostedType, true, 100,
+        Time.hours(1), true);
+    underTest.attach(repository);
+
+    UnitOfWork.beginBatch(tx);
+  }
+
+  @After
+  public void tearDown() {
+    UnitOfWork.end();
+  }
+
+  @Test
+  public void hashIsReadFromMainAssetChecksum() throws Exception {
+    Asset jar = jar(OLD_SHA1);
+    doReturn(jar).when(tx).findAssetWithProperty(P_NAME, JAR_PATH, bucket);
+
+    assertThat(read(underTest.get(sha1Path())), equalTo(OLD_SHA1));
+    assertThat(read(underTest.get(sha1Path())), equalTo(OLD_SHA1));
+
+    // second request answered from cache
+    verify(tx, times(1)).findAssetWithProperty(P_NAME, JAR_PATH, bucket);
+  }
+
+  @Test
+  public void putOfMatchingHashIsSkipped() throws Exception {
+    Asset jar = jar(OLD_SHA1);
+    doReturn(jar).when(tx).findAssetWithProperty(P_NAME, JAR_PATH, bucket);
+
+    // hash files may carry the file name after the hash, and upper case digits
+    Content content = underTest.put(sha1Path(), new StringPayload(OLD_SHA1.toUpperCase() + "  foo-1.0.jar\n",
+        Constants.CHECKSUM_CONTENT_TYPE));
+
+    assertThat(read(content), equalTo(OLD_SHA1));
+    verify(tx, times(1)).findAssetWithProperty(P_NAME, JAR_PATH, bucket);
+  }
+
+  @Test(expected = InvalidContentException.class)
+  public void putOfMismatchingHashIsRejected() throws Exception {
+    Asset jar = jar(OLD_SHA1);
+    doReturn(jar).when(tx).findAssetWithProperty(P_NAME, JAR_PATH, bucket);
+
+    underTest.put(sha1Path(), new StringPayload(NEW_SHA1, Constants.CHECKSUM_CONTENT_TYPE));
+  }
+
+  @Test
+  public void assetEventInvalidatesCachedChecksums() throws Exception {
+    Asset oldJar = jar(OLD_SHA1);
+    Asset newJar = jar(NEW_SHA1);
+    when(tx.findAssetWithProperty(P_NAME, JAR_PATH, bucket)).thenReturn(oldJar, newJar);
+
+    assertThat(read(underTest.get(sha1Path())), equalTo(OLD_SHA1));
+
+    // main asset overwritten, event posted once committed
+    underTest.on(assetEvent());
+
+    assertThat(read(underTest.get(sha1Path())), equalTo(NEW_SHA1));
+  }
+
+  @Test
+  public void assetEventDuringLoadDoesNotLeaveStaleChecksums() throws Exception {
+    Asset oldJar = jar(OLD_SHA1);
+    Asset newJar = jar(NEW_SHA1);
+    AssetEvent event = assetEvent();
+    when(tx.findAssetWithProperty(P_NAME, JAR_PATH, bucket)).thenAnswer(invocation -> {
+      // main asset overwritten and committed while its previous version is being read
+      underTest.on(event);
+      return oldJar;
+    }).thenReturn(newJar);
+
+    assertThat(read(underTest.get(sha1Path())), equalTo(OLD_SHA1));
+    assertThat(read(underTest.get(sha1Path())), equalTo(NEW_SHA1));
+  }
+
+  @Test
+  public void assetEventOfOtherRepositoryIsIgnored() throws Exception {
+    Asset jar = jar(OLD_SHA1);
+    doReturn(jar).when(tx).findAssetWithProperty(anyString(), any(), eq(bucket));
+    AssetEvent event = assetEvent();
+    when(event.getRepositoryName()).thenReturn("other");
+
+    underTest.get(sha1Path());
+    underTest.on(event);
+    underTest.get(sha1Path());
+
+    verify(tx, times(1)).findAssetWithProperty(P_NAME, JAR_PATH, bucket);
+  }
+
+  private MavenPath sha1Path() {
+    return mavenPathParser.parsePath(JAR_PATH).hash(HashType.SHA1);
+  }
+
+  private static Asset jar(final String sha1) {
+    Asset asset = mock(Asset.class, CALLS_REAL_METHODS);
+    NestedAttributesMap attributes = new NestedAttributesMap("attributes", new HashMap<>());
+    attributes.child("checksum").set(HashAlgorithm.SHA1.name(), sha1);
+    doReturn(attributes).when(asset).attributes();
+    return asset;
+  }
+
+  private static AssetEvent assetEvent() {
+    Asset asset = mock(Asset.class);
+    when(asset.name()).thenReturn(JAR_PATH);
+    AssetEvent event = mock(AssetEvent.class);
+    when(event.getRepositoryName()).thenReturn(REPOSITORY_NAME);
+    when(event.getAsset()).thenReturn(asset);
+    return event;
+  }
+
+  private static String read(final Content content) throws IOException {
+    try (InputStream in = content.openInputStream()) {
+      return new String(ByteStreams.toByteArray(in), UTF_8);
+    }
+  }
+}
@@ -12,7 +12,12 @@
  */
 package org.sonatype.nexus.repository.maven.internal
 
+import org.sonatype.nexus.common.collect.NestedAttributesMap
+import org.sonatype.nexus.repository.Repository
+import org.sonatype.nexus.repository.manager.RepositoryManager
+import org.sonatype.nexus.repository.maven.SnapshotPurgeSummary
 import org.sonatype.nexus.repository.maven.tasks.RemoveSnapshotsConfig
+import org.sonatype.nexus.repository.storage.Asset
 import org.sonatype.nexus.repository.storage.Component
 import org.sonatype.nexus.repository.storage.ComponentEntityAdapter
 import org.sonatype.nexus.repository.storage.StorageTx
@@ -23,18 +28,26 @@ import spock.lang.Specification
 import spock.lang.Subject
 import spock.lang.Unroll
 
+import static org.sonatype.nexus.repository.maven.internal.Attributes.P_BASE_VERSION
 import static org.sonatype.nexus.repository.maven.internal.RemoveSnapshotsFacetImpl.GAV
+import static org.sonatype.nexus.repository.storage.MetadataNodeEntityAdapter.P_ATTRIBUTES
 
 class RemoveSnapshotsFacetImplTest
     extends Specification
 {
+  RepositoryManager repositoryManager = Mock()
+
   ComponentEntityAdapter componentEntityAdapter = Mock()
 
   StorageTx tx = Mock()
 
+  Repository repository = Mock()
+
+  SnapshotPurgeSummary summary = new SnapshotPurgeSummary()
+
   @Subject
   RemoveSnapshotsFacetImpl removeSnapshotsFacet =
-      Spy(RemoveSnapshotsFacetImpl, constructorArgs: [componentEntityAdapter, new GroupType(), 500])
+      Spy(RemoveSnapshotsFacetImpl, constructorArgs: [repositoryManager, componentEntityAdapter, new GroupType(), 500])
 
   /**
    * Test which GAVs are marked for future processing based on the deletion of Components.
@@ -42,73 +55,154 @@ class RemoveSnapshotsFacetImplTest
   @Unroll
   def "#desc"() {
     when: 'Processing snapshots'
-      def gavs = removeSnapshotsFacet.processSnapshots(null, config, tx)
+      def gavs = removeSnapshotsFacet.processSnapshots(repository, config, tx, summary)
 
     then: 'Only affected GAVs are returned for further processing'
       // stubbing out Spy internal methods here to avoid need to overly mock data layer
-      removeSnapshotsFacet.findSnapshotCandidates(_, _, _) >> candidates
-      removeSnapshotsFacet.findSnapshots(_, _, _) >> comps
+      removeSnapshotsFacet.browseComponents(_, _) >> comps
       gavs == expected
-      1 * removeSnapshotsFacet.processSnapshots(_, _, _)
-      dels * tx.deleteComponent(_)
+      1 * removeSnapshotsFacet.processSnapshots(_, _, _, _)
+      dels * tx.deleteComponent(_, _)
       commits * tx.commit()
       commits * tx.begin()
+      _ * repository.getName() >> 'maven-snapshots'
+      summary.components == dels
       0 * _  // no other interactions on Mocks/Spies
 
     where:
       // @formatter:off
-      config | candidates | comps || expected | dels | commits | desc
-      config() | []         | []                                              || [] as HashSet | 0 | 0 | 'No candidate snaphshots should result in no GAVs with deletions'
-      config() | [gav()]    | [component()]                                   || [] as HashSet | 0 | 0 | 'Not enough candidate snapshots should result in no GAVs deleted'
-      config() | [gav(2)]   | [component(), component('1.0-20161110.233023')] || [gav(2)] as HashSet | 1 | 1 | 'If available candidate qualifies (based on lastUpdated) we should see deletions'
-      config(1, 1, false, 0) | [gav(2)]   | [component(), component('1.0-20161110.233023')] || [] as HashSet | 0 | 0 | 'If available candidates are disqualified (based on lastUpdated) we should see no deletions'
-      config() | [gav(501)] | components(501)                                 || [gav(501)] as HashSet | 500 | 2 | 'More than 500 results should require more than one commit'
-      // @formatter:on 
+      config | comps || expected | dels | commits | desc
+      config() | []                                              || [] as HashSet | 0 | 0 | 'No candidate snaphshots should result in no GAVs with deletions'
+      config() | [component()]                                   || [] as HashSet | 0 | 0 | 'Not enough candidate snapshots should result in no GAVs deleted'
+      config() | [component(), component('1.0-20161110.233023')] || [gav()] as HashSet | 1 | 1 | 'If available candidate qualifies (based on lastUpdated) we should see deletions'
+      config(1, 1, false, 0) | [component(), component('1.0-20161110.233023')] || [] as HashSet | 0 | 0 | 'If available candidates are disqualified (based on lastUpdated) we should see no deletions'
+      config() | components(501)                                 || [gav()] as HashSet | 500 | 1 | 'Batch size deletions should fit in one commit'
+      config() | components(502)                                 || [gav()] as HashSet | 501 | 2 | 'More than 500 deletions should require more than one commit'
+      config() | [component(), component('1.0-20161110.233023', 'a', 'c')] || [] as HashSet | 0 | 0 | 'Snapshots of different GAs are counted separately'
+      config(-1, 0, true, 0) | [component('1.0'), component()] || [gav()] as HashSet | 1 | 1 | 'Snapshots released in the same repository are deleted'
+      config(-1, 0, true, 1) | [component('1.0'), component()] || [] as HashSet | 0 | 0 | 'Released snapshots within grace period are kept'
+      // @formatter:on
   }
-  
-  def 'Number of commits are based on batch size and number of GAVs'() {
+
+  def 'Snapshots released in other repositories are deleted'() {
+    when: 'Processing released snapshots'
+      def gavs = removeSnapshotsFacet.processSnapshots(repository, config(-1, 0, true, 0), tx, summary)
+
+    then: 'The other repositories are resolved once, and the release is looked up once per GA in them'
+      removeSnapshotsFacet.browseComponents(_, _) >>
+          [component(), component('1.1-20160101.000000'), component(), component('1.0-20160101.000000', 'a', 'c')]
+      1 * removeSnapshotsFacet.findOtherMavenBuckets(tx, repository) >> []
+      1 * removeSnapshotsFacet.findReleaseVersions(_, _, 'a', 'b') >> (['1.0'] as Set)
+      1 * removeSnapshotsFacet.findReleaseVersions(_, _, 'a', 'c') >> ([] as Set)
+      gavs == [gav()] as HashSet
+      repository.getName() >> 'maven-snapshots'
+      2 * tx.deleteComponent(_, _)
+      1 * tx.commit()
+      1 * tx.begin()
+  }
+
+  def 'Removed assets and their sizes are summarized per repository'() {
+    when: 'Processing snapshots'
+      removeSnapshotsFacet.processSnapshots(repository, config(), tx, summary)
+
+    then: 'The assets of deleted components are counted as they are deleted'
+      removeSnapshotsFacet.browseComponents(_, _) >> components(3)
+      repository.getName() >> 'maven-snapshots'
+      2 * tx.deleteComponent(_, _) >> { component, deletedAssets ->
+        [new Asset().size(100L), new Asset().size(20L), new Asset()].each { deletedAssets.accept(it) }
+      }
+      0 * tx.browseAssets(_)
+      summary.components == 2
+      summary.assets == 6
+      summary.bytes == 240
+      summary.repositories.keySet() == ['maven-snapshots'] as Set
+  }
+
+  def 'Removals of batches which fail to commit are not summarized'() {
     given: 'A facet configured with a specific batch size'
       RemoveSnapshotsFacetImpl facet =
-          Spy(RemoveSnapshotsFacetImpl, constructorArgs: [componentEntityAdapter, new GroupType(), 2])
-      def candidates = [gav(3), gav(4), gav(5)]
-      def components = [components(3), components(4), components(5)]
-      def expectedDeleteCount = candidates.sum { it.count - 1 }
-      def expectedCommitCount = Math.floor(expectedDeleteCount) / 2 + candidates.size()
-    
+          Spy(RemoveSnapshotsFacetImpl, constructorArgs: [repositoryManager, componentEntityAdapter, new GroupType(), 2])
+
+    when: 'The second batch fails to commit'
+      facet.processSnapshots(repository, config(), tx, summary)
+
+    then: 'Only the committed batch is counted'
+      facet.browseComponents(_, _) >> components(5)
+      repository.getName() >> 'maven-snapshots'
+      4 * tx.deleteComponent(_, _) >> { component, deletedAssets -> deletedAssets.accept(new Asset().size(10L)) }
+      2 * tx.commit() >>> [null] >> { throw new IllegalStateException('commit failed') }
+      thrown(IllegalStateException)
+      summary.components == 2
+      summary.assets == 2
+      summary.bytes == 20
+  }
+
+  def 'Removals of a GA spanning several batches are all summarized'() {
+    given: 'A facet configured with a batch size smaller than the deletions of one GA'
+      RemoveSnapshotsFacetImpl facet =
+          Spy(RemoveSnapshotsFacetImpl, constructorArgs: [repositoryManager, componentEntityAdapter, new GroupType(), 2])
+
+    when: 'Processing snapshots'
+      facet.processSnapshots(repository, config(), tx, summary)
+
+    then: 'The removals of every committed batch are counted'
+      facet.browseComponents(_, _) >> components(6)
+      repository.getName() >> 'maven-snapshots'
+      5 * tx.deleteComponent(_, _) >> { component, deletedAssets -> deletedAssets.accept(new Asset().size(10L)) }
+      3 * tx.commit()
+      summary.components == 5
+      summary.assets == 5
+      summary.bytes == 50
+  }
+
+  def 'Number of commits are based on batch size'() {
+    given: 'A facet configured with a specific batch size'
+      RemoveSnapshotsFacetImpl facet =
+          Spy(RemoveSnapshotsFacetImpl, constructorArgs: [repositoryManager, componentEntityAdapter, new GroupType(), 2])
+      def components = components(3, 'a') + components(4, 'b') + components(5, 'c')
+      def expectedDeleteCount = 2 + 3 + 4
+      def expectedCommitCount = Math.ceil(expectedDeleteCount / 2)
+
     when: 'When triggered with multiple GAVs'
-      def gavs = facet.processSnapshots(null, config(), tx)
+      def gavs = facet.processSnapshots(repository, config(), tx, summary)
 
-    then: 'We expect a commit per GAV and 1 commit each time "batchSize" records are deleted'
+    then: 'We expect a commit each time "batchSize" records are deleted, and one for the remainder'
       // stubbing out Spy internal methods here to avoid need to overly mock data layer
-      facet.findSnapshotCandidates(_, _, _) >> candidates
-      facet.findSnapshots(_, _, _) >> components[0] >> components[1] >> components[2]
-      1 * facet.processSnapshots(_, _, _)
-      gavs == candidates as HashSet
-      candidates.sum { it.count - 1 } * tx.deleteComponent(_) // leave one per GAV
-      expectedCommitCount * tx.commit() // 1 commit/begin per involved GAV + 1 for every 2 deletions 
+      facet.browseComponents(_, _) >> components
+      1 * facet.processSnapshots(_, _, _, _)
+      gavs == [gav('1.0-SNAPSHOT', 'a'), gav('1.0-SNAPSHOT', 'b'), gav('1.0-SNAPSHOT', 'c')] as HashSet
+      expectedDeleteCount * tx.deleteComponent(_, _) // leave one per GAV
+      expectedCommitCount * tx.commit()
       expectedCommitCount * tx.begin()
+      _ * repository.getName() >> 'maven-snapshots'
       0 * _  // no other interactions on Mocks/Spies
   }
 
-  def components(final int i) {
+  def components(final int i, String group = 'a') {
     def results = []
     i.times {
-      results << component()
+      results << component(String.format('1.0-20160101.000000-%d', it + 1), group)
     }
     results
   }
 
-  GAV gav(int count = 1, String baseVersion = '1.0', String group = 'a', String name = 'b') {
-    new GAV(group, name, baseVersion, count)
+  GAV gav(String baseVersion = '1.0-SNAPSHOT', String group = 'a', String name = 'b') {
+    new GAV(group, name, baseVersion)
   }
 
   Component component(String version = '1.0-20160101.000000', String group = 'a', String name = 'b') {
-    new Component(group: group, version: version).name(name).lastUpdated(DateTime.now())
+    def component = new Component(group: group, version: version).name(name).format(Maven2Format.NAME)
+        .lastUpdated(DateTime.now().minusMinutes(1))
+    component.attributes(new NestedAttributesMap(P_ATTRIBUTES, [:]))
+    if (version.contains('-')) {
+      component.formatAttributes().set(P_BASE_VERSION, version.substring(0, version.indexOf('-')) + '-SNAPSHOT')
+    }
+    component
   }
 
   RemoveSnapshotsConfig config(int minimumRetained = 1, int snapshotRetentionDays = 0, boolean removeIfReleased = false,
                                int gracePeriod = 0)
   {
-    new RemoveSnapshotsConfig(minimumRetained, snapshotRetentionDays, removeIfReleased, gracePeriod)
+    new RemoveSnapshotsConfig(minimumRetained, snapshotRetentionDays, removeIfReleased, gracePeriod, 1)
   }
 }
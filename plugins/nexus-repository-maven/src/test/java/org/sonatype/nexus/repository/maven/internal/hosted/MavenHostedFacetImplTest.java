@@ -0,0 +1,208 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2008-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.repository.maven.internal.hosted;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.sonatype.goodies.testsupport.TestSupport;
+import org.sonatype.nexus.common.collect.NestedAttributesMap;
+import org.sonatype.nexus.repository.Repository;
+import org.sonatype.nexus.repository.maven.internal.hosted.metadata.MetadataRebuilder;
+import org.sonatype.nexus.repository.storage.Component;
+import org.sonatype.nexus.repository.storage.ComponentCreatedEvent;
+import org.sonatype.nexus.repository.storage.ComponentDeletedEvent;
+import org.sonatype.nexus.repository.storage.ComponentEvent;
+import org.sonatype.nexus.repository.storage.StorageTx;
+
+import com.google.common.collect.ImmutableList;
+import org.apache.maven.archetype.catalog.Archetype;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.sonatype.nexus.repository.maven.internal.Attributes.P_ARTIFACT_ID;
+import static org.sonatype.nexus.repository.maven.internal.Attributes.P_GROUP_ID;
+import static org.sonatype.nexus.repository.maven.internal.Attributes.P_PACKAGING;
+import static org.sonatype.nexus.repository.maven.internal.Attributes.P_VERSION;
+
+/**
+ * Tests for {@link MavenHostedFacetImpl} archetype catalog maintenance.
+ */
+public class MavenHostedFacetImplTest
+    extends TestSupport
+{
+  private static final int CALLERS = 4;
+
+  @Mock
+  private Repository repository;
+
+  @Mock
+  private StorageTx tx;
+
+  private MavenHostedFacetImpl underTest;
+
+  private ExecutorService executor;
+
+  @Before
+  public void setUp() throws Exception {
+    when(repository.getName()).thenReturn("maven-releases");
+
+    underTest = spy(new MavenHostedFacetImpl(mock(MetadataRebuilder.class)));
+    underTest.attach(repository);
+
+    executor = Executors.newFixedThreadPool(CALLERS);
+  }
+
+  @After
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void archetypeModelIsLoadedOnce() throws Exception {
+    doReturn(ImmutableList.of(archetype("a"))).when(underTest).getArchetypes(tx);
+
+    assertThat(underTest.loadArchetypes(tx).keySet(), contains("org.example:a:1.0"));
+    assertThat(underTest.loadArchetypes(tx).keySet(), contains("org.example:a:1.0"));
+
+    verify(underTest, times(1)).getArchetypes(tx);
+  }
+
+  @Test
+  public void archetypeModelIsUpdatedIncrementally() throws Exception {
+    doReturn(ImmutableList.of(archetype("a"))).when(underTest).getArchetypes(tx);
+    underTest.loadArchetypes(tx);
+
+    assertThat(underTest.updateArchetypes(event(ComponentCreatedEvent.class, "b", "maven-archetype")), is(true));
+    assertThat(underTest.loadArchetypes(tx).keySet(), contains("org.example:a:1.0", "org.example:b:1.0"));
+
+    assertThat(underTest.updateArchetypes(event(ComponentDeletedEvent.class, "a", "maven-archetype")), is(true));
+    assertThat(underTest.loadArchetypes(tx).keySet(), contains("org.example:b:1.0"));
+
+    // a component whose packaging changed away from maven-archetype leaves the catalog
+    assertThat(underTest.updateArchetypes(event(ComponentCreatedEvent.class, "b", "jar")), is(true));
+    assertThat(underTest.loadArchetypes(tx).keySet(), is(empty()));
+
+    // other components do not affect the catalog
+    assertThat(underTest.updateArchetypes(event(ComponentCreatedEvent.class, "c", "jar")), is(false));
+
+    verify(underTest, times(1)).getArchetypes(tx);
+  }
+
+  @Test
+  public void archetypeModelChangedWhileLoadingIsReloaded() throws Exception {
+    doAnswer(invocation -> {
+      underTest.updateArchetypes(event(ComponentCreatedEvent.class, "b", "maven-archetype"));
+      return ImmutableList.of(archetype("a"));
+    }).doReturn(ImmutableList.of(archetype("a"), archetype("b"))).when(underTest).getArchetypes(tx);
+
+    assertThat(underTest.loadArchetypes(tx).keySet(), contains("org.example:a:1.0"));
+    assertThat(underTest.loadArchetypes(tx).keySet(), contains("org.example:a:1.0", "org.example:b:1.0"));
+    assertThat(underTest.loadArchetypes(tx).keySet(), contains("org.example:a:1.0", "org.example:b:1.0"));
+
+    verify(underTest, times(2)).getArchetypes(tx);
+  }
+
+  @Test
+  public void concurrentRebuildsAreCoalesced() throws Exception {
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    doAnswer(invocation -> {
+      started.countDown();
+      release.await();
+      return 42;
+    }).when(underTest).doRebuildArchetypeCatalog();
+
+    List<Future<Integer>> results = new ArrayList<>();
+    List<Thread> callers = Collections.synchronizedList(new ArrayList<>());
+    results.add(executor.submit(() -> underTest.rebuildArchetypeCatalog()));
+    assertThat(started.await(10, TimeUnit.SECONDS), is(true));
+    for (int i = 1; i < CALLERS; i++) {
+      results.add(executor.submit(() -> {
+        callers.add(Thread.currentThread());
+        return underTest.rebuildArchetypeCatalog();
+      }));
+    }
+
+    // only complete the rebuild once all other callers wait for it
+    awaitWaiting(callers, CALLERS - 1);
+    release.countDown();
+
+    for (Future<Integer> result : results) {
+      assertThat(result.get(10, TimeUnit.SECONDS), is(42));
+    }
+    verify(underTest, times(1)).doRebuildArchetypeCatalog();
+
+    // a later request starts a new rebuild
+    assertThat(underTest.rebuildArchetypeCatalog(), is(42));
+    verify(underTest, times(2)).doRebuildArchetypeCatalog();
+  }
+
+  private static void awaitWaiting(final List<Thread> threads, final int count) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 10_000;
+    while (System.currentTimeMillis() < deadline) {
+      synchronized (threads) {
+        if (threads.size() == count && threads.stream().allMatch(t -> t.getState() == Thread.State.WAITING)) {
+          return;
+        }
+      }
+      Thread.sleep(10);
+    }
+    throw new AssertionError("Callers did not wait for the in-flight rebuild");
+  }
+
+  private static Archetype archetype(final String artifactId) {
+    Archetype archetype = new Archetype();
+    archetype.setGroupId("org.example");
+    archetype.setArtifactId(artifactId);
+    archetype.setVersion("1.0");
+    return archetype;
+  }
+
+  private static ComponentEvent event(final Class<? extends ComponentEvent> type,
+                                      final String artifactId,
+                                      final String packaging)
+  {
+    Map<String, Object> attributes = new HashMap<>();
+    attributes.put(P_GROUP_ID, "org.example");
+    attributes.put(P_ARTIFACT_ID, artifactId);
+    attributes.put(P_VERSION, "1.0");
+    attributes.put(P_PACKAGING, packaging);
+    Component component = mock(Component.class);
+    when(component.formatAttributes()).thenReturn(new NestedAttributesMap("maven2", attributes));
+    ComponentEvent event = mock(type);
+    when(event.getComponent()).thenReturn(component);
+    return event;
+  }
+}
@@ -0,0 +1,97 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2008-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.repository.maven.internal.proxy;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.sonatype.goodies.testsupport.TestSupport;
+import org.sonatype.nexus.repository.Repository;
+import org.sonatype.nexus.repository.http.HttpMethods;
+import org.sonatype.nexus.repository.maven.MavenPath;
+import org.sonatype.nexus.repository.maven.internal.Maven2MavenPathParser;
+import org.sonatype.nexus.repository.view.Context;
+import org.sonatype.nexus.repository.view.Request;
+
+import org.junit.Test;
+import org.mockito.Mock;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * Tests for {@link MavenProxyFacet} prefetch policy.
+ */
+public class MavenProxyFacetTest
+    extends TestSupport
+{
+  private final Maven2MavenPathParser pathParser = new Maven2MavenPathParser();
+
+  @Mock
+  private Repository repository;
+
+  private List<String> prefetchPaths(final boolean prefetchSources, final String path) throws Exception {
+    MavenProxyFacet underTest = new MavenProxyFacet(prefetchSources);
+    underTest.attach(repository);
+
+    Context context = new Context(repository, new Request.Builder().action(HttpMethods.GET).path("/" + path).build());
+    context.getAttributes().set(MavenPath.class, pathParser.parsePath(path));
+
+    List<Context> contexts = underTest.getPrefetchContexts(context);
+    assertThat(contexts.stream().map(c -> c.getAttributes().require(MavenPath.class).getPath()
+        .equals(c.getRequest().getPath().substring(1))).collect(Collectors.toList()), everyItem(is(true)));
+    return contexts.stream().map(c -> c.getRequest().getPath()).collect(Collectors.toList());
+  }
+
+  @Test
+  public void jarPrefetchesHashAndPom() throws Exception {
+    assertThat(prefetchPaths(false, "org/example/foo/1.0/foo-1.0.jar"), contains(
+        "/org/example/foo/1.0/foo-1.0.jar.sha1",
+        "/org/example/foo/1.0/foo-1.0.pom",
+        "/org/example/foo/1.0/foo-1.0.pom.sha1"
+    ));
+  }
+
+  @Test
+  public void jarPrefetchesSourcesWhenEnabled() throws Exception {
+    assertThat(prefetchPaths(true, "org/example/foo/1.0/foo-1.0.jar"), contains(
+        "/org/example/foo/1.0/foo-1.0.jar.sha1",
+        "/org/example/foo/1.0/foo-1.0.pom",
+        "/org/example/foo/1.0/foo-1.0.pom.sha1",
+        "/org/example/foo/1.0/foo-1.0-sources.jar"
+    ));
+  }
+
+  @Test
+  public void pomPrefetchesHash() throws Exception {
+    assertThat(prefetchPaths(true, "org/example/foo/1.0/foo-1.0.pom"), contains(
+        "/org/example/foo/1.0/foo-1.0.pom.sha1"
+    ));
+  }
+
+  @Test
+  public void classifiedArtifactPrefetchesHash() throws Exception {
+    assertThat(prefetchPaths(true, "org/example/foo/1.0/foo-1.0-tests.jar"), contains(
+        "/org/example/foo/1.0/foo-1.0-tests.jar.sha1"
+    ));
+  }
+
+  @Test
+  public void nothingPrefetchedForSubordinatesAndMetadata() throws Exception {
+    assertThat(prefetchPaths(true, "org/example/foo/1.0/foo-1.0.jar.sha1"), is(empty()));
+    assertThat(prefetchPaths(true, "org/example/foo/maven-metadata.xml"), is(empty()));
+  }
+}
@@ -24,6 +24,8 @@ import org.sonatype.nexus.repository.view.Content;
 import org.sonatype.nexus.repository.view.Context;
 import org.sonatype.nexus.repository.view.matchers.token.TokenMatcher;
 
+import static com.google.common.base.Preconditions.checkArgument;
+
 /**
  * @since 3.0
  */
@@ -53,6 +55,13 @@ public class RawProxyFacet
     return componentPath(context);
   }
 
+  @Override
+  protected Context createPrefetchContext(final String path) {
+    Context context = super.createPrefetchContext(path);
+    checkArgument(new TokenMatcher("/{name:.+}").matches(context), "Invalid path: %s", path);
+    return context;
+  }
+
   /**
    * Determines what 'component' this request relates to.
    */